@@ -0,0 +1,588 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Self-balancing AVL tree as given in <a href='http://en.wikipedia.org/wiki/AVL_tree'>Wikipedia</a>. Heights
+ * of the sub-trees of every node differ by at most one, so the depth is at most about 1.44 log n against
+ * 2 log n for a red-black tree, which makes lookups cheaper at the price of more rotations on changes.
+ * <br>
+ * Every node keeps the height of its sub-tree, updated on the way up from a change, so {@link #depth()} is the
+ * height of the root.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class AVLTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+	private static class Node<E> {
+		Node<E> parent, left, right;
+		E value;
+		int height = 1;//number of nodes on the longest path from this node down
+	}
+	private int size = 0;
+	private Node<E> root;
+
+	@Override
+	public boolean add(E child) {
+		checkNode(child);
+		if(root == null) {
+			root = new Node<E>();
+			root.value = child;
+			size++;
+			return true;
+		}
+		Node<E> parent = root;
+		while(true) {
+			int comparison = child.compareTo(parent.value);
+			if(comparison == 0) {
+				parent.value = child;
+				return false;
+			}
+			Node<E> next = comparison < 0 ? parent.left : parent.right;
+			if(next == null) {
+				Node<E> node = new Node<E>();
+				node.value = child;
+				node.parent = parent;
+				if(comparison < 0)
+					parent.left = node;
+				else
+					parent.right = node;
+				break;
+			}
+			parent = next;
+		}
+		size++;
+		rebalance(parent);
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * An AVL tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Comparable)})
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("An AVL tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	/**
+	 * Unsupported Operation
+	 * An AVL tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.gaurav.tree.Tree#addAll(java.lang.Object, java.util.Collection)
+	 **/
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("An AVL tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Unsupported Operation
+	 * An AVL tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("An AVL tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		Node<E> node = existingNode(e);
+		ArrayList<E> list = new ArrayList<E>(2);
+		if(node.left != null)
+			list.add(node.left.value);
+		if(node.right != null)
+			list.add(node.right.value);
+		return list;
+	}
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		AVLTree<E> clone = null;
+		try {
+			clone = (AVLTree<E>) super.clone();
+			clone.root = null;
+			if(this.root != null) {
+				clone.root = new Node<E>();
+				copy(clone.root, this.root);
+			}
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	private void copy(Node<E> cloneNode, Node<E> node) {
+		ArrayList<Node<E>> stack = new ArrayList<Node<E>>();//pairs of node and its copy
+		stack.add(node);
+		stack.add(cloneNode);
+		while(!stack.isEmpty()) {
+			cloneNode = stack.remove(stack.size() - 1);
+			node = stack.remove(stack.size() - 1);
+			cloneNode.value = node.value;
+			cloneNode.height = node.height;
+			if(node.left != null) {
+				cloneNode.left = new Node<E>();
+				cloneNode.left.parent = cloneNode;
+				stack.add(node.left);
+				stack.add(cloneNode.left);
+			}
+			if(node.right != null) {
+				cloneNode.right = new Node<E>();
+				cloneNode.right.parent = cloneNode;
+				stack.add(node.right);
+				stack.add(cloneNode.right);
+			}
+		}
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		return new TreeHelper().commonAncestor(this, node1, node2);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null)
+			return false;
+		try {
+			return node((E) o) != null;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	@Override
+	public int depth() {
+		return height(root);
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		int level = 0;
+		for(Node<E> node = existingNode(e); node != null; node = node.parent)
+			level++;
+		return level;
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return TreeHelper.subtreeSize(this, e);
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		ArrayList<E> list = new ArrayList<E>(size);
+		for(Iterator<E> i = iterator(); i.hasNext();)
+			list.add(i.next());
+		return list;
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterates the elements in sorted order by following successors, without copying them
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private Node<E> next = root == null ? null : minimum(root);
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+			@Override
+			public E next() {
+				if(next == null)
+					throw new NoSuchElementException();
+				Node<E> node = next;
+				next = successorNode(node);
+				return node.value;
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("elements cannot be removed through an iterator");
+			}
+		};
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		Node<E> node = node(e);
+		return node != null && node.left == null && node.right == null;
+	}
+	@Override
+	public List<E> leaves() {
+		return TreeIterator.toList(traversal(root, Traversal.LEAVES));
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		Node<E> node = existingNode(e);
+		return node.parent == null ? null : node.parent.value;
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.PRE_ORDER));
+	}
+	/**
+	 * @return the next larger element, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		Node<E> node = successorNode(existingNode(value));
+		return node == null ? null : node.value;
+	}
+	/**
+	 * @return the next smaller element, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		Node<E> node = existingNode(value);
+		if(node.left != null) {
+			node = node.left;
+			while(node.right != null)
+				node = node.right;
+			return node.value;
+		}
+		while(node.parent != null && node == node.parent.left)
+			node = node.parent;
+		return node.parent == null ? null : node.parent.value;
+	}
+	/**
+	 * A node with two children takes the value of its successor, whose node is removed instead
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		Node<E> node;
+		try {
+			node = node((E) o);
+		} catch(ClassCastException e) {
+			return false;
+		}
+		if(node == null)
+			return false;
+		if(node.left != null && node.right != null) {
+			Node<E> successor = minimum(node.right);
+			node.value = successor.value;
+			node = successor;
+		}
+		Node<E> child = node.left != null ? node.left : node.right;
+		replace(node, child);
+		size--;
+		rebalance(node.parent);
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Missing children count as empty slots, so in-order traversal is sorted as {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingNode(from), order);
+	}
+	private Iterator<E> traversal(Node<E> from, Traversal order) {
+		return new TreeIterator<E, Node<E>>(order, from) {
+			@Override
+			protected E element(Node<E> node) {
+				return node.value;
+			}
+			@Override
+			protected void children(Node<E> node, List<Node<E>> children) {
+				children.add(node.left);
+				children.add(node.right);
+			}
+		};
+	}
+	@Override
+	public E root() {
+		return root == null ? null : root.value;
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		Node<E> node = existingNode(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(node.parent != null) {
+			Node<E> sibling = node.parent.left == node ? node.parent.right : node.parent.left;
+			if(sibling != null)
+				siblings.add(sibling.value);
+		}
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		Node<E> node = existingNode(parent).left;
+		return node == null ? null : node.value;
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		Node<E> node = existingNode(parent).right;
+		return node == null ? null : node.value;
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof AVLTree) {
+			try {
+				return new TreeHelper().isEqual((AVLTree<E>) o, this, ((AVLTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	/**
+	 * @return node of e, or null if it is not present
+	 */
+	private Node<E> node(E e) {
+		Node<E> node = root;
+		while(node != null) {
+			int comparison = e.compareTo(node.value);
+			if(comparison == 0)
+				return node;
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+	private Node<E> existingNode(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Node<E> node = node(e);
+		if(node == null)
+			throw new NodeNotFoundException("No node was found for object");
+		return node;
+	}
+	private Node<E> minimum(Node<E> node) {
+		while(node.left != null)
+			node = node.left;
+		return node;
+	}
+	private Node<E> successorNode(Node<E> node) {
+		if(node.right != null)
+			return minimum(node.right);
+		while(node.parent != null && node == node.parent.right)
+			node = node.parent;
+		return node.parent;
+	}
+	private List<E> getCurrentList() {
+		return inOrderTraversal();
+	}
+	private static int height(Node<?> node) {
+		return node == null ? 0 : node.height;
+	}
+	private static void updateHeight(Node<?> node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+	}
+	/**
+	 * Puts the sub-tree at by in place of the sub-tree at of
+	 */
+	private void replace(Node<E> of, Node<E> by) {
+		if(by != null)
+			by.parent = of.parent;
+		if(of.parent == null)
+			root = by;
+		else if(of.parent.left == of)
+			of.parent.left = by;
+		else
+			of.parent.right = by;
+	}
+	//http://upload.wikimedia.org/wikipedia/commons/2/23/Tree_rotation.png
+	private Node<E> rotateLeft(Node<E> p) {
+		Node<E> q = p.right;
+		p.right = q.left;
+		if(q.left != null)
+			q.left.parent = p;
+		replace(p, q);
+		q.left = p;
+		p.parent = q;
+		updateHeight(p);
+		updateHeight(q);
+		return q;
+	}
+	//http://upload.wikimedia.org/wikipedia/commons/2/23/Tree_rotation.png
+	private Node<E> rotateRight(Node<E> q) {
+		Node<E> p = q.left;
+		q.left = p.right;
+		if(p.right != null)
+			p.right.parent = q;
+		replace(q, p);
+		p.right = q;
+		q.parent = p;
+		updateHeight(q);
+		updateHeight(p);
+		return p;
+	}
+	/**
+	 * Updates heights from node up to the root, rotating where the heights of the sub-trees differ by two
+	 */
+	private void rebalance(Node<E> node) {
+		while(node != null) {
+			updateHeight(node);
+			int balance = height(node.left) - height(node.right);
+			if(balance > 1) {
+				if(height(node.left.left) < height(node.left.right))
+					rotateLeft(node.left);
+				node = rotateRight(node);
+			} else if(balance < -1) {
+				if(height(node.right.right) < height(node.right.left))
+					rotateRight(node.right);
+				node = rotateLeft(node);
+			}
+			node = node.parent;
+		}
+	}
+	/**
+	 * For testing, checks the heights kept by the nodes, their balance and the links between them
+	 * @return true if the tree is a valid AVL tree
+	 */
+	boolean isBalanced() {
+		ArrayList<Node<E>> stack = new ArrayList<Node<E>>();
+		if(root != null) {
+			if(root.parent != null)
+				return false;
+			stack.add(root);
+		}
+		int count = 0;
+		while(!stack.isEmpty()) {
+			Node<E> node = stack.remove(stack.size() - 1);
+			count++;
+			if(node.height != Math.max(height(node.left), height(node.right)) + 1 || Math.abs(height(node.left) - height(node.right)) > 1)
+				return false;
+			if(node.left != null) {
+				if(node.left.parent != node || node.left.value.compareTo(node.value) >= 0)
+					return false;
+				stack.add(node.left);
+			}
+			if(node.right != null) {
+				if(node.right.parent != node || node.right.value.compareTo(node.value) <= 0)
+					return false;
+				stack.add(node.right);
+			}
+		}
+		return count == size;
+	}
+}
@@ -17,7 +17,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -45,6 +44,14 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	{
 		throw new UnsupportedOperationException("A binary search tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
 	}
+	/**
+	 * A binary search tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * The method throws {@link UnsupportedOperationException}
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A binary search tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
 	/**
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root 
 	 * @see java.util.Collection#add(java.lang.Object)
@@ -55,7 +62,7 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 			if(size() == 0)
 				return addChild(null, child);
 			else {
-				E parent = findParent(root(), child);
+				E parent = findParent(child);
 				return addChild(parent, child, parent.compareTo(child) > 0 ? 0 : 1);
 			}
 		} catch (NodeNotFoundException e) {
@@ -243,16 +250,24 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		return depth;
 	}
 	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return TreeHelper.level(this, e);
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return TreeHelper.subtreeSize(this, e);
+	}
+	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inorderOrderTraversal(0, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return inorderOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.IN_ORDER));
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -273,38 +288,24 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		return getCurrentList().iterator();
 	}
 	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		int index = nodeList.indexOf(e);
+		return index > -1 && isChildrenArrayEmpty(childrenArray.get(index));
+	}
+	@Override
 	public List<E> leaves() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return leaves(rootIndex, new ArrayList<E>());
-	}
-	private List<E> leaves(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			int chidrenLength = children.length;
-			for(int len = (int)Math.ceil((double)chidrenLength / 2); i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-			if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-				list.add(nodeList.get(nodeIndex));
-			for(int len = chidrenLength; i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-		} else if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-			list.add(nodeList.get(nodeIndex));
-		return list;
+			return TreeIterator.toList(traversal(rootIndex, Traversal.LEAVES));
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
-		else {
-			LinkedList<Integer> queue = new LinkedList<Integer>();
-			queue.add(0);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		else
+			return TreeIterator.toList(traversal(rootIndex, Traversal.LEVEL_ORDER));
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -322,13 +323,13 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return postOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.POST_ORDER));
 	}
 	public List<E> preOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return preOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.PRE_ORDER));
 	}
 	/**
 	 * Deletes node as mentioned in <a href="http://en.wikipedia.org/wiki/Binary_search_tree#Deletion">BST</a>.
@@ -386,7 +387,7 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 				parentList.set(i, parentIndex);
 		Arrays.fill(childrenArray.get(index), -1);
 		parentList.set(index, -1);
-		depth = recalculateDepth(rootIndex, 0);		
+		depth = recalculateDepth();		
 	}
 	private void deleteCase1(int index) {
 		Integer parentIndex = parentList.set(index, -1);
@@ -397,7 +398,7 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		size--;
 		Arrays.fill(childrenArray.get(index), -1);
 		parentList.set(index, -1);
-		depth = recalculateDepth(rootIndex, 0);
+		depth = recalculateDepth();
 	}
 	@Override
 	public E successor(E node) throws NodeNotFoundException {
@@ -440,6 +441,52 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
 	}
 
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. The traversal follows the indexes of the children, so in-order traversal is
+	 * sorted as {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingIndex(from), order);
+	}
+	/**
+	 * Traverses the sub-tree rooted at the node at index iteratively, so that deep trees do not overflow the
+	 * call stack
+	 */
+	private Iterator<E> traversal(int index, Traversal order) {
+		return new TreeIterator<E, Integer>(order, index) {
+			@Override
+			protected E element(Integer node) {
+				return nodeList.get(node);
+			}
+			@Override
+			protected void children(Integer node, List<Integer> children) {
+				for(int i : childrenArray.get(node))
+					children.add(i > -1 ? Integer.valueOf(i) : null);
+			}
+		};
+	}
 	@Override
 	public E root() {
 		if(isEmpty())
@@ -503,6 +550,13 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
+	private int existingIndex(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int index = nodeList.indexOf(e);
+		if(index == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		return index;
+	}
 
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
@@ -513,80 +567,47 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 				return i;
 		return -1;
 	}
-	private List<E> inorderOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.length / 2); i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-			list.add(nodeList.get(nodeIndex));
-			for(int len = children.length; i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-		}
-		else
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
 	private boolean isChildrenArrayEmpty(int[] children) {
 		for (int i = 0; i < children.length; i++)
 			if(children[i] != -1)
 				return false;
 		return true;
 	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Integer> queue) {
-		while(!queue.isEmpty()) {
-			list.add(nodeList.get(queue.getFirst()));
-			for(int i : childrenArray.get(queue.getFirst()))
-				if(i > -1)
-					queue.add(i);
-			queue.remove();
+	/**
+	 * @return number of nodes on the longest path from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		IntList stack = new IntList();//pairs of node and its level
+		stack.add(rootIndex);
+		stack.add(1);
+		while(!stack.isEmpty()) {
+			int level = stack.removeLast();
+			int index = stack.removeLast();
+			depth = Math.max(depth, level);
+			for(int i : childrenArray.get(index))
+				if(i > -1) {
+					stack.add(i);
+					stack.add(level + 1);
+				}
 		}
-		return list;
-	}
-	private List<E> postOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		for(int  i :  childrenArray.get(nodeIndex))
-			if(i > -1)
-				postOrderTraversal(i, list);
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> preOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		for(int i : childrenArray.get(nodeIndex))
-			if(i > -1)
-				preOrderTraversal(i, list);
-		return list;
-	}
-	private int recalculateDepth(int index, int depth) {
-		int childDepth = depth + 1;
-		if(isChildrenArrayEmpty(childrenArray.get(index)))
-			return childDepth;
-		for(int i : childrenArray.get(index))
-			if(i != -1)
-				depth = Math.max(depth, recalculateDepth(i, childDepth));
 		return depth;
 	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
-	private E findParent(E root, E child) throws NodeNotFoundException {
-		if(child.compareTo(root) > 0) {
-			E right = right(root);
-			if(right != null)
-				return findParent(right, child);
-			else
-				return root;
-		} else {
-			E left = left(root);
-			if(left != null)
-				return findParent(left, child);
-			else
-				return root;
+	/**
+	 * Descends from the root following the indexes of the children, without searching the node list or recursing
+	 * @return node under which child is to be added
+	 */
+	private E findParent(E child) {
+		int index = rootIndex;
+		while(true) {
+			int next = childrenArray.get(index)[child.compareTo(nodeList.get(index)) > 0 ? 1 : 0];
+			if(next == -1)
+				return nodeList.get(index);
+			index = next;
 		}
 	}
 	/**
@@ -13,11 +13,15 @@
  */
 package com.gaurav.tree;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
 
 /**
  * This is a general purpose tree where each node is free to have any number of children
@@ -27,13 +31,18 @@ import java.util.List;
  *
  * @param <E>
  */
-public class ArrayListTree<E> implements Tree<E>, Cloneable {
+public class ArrayListTree<E> implements PreOrderTree<E>, Cloneable {
 	private ArrayList<E> nodeList = new ArrayList<E>();
 	private ArrayList<Integer> parentList = new ArrayList<Integer>();
 	private ArrayList<ArrayList<Integer>> childrenList = new ArrayList<ArrayList<Integer>>();
 	private int size = 0;
 	private int depth = 0;
+	private boolean depthStale = false;//set when a move may have changed the depth
 	private int rootIndex = -1;
+	private IntList hashList = new IntList();//hash of the subtree rooted at every node
+	private IntList levelList = new IntList();//number of nodes on the path from the root to every node
+	private IntList sizeList = new IntList();//number of nodes in the subtree rooted at every node
+	private LeafIndex<E> leafIndex;//null unless leaves are indexed
 	
 	/**
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root 
@@ -59,20 +68,25 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		if(parentIndex > -1) {
 			int childIndex = nodeList.indexOf(child);
 			if(childIndex == -1) {
+				int position = childPosition(parentIndex, child);
+				if(leafIndex != null)
+					leafIndex.insertAfter(leafPosition(parentIndex, position), child);
 				nodeList.add(child);
 				parentList.add(parentIndex);
-				childrenList.get(parentIndex).add(nodeList.size() - 1);
+				childrenList.get(parentIndex).add(position, nodeList.size() - 1);
 				childrenList.add(new ArrayList<Integer>());
+				hashList.add(subtreeHash(nodeList.size() - 1));
+				levelList.add(levelList.get(parentIndex) + 1);
+				sizeList.add(1);
+				rehash(parentIndex);
+				resize(parentIndex, 1);
 				size++;
-				int currentDepth = 2;
-				while(parentIndex > 0) {
-					currentDepth++;
-					parentIndex = parentList.get(parentIndex);
-				}
-				depth = Math.max(currentDepth, depth);
+				depth = Math.max(levelList.get(nodeList.size() - 1), depth);
 				return true;
 			} else {
 				nodeList.set(childIndex, child);
+				if(leafIndex != null)
+					leafIndex.update(child);
 				return false;
 			}
 		} else
@@ -93,6 +107,11 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		rootIndex = nodeList.size() - 1;
 		parentList.add(-1);
 		childrenList.add(new ArrayList<Integer>());
+		hashList.add(subtreeHash(rootIndex));
+		levelList.add(1);
+		sizeList.add(1);
+		if(leafIndex != null)
+			leafIndex.insertAfter(null, child);
 		size++;
 		depth++;		
 	}
@@ -105,6 +124,31 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	protected int getChildAddPosition(List<E> children, E newChild) {
 		return children.size();
 	}
+	/**
+	 * @return index in the children of the node at parentIndex at which child is to be added, as defined by
+	 * {@link #getChildAddPosition(List, Object)}
+	 */
+	private int childPosition(int parentIndex, E child) {
+		return getChildAddPosition(new ChildList(childrenList.get(parentIndex)), child);
+	}
+	/**
+	 * Children of a node as elements, read through from their indices without copying them
+	 */
+	private class ChildList extends AbstractList<E> implements RandomAccess {
+		private final ArrayList<Integer> children;
+
+		ChildList(ArrayList<Integer> children) {
+			this.children = children;
+		}
+		@Override
+		public E get(int index) {
+			return nodeList.get(children.get(index));
+		}
+		@Override
+		public int size() {
+			return children.size();
+		}
+	}
 	@Override
 	public boolean addAll(Collection<? extends E> c) {
 		boolean retVal = false;
@@ -155,8 +199,14 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		nodeList.clear();
 		parentList.clear();
 		childrenList.clear();
+		hashList.clear();
+		levelList.clear();
+		sizeList.clear();
+		if(leafIndex != null)
+			leafIndex.clear();
 		size = 0;
 		depth = 0;
+		depthStale = false;
 		rootIndex = -1;
 	}
 	@SuppressWarnings("unchecked")
@@ -168,15 +218,42 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 			v.nodeList = (ArrayList<E>) nodeList.clone();
 			v.parentList = (ArrayList<Integer>) parentList.clone();
 			v.childrenList = new ArrayList<ArrayList<Integer>>();
+			v.hashList = hashList.copy();
+			v.levelList = levelList.copy();
+			v.sizeList = sizeList.copy();
 			v.size = this.size;
 			v.depth = this.depth;
 			for(int i = 0; i < childrenList.size(); i++)
 				v.childrenList.add((ArrayList<Integer>) childrenList.get(i).clone());
+			if(leafIndex != null) {
+				v.leafIndex = null;
+				v.setLeafIndexed(true);
+			}
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
 		return v;
 	}
+	/**
+	 * @return empty tree of the same class, sharing the settings of this tree e.g. k of a {@link KAryTree}
+	 */
+	@SuppressWarnings("unchecked")
+	private ArrayListTree<E> emptyCopy() {
+		try {
+			ArrayListTree<E> v = (ArrayListTree<E>) super.clone();
+			v.nodeList = new ArrayList<E>();
+			v.parentList = new ArrayList<Integer>();
+			v.childrenList = new ArrayList<ArrayList<Integer>>();
+			v.hashList = new IntList();
+			v.levelList = new IntList();
+			v.sizeList = new IntList();
+			v.leafIndex = leafIndex == null ? null : new LeafIndex<E>();
+			v.clear();
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		int height1 = 0;
@@ -221,19 +298,23 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	}
 	@Override
 	public int depth() {
+		if(depthStale) {
+			depth = isEmpty() ? 0 : recalculateDepth();
+			depthStale = false;
+		}
 		return depth;
 	}
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inorderOrderTraversal(0, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return inorderOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.IN_ORDER));
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -257,36 +338,55 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	public Iterator<E> iterator() {
 		return getCurrentList().iterator();
 	}
+	/**
+	 * Takes time linear in the number of leaves if leaves are indexed, otherwise the tree is traversed
+	 * @see com.gaurav.tree.Tree#leaves()
+	 */
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
+		if(leafIndex != null)
+			return leafIndex.toList();
+		else if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return leaves(rootIndex, new ArrayList<E>());
-	}
-	private List<E> leaves(int nodeIndex, ArrayList<E> list) {
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		if(children.size() > 0)	{
-			int i = 0;
-			for(; i < (int)Math.ceil((double)children.size() / 2); i++)
-				leaves(children.get(i), list);
-			if(childrenList.get(nodeIndex).isEmpty())
-				list.add(nodeList.get(nodeIndex));
-			for(; i < children.size(); i++)
-				leaves(children.get(i), list);
-		} else if(childrenList.get(nodeIndex).isEmpty())
-			list.add(nodeList.get(nodeIndex));
-		return list;
+			return TreeIterator.toList(traversal(rootIndex, Traversal.LEAVES));
+	}
+	/**
+	 * Takes constant time if leaves are indexed, otherwise the node is searched
+	 * @see com.gaurav.tree.Tree#isLeaf(java.lang.Object)
+	 */
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		if(leafIndex != null)
+			return leafIndex.contains(e);
+		int index = nodeList.indexOf(e);
+		return index > -1 && childrenList.get(index).isEmpty();
+	}
+	/**
+	 * Indexes the leaves so that they are kept up to date on every change, making {@link #leaves()} take time
+	 * linear in the number of leaves and {@link #isLeaf(Object)} constant time at the cost of hashing the leaves.
+	 * Enabling the index lists the leaves once and disabling it drops the index.
+	 * @param leafIndexed true to index the leaves
+	 */
+	public void setLeafIndexed(boolean leafIndexed) {
+		if(!leafIndexed)
+			leafIndex = null;
+		else if(leafIndex == null) {
+			LeafIndex<E> index = new LeafIndex<E>();
+			index.insertAfter(null, leaves());
+			leafIndex = index;
+		}
+	}
+	public boolean isLeafIndexed() {
+		return leafIndex != null;
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
-		else {
-			LinkedList<Integer> queue = new LinkedList<Integer>();
-			queue.add(0);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		else
+			return TreeIterator.toList(traversal(rootIndex, Traversal.LEVEL_ORDER));
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -304,16 +404,173 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return postOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.POST_ORDER));
 	}
 	@Override
 	public List<E> preOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return preOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.PRE_ORDER));
+	}
+	@Override
+	public void preOrder(List<E> nodes, IntList parents, IntList slots) {
+		if(!isEmpty())
+			preOrder(rootIndex, nodes, parents);
+	}
+	/**
+	 * Appends the nodes of the sub-tree rooted at index to nodes in pre-order, along with the positions of their
+	 * parents in nodes
+	 */
+	private void preOrder(int index, List<E> nodes, IntList parents) {
+		int offset = nodes.size();
+		NodeCursor cursor = new NodeCursor(index);
+		while(cursor.next()) {
+			parents.add(cursor.parent() == -1 ? -1 : offset + cursor.parent());
+			nodes.add(cursor.element());
+		}
+	}
+	@Override
+	public Cursor<E> preOrderCursor() {
+		return new NodeCursor(isEmpty() ? -1 : rootIndex);
+	}
+	@Override
+	public void load(List<E> nodes, IntList parents, IntList slots) {
+		clear();
+		splice(-1, nodes, parents);
+	}
+	@Override
+	public Loader<E> loader() {
+		clear();
+		return new NodeLoader(-1);
+	}
+	/**
+	 * Adds the nodes listed in pre-order as the last child of the node at parentIndex, or as the whole tree if
+	 * parentIndex is -1
+	 */
+	void splice(int parentIndex, List<E> nodes, IntList parents) {
+		NodeLoader loader = new NodeLoader(parentIndex);
+		for(int i = 0; i < nodes.size(); i++)
+			loader.add(nodes.get(i), parents.get(i), -1);
+		loader.finish();
+	}
+	/**
+	 * Called before a node is loaded under a parent having count children, so that trees limiting the number of
+	 * children can reject it
+	 */
+	void checkChildCount(int count) {
+	}
+	/**
+	 * Copies the sub-tree rooted at node to a new tree of the same class, in time linear in the size of the
+	 * sub-tree
+	 * @param node root of the sub-tree
+	 * @return new tree whose root is node
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public ArrayListTree<E> subtree(E node) throws NodeNotFoundException {
+		checkNode(node);
+		int index = nodeList.indexOf(node);
+		if(index == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		ArrayList<E> nodes = new ArrayList<E>();
+		IntList parents = new IntList();
+		preOrder(index, nodes, parents);
+		ArrayListTree<E> tree = emptyCopy();
+		tree.load(nodes, parents, null);
+		return tree;
+	}
+	/**
+	 * Copies all the nodes of other under parent, so that the root of other becomes a child of parent at the
+	 * position given by {@link #getChildAddPosition(List, Object)}, which is the last one unless a sub-class orders children.
+	 * Nodes are added in time linear in the size of both the trees, as nodes of this tree are not indexed, and depth is updated once.
+	 * Parent is found and the nodes of other are checked to be absent in a single pass over the nodes of this tree.
+	 * @param parent node under which other is copied. Parent is allowed to be null only when this tree is empty.
+	 * In that case, the root of other becomes the root of this tree
+	 * @param other tree to be copied. It is not changed
+	 * @throws NodeNotFoundException if parent is not found
+	 * @throws IllegalArgumentException if a node of other is already present in this tree
+	 */
+	public void attach(E parent, Tree<E> other) throws NodeNotFoundException {
+		if(parent == null && !isEmpty())
+			throw new IllegalArgumentException("parent cannot be null except for root element. The tree already has a root.");
+		ArrayList<E> nodes = new ArrayList<E>(other.size());
+		IntList parents = new IntList(other.size());
+		TreeHelper.preOrder(other, nodes, parents);
+		HashSet<E> attached = new HashSet<E>(nodes);
+		int parentIndex = -1;
+		E present = null;
+		for(int i = 0; i < nodeList.size(); i++) {
+			E node = nodeList.get(i);
+			if(node == null)
+				continue;
+			if(present == null && attached.contains(node))
+				present = node;
+			if(parentIndex == -1 && node.equals(parent))
+				parentIndex = i;
+		}
+		if(parent != null && parentIndex == -1)
+			throw new NodeNotFoundException("No node was found for parent object");
+		if(present != null)
+			throw new IllegalArgumentException(present + " is already present in the tree");
+		splice(parentIndex, nodes, parents);
+	}
+	/**
+	 * Relinks the node to newParent, so that only the parent of the node and the children of its old and new
+	 * parent change. Levels of the sub-tree are shifted if the node changes level, in which case depth is raised
+	 * if the sub-tree went deeper and otherwise recalculated by the next call to {@link #depth()}
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		checkNode(node);
+		checkNode(newParent);
+		int index = nodeList.indexOf(node);
+		int newParentIndex = nodeList.indexOf(newParent);
+		if(index == -1 || newParentIndex == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		if(index == rootIndex)
+			throw new IllegalArgumentException("root cannot be moved");
+		for(int i = newParentIndex; i > -1; i = parentList.get(i))
+			if(i == index)
+				throw new IllegalArgumentException("node cannot be moved to its own sub-tree");
+		int oldParentIndex = parentList.get(index);
+		List<E> leaves = null;
+		if(leafIndex != null)
+			leaves = unindexLeaves(index);
+		childrenList.get(oldParentIndex).remove(Integer.valueOf(index));
+		if(leafIndex != null) {
+			E previous = leaves.remove(leaves.size() - 1);
+			if(childrenList.get(oldParentIndex).isEmpty())
+				leafIndex.insertAfter(previous, nodeList.get(oldParentIndex));
+		}
+		int position = childPosition(newParentIndex, node);
+		if(leafIndex != null)
+			leafIndex.insertAfter(leafPosition(newParentIndex, position), leaves);
+		childrenList.get(newParentIndex).add(position, index);
+		parentList.set(index, newParentIndex);
+		rehash(oldParentIndex);
+		rehash(newParentIndex);
+		resize(oldParentIndex, -sizeList.get(index));
+		resize(newParentIndex, sizeList.get(index));
+		relevel(index, levelList.get(newParentIndex) + 1);
+	}
+	/**
+	 * Level is kept for every node and updated when nodes are added or moved, so only the node is searched
+	 * @see com.gaurav.tree.Tree#level(java.lang.Object)
+	 */
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return levelList.get(existingIndex(e));
+	}
+	/**
+	 * Size of the sub-tree is kept for every node and updated along the path to the root when nodes are added,
+	 * moved or removed, so only the node is searched
+	 * @see com.gaurav.tree.Tree#subtreeSize(java.lang.Object)
+	 */
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return sizeList.get(existingIndex(e));
 	}
-
 	/**
 	 * Removes the sub-tree rooted at the node passed
 	 * @see java.util.Collection#remove(java.lang.Object)
@@ -325,8 +582,14 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		if(i > -1) {
 			boolean wasRemoved;
 			if(i != rootIndex) {
+				int parentIndex = parentList.get(i);
+				resize(parentIndex, -sizeList.get(i));
+				List<E> leaves = leafIndex == null ? null : unindexLeaves(i);
 				wasRemoved = remove(i);
-				depth = recalculateDepth(rootIndex, 0);
+				if(leafIndex != null && childrenList.get(parentIndex).isEmpty())
+					leafIndex.insertAfter(leaves.get(leaves.size() - 1), nodeList.get(parentIndex));
+				rehash(parentIndex);
+				depth = recalculateDepth();
 			} else {
 				wasRemoved = remove(i);
 				depth = 0;
@@ -335,19 +598,100 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		} else
 			return false;
 	}
-	/** Removes the sub-tree rooted at the nodes in the collection passed
+	/** Removes the sub-tree rooted at the nodes in the collection passed. The nodes are found in one pass over the
+	 * tree and depth and size are recalculated once, however many nodes are removed.
 	 * @see java.util.Collection#removeAll(java.util.Collection)
 	 */
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		boolean retVal = false;
-		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
-			retVal |= remove(iterator.next());
-		return retVal;
+		return removeSubtrees(c, false);
 	}
+	/**
+	 * Removes the sub-trees rooted at the nodes which are not present in the collection passed. A node present
+	 * in the collection is removed as well if any of its ancestors is not.
+	 * @see java.util.Collection#retainAll(java.util.Collection)
+	 */
 	@Override
 	public boolean retainAll(Collection<?> c) {
-		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+		return removeSubtrees(c, true);
+	}
+	/**
+	 * Lists the nodes which are kept in pre-order, skipping the sub-trees of the removed nodes, and loads the
+	 * tree from them, which also drops the slots of the nodes removed earlier
+	 * @param retain true if nodes present in c are kept, false if they are removed
+	 */
+	private boolean removeSubtrees(Collection<?> c, boolean retain) {
+		if(isEmpty())
+			return false;
+		Set<?> set = TreeHelper.asSet(c);
+		ArrayList<E> nodes = new ArrayList<E>(size);
+		IntList parents = new IntList(size);
+		IntList stack = new IntList();
+		IntList parentPositions = new IntList();
+		stack.add(rootIndex);
+		parentPositions.add(-1);
+		while(!stack.isEmpty()) {
+			int index = stack.removeLast();
+			int parentPosition = parentPositions.removeLast();
+			if(set.contains(nodeList.get(index)) != retain)
+				continue;
+			parents.add(parentPosition);
+			int position = nodes.size();
+			nodes.add(nodeList.get(index));
+			ArrayList<Integer> children = childrenList.get(index);
+			for(int i = children.size() - 1; i >= 0; i--) {
+				stack.add(children.get(i));
+				parentPositions.add(position);
+			}
+		}
+		if(nodes.size() == size)
+			return false;
+		load(nodes, parents, null);
+		return true;
+	}
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. The traversal follows the indexes of the children.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingIndex(from), order);
+	}
+	/**
+	 * Traverses the sub-tree rooted at the node at index iteratively, so that deep trees do not overflow the
+	 * call stack
+	 */
+	private Iterator<E> traversal(int index, Traversal order) {
+		return new TreeIterator<E, Integer>(order, index) {
+			@Override
+			protected E element(Integer node) {
+				return nodeList.get(node);
+			}
+			@Override
+			protected void children(Integer node, List<Integer> children) {
+				children.addAll(childrenList.get(node));
+			}
+		};
 	}
 	@Override
 	public E root() {
@@ -387,48 +731,16 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
+	private int existingIndex(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int index = nodeList.indexOf(e);
+		if(index == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		return index;
+	}
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inorderOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		if(children.size() > 0)	{
-			int i = 0;
-			for(; i < (int)Math.ceil((double)children.size() / 2); i++)
-				inorderOrderTraversal(children.get(i), list);
-			list.add(nodeList.get(nodeIndex));
-			for(; i < children.size(); i++)
-				inorderOrderTraversal(children.get(i), list);
-		} else
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Integer> queue) {
-		while(!queue.isEmpty()) {
-			list.add(nodeList.get(queue.getFirst()));
-			ArrayList<Integer> children = childrenList.get(queue.getFirst());
-			for(int i = 0; i < children.size(); i++)
-				queue.add(children.get(i));
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		for(int i = 0; i < children.size(); i++)
-			postOrderTraversal(children.get(i), list);
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> preOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		for(int i = 0; i < children.size(); i++)
-			preOrderTraversal(children.get(i), list);
-		return list;
-	}
 	private boolean remove(int index) {
 		if(index > -1) {
 			if(index == rootIndex) {
@@ -437,49 +749,362 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 				nodeList.clear();
 				parentList.clear();
 				childrenList.clear();
+				hashList.clear();
+				levelList.clear();
+				sizeList.clear();
+				if(leafIndex != null)
+					leafIndex.clear();
 				return true;
 			} else {
 				Integer parentIndex = parentList.set(index, -1);
 				if(parentIndex > -1)//if node is not root
 					childrenList.get(parentIndex).remove(Integer.valueOf(index));
-				nodeList.set(index, null);
-				size--;
-				ArrayList<Integer> children = childrenList.get(index);
-				for (int j = 0; j < children.size();) 
-					remove(children.get(0).intValue());
-				childrenList.get(index).clear();
+				IntList stack = new IntList();//nodes of the sub-tree are unlinked one by one, however deep it is
+				stack.add(index);
+				while(!stack.isEmpty()) {
+					int i = stack.removeLast();
+					nodeList.set(i, null);
+					parentList.set(i, -1);
+					size--;
+					for(Integer child : childrenList.get(i))
+						stack.add(child);
+					childrenList.get(i).clear();
+				}
 				return true;
 			}
 		} else
 			return false;
 	}
-	private int recalculateDepth(int index, int depth) {
-		int childDepth = depth + 1;
-		if(childrenList.get(index).isEmpty())
-			return childDepth;
-		else for(Integer i : childrenList.get(index))
-			depth = Math.max(depth, recalculateDepth(i, childDepth));
+	/**
+	 * @return greatest level of the nodes reachable from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		IntList stack = new IntList();
+		stack.add(rootIndex);
+		while(!stack.isEmpty()) {
+			int index = stack.removeLast();
+			depth = Math.max(depth, levelList.get(index));
+			for(Integer i : childrenList.get(index))
+				stack.add(i);
+		}
 		return depth;
 	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
+	/**
+	 * Hash of the tree is the hash of the subtree of the root, which is kept up to date on every change
+	 * @see java.lang.Object#hashCode()
+	 */
 	@Override
 	public int hashCode() {
-		return getCurrentList().hashCode();
+		if(isEmpty())
+			return 0;
+		else
+			return hashList.get(rootIndex);
 	}
+	/**
+	 * Trees are compared node by node only if their hashes are equal
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean equals(Object o) {
 		if(o != null && o instanceof ArrayListTree) {
-			try {
-				return new TreeHelper().isEqual((ArrayListTree<E>) o, this, ((ArrayListTree<E>) o).root(), root());
-			} catch (NodeNotFoundException e) {
-				e.printStackTrace();
+			ArrayListTree<E> other = (ArrayListTree<E>) o;
+			return hashCode() == other.hashCode() && isEqual(other);
+		} else
+			return false;
+	}
+	/**
+	 * Finds the nodes at which this tree differs from the other tree. Only the subtrees whose hashes differ are
+	 * compared, so the time taken depends on the number of differences and not on the size of the trees.
+	 * @param other tree to compare with
+	 * @return nodes of this tree, in pre-order, whose children differ from the children of the equal node in
+	 * other, and children of such nodes which are not children of the equal node in other. Empty list if the
+	 * trees are equal
+	 */
+	public List<E> diff(ArrayListTree<E> other) {
+		ArrayList<E> list = new ArrayList<E>();
+		if(isEmpty())
+			return list;
+		if(other.isEmpty() || !nodeList.get(rootIndex).equals(other.nodeList.get(other.rootIndex))) {
+			list.add(nodeList.get(rootIndex));
+			return list;
+		}
+		IntList stack = new IntList();//pairs of node of this tree and equal node of other tree, -1 if there is none
+		stack.add(rootIndex);
+		stack.add(other.rootIndex);
+		while(!stack.isEmpty()) {
+			int otherIndex = stack.removeLast();
+			int index = stack.removeLast();
+			if(otherIndex == -1)
+				list.add(nodeList.get(index));
+			else if(hashList.get(index) != other.hashList.get(otherIndex)) {
+				ArrayList<Integer> children = childrenList.get(index);
+				ArrayList<Integer> otherChildren = other.childrenList.get(otherIndex);
+				boolean sameChildren = children.size() == otherChildren.size();
+				for(int i = 0; sameChildren && i < children.size(); i++)
+					sameChildren = nodeList.get(children.get(i)).equals(other.nodeList.get(otherChildren.get(i)));
+				if(sameChildren) {
+					for(int i = children.size() - 1; i >= 0; i--) {
+						stack.add(children.get(i));
+						stack.add(otherChildren.get(i));
+					}
+				} else {
+					list.add(nodeList.get(index));
+					HashMap<E, Integer> otherChildIndexes = new HashMap<E, Integer>();
+					for(Integer i : otherChildren)
+						otherChildIndexes.put(other.nodeList.get(i), i);
+					for(int i = children.size() - 1; i >= 0; i--) {
+						Integer otherChild = otherChildIndexes.get(nodeList.get(children.get(i)));
+						stack.add(children.get(i));
+						stack.add(otherChild == null ? -1 : otherChild);
+					}
+				}
+			}
+		}
+		return list;
+	}
+	private boolean isEqual(ArrayListTree<E> other) {
+		if(isEmpty() || other.isEmpty())
+			return isEmpty() == other.isEmpty();
+		IntList stack = new IntList();
+		stack.add(rootIndex);
+		stack.add(other.rootIndex);
+		while(!stack.isEmpty()) {
+			int otherIndex = stack.removeLast();
+			int index = stack.removeLast();
+			ArrayList<Integer> children = childrenList.get(index);
+			ArrayList<Integer> otherChildren = other.childrenList.get(otherIndex);
+			if(hashList.get(index) != other.hashList.get(otherIndex) || children.size() != otherChildren.size()
+					|| !nodeList.get(index).equals(other.nodeList.get(otherIndex)))
 				return false;
+			for(int i = 0; i < children.size(); i++) {
+				stack.add(children.get(i));
+				stack.add(otherChildren.get(i));
+			}
+		}
+		return true;
+	}
+	/**
+	 * Walks the sub-tree rooted at an index keeping, for every node on the path to the current node, its index,
+	 * its position in pre-order and the number of its children visited
+	 */
+	private class NodeCursor implements Cursor<E> {
+		private final IntList path = new IntList();
+		private final IntList positions = new IntList();
+		private final IntList visited = new IntList();
+		private final int start;
+		private int count = 0;
+		private int parent = -1;
+		private int slot = 0;
+
+		NodeCursor(int start) {
+			this.start = start;
+		}
+		@Override
+		public boolean next() {
+			if(count == 0) {
+				if(start == -1)
+					return false;
+				push(start);
+				return true;
+			}
+			while(!path.isEmpty()) {
+				ArrayList<Integer> children = childrenList.get(path.last());
+				int child = visited.last();
+				if(child < children.size()) {
+					visited.set(visited.size() - 1, child + 1);
+					parent = positions.last();
+					slot = child;
+					push(children.get(child));
+					return true;
+				}
+				path.removeLast();
+				positions.removeLast();
+				visited.removeLast();
 			}
-		} else
 			return false;
+		}
+		private void push(int index) {
+			path.add(index);
+			positions.add(count++);
+			visited.add(0);
+		}
+		@Override
+		public E element() {
+			return nodeList.get(path.last());
+		}
+		@Override
+		public int parent() {
+			return parent;
+		}
+		@Override
+		public int slot() {
+			return slot;
+		}
+	}
+	/**
+	 * Adds nodes passed in pre-order as a child of the node at parentIndex, or as the whole tree if parentIndex
+	 * is -1. Every node is placed among its siblings by {@link #getChildAddPosition(List, Object)}. Levels of the
+	 * new nodes are computed as they are added, and their hashes and sub-tree sizes in one pass back over them
+	 * when loading finishes.
+	 */
+	private class NodeLoader implements Loader<E> {
+		private final int parentIndex;
+		private final int offset = nodeList.size();
+		private E leafPosition = null;
+
+		NodeLoader(int parentIndex) {
+			this.parentIndex = parentIndex;
+		}
+		@Override
+		public void add(E element, int parent, int slot) {
+			int index = nodeList.size();
+			int parentOf = parent == -1 ? parentIndex : offset + parent;
+			int position = -1;
+			if(parentOf > -1) {
+				checkChildCount(childrenList.get(parentOf).size());
+				position = childPosition(parentOf, element);
+			}
+			if(index == offset && leafIndex != null && parentIndex > -1)
+				leafPosition = leafPosition(parentIndex, position);
+			nodeList.add(element);
+			childrenList.add(new ArrayList<Integer>());
+			hashList.add(0);
+			sizeList.add(1);
+			parentList.add(parentOf);
+			if(parentOf > -1) {
+				childrenList.get(parentOf).add(position, index);
+				levelList.add(levelList.get(parentOf) + 1);
+			} else
+				levelList.add(1);
+			depth = Math.max(depth, levelList.get(index));
+		}
+		/**
+		 * Adds the leaves of the loaded sub-tree rooted at index to the leaf index in pre-order, which differs from
+		 * the order in which they were loaded if a sub-class orders children
+		 */
+		private void indexLeaves(int index) {
+			IntList stack = new IntList();
+			stack.add(index);
+			while(!stack.isEmpty()) {
+				int i = stack.removeLast();
+				ArrayList<Integer> children = childrenList.get(i);
+				if(children.isEmpty()) {
+					leafIndex.insertAfter(leafPosition, nodeList.get(i));
+					leafPosition = nodeList.get(i);
+				} else for(int j = children.size() - 1; j >= 0; j--)
+					stack.add(children.get(j));
+			}
+		}
+		@Override
+		public void finish() {
+			int count = nodeList.size() - offset;
+			for(int i = nodeList.size() - 1; i >= offset; i--) {//children follow their parents in pre-order
+				hashList.set(i, subtreeHash(i));
+				if(i > offset)
+					sizeList.set(parentList.get(i), sizeList.get(parentList.get(i)) + sizeList.get(i));
+			}
+			size += count;
+			if(leafIndex != null && count > 0)
+				indexLeaves(offset);
+			if(parentIndex > -1) {
+				rehash(parentIndex);
+				resize(parentIndex, count);
+			}
+			else if(count > 0)
+				rootIndex = offset;
+		}
+	}
+	/**
+	 * Recalculates hashes from the node up to the root, stopping at the first node whose hash does not change
+	 */
+	private void rehash(int index) {
+		while(index > -1) {
+			int hash = subtreeHash(index);
+			if(hash == hashList.get(index))
+				return;
+			hashList.set(index, hash);
+			index = parentList.get(index);
+		}
+	}
+	/**
+	 * Removes the node at parentIndex from the leaf index if it is a leaf, as it is about to get a child
+	 * @return leaf after which the leaves of a new child of the node at position among its children are to be
+	 * inserted, null if they are the first leaves
+	 */
+	private E leafPosition(int parentIndex, int position) {
+		ArrayList<Integer> children = childrenList.get(parentIndex);
+		if(children.isEmpty()) {
+			E previous = leafIndex.previous(nodeList.get(parentIndex));
+			leafIndex.remove(nodeList.get(parentIndex));
+			return previous;
+		}
+		if(position == 0) {
+			int first = children.get(0);
+			while(!childrenList.get(first).isEmpty())
+				first = childrenList.get(first).get(0);
+			return leafIndex.previous(nodeList.get(first));
+		}
+		int index = children.get(position - 1);
+		while(!(children = childrenList.get(index)).isEmpty())
+			index = children.get(children.size() - 1);
+		return nodeList.get(index);
+	}
+	/**
+	 * Removes the leaves of the sub-tree rooted at index, which are consecutive, from the leaf index
+	 * @return leaves removed in their order, followed by the leaf before them or null if there is none
+	 */
+	private List<E> unindexLeaves(int index) {
+		int first = index;
+		while(!childrenList.get(first).isEmpty())
+			first = childrenList.get(first).get(0);
+		int last = index;
+		ArrayList<Integer> children;
+		while(!(children = childrenList.get(last)).isEmpty())
+			last = children.get(children.size() - 1);
+		E previous = leafIndex.previous(nodeList.get(first));
+		List<E> leaves = leafIndex.removeRange(nodeList.get(first), nodeList.get(last));
+		leaves.add(previous);
+		return leaves;
+	}
+	/**
+	 * Adds delta to the sizes of the sub-trees of the node and all its ancestors
+	 */
+	private void resize(int index, int delta) {
+		for(; index > -1; index = parentList.get(index))
+			sizeList.set(index, sizeList.get(index) + delta);
+	}
+	/**
+	 * Shifts the levels of the sub-tree rooted at index so that the node is at level
+	 */
+	private void relevel(int index, int level) {
+		int shift = level - levelList.get(index);
+		if(shift == 0)
+			return;
+		IntList stack = new IntList();
+		stack.add(index);
+		while(!stack.isEmpty()) {
+			int i = stack.removeLast();
+			levelList.set(i, levelList.get(i) + shift);
+			depth = Math.max(depth, levelList.get(i));
+			for(Integer j : childrenList.get(i))
+				stack.add(j);
+		}
+		if(shift < 0)
+			depthStale = true;
+	}
+	/**
+	 * @return hash of the element combined with the hashes of the children in their order
+	 */
+	private int subtreeHash(int index) {
+		int hash = nodeList.get(index).hashCode();
+		for(Integer i : childrenList.get(index))
+			hash = hash * 1000003 + hashList.get(i);
+		return TreeHelper.mix(hash);
 	}
-}
\ No newline at end of file
+}
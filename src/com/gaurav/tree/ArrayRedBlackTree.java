@@ -0,0 +1,780 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Self-balancing red black tree as given in <a href='http://en.wikipedia.org/wiki/Red%E2%80%93black_tree'>Wikipedia</a>,
+ * stored in columns instead of node objects. A node is a slot, an index into parallel arrays of values, of
+ * left, right and parent slots and of colours, so a node costs about 13 bytes besides its value reference
+ * and a descent reads ints from a few arrays instead of following references between objects.
+ * <br>
+ * Slot 0 is the black nil node, which stands for missing children and the parent of the root. Slots of
+ * removed nodes are reused for new ones.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class ArrayRedBlackTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+	private static final int NIL = 0;
+	private Object[] values;
+	private int[] left;
+	private int[] right;
+	private int[] parent;
+	private boolean[] red;
+	private int root = NIL;
+	private int free = NIL;//first free slot, free slots are linked through left
+	private int used = 1;//slots below used have been allocated at least once
+	private int size = 0;
+	private int depth = 0;//-1 once rotations or removals have made it unknown
+
+	public ArrayRedBlackTree() {
+		this(16);
+	}
+	/**
+	 * @param capacity number of elements the tree can hold before it has to grow its arrays
+	 */
+	public ArrayRedBlackTree(int capacity) {
+		capacity = Math.max(capacity, 1) + 1;
+		values = new Object[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		parent = new int[capacity];
+		red = new boolean[capacity];
+	}
+	@Override
+	public boolean add(E child) {
+		checkNode(child);
+		int parentSlot = NIL;
+		int slot = root;
+		int comparison = 0;
+		int level = 1;
+		while(slot != NIL) {
+			comparison = child.compareTo(value(slot));
+			if(comparison == 0) {
+				values[slot] = child;
+				return false;
+			}
+			parentSlot = slot;
+			slot = comparison < 0 ? left[slot] : right[slot];
+			level++;
+		}
+		slot = allocate(child);
+		parent[slot] = parentSlot;
+		if(parentSlot == NIL)
+			root = slot;
+		else if(comparison < 0)
+			left[parentSlot] = slot;
+		else
+			right[parentSlot] = slot;
+		size++;
+		if(depth != -1)
+			depth = Math.max(depth, level);
+		fixAfterInsertion(slot);
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Comparable)})
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	/**
+	 * Unsupported Operation
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.gaurav.tree.Tree#addAll(java.lang.Object, java.util.Collection)
+	 **/
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Unsupported Operation
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		int slot = slot(e);
+		ArrayList<E> list = new ArrayList<E>(2);
+		if(left[slot] != NIL)
+			list.add(value(left[slot]));
+		if(right[slot] != NIL)
+			list.add(value(right[slot]));
+		return list;
+	}
+	@Override
+	public void clear() {
+		Arrays.fill(values, null);
+		Arrays.fill(left, NIL);
+		Arrays.fill(right, NIL);
+		Arrays.fill(parent, NIL);
+		Arrays.fill(red, false);
+		root = NIL;
+		free = NIL;
+		used = 1;
+		size = 0;
+		depth = 0;
+	}
+	/**
+	 * Copies the columns, without visiting the nodes
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		ArrayRedBlackTree<E> clone = null;
+		try {
+			clone = (ArrayRedBlackTree<E>) super.clone();
+			clone.values = values.clone();
+			clone.left = left.clone();
+			clone.right = right.clone();
+			clone.parent = parent.clone();
+			clone.red = red.clone();
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		return new TreeHelper().commonAncestor(this, node1, node2);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null)
+			return false;
+		try {
+			return find((E) o) != NIL;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Recalculated, if rotations or removals have changed it since it was last known
+	 * @see com.gaurav.tree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		if(depth == -1)
+			depth = recalculateDepth();
+		return depth;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		int level = 0;
+		for(int slot = slot(e); slot != NIL; slot = parent[slot])
+			level++;
+		return level;
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		IntList stack = new IntList();
+		stack.add(slot(e));
+		int count = 0;
+		while(!stack.isEmpty()) {
+			int slot = stack.removeLast();
+			count++;
+			if(left[slot] != NIL)
+				stack.add(left[slot]);
+			if(right[slot] != NIL)
+				stack.add(right[slot]);
+		}
+		return count;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	/**
+	 * Follows successors from the smallest element
+	 * @see com.gaurav.tree.Tree#inOrderTraversal()
+	 */
+	@Override
+	public List<E> inOrderTraversal() {
+		ArrayList<E> list = new ArrayList<E>(size);
+		for(Iterator<E> i = iterator(); i.hasNext();)
+			list.add(i.next());
+		return list;
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterates the elements in sorted order by following successors, without copying them
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private int next = root == NIL ? NIL : minimum(root);
+			@Override
+			public boolean hasNext() {
+				return next != NIL;
+			}
+			@Override
+			public E next() {
+				if(next == NIL)
+					throw new NoSuchElementException();
+				int slot = next;
+				next = successorSlot(slot);
+				return value(slot);
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("elements cannot be removed through an iterator");
+			}
+		};
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		int slot = find(e);
+		return slot != NIL && left[slot] == NIL && right[slot] == NIL;
+	}
+	@Override
+	public List<E> leaves() {
+		return TreeIterator.toList(traversal(root, Traversal.LEAVES));
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		int slot = parent[slot(e)];
+		return slot == NIL ? null : value(slot);
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.PRE_ORDER));
+	}
+	/**
+	 * @return the next larger element, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		int slot = successorSlot(slot(value));
+		return slot == NIL ? null : value(slot);
+	}
+	/**
+	 * @return the next smaller element, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		int slot = slot(value);
+		if(left[slot] != NIL) {
+			slot = left[slot];
+			while(right[slot] != NIL)
+				slot = right[slot];
+			return value(slot);
+		}
+		int child = slot;
+		slot = parent[slot];
+		while(slot != NIL && child == left[slot]) {
+			child = slot;
+			slot = parent[slot];
+		}
+		return slot == NIL ? null : value(slot);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		int slot;
+		try {
+			slot = find((E) o);
+		} catch(ClassCastException e) {
+			return false;
+		}
+		if(slot == NIL)
+			return false;
+		delete(slot);
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Missing children count as empty slots, so in-order traversal is sorted as {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(slot(from), order);
+	}
+	private Iterator<E> traversal(int from, Traversal order) {
+		return new TreeIterator<E, Integer>(order, from == NIL ? null : from) {
+			@Override
+			protected E element(Integer slot) {
+				return value(slot);
+			}
+			@Override
+			protected void children(Integer slot, List<Integer> children) {
+				children.add(left[slot] == NIL ? null : left[slot]);
+				children.add(right[slot] == NIL ? null : right[slot]);
+			}
+		};
+	}
+	@Override
+	public E root() {
+		return root == NIL ? null : value(root);
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		int slot = slot(e);
+		int parentSlot = parent[slot];
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(parentSlot != NIL) {
+			int sibling = left[parentSlot] == slot ? right[parentSlot] : left[parentSlot];
+			if(sibling != NIL)
+				siblings.add(value(sibling));
+		}
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		int slot = left[slot(parent)];
+		return slot == NIL ? null : value(slot);
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		int slot = right[slot(parent)];
+		return slot == NIL ? null : value(slot);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof ArrayRedBlackTree) {
+			try {
+				return new TreeHelper().isEqual((ArrayRedBlackTree<E>) o, this, ((ArrayRedBlackTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	@SuppressWarnings("unchecked")
+	private E value(int slot) {
+		return (E) values[slot];
+	}
+	/**
+	 * @return slot of e, or NIL if it is not present
+	 */
+	private int find(E e) {
+		int slot = root;
+		while(slot != NIL) {
+			int comparison = e.compareTo(value(slot));
+			if(comparison == 0)
+				return slot;
+			slot = comparison < 0 ? left[slot] : right[slot];
+		}
+		return NIL;
+	}
+	private int slot(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int slot = find(e);
+		if(slot == NIL)
+			throw new NodeNotFoundException("No node was found for object");
+		return slot;
+	}
+	private int minimum(int slot) {
+		while(left[slot] != NIL)
+			slot = left[slot];
+		return slot;
+	}
+	private int successorSlot(int slot) {
+		if(right[slot] != NIL)
+			return minimum(right[slot]);
+		int child = slot;
+		slot = parent[slot];
+		while(slot != NIL && child == right[slot]) {
+			child = slot;
+			slot = parent[slot];
+		}
+		return slot;
+	}
+	/**
+	 * @return a red slot holding value, taken from the free slots or else from the unused end of the arrays
+	 */
+	private int allocate(E value) {
+		int slot;
+		if(free != NIL) {
+			slot = free;
+			free = left[slot];
+		} else {
+			if(used == values.length) {
+				int capacity = values.length * 2;
+				values = Arrays.copyOf(values, capacity);
+				left = Arrays.copyOf(left, capacity);
+				right = Arrays.copyOf(right, capacity);
+				parent = Arrays.copyOf(parent, capacity);
+				red = Arrays.copyOf(red, capacity);
+			}
+			slot = used++;
+		}
+		values[slot] = value;
+		left[slot] = NIL;
+		right[slot] = NIL;
+		red[slot] = true;
+		return slot;
+	}
+	private void release(int slot) {
+		values[slot] = null;
+		right[slot] = NIL;
+		parent[slot] = NIL;
+		red[slot] = false;
+		left[slot] = free;
+		free = slot;
+	}
+	private void rotateLeft(int p) {
+		int q = right[p];
+		right[p] = left[q];
+		if(left[q] != NIL)
+			parent[left[q]] = p;
+		replace(p, q);
+		left[q] = p;
+		parent[p] = q;
+		depth = -1;
+	}
+	private void rotateRight(int q) {
+		int p = left[q];
+		left[q] = right[p];
+		if(right[p] != NIL)
+			parent[right[p]] = q;
+		replace(q, p);
+		right[p] = q;
+		parent[q] = p;
+		depth = -1;
+	}
+	/**
+	 * Puts the sub-tree at slot by in place of the sub-tree at slot of
+	 */
+	private void replace(int of, int by) {
+		int parentSlot = parent[of];
+		parent[by] = parentSlot;
+		if(parentSlot == NIL)
+			root = by;
+		else if(left[parentSlot] == of)
+			left[parentSlot] = by;
+		else
+			right[parentSlot] = by;
+	}
+	private void fixAfterInsertion(int slot) {
+		while(red[parent[slot]]) {
+			int parentSlot = parent[slot];
+			int grandParent = parent[parentSlot];
+			boolean parentIsLeft = parentSlot == left[grandParent];
+			int uncle = parentIsLeft ? right[grandParent] : left[grandParent];
+			if(red[uncle]) {
+				red[parentSlot] = false;
+				red[uncle] = false;
+				red[grandParent] = true;
+				slot = grandParent;
+			} else {
+				if(parentIsLeft && slot == right[parentSlot]) {
+					slot = parentSlot;
+					rotateLeft(slot);
+				} else if(!parentIsLeft && slot == left[parentSlot]) {
+					slot = parentSlot;
+					rotateRight(slot);
+				}
+				parentSlot = parent[slot];
+				red[parentSlot] = false;
+				red[grandParent] = true;
+				if(parentIsLeft)
+					rotateRight(grandParent);
+				else
+					rotateLeft(grandParent);
+			}
+		}
+		red[root] = false;
+	}
+	/**
+	 * Unlinks the node at slot, moving its successor into its place if it has two children
+	 */
+	private void delete(int slot) {
+		int removed = slot;//node taken out of its place
+		boolean removedRed = red[removed];
+		int child;//node put in the place of removed, possibly nil
+		if(left[slot] == NIL) {
+			child = right[slot];
+			replace(slot, child);
+		} else if(right[slot] == NIL) {
+			child = left[slot];
+			replace(slot, child);
+		} else {
+			removed = minimum(right[slot]);
+			removedRed = red[removed];
+			child = right[removed];
+			if(parent[removed] == slot)
+				parent[child] = removed;
+			else {
+				replace(removed, child);
+				right[removed] = right[slot];
+				parent[right[removed]] = removed;
+			}
+			replace(slot, removed);
+			left[removed] = left[slot];
+			parent[left[removed]] = removed;
+			red[removed] = red[slot];
+		}
+		if(!removedRed)
+			fixAfterDeletion(child);
+		left[NIL] = NIL;
+		right[NIL] = NIL;
+		parent[NIL] = NIL;
+		red[NIL] = false;
+		release(slot);
+		size--;
+		depth = -1;
+	}
+	/**
+	 * Restores the black height on the path to slot, which lost a black node. Slot may be nil, whose parent is
+	 * set during the removal.
+	 */
+	private void fixAfterDeletion(int slot) {
+		while(slot != root && !red[slot]) {
+			int parentSlot = parent[slot];
+			if(slot == left[parentSlot]) {
+				int sibling = right[parentSlot];
+				if(red[sibling]) {
+					red[sibling] = false;
+					red[parentSlot] = true;
+					rotateLeft(parentSlot);
+					sibling = right[parentSlot];
+				}
+				if(!red[left[sibling]] && !red[right[sibling]]) {
+					red[sibling] = true;
+					slot = parentSlot;
+				} else {
+					if(!red[right[sibling]]) {
+						red[left[sibling]] = false;
+						red[sibling] = true;
+						rotateRight(sibling);
+						sibling = right[parentSlot];
+					}
+					red[sibling] = red[parentSlot];
+					red[parentSlot] = false;
+					red[right[sibling]] = false;
+					rotateLeft(parentSlot);
+					slot = root;
+				}
+			} else {
+				int sibling = left[parentSlot];
+				if(red[sibling]) {
+					red[sibling] = false;
+					red[parentSlot] = true;
+					rotateRight(parentSlot);
+					sibling = left[parentSlot];
+				}
+				if(!red[left[sibling]] && !red[right[sibling]]) {
+					red[sibling] = true;
+					slot = parentSlot;
+				} else {
+					if(!red[left[sibling]]) {
+						red[right[sibling]] = false;
+						red[sibling] = true;
+						rotateLeft(sibling);
+						sibling = left[parentSlot];
+					}
+					red[sibling] = red[parentSlot];
+					red[parentSlot] = false;
+					red[left[sibling]] = false;
+					rotateRight(parentSlot);
+					slot = root;
+				}
+			}
+		}
+		red[slot] = false;
+	}
+	private List<E> getCurrentList() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return number of nodes on the longest path from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		if(root == NIL)
+			return depth;
+		IntList stack = new IntList();
+		IntList levels = new IntList();
+		stack.add(root);
+		levels.add(1);
+		while(!stack.isEmpty()) {
+			int slot = stack.removeLast();
+			int level = levels.removeLast();
+			depth = Math.max(depth, level);
+			if(left[slot] != NIL) {
+				stack.add(left[slot]);
+				levels.add(level + 1);
+			}
+			if(right[slot] != NIL) {
+				stack.add(right[slot]);
+				levels.add(level + 1);
+			}
+		}
+		return depth;
+	}
+	/**
+	 * For testing, checks the red-black properties and the links between the nodes
+	 * @return number of black nodes on every path from the root to nil
+	 */
+	int blackHeight() {
+		if(red[root] || red[NIL])
+			throw new IllegalStateException("root and nil should be black");
+		IntList stack = new IntList();
+		IntList heights = new IntList();//black nodes above and including the node
+		stack.add(root);
+		heights.add(1);
+		int blackHeight = -1;
+		int count = 0;
+		while(!stack.isEmpty()) {
+			int slot = stack.removeLast();
+			int height = heights.removeLast();
+			if(slot == NIL) {
+				if(blackHeight != -1 && blackHeight != height)
+					throw new IllegalStateException("paths have different numbers of black nodes");
+				blackHeight = height;
+				continue;
+			}
+			count++;
+			int[] children = {left[slot], right[slot]};
+			for(int i : children) {
+				if(i != NIL && parent[i] != slot)
+					throw new IllegalStateException("parent of " + values[i] + " is wrong");
+				if(red[slot] && red[i])
+					throw new IllegalStateException("red node " + values[slot] + " has a red child");
+				stack.add(i);
+				heights.add(height + (red[i] ? 0 : 1));
+			}
+		}
+		if(count != size)
+			throw new IllegalStateException("size is " + size + " but " + count + " nodes were found");
+		return blackHeight;
+	}
+}
@@ -17,8 +17,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The nodes in this class always have a particular number of children. It is not possible to add more children 
@@ -31,14 +31,17 @@ import java.util.List;
  *
  * @param <E>
  */
-public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
+public class ArrayTree<E> implements NumberedTree<E>, PreOrderTree<E>, Cloneable {
 	private ArrayList<E> nodeList = new ArrayList<E>();
 	private ArrayList<Integer> parentList = new ArrayList<Integer>();
 	private ArrayList<int[]> childrenArray = new ArrayList<int[]>();
 	private int size = 0;
 	private int depth = 0;
+	private boolean depthStale = false;//set when a move may have changed the depth
 	private int maxChildren;
 	private int rootIndex = -1;
+	private IntList levelList = new IntList();//number of nodes on the path from the root to every node
+	private IntList sizeList = new IntList();//number of nodes in the subtree rooted at every node
 	
 	public ArrayTree(int maxChildren) {
 		this.maxChildren = maxChildren;
@@ -166,8 +169,11 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		nodeList.clear();
 		parentList.clear();
 		childrenArray.clear();
+		levelList.clear();
+		sizeList.clear();
 		size = 0;
 		depth = 0;
+		depthStale = false;
 		rootIndex = -1;
 	}
 	@Override
@@ -179,6 +185,8 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 			v.nodeList = (ArrayList<E>) nodeList.clone();
 			v.parentList = (ArrayList<Integer>) parentList.clone();
 			v.childrenArray = new ArrayList<int[]>();
+			v.levelList = levelList.copy();
+			v.sizeList = sizeList.copy();
 			v.size = this.size;
 			v.depth = this.depth;
 			for(int i = 0; i < childrenArray.size(); i++)
@@ -188,6 +196,24 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		}
 		return v;
 	}
+	/**
+	 * @return empty tree with the same number of children per node
+	 */
+	@SuppressWarnings("unchecked")
+	private ArrayTree<E> emptyCopy() {
+		try {
+			ArrayTree<E> v = (ArrayTree<E>) super.clone();
+			v.nodeList = new ArrayList<E>();
+			v.parentList = new ArrayList<Integer>();
+			v.childrenArray = new ArrayList<int[]>();
+			v.levelList = new IntList();
+			v.sizeList = new IntList();
+			v.clear();
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		checkNode(node1);
@@ -234,19 +260,23 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	}
 	@Override
 	public int depth() {
+		if(depthStale) {
+			depth = isEmpty() ? 0 : recalculateDepth();
+			depthStale = false;
+		}
 		return depth;
 	}
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inorderOrderTraversal(0, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return inorderOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.IN_ORDER));
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -272,39 +302,24 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		return getCurrentList().iterator();
 	}
 	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		int index = nodeList.indexOf(e);
+		return index > -1 && isChildrenArrayEmpty(childrenArray.get(index));
+	}
+	@Override
 	public List<E> leaves() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return leaves(rootIndex, new ArrayList<E>());
-	}
-	private List<E> leaves(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			int chidrenLength = children.length;
-			for(int len = (int)Math.ceil((double)chidrenLength / 2); i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-			if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-				list.add(nodeList.get(nodeIndex));
-			for(int len = chidrenLength; i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-		}
-		else if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-			list.add(nodeList.get(nodeIndex));
-		return list;
+			return TreeIterator.toList(traversal(rootIndex, Traversal.LEAVES));
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
-		else {
-			LinkedList<Integer> queue = new LinkedList<Integer>();
-			queue.add(0);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		else
+			return TreeIterator.toList(traversal(rootIndex, Traversal.LEVEL_ORDER));
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -322,13 +337,183 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return postOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.POST_ORDER));
 	}
 	public List<E> preOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return preOrderTraversal(rootIndex, new ArrayList<E>());
+			return TreeIterator.toList(traversal(rootIndex, Traversal.PRE_ORDER));
+	}
+	@Override
+	public void preOrder(List<E> nodes, IntList parents, IntList slots) {
+		if(!isEmpty())
+			preOrder(rootIndex, nodes, parents, slots);
+	}
+	/**
+	 * Appends the nodes of the sub-tree rooted at index to nodes in pre-order, along with the positions of their
+	 * parents in nodes and their slots
+	 */
+	private void preOrder(int index, List<E> nodes, IntList parents, IntList slots) {
+		int offset = nodes.size();
+		NodeCursor cursor = new NodeCursor(index);
+		while(cursor.next()) {
+			parents.add(cursor.parent() == -1 ? -1 : offset + cursor.parent());
+			if(slots != null)
+				slots.add(cursor.slot());
+			nodes.add(cursor.element());
+		}
+	}
+	@Override
+	public Cursor<E> preOrderCursor() {
+		return new NodeCursor(isEmpty() ? -1 : rootIndex);
+	}
+	/**
+	 * Children are added at their slots when slots are given, otherwise at the first available slot
+	 * @see com.gaurav.tree.PreOrderTree#load(java.util.List, com.gaurav.tree.IntList, com.gaurav.tree.IntList)
+	 */
+	@Override
+	public void load(List<E> nodes, IntList parents, IntList slots) {
+		clear();
+		splice(-1, 0, nodes, parents, slots);
+	}
+	/**
+	 * Children are added at the slots passed to the loader, or at the first available slot for slot -1
+	 * @see com.gaurav.tree.PreOrderTree#loader()
+	 */
+	@Override
+	public Loader<E> loader() {
+		clear();
+		return new NodeLoader(-1, 0);
+	}
+	/**
+	 * Adds the nodes listed in pre-order at parentSlot of the node at parentIndex, or as the whole tree if
+	 * parentIndex is -1. Slot indexes and numbers of children are checked before the tree is changed.
+	 */
+	private void splice(int parentIndex, int parentSlot, List<E> nodes, IntList parents, IntList slots) {
+		int[] nodeSlots = new int[nodes.size()];
+		int[] childCounts = new int[nodes.size()];
+		for(int i = 0; i < nodes.size(); i++) {
+			int parent = parents.get(i);
+			if(parent == -1)
+				nodeSlots[i] = parentSlot;
+			else if(slots != null)
+				checkIndex(nodeSlots[i] = slots.get(i));
+			else if((nodeSlots[i] = childCounts[parent]++) >= maxChildren)
+				throw new IndexOutOfBoundsException("Children array of parent is already full");
+		}
+		NodeLoader loader = new NodeLoader(parentIndex, parentSlot);
+		for(int i = 0; i < nodes.size(); i++)
+			loader.add(nodes.get(i), parents.get(i), nodeSlots[i]);
+		loader.finish();
+	}
+	/**
+	 * Copies the sub-tree rooted at node to a new tree, in time linear in the size of the sub-tree. Nodes keep
+	 * their slots.
+	 * @param node root of the sub-tree
+	 * @return new tree whose root is node
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public ArrayTree<E> subtree(E node) throws NodeNotFoundException {
+		checkNode(node);
+		int index = nodeList.indexOf(node);
+		if(index == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		ArrayList<E> nodes = new ArrayList<E>();
+		IntList parents = new IntList();
+		IntList slots = new IntList();
+		preOrder(index, nodes, parents, slots);
+		ArrayTree<E> tree = emptyCopy();
+		tree.load(nodes, parents, slots);
+		return tree;
+	}
+	/**
+	 * Copies all the nodes of other under parent, so that the root of other takes the first available slot of
+	 * parent. Children keep their slots if other is an ArrayTree, otherwise they take the first available slots.
+	 * Nodes are added in time linear in the size of both the trees, as nodes of this tree are not indexed, and
+	 * depth is updated once.
+	 * @param parent node under which other is copied. Parent is allowed to be null only when this tree is empty.
+	 * In that case, the root of other becomes the root of this tree
+	 * @param other tree to be copied. It is not changed
+	 * @throws NodeNotFoundException if parent is not found
+	 * @throws IllegalArgumentException if a node of other is already present in this tree
+	 */
+	public void attach(E parent, Tree<E> other) throws NodeNotFoundException {
+		int parentIndex = -1;
+		int slot = 0;
+		if(parent == null) {
+			if(!isEmpty())
+				throw new IllegalArgumentException("parent cannot be null except for root element");
+		} else {
+			parentIndex = nodeList.indexOf(parent);
+			if(parentIndex == -1)
+				throw new NodeNotFoundException("No node was found for parent object");
+			if(!other.isEmpty() && (slot = getEmptySlot(childrenArray.get(parentIndex))) == -1)
+				throw new IndexOutOfBoundsException("Children array of parent is already full");
+		}
+		ArrayList<E> nodes = new ArrayList<E>(other.size());
+		IntList parents = new IntList(other.size());
+		IntList slots = null;
+		if(other instanceof ArrayTree) {
+			slots = new IntList(other.size());
+			((ArrayTree<E>) other).preOrder(nodes, parents, slots);
+		} else
+			TreeHelper.preOrder(other, nodes, parents);
+		TreeHelper.checkAbsent(nodeList, nodes);
+		splice(parentIndex, slot, nodes, parents, slots);
+	}
+	/**
+	 * Moves node to the first available slot in the children array of newParent, or keeps its slot if newParent
+	 * already is its parent and has no slot available. If none of the slots are available it throws exception
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		checkNode(node);
+		checkNode(newParent);
+		int nodeIndex = nodeList.indexOf(node);
+		int newParentIndex = nodeList.indexOf(newParent);
+		if(nodeIndex == -1 || newParentIndex == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		int[] children = childrenArray.get(newParentIndex);
+		int emptySlot = getEmptySlot(children);
+		for(int i = 0; emptySlot == -1 && i < children.length; i++)
+			if(children[i] == nodeIndex)
+				emptySlot = i;
+		if(emptySlot == -1)
+			throw new IndexOutOfBoundsException("Children array of parent is already full");
+		move(nodeIndex, newParentIndex, emptySlot);
+	}
+	@Override
+	public void move(E node, E newParent, int index) throws NodeNotFoundException {
+		checkNode(node);
+		checkNode(newParent);
+		checkIndex(index);
+		int nodeIndex = nodeList.indexOf(node);
+		int newParentIndex = nodeList.indexOf(newParent);
+		if(nodeIndex == -1 || newParentIndex == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		int childIndex = childrenArray.get(newParentIndex)[index];
+		if(childIndex != -1 && childIndex != nodeIndex)
+			throw new IndexOutOfBoundsException("index " + index + " of parent is already taken");
+		move(nodeIndex, newParentIndex, index);
+	}
+	/**
+	 * Level is kept for every node and updated when nodes are added or moved, so only the node is searched
+	 * @see com.gaurav.tree.Tree#level(java.lang.Object)
+	 */
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return levelList.get(existingIndex(e));
+	}
+	/**
+	 * Size of the sub-tree is kept for every node and updated along the path to the root when nodes are added,
+	 * moved or removed, so only the node is searched
+	 * @see com.gaurav.tree.Tree#subtreeSize(java.lang.Object)
+	 */
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return sizeList.get(existingIndex(e));
 	}
 	@Override
 	public boolean remove(Object o) {
@@ -337,8 +522,9 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		if(i > -1) {
 			boolean wasRemoved;
 			if(i != rootIndex) {
+				resize(parentList.get(i), -sizeList.get(i));
 				wasRemoved = remove(i);
-				depth = recalculateDepth(rootIndex, 0);
+				depth = recalculateDepth();
 			} else {
 				wasRemoved = remove(i);
 				depth = 0;
@@ -347,19 +533,111 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		} else
 			return false;
 	}
+	/** Removes the sub-tree rooted at the nodes in the collection passed. The nodes are found in one pass over the
+	 * tree and depth and size are recalculated once, however many nodes are removed.
+	 * @see java.util.Collection#removeAll(java.util.Collection)
+	 */
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		boolean retVal = false;
-		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
-			retVal |= remove(iterator.next());
-		return retVal;
+		return removeSubtrees(c, false);
 	}
-
+	/**
+	 * Removes the sub-trees rooted at the nodes which are not present in the collection passed. A node present
+	 * in the collection is removed as well if any of its ancestors is not.
+	 * @see java.util.Collection#retainAll(java.util.Collection)
+	 */
 	@Override
 	public boolean retainAll(Collection<?> c) {
-		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+		return removeSubtrees(c, true);
+	}
+	/**
+	 * Lists the nodes which are kept in pre-order with their slots, skipping the sub-trees of the removed nodes,
+	 * and loads the tree from them
+	 * @param retain true if nodes present in c are kept, false if they are removed
+	 */
+	private boolean removeSubtrees(Collection<?> c, boolean retain) {
+		if(isEmpty())
+			return false;
+		Set<?> set = TreeHelper.asSet(c);
+		ArrayList<E> nodes = new ArrayList<E>(size);
+		IntList parents = new IntList(size);
+		IntList slots = new IntList(size);
+		IntList stack = new IntList();
+		IntList parentPositions = new IntList();
+		IntList childSlots = new IntList();
+		stack.add(rootIndex);
+		parentPositions.add(-1);
+		childSlots.add(0);
+		while(!stack.isEmpty()) {
+			int index = stack.removeLast();
+			int parentPosition = parentPositions.removeLast();
+			int slot = childSlots.removeLast();
+			if(set.contains(nodeList.get(index)) != retain)
+				continue;
+			parents.add(parentPosition);
+			slots.add(slot);
+			int position = nodes.size();
+			nodes.add(nodeList.get(index));
+			int[] children = childrenArray.get(index);
+			for(int i = children.length - 1; i >= 0; i--)
+				if(children[i] > -1) {
+					stack.add(children[i]);
+					parentPositions.add(position);
+					childSlots.add(i);
+				}
+		}
+		if(nodes.size() == size)
+			return false;
+		load(nodes, parents, slots);
+		return true;
 	}
 
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. The traversal follows the indexes of the children, and empty slots count when the
+	 * children are split for in-order traversal as in {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingIndex(from), order);
+	}
+	/**
+	 * Traverses the sub-tree rooted at the node at index iteratively, so that deep trees do not overflow the
+	 * call stack
+	 */
+	private Iterator<E> traversal(int index, Traversal order) {
+		return new TreeIterator<E, Integer>(order, index) {
+			@Override
+			protected E element(Integer node) {
+				return nodeList.get(node);
+			}
+			@Override
+			protected void children(Integer node, List<Integer> children) {
+				for(int i : childrenArray.get(node))
+					children.add(i > -1 ? Integer.valueOf(i) : null);
+			}
+		};
+	}
 	@Override
 	public E root() {
 		if(isEmpty())
@@ -399,13 +677,11 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		int[] children = new int[maxChildren];
 		Arrays.fill(children, -1);
 		childrenArray.add(children);
+		levelList.add(levelList.get(parentIndex) + 1);
+		sizeList.add(1);
+		resize(parentIndex, 1);
 		size++;
-		int currentDepth = 2;
-		while(parentIndex != 0)	{
-			parentIndex = parentList.get(parentIndex);
-			currentDepth++;
-		}
-		depth = Math.max(currentDepth, depth);
+		depth = Math.max(levelList.get(nodeList.size() - 1), depth);
 	}
 
 	private void addRoot(E child) {
@@ -415,6 +691,8 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		int[] children = new int[maxChildren];
 		Arrays.fill(children, -1);
 		childrenArray.add(children);
+		levelList.add(1);
+		sizeList.add(1);
 		size++;
 		depth++;
 	}
@@ -423,6 +701,13 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
+	private int existingIndex(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int index = nodeList.indexOf(e);
+		if(index == -1)
+			throw new NodeNotFoundException("No node was found for object");
+		return index;
+	}
 
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
@@ -433,54 +718,12 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 				return i;
 		return -1;
 	}
-	private List<E> inorderOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.length / 2); i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-			list.add(nodeList.get(nodeIndex));
-			for(int len = children.length; i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-		}
-		else
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
 	private boolean isChildrenArrayEmpty(int[] children) {
 		for (int i = 0; i < children.length; i++)
 			if(children[i] != -1)
 				return false;
 		return true;
 	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Integer> queue) {
-		while(!queue.isEmpty()) {
-			list.add(nodeList.get(queue.getFirst()));
-			for(int i : childrenArray.get(queue.getFirst()))
-				if(i > -1)
-					queue.add(i);
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		for(int  i :  childrenArray.get(nodeIndex))
-			if(i > -1)
-				postOrderTraversal(i, list);
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> preOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		for(int i : childrenArray.get(nodeIndex))
-			if(i > -1)
-				preOrderTraversal(i, list);
-		return list;
-	}
 	private boolean remove(int index) {
 		if(index > -1) {
 			if(index == rootIndex) {
@@ -489,30 +732,209 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 				nodeList.clear();
 				parentList.clear();
 				childrenArray.clear();
+				levelList.clear();
+				sizeList.clear();
 				return true;
 			} else {
 				Integer parentIndex = parentList.set(index, -1);
 				for(int i = 0; i < childrenArray.get(parentIndex).length; i++)
 					if(childrenArray.get(parentIndex)[i] == index)
 						childrenArray.get(parentIndex)[i] = -1;
-				nodeList.set(index, null);
-				size--;
-				int[] children = childrenArray.get(index);
-				for (int j = 0; j < children.length; j++) 
-					remove(children[j]);
-				Arrays.fill(childrenArray.get(index), -1);
+				IntList stack = new IntList();//nodes of the sub-tree are unlinked one by one, however deep it is
+				stack.add(index);
+				while(!stack.isEmpty()) {
+					int i = stack.removeLast();
+					nodeList.set(i, null);
+					parentList.set(i, -1);
+					size--;
+					for(int child : childrenArray.get(i))
+						if(child > -1)
+							stack.add(child);
+					Arrays.fill(childrenArray.get(i), -1);
+				}
 				return true;
 			} 
 		} else
 			return false;
 	}
-	private int recalculateDepth(int index, int depth) {
-		int childDepth = depth + 1;
-		if(isChildrenArrayEmpty(childrenArray.get(index)))
-			return childDepth;
-		for(int i : childrenArray.get(index))
-			if(i != -1)
-				depth = Math.max(depth, recalculateDepth(i, childDepth));
+	/**
+	 * Relinks the node to the slot of newParent. Levels of the sub-tree are shifted if the node changes level, in
+	 * which case depth is raised if the sub-tree went deeper and otherwise recalculated by the next call to
+	 * {@link #depth()}
+	 */
+	private void move(int nodeIndex, int newParentIndex, int slot) {
+		if(nodeIndex == rootIndex)
+			throw new IllegalArgumentException("root cannot be moved");
+		for(int i = newParentIndex; i > -1; i = parentList.get(i))
+			if(i == nodeIndex)
+				throw new IllegalArgumentException("node cannot be moved to its own sub-tree");
+		int[] oldSiblings = childrenArray.get(parentList.get(nodeIndex));
+		for(int i = 0; i < oldSiblings.length; i++)
+			if(oldSiblings[i] == nodeIndex)
+				oldSiblings[i] = -1;
+		resize(parentList.get(nodeIndex), -sizeList.get(nodeIndex));
+		childrenArray.get(newParentIndex)[slot] = nodeIndex;
+		parentList.set(nodeIndex, newParentIndex);
+		resize(newParentIndex, sizeList.get(nodeIndex));
+		relevel(nodeIndex, levelList.get(newParentIndex) + 1);
+	}
+	/**
+	 * Walks the sub-tree rooted at an index keeping, for every node on the path to the current node, its index,
+	 * its position in pre-order and the next slot to look for a child in
+	 */
+	private class NodeCursor implements Cursor<E> {
+		private final IntList path = new IntList();
+		private final IntList positions = new IntList();
+		private final IntList nextSlots = new IntList();
+		private final int start;
+		private int count = 0;
+		private int parent = -1;
+		private int slot = 0;
+
+		NodeCursor(int start) {
+			this.start = start;
+		}
+		@Override
+		public boolean next() {
+			if(count == 0) {
+				if(start == -1)
+					return false;
+				push(start);
+				return true;
+			}
+			while(!path.isEmpty()) {
+				int[] children = childrenArray.get(path.last());
+				for(int i = nextSlots.last(); i < children.length; i++)
+					if(children[i] > -1) {
+						nextSlots.set(nextSlots.size() - 1, i + 1);
+						parent = positions.last();
+						slot = i;
+						push(children[i]);
+						return true;
+					}
+				path.removeLast();
+				positions.removeLast();
+				nextSlots.removeLast();
+			}
+			return false;
+		}
+		private void push(int index) {
+			path.add(index);
+			positions.add(count++);
+			nextSlots.add(0);
+		}
+		@Override
+		public E element() {
+			return nodeList.get(path.last());
+		}
+		@Override
+		public int parent() {
+			return parent;
+		}
+		@Override
+		public int slot() {
+			return slot;
+		}
+	}
+	/**
+	 * Adds nodes passed in pre-order at parentSlot of the node at parentIndex, or as the whole tree if
+	 * parentIndex is -1. Levels of the new nodes are computed as they are added, and their sub-tree sizes in one
+	 * pass back over them when loading finishes.
+	 */
+	private class NodeLoader implements Loader<E> {
+		private final int parentIndex;
+		private final int parentSlot;
+		private final int offset = nodeList.size();
+
+		NodeLoader(int parentIndex, int parentSlot) {
+			this.parentIndex = parentIndex;
+			this.parentSlot = parentSlot;
+		}
+		@Override
+		public void add(E element, int parent, int slot) {
+			int index = nodeList.size();
+			int parentOf = parent == -1 ? parentIndex : offset + parent;
+			if(parent == -1)
+				slot = parentSlot;
+			else if(slot == -1)
+				slot = firstAvailableSlot(childrenArray.get(parentOf));
+			else {
+				checkIndex(slot);
+				if(childrenArray.get(parentOf)[slot] > -1)
+					throw new IllegalArgumentException("slot " + slot + " is used by more than one child");
+			}
+			nodeList.add(element);
+			int[] children = new int[maxChildren];
+			Arrays.fill(children, -1);
+			childrenArray.add(children);
+			sizeList.add(1);
+			parentList.add(parentOf);
+			if(parentOf > -1) {
+				childrenArray.get(parentOf)[slot] = index;
+				levelList.add(levelList.get(parentOf) + 1);
+			} else
+				levelList.add(1);
+			depth = Math.max(depth, levelList.get(index));
+		}
+		private int firstAvailableSlot(int[] children) {
+			for(int i = 0; i < children.length; i++)
+				if(children[i] == -1)
+					return i;
+			throw new IndexOutOfBoundsException("Children array of parent is already full");
+		}
+		@Override
+		public void finish() {
+			int count = nodeList.size() - offset;
+			for(int i = nodeList.size() - 1; i > offset; i--)//children follow their parents in pre-order
+				sizeList.set(parentList.get(i), sizeList.get(parentList.get(i)) + sizeList.get(i));
+			size += count;
+			if(parentIndex > -1)
+				resize(parentIndex, count);
+			else if(count > 0)
+				rootIndex = offset;
+		}
+	}
+	/**
+	 * Adds delta to the sizes of the sub-trees of the node and all its ancestors
+	 */
+	private void resize(int index, int delta) {
+		for(; index > -1; index = parentList.get(index))
+			sizeList.set(index, sizeList.get(index) + delta);
+	}
+	/**
+	 * Shifts the levels of the sub-tree rooted at index so that the node is at level
+	 */
+	private void relevel(int index, int level) {
+		int shift = level - levelList.get(index);
+		if(shift == 0)
+			return;
+		IntList stack = new IntList();
+		stack.add(index);
+		while(!stack.isEmpty()) {
+			int i = stack.removeLast();
+			levelList.set(i, levelList.get(i) + shift);
+			depth = Math.max(depth, levelList.get(i));
+			for(int j : childrenArray.get(i))
+				if(j > -1)
+					stack.add(j);
+		}
+		if(shift < 0)
+			depthStale = true;
+	}
+	/**
+	 * @return greatest level of the nodes reachable from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		IntList stack = new IntList();
+		stack.add(rootIndex);
+		while(!stack.isEmpty()) {
+			int index = stack.removeLast();
+			depth = Math.max(depth, levelList.get(index));
+			for(int i : childrenArray.get(index))
+				if(i > -1)
+					stack.add(i);
+		}
 		return depth;
 	}
 	@Override
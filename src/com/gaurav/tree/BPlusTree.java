@@ -0,0 +1,776 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * B+ tree as given in <a href='http://en.wikipedia.org/wiki/B%2B_tree'>Wikipedia</a>. Elements are kept sorted
+ * in arrays of up to order keys per leaf and leaves are linked, so a search touches few nodes and in-order
+ * and range scans read the leaves one after the other. Inner nodes have up to order children.
+ * <br>
+ * As a {@link Tree}, the first element under a node is the parent of the first elements under its other
+ * children, and the first element of a leaf is the parent of its other elements. The root is the smallest
+ * element and every element precedes the elements of its sub-tree, so pre-order traversal is sorted.
+ * In-order traversal is the sorted order as well.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class BPlusTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+	private static final int DEFAULT_ORDER = 64;
+	private static class Node {
+		Object[] keys;//elements of a leaf, or for inner nodes keys[i] is at most the elements under children[i + 1]
+		Node[] children;//null for leaves
+		int count;//number of keys of a leaf or of children of an inner node
+		Node parent;
+		Node previous;//leaves only
+		Node next;//leaves only
+	}
+	/**
+	 * An element of a leaf other than its first, or if index is 0 the first element under node
+	 */
+	private static class Position {
+		Node node;
+		int index;
+		Object parent;//filled by locate
+		int level;//filled by locate
+		Position(Node node, int index) {
+			this.node = node;
+			this.index = index;
+		}
+	}
+	private final int order;
+	private final int minimum;//fewest keys of a leaf or children of an inner node other than the root
+	private Node root;
+	private Node first;//leftmost leaf, which splits and merges never replace
+	private int size;
+	private int height;//number of nodes on a path from the root to a leaf
+
+	public BPlusTree() {
+		this(DEFAULT_ORDER);
+	}
+	/**
+	 * @param order most keys of a leaf and children of an inner node, at least 3
+	 */
+	public BPlusTree(int order) {
+		if(order < 3)
+			throw new IllegalArgumentException("order of a B+ tree should be at least 3");
+		this.order = order;
+		this.minimum = (order + 1) / 2;
+		clear();
+	}
+	@Override
+	public boolean add(E e) {
+		checkNode(e);
+		Node leaf = leaf(e);
+		int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, e);
+		if(index >= 0)
+			return false;
+		index = -index - 1;
+		System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.count - index);
+		leaf.keys[index] = e;
+		leaf.count++;
+		size++;
+		if(leaf.count > order)
+			split(leaf);
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * A B+ tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Comparable)})
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A B+ tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	/**
+	 * Unsupported Operation
+	 * A B+ tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.gaurav.tree.Tree#addAll(java.lang.Object, java.util.Collection)
+	 **/
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A B+ tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Unsupported Operation
+	 * A B+ tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A B+ tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		ArrayList<Position> positions = new ArrayList<Position>();
+		children(locate(e), positions);
+		ArrayList<E> list = new ArrayList<E>(positions.size());
+		for(Position i : positions)
+			list.add(element(i));
+		return list;
+	}
+	@Override
+	public void clear() {
+		root = newNode(true);
+		first = root;
+		size = 0;
+		height = 1;
+	}
+	/**
+	 * Copies the nodes level by level, so that the leaves are copied from left to right and linked in that order
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		BPlusTree<E> clone = null;
+		try {
+			clone = (BPlusTree<E>) super.clone();
+			ArrayDeque<Node> queue = new ArrayDeque<Node>();//pairs of node and its copy
+			clone.root = copy(root, null);
+			queue.add(root);
+			queue.add(clone.root);
+			Node previous = null;
+			while(!queue.isEmpty()) {
+				Node node = queue.poll();
+				Node copy = queue.poll();
+				if(node.children != null) {
+					for(int i = 0; i < node.count; i++) {
+						copy.children[i] = copy(node.children[i], copy);
+						queue.add(node.children[i]);
+						queue.add(copy.children[i]);
+					}
+				} else {
+					copy.previous = previous;
+					if(previous != null)
+						previous.next = copy;
+					else
+						clone.first = copy;
+					previous = copy;
+				}
+			}
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	private Node copy(Node node, Node parent) {
+		Node copy = newNode(node.children == null);
+		System.arraycopy(node.keys, 0, copy.keys, 0, node.keys.length);
+		copy.count = node.count;
+		copy.parent = parent;
+		return copy;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		return new TreeHelper().commonAncestor(this, node1, node2);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if (o == null || size == 0)
+			return false;
+		try {
+			Node leaf = leaf((E) o);
+			return Arrays.binarySearch(leaf.keys, 0, leaf.count, o) >= 0;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Leaves other than the root have at least 2 keys, so the longest path ends at the second key of a leaf
+	 * @see com.gaurav.tree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		if(size == 0)
+			return 0;
+		else if(height == 1)
+			return size == 1 ? 1 : 2;
+		else
+			return height + 1;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return locate(e).level;
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		Position position = locate(e);
+		if(position.index > 0)
+			return 1;
+		Node last = position.node;
+		while(last.children != null)
+			last = last.children[last.count - 1];
+		int count = 0;
+		for(Node leaf = firstLeaf(position.node); leaf != last.next; leaf = leaf.next)
+			count += leaf.count;
+		return count;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	/**
+	 * Reads the linked leaves
+	 * @see com.gaurav.tree.Tree#inOrderTraversal()
+	 */
+	@Override
+	public List<E> inOrderTraversal() {
+		ArrayList<E> list = new ArrayList<E>(size);
+		for(Iterator<E> i = iterator(); i.hasNext();)
+			list.add(i.next());
+		return list;
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterates the elements in sorted order along the linked leaves, without copying them
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new LeafIterator(first, 0, null);
+	}
+	/**
+	 * Iterates the elements from from, included, to to, excluded, in sorted order along the linked leaves.
+	 * Neither needs to be present in the tree.
+	 * @return lazy iterator of the range
+	 */
+	public Iterator<E> range(E from, E to) {
+		checkNode(from);
+		checkNode(to);
+		Node leaf = leaf(from);
+		int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, from);
+		return new LeafIterator(leaf, index >= 0 ? index : -index - 1, to);
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		try {
+			Position position = locate(e);
+			return position.index > 0 || position.node.children == null && position.node.count == 1;
+		} catch(NodeNotFoundException ex) {
+			return false;
+		}
+	}
+	@Override
+	public List<E> leaves() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(new Position(root, 0), Traversal.LEAVES));
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(new Position(root, 0), Traversal.LEVEL_ORDER));
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		return (E) locate(e).parent;
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(new Position(root, 0), Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return the next larger element, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		Node leaf = existingLeaf(value);
+		int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, value);
+		if(index + 1 < leaf.count)
+			return (E) leaf.keys[index + 1];
+		else if(leaf.next != null)
+			return (E) leaf.next.keys[0];
+		else
+			return null;
+	}
+	/**
+	 * @return the next smaller element, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		Node leaf = existingLeaf(value);
+		int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, value);
+		if(index > 0)
+			return (E) leaf.keys[index - 1];
+		else if(leaf.previous != null)
+			return (E) leaf.previous.keys[leaf.previous.count - 1];
+		else
+			return null;
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		Node leaf;
+		int index;
+		try {
+			leaf = leaf((E) o);
+			index = Arrays.binarySearch(leaf.keys, 0, leaf.count, o);
+		} catch(ClassCastException e) {
+			return false;
+		}
+		if(index < 0)
+			return false;
+		System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.count - index - 1);
+		leaf.keys[--leaf.count] = null;
+		size--;
+		rebalance(leaf);
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Elements precede their sub-trees, so in-order traversal is the pre-order traversal, which is sorted
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(locate(from), order == Traversal.IN_ORDER ? Traversal.PRE_ORDER : order);
+	}
+	private Iterator<E> traversal(Position from, Traversal order) {
+		return new TreeIterator<E, Position>(order, from) {
+			@Override
+			protected E element(Position position) {
+				return BPlusTree.this.element(position);
+			}
+			@Override
+			protected void children(Position position, List<Position> children) {
+				BPlusTree.this.children(position, children);
+			}
+		};
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public E root() {
+		if(isEmpty())
+			return null;
+		else
+			return (E) first.keys[0];
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		E parent = parent(e);
+		if(parent == null)
+			return new ArrayList<E>();
+		List<E> siblings = children(parent);
+		siblings.remove(e);
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof BPlusTree) {
+			try {
+				return ((BPlusTree<E>) o).size() == size
+						&& new TreeHelper().isEqual((BPlusTree<E>) o, this, ((BPlusTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private Node newNode(boolean leaf) {
+		Node node = new Node();
+		if(leaf)
+			node.keys = new Object[order + 1];//one more than order until the leaf is split
+		else {
+			node.keys = new Object[order];
+			node.children = new Node[order + 1];
+		}
+		return node;
+	}
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	private List<E> getCurrentList() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return index of the child of inner node under which e is or would be
+	 */
+	private int childIndex(Node node, E e) {
+		int index = Arrays.binarySearch(node.keys, 0, node.count - 1, e);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+	/**
+	 * @return the leaf in which e is or would be
+	 */
+	private Node leaf(E e) {
+		Node node = root;
+		while(node.children != null)
+			node = node.children[childIndex(node, e)];
+		return node;
+	}
+	private Node existingLeaf(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Node leaf = leaf(e);
+		if(Arrays.binarySearch(leaf.keys, 0, leaf.count, e) < 0)
+			throw new NodeNotFoundException("No node was found for object");
+		return leaf;
+	}
+	private Node firstLeaf(Node node) {
+		while(node.children != null)
+			node = node.children[0];
+		return node;
+	}
+	private int indexOf(Node parent, Node child) {
+		int index = 0;
+		while(parent.children[index] != child)
+			index++;
+		return index;
+	}
+	/**
+	 * Finds the position of e with its parent and level, counting the steps to children other than the first
+	 */
+	private Position locate(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Node node = root;
+		Node top = root;//highest node of which e is the first element
+		Node above = null;//parent of top
+		int level = 1;
+		while(node.children != null) {
+			int index = childIndex(node, e);
+			if(index > 0) {
+				above = node;
+				top = node.children[index];
+				level++;
+			}
+			node = node.children[index];
+		}
+		int index = Arrays.binarySearch(node.keys, 0, node.count, e);
+		if(index < 0)
+			throw new NodeNotFoundException("No node was found for object");
+		Position position;
+		if(index > 0) {
+			position = new Position(node, index);
+			position.parent = node.keys[0];
+			position.level = level + 1;
+		} else {
+			position = new Position(top, 0);
+			position.parent = above == null ? null : firstLeaf(above).keys[0];
+			position.level = level;
+		}
+		return position;
+	}
+	@SuppressWarnings("unchecked")
+	private E element(Position position) {
+		if(position.index > 0)
+			return (E) position.node.keys[position.index];
+		else
+			return (E) firstLeaf(position.node).keys[0];
+	}
+	/**
+	 * Appends the children of position in sorted order, the other keys of its leaf and then the other children
+	 * of the nodes it is the first element of, from the lowest
+	 */
+	private void children(Position position, List<Position> children) {
+		if(position.index > 0)
+			return;
+		ArrayList<Node> nodes = new ArrayList<Node>(height);
+		for(Node node = position.node; node != null; node = node.children == null ? null : node.children[0])
+			nodes.add(node);
+		Node leaf = nodes.get(nodes.size() - 1);
+		for(int i = 1; i < leaf.count; i++)
+			children.add(new Position(leaf, i));
+		for(int i = nodes.size() - 2; i >= 0; i--) {
+			Node node = nodes.get(i);
+			for(int j = 1; j < node.count; j++)
+				children.add(new Position(node.children[j], 0));
+		}
+	}
+	/**
+	 * Splits an overfull node into two halves, inserting the new half in its parent, until the parents fit
+	 */
+	private void split(Node node) {
+		while(node.count > order) {
+			Node right = newNode(node.children == null);
+			int half = (order + 1) / 2;
+			right.count = node.count - half;
+			Object key;
+			if(node.children == null) {
+				System.arraycopy(node.keys, half, right.keys, 0, right.count);
+				Arrays.fill(node.keys, half, node.count, null);
+				key = right.keys[0];
+				right.previous = node;
+				right.next = node.next;
+				if(node.next != null)
+					node.next.previous = right;
+				node.next = right;
+			} else {
+				System.arraycopy(node.children, half, right.children, 0, right.count);
+				System.arraycopy(node.keys, half, right.keys, 0, right.count - 1);
+				key = node.keys[half - 1];
+				Arrays.fill(node.children, half, node.count, null);
+				Arrays.fill(node.keys, half - 1, node.count - 1, null);
+				for(int i = 0; i < right.count; i++)
+					right.children[i].parent = right;
+			}
+			node.count = half;
+			Node parent = node.parent;
+			if(parent == null) {
+				parent = newNode(false);
+				parent.children[0] = node;
+				parent.count = 1;
+				node.parent = parent;
+				root = parent;
+				height++;
+			}
+			int index = indexOf(parent, node);
+			System.arraycopy(parent.children, index + 1, parent.children, index + 2, parent.count - index - 1);
+			System.arraycopy(parent.keys, index, parent.keys, index + 1, parent.count - index - 1);
+			parent.children[index + 1] = right;
+			parent.keys[index] = key;
+			parent.count++;
+			right.parent = parent;
+			node = parent;
+		}
+	}
+	/**
+	 * Refills an underfull node from a sibling, or merges it with one and refills the parent in turn
+	 */
+	private void rebalance(Node node) {
+		while(node != root && node.count < minimum) {
+			Node parent = node.parent;
+			int index = indexOf(parent, node);
+			Node left = index > 0 ? parent.children[index - 1] : null;
+			Node right = index + 1 < parent.count ? parent.children[index + 1] : null;
+			if(left != null && left.count > minimum) {
+				borrowLeft(parent, index, left, node);
+				return;
+			} else if(right != null && right.count > minimum) {
+				borrowRight(parent, index, node, right);
+				return;
+			} else if(left != null)
+				merge(parent, index - 1, left, node);
+			else
+				merge(parent, index, node, right);
+			node = parent;
+		}
+		if(root.children != null && root.count == 1) {
+			root = root.children[0];
+			root.parent = null;
+			height--;
+		}
+	}
+	/**
+	 * Moves the last key or child of left, the child of parent before index, to the front of node
+	 */
+	private void borrowLeft(Node parent, int index, Node left, Node node) {
+		if(node.children == null) {
+			System.arraycopy(node.keys, 0, node.keys, 1, node.count);
+			node.keys[0] = left.keys[left.count - 1];
+			left.keys[left.count - 1] = null;
+			parent.keys[index - 1] = node.keys[0];
+		} else {
+			System.arraycopy(node.children, 0, node.children, 1, node.count);
+			System.arraycopy(node.keys, 0, node.keys, 1, node.count - 1);
+			node.children[0] = left.children[left.count - 1];
+			node.children[0].parent = node;
+			node.keys[0] = parent.keys[index - 1];
+			parent.keys[index - 1] = left.keys[left.count - 2];
+			left.children[left.count - 1] = null;
+			left.keys[left.count - 2] = null;
+		}
+		left.count--;
+		node.count++;
+	}
+	/**
+	 * Moves the first key or child of right, the child of parent after index, to the end of node
+	 */
+	private void borrowRight(Node parent, int index, Node node, Node right) {
+		if(node.children == null) {
+			node.keys[node.count] = right.keys[0];
+			System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+			right.keys[right.count - 1] = null;
+			parent.keys[index] = right.keys[0];
+		} else {
+			node.children[node.count] = right.children[0];
+			node.children[node.count].parent = node;
+			node.keys[node.count - 1] = parent.keys[index];
+			parent.keys[index] = right.keys[0];
+			System.arraycopy(right.children, 1, right.children, 0, right.count - 1);
+			System.arraycopy(right.keys, 1, right.keys, 0, right.count - 2);
+			right.children[right.count - 1] = null;
+			right.keys[right.count - 2] = null;
+		}
+		right.count--;
+		node.count++;
+	}
+	/**
+	 * Appends right, the child of parent after index, to left and removes it from parent
+	 */
+	private void merge(Node parent, int index, Node left, Node right) {
+		if(left.children == null) {
+			System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+			left.next = right.next;
+			if(right.next != null)
+				right.next.previous = left;
+		} else {
+			left.keys[left.count - 1] = parent.keys[index];
+			System.arraycopy(right.keys, 0, left.keys, left.count, right.count - 1);
+			System.arraycopy(right.children, 0, left.children, left.count, right.count);
+			for(int i = 0; i < right.count; i++)
+				right.children[i].parent = left;
+		}
+		left.count += right.count;
+		System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.count - index - 2);
+		System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.count - index - 2);
+		parent.count--;
+		parent.keys[parent.count - 1] = null;
+		parent.children[parent.count] = null;
+	}
+	/**
+	 * Elements of consecutive leaves from a position up to an optional bound
+	 */
+	private class LeafIterator implements Iterator<E> {
+		private Node leaf;
+		private int index;
+		private final E to;
+
+		LeafIterator(Node leaf, int index, E to) {
+			this.leaf = leaf;
+			this.index = index;
+			this.to = to;
+		}
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean hasNext() {
+			while(leaf != null && index == leaf.count) {
+				leaf = leaf.next;
+				index = 0;
+			}
+			return leaf != null && (to == null || ((E) leaf.keys[index]).compareTo(to) < 0);
+		}
+		@SuppressWarnings("unchecked")
+		@Override
+		public E next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			return (E) leaf.keys[index++];
+		}
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("elements cannot be removed through an iterator");
+		}
+	}
+}
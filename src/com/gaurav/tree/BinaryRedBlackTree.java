@@ -15,8 +15,8 @@ package com.gaurav.tree;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 
@@ -24,9 +24,10 @@ import java.util.List;
  * 
  * @author Gaurav Saxena
  * ImplementsSelf-balancing red black tree as given in <a href='http://en.wikipedia.org/wiki/Red%E2%80%93black_tree'>Wikipedia</a>
+ * Elements are ordered by the comparator given to the tree, or by their natural order which requires them to be {@link Comparable}.
  * @param <E>
  */
-public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+public class BinaryRedBlackTree<E> implements SortedTree<E>, Cloneable {
 	private class Node {
 		Node parent, left, right;
 		E value;
@@ -36,7 +37,24 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	private int size = 0;
 	private int depth = 0;
 	private Node root;
-	
+	private final KeyOrder<E> order;
+
+	public BinaryRedBlackTree() {
+		this(null);
+	}
+	/**
+	 * @param comparator orders the elements, null for their natural order. {@link IntKeyComparator} and {@link LongKeyComparator}
+	 * let lookups compare primitive keys
+	 */
+	public BinaryRedBlackTree(Comparator<? super E> comparator) {
+		order = new KeyOrder<E>(comparator);
+	}
+	/**
+	 * @return the comparator ordering the elements, or null if they are in their natural order
+	 */
+	public Comparator<? super E> comparator() {
+		return order.comparator();
+	}
 	@Override
 	public boolean add(E child) {
 		try {
@@ -62,40 +80,37 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		checkNode(child);
 		mendTree(parent, addChild(parent, child));
 		size++;
-		depth = recalculateDepth(root, 0);
+		depth = recalculateDepth();
 		return true;
 	}
-	private Node node(Node parent, Comparable<E> child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return node(right, child);
-			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return node(left, child);
+	private Node node(Node parent, E child) throws NodeNotFoundException {
+		long key = order.key(child);
+		while(parent != null) {
+			int comparison = order.compare(child, key, parent.value);
+			if(comparison > 0)
+				parent = parent.right;
+			else if(comparison < 0)
+				parent = parent.left;
 			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else
-			return parent;
+				return parent;
+		}
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	private Node findParent(Node parent, E child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return findParent(right, child);
+		long key = order.key(child);
+		while(true) {
+			int comparison = order.compare(child, key, parent.value);
+			Node next;
+			if(comparison > 0)
+				next = parent.right;
+			else if(comparison < 0)
+				next = parent.left;
 			else
+				return null;//Such a node already exists
+			if(next == null)
 				return parent;
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return findParent(left, child);
-			else
-				return parent;
-		} else
-			return null;//Such a node already exists
+			parent = next;
+		}
 	}
 	private void mendTree(Node parent, Node child) throws NodeNotFoundException {
 		inserCase1(parent, child);
@@ -194,7 +209,7 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	/**
 	 * Unsupported Operation
-	 * A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Comparable)})
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Object)})
 	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
 	 **/
 	@Override
@@ -217,6 +232,15 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	public boolean addAll(E parent, Collection<? extends E> c) {
 		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
 	}
+	/**
+	 * Unsupported Operation
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
 	@Override
 	public List<E> children(E e) throws NodeNotFoundException {
 		checkNode(e);
@@ -244,49 +268,61 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		try {
 			clone = (BinaryRedBlackTree<E>) super.clone();
 			clone.depth = this.depth;
-			clone.root = new Node();
+			clone.root = null;
 			clone.size = this.size;
-			copy(clone.root, this.root);
+			if(this.root != null) {
+				clone.root = new Node();
+				copy(clone.root, this.root);
+			}
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
 		return clone;
 	}
-	//TODO change this implementation to an iterative one to avoid StackOverflow in large trees
-		private void copy(Node cloneNode, Node node) {
+	private void copy(Node cloneNode, Node node) {
+		ArrayList<Node> stack = new ArrayList<Node>();//pairs of node and its copy
+		stack.add(node);
+		stack.add(cloneNode);
+		while(!stack.isEmpty()) {
+			cloneNode = stack.remove(stack.size() - 1);
+			node = stack.remove(stack.size() - 1);
+			cloneNode.value = node.value;
+			cloneNode.color = node.color;
 			if(node.left != null) {
 				cloneNode.left = new Node();
 				cloneNode.left.parent = cloneNode;
-				copy(cloneNode.left, node.left);
+				stack.add(node.left);
+				stack.add(cloneNode.left);
 			}
-			cloneNode.value = node.value;
-			cloneNode.color = node.color;
 			if(node.right != null) {
 				cloneNode.right = new Node();
 				cloneNode.right.parent = cloneNode;
-				copy(cloneNode.right, node.right);
+				stack.add(node.right);
+				stack.add(cloneNode.right);
 			}
 		}
+	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		checkNode(node1);
 		checkNode(node2);
 		return new TreeHelper().commonAncestor(this, node1, node2);
 	}
-	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@SuppressWarnings("unchecked")
 	@Override
 	public boolean contains(Object o) {
 		if (o == null || size == 0)
 			return false;
-		else if (o instanceof Comparable) {
+		else {
 			try {
-				node(root, (Comparable) o);
+				node(root, (E) o);
 				return true;
 			} catch (NodeNotFoundException e) {
 				return false;
+			} catch (ClassCastException e) {//o can't be ordered with the elements, but may still equal one
+				return searchTree(root, o) != null;
 			}
-		} else
-			return searchTree(root, o) != null;
+		}
 	}
 	@Override
 	public boolean containsAll(Collection<?> c) {
@@ -300,16 +336,24 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		return depth;
 	}
 	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return TreeHelper.level(this, e);
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return TreeHelper.subtreeSize(this, e);
+	}
+	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inOrderTraversal(root, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return inOrderTraversal(root, new ArrayList<E>());
+			return TreeIterator.toList(traversal(root, Traversal.IN_ORDER));
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -330,30 +374,27 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		return getCurrentList().iterator();
 	}
 	@Override
+	public boolean isLeaf(E e) {
+		try {
+			Node node = existingNode(e);
+			return node.left == null && node.right == null;
+		} catch(NodeNotFoundException ex) {
+			return false;
+		}
+	}
+	@Override
 	public List<E> leaves() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return leaves(root, new ArrayList<E>());
-	}
-	private List<E> leaves(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			leaves(node.left, list);
-		if(node.left == null && node.right == null)
-			list.add(node.value);
-		if(node.right != null)
-			leaves(node.right, list);
-		return list;
+			return TreeIterator.toList(traversal(root, Traversal.LEAVES));
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
-		else {
-			LinkedList<Node> queue = new LinkedList<Node>();
-			queue.add(root);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		else
+			return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -371,13 +412,13 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return postOrderTraversal(root, new ArrayList<E>());
+			return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
 	}
 	public List<E> preOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return preOrderTraversal(root, new ArrayList<E>());
+			return TreeIterator.toList(traversal(root, Traversal.PRE_ORDER));
 	}
 	@Override
 	public E successor(E value) throws NodeNotFoundException {
@@ -441,33 +482,34 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 			Node node;
 			if(isEmpty())
 				return false;
-			else if(o instanceof Comparable) {
-				node = node(root, (Comparable<E>) o);
-			} else
+			try {
+				node = node(root, (E) o);
+			} catch (ClassCastException e) {//o can't be ordered with the elements, but may still equal one
 				node = searchTree(root, o);
+				if(node == null)
+					return false;
+			}
 			boolean remove = remove(node);
 			size--;
-			depth = recalculateDepth(root, 0);
+			depth = recalculateDepth();
 			return remove;
 		} catch (NodeNotFoundException e) {
 			return false;
 		}
 	}
 	private Node searchTree(Node node, Object o) {
-		if(node.left != null) {
-			Node nodeReturned = searchTree(node.left, o);
-			if(nodeReturned != null)
-				return nodeReturned;
-		}
-		if(node.right != null) {
-			Node nodeReturned = searchTree(node.right, o);
-			if(nodeReturned != null)
-				return nodeReturned;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		stack.add(node);
+		while(!stack.isEmpty()) {
+			node = stack.remove(stack.size() - 1);
+			if(o.equals(node.value))
+				return node;
+			if(node.right != null)
+				stack.add(node.right);
+			if(node.left != null)
+				stack.add(node.left);
 		}
-		if(o.equals(node.value))
-			return node;
-		else
-			return null;
+		return null;
 	}
 	private void deleteCaseLeaf(Node node) throws NodeNotFoundException {
 		if(node.left == null && node.right == null) {
@@ -607,6 +649,51 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
 	}
 
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. Missing children count as empty slots, so in-order traversal is sorted as
+	 * {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingNode(from), order);
+	}
+	/**
+	 * Traverses the sub-tree rooted at from iteratively, so that degenerate trees do not overflow the call stack
+	 */
+	private Iterator<E> traversal(Node from, Traversal order) {
+		return new TreeIterator<E, Node>(order, from) {
+			@Override
+			protected E element(Node node) {
+				return node.value;
+			}
+			@Override
+			protected void children(Node node, List<Node> children) {
+				children.add(node.left);
+				children.add(node.right);
+			}
+		};
+	}
 	@Override
 	public E root() {
 		if(isEmpty())
@@ -650,7 +737,7 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		childNode.parent = parentNode;
 		childNode.color = COLOR.RED;
 		childNode.value = child;
-		if(parentNode.value.compareTo(child) < 0)
+		if(order.compare(child, parentNode.value) > 0)
 			parentNode.right = childNode;
 		else
 			parentNode.left = childNode;
@@ -668,54 +755,39 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
+	private Node existingNode(E e) throws NodeNotFoundException {
+		checkNode(e);
+		if(isEmpty())
+			throw new NodeNotFoundException("No node was found for object");
+		return node(root, e);
+	}
 
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			inOrderTraversal(node.left, list);
-		list.add(node.value);
-		if(node.right != null)
-			inOrderTraversal(node.right, list);
-		return list;
-	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Node> queue) {
-		while(!queue.isEmpty()) {
-			list.add(queue.getFirst().value);
-			if(queue.getFirst().left != null)
-				queue.add(queue.getFirst().left);
-			if(queue.getFirst().right != null)
-				queue.add(queue.getFirst().right);
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			postOrderTraversal(node.left, list);
-		if(node.right != null)
-			postOrderTraversal(node.right, list);
-		list.add(node.value);
-		return list;
-	}
-	private List<E> preOrderTraversal(Node node, ArrayList<E> list) {
-		list.add(node.value);
-		if(node.left != null)
-			preOrderTraversal(node.left, list);
-		if(node.right != null)
-			preOrderTraversal(node.right, list);
-		return list;
-	}
-	private int recalculateDepth(Node node, int depth) {
-		int childDepth = depth + 1;
-		if(node.left == null && node.right == null)
-			return childDepth;
-		else {
-			if(node.left != null)
-				depth = Math.max(depth, recalculateDepth(node.left, childDepth));
-			if(node.right != null)
-				depth = Math.max(depth, recalculateDepth(node.right, childDepth));
+	/**
+	 * @return number of nodes on the longest path from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		if(root == null)
+			return depth;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		IntList levels = new IntList();
+		stack.add(root);
+		levels.add(1);
+		while(!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			int level = levels.removeLast();
+			depth = Math.max(depth, level);
+			if(node.left != null) {
+				stack.add(node.left);
+				levels.add(level + 1);
+			}
+			if(node.right != null) {
+				stack.add(node.right);
+				levels.add(level + 1);
+			}
 		}
 		return depth;
 	}
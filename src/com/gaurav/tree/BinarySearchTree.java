@@ -15,17 +15,19 @@ package com.gaurav.tree;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
  * Implements traditional BST as left-right-parent links of a node. This gives log(n) complexity for operations unlike {@link ArrayListBinarySearchTree}.
+ * The tree is not balanced unless it is created with {@link #BinarySearchTree(double)} or {@link #rebalance()} is called.
+ * Elements are ordered by the comparator given to the tree, or by their natural order which requires them to be {@link Comparable}.
  * @author Gaurav Saxena
  *
  * @param <E>
  */
-public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+public class BinarySearchTree<E> implements SortedTree<E>, Cloneable {
 	private class Node {
 		Node parent,
 		left,
@@ -33,8 +35,47 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		E value;
 	}
 	private int size = 0;
-	private int depth = 0;
+	private int depth = 0;//-1 once a removal or rebuild has made it unknown
 	private Node root;
+	private double alpha = 1;//1 keeps the tree unbalanced
+	private int maxSize = 0;//largest size since the whole tree was last rebuilt
+	private final KeyOrder<E> order;
+
+	public BinarySearchTree() {
+		this((Comparator<? super E>) null);
+	}
+	/**
+	 * @param comparator orders the elements, null for their natural order. {@link IntKeyComparator} and {@link LongKeyComparator}
+	 * let lookups compare primitive keys
+	 */
+	public BinarySearchTree(Comparator<? super E> comparator) {
+		order = new KeyOrder<E>(comparator);
+	}
+	/**
+	 * Creates a <a href="http://en.wikipedia.org/wiki/Scapegoat_tree">scapegoat tree</a>. When an add leaves a node deeper than
+	 * log<sub>1/alpha</sub>(size), the lowest ancestor with a child holding more than alpha of its nodes is rebuilt into a
+	 * perfectly balanced sub-tree. A removal rebuilds the whole tree once size drops below alpha of its largest size since the
+	 * last such rebuild. Subtree sizes are counted during the rebuild, so nodes carry no balance information.
+	 * @param alpha between 0.5 and 1, both exclusive. Smaller values keep the tree shallower but rebuild more often
+	 */
+	public BinarySearchTree(double alpha) {
+		this(null, alpha);
+	}
+	/**
+	 * Creates a scapegoat tree as {@link #BinarySearchTree(double)} ordered as {@link #BinarySearchTree(Comparator)}
+	 */
+	public BinarySearchTree(Comparator<? super E> comparator, double alpha) {
+		this(comparator);
+		if(!(alpha > 0.5 && alpha < 1))
+			throw new IllegalArgumentException("alpha of a scapegoat tree should be between 0.5 and 1");
+		this.alpha = alpha;
+	}
+	/**
+	 * @return the comparator ordering the elements, or null if they are in their natural order
+	 */
+	public Comparator<? super E> comparator() {
+		return order.comparator();
+	}
 	/** 
 	 * A binary search tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)
 	 * The method throws {@link UnsupportedOperationException}
@@ -43,6 +84,14 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	public boolean add(E parent, E child) throws NodeNotFoundException {
 		throw new UnsupportedOperationException("A binary search tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
 	}
+	/**
+	 * A binary search tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * The method throws {@link UnsupportedOperationException}
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A binary search tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
 	/**
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root 
 	 * @see java.util.Collection#add(java.lang.Object)
@@ -56,7 +105,7 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 			} else {
 				Node parent = findParent(root, child);
 				if(parent != null) {
-					addChild(parent, child, parent.value.compareTo(child) > 0);
+					addChild(parent, child, order.compare(child, parent.value) < 0);
 					return true;
 				} else
 					return false;
@@ -77,7 +126,150 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		else
 			parent.right = childNode;
 		size++;
-		depth = recalculateDepth(root, 0);
+		int level = 1;
+		for(Node i = childNode; i.parent != null; i = i.parent)
+			level++;
+		if(depth != -1)
+			depth = Math.max(depth, level);
+		maxSize = Math.max(maxSize, size);
+		if(alpha < 1 && level - 1 > Math.log(size) / Math.log(1 / alpha))
+			rebuild(scapegoat(childNode));
+	}
+	/**
+	 * @return the lowest ancestor of node having a child with more than alpha of its nodes. One exists whenever node is
+	 * deeper than log<sub>1/alpha</sub>(size)
+	 */
+	private Node scapegoat(Node node) {
+		int size = 1;
+		while(node.parent != null) {
+			Node parent = node.parent;
+			int parentSize = size + 1 + count(parent.left == node ? parent.right : parent.left);
+			if(size > alpha * parentSize)
+				return parent;
+			node = parent;
+			size = parentSize;
+		}
+		return node;
+	}
+	private int count(Node node) {
+		int count = 0;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		if(node != null)
+			stack.add(node);
+		while(!stack.isEmpty()) {
+			node = stack.remove(stack.size() - 1);
+			count++;
+			if(node.left != null)
+				stack.add(node.left);
+			if(node.right != null)
+				stack.add(node.right);
+		}
+		return count;
+	}
+	/**
+	 * Relinks the nodes of the sub-tree rooted at node into a perfectly balanced sub-tree in linear time
+	 */
+	private void rebuild(Node node) {
+		Node parent = node.parent;
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		ArrayList<Node> stack = new ArrayList<Node>();
+		for(Node i = node; i != null || !stack.isEmpty(); i = i.right) {
+			for(; i != null; i = i.left)
+				stack.add(i);
+			i = stack.remove(stack.size() - 1);
+			nodes.add(i);
+		}
+		Node subtree = build(nodes, 0, nodes.size(), parent);
+		if(parent == null)
+			root = subtree;
+		else if(parent.left == node)
+			parent.left = subtree;
+		else
+			parent.right = subtree;
+		depth = -1;
+	}
+	/**
+	 * Recursion is only as deep as the balanced sub-tree it builds
+	 * @param to exclusive
+	 */
+	private Node build(List<Node> nodes, int from, int to, Node parent) {
+		if(from == to)
+			return null;
+		int middle = (from + to) >>> 1;
+		Node node = nodes.get(middle);
+		node.parent = parent;
+		node.left = build(nodes, from, middle, node);
+		node.right = build(nodes, middle + 1, to, node);
+		return node;
+	}
+	/**
+	 * Balances the whole tree in place with the <a href="http://en.wikipedia.org/wiki/Day%E2%80%93Stout%E2%80%93Warren_algorithm">
+	 * Day-Stout-Warren</a> algorithm. Right rotations first straighten the tree into a sorted vine, then rounds of left rotations
+	 * fold the vine into a tree with every level full except the last. This takes linear time and no extra space, and works
+	 * whether or not the tree balances itself.
+	 */
+	public void rebalance() {
+		if(root == null)
+			return;
+		Node pseudoRoot = new Node();
+		pseudoRoot.right = root;
+		Node tail = pseudoRoot;
+		for(Node rest = root; rest != null;) {
+			if(rest.left == null) {
+				tail = rest;
+				rest = rest.right;
+			} else {
+				Node left = rest.left;
+				rest.left = left.right;
+				left.right = rest;
+				rest = left;
+				tail.right = left;
+			}
+		}
+		int leaves = size + 1 - Integer.highestOneBit(size + 1);
+		compress(pseudoRoot, leaves);
+		for(int vine = size - leaves; vine > 1; vine /= 2)
+			compress(pseudoRoot, vine / 2);
+		root = pseudoRoot.right;
+		root.parent = null;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		stack.add(root);
+		while(!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			if(node.left != null) {
+				node.left.parent = node;
+				stack.add(node.left);
+			}
+			if(node.right != null) {
+				node.right.parent = node;
+				stack.add(node.right);
+			}
+		}
+		depth = 32 - Integer.numberOfLeadingZeros(size);
+		maxSize = size;
+	}
+	/**
+	 * Exports a read only snapshot for long lived lookups. The snapshot is balanced whatever the shape of this tree, and
+	 * its elements are packed in one array in van Emde Boas order, so that a search from the root reads few cache lines
+	 * while the nodes of this tree are wherever they were allocated.
+	 * @return the elements of the tree, ordered as the tree
+	 * @see StaticSortedTree.Layout#VAN_EMDE_BOAS
+	 */
+	public StaticSortedTree<E> toVebLayout() {
+		return new StaticSortedTree<E>(this, comparator(), StaticSortedTree.Layout.VAN_EMDE_BOAS);
+	}
+	/**
+	 * Left rotates count alternate nodes down the right spine below pseudoRoot
+	 */
+	private void compress(Node pseudoRoot, int count) {
+		Node scanner = pseudoRoot;
+		for(int i = 0; i < count; i++) {
+			Node child = scanner.right;
+			scanner.right = child.right;
+			scanner = scanner.right;
+			child.right = scanner.left;
+			scanner.left = child;
+		}
 	}
 
 	@Override
@@ -97,21 +289,18 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 			return false;
 		}
 	}
-	private Node node(Node parent, Comparable<E> child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return node(right, child);
+	private Node node(Node parent, E child) throws NodeNotFoundException {
+		long key = order.key(child);
+		while(parent != null) {
+			int comparison = order.compare(child, key, parent.value);
+			if(comparison > 0)
+				parent = parent.right;
+			else if(comparison < 0)
+				parent = parent.left;
 			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return node(left, child);
-			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else
-			return parent;
+				return parent;
+		}
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public List<E> children(E e) throws NodeNotFoundException {
@@ -133,6 +322,7 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		root = null;
 		size = 0;
 		depth = 0;
+		maxSize = 0;
 	}
 	@Override
 	@SuppressWarnings("unchecked")
@@ -141,26 +331,37 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		try {
 			clone = (BinarySearchTree<E>) super.clone();
 			clone.depth = this.depth;
-			clone.root = new Node();
+			clone.root = null;
 			clone.size = this.size;
-			copy(clone.root, this.root);
+			if(this.root != null) {
+				clone.root = new Node();
+				copy(clone.root, this.root);
+			}
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
 		return clone;
 	}
-	//TODO change this implementation to an iterative one to avoid StackOverflow in large trees
 	private void copy(Node cloneNode, Node node) {
-		if(node.left != null) {
-			cloneNode.left = new Node();
-			cloneNode.left.parent = cloneNode;
-			copy(cloneNode.left, node.left);
-		}
-		cloneNode.value = node.value;
-		if(node.right != null) {
-			cloneNode.right = new Node();
-			cloneNode.right.parent = cloneNode;
-			copy(cloneNode.right, node.right);
+		ArrayList<Node> stack = new ArrayList<Node>();//pairs of node and its copy
+		stack.add(node);
+		stack.add(cloneNode);
+		while(!stack.isEmpty()) {
+			cloneNode = stack.remove(stack.size() - 1);
+			node = stack.remove(stack.size() - 1);
+			cloneNode.value = node.value;
+			if(node.left != null) {
+				cloneNode.left = new Node();
+				cloneNode.left.parent = cloneNode;
+				stack.add(node.left);
+				stack.add(cloneNode.left);
+			}
+			if(node.right != null) {
+				cloneNode.right = new Node();
+				cloneNode.right.parent = cloneNode;
+				stack.add(node.right);
+				stack.add(cloneNode.right);
+			}
 		}
 	}
 	@Override
@@ -174,15 +375,15 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	public boolean contains(Object o) {
 		if(o == null || isEmpty())
 			return false;
-		else if (o instanceof Comparable){
+		else {
 			try {
-				return node(root, (Comparable<E>) o) != null;
+				return node(root, (E) o) != null;
 			} catch (NodeNotFoundException e) {
 				return false;
+			} catch (ClassCastException e) {//o can't be ordered with the elements, but may still equal one
+				return searchTree(root, o) != null;
 			}
-		} else
-			return searchTree(root, o) != null;
-			
+		}
 	}
 	@Override
 	public boolean containsAll(Collection<?> c) {
@@ -193,19 +394,29 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public int depth() {
+		if(depth == -1)
+			depth = recalculateDepth();
 		return depth;
 	}
 	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return TreeHelper.level(this, e);
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return TreeHelper.subtreeSize(this, e);
+	}
+	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inOrderTraversal(root, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return inOrderTraversal(root, new ArrayList<E>());
+			return TreeIterator.toList(traversal(root, Traversal.IN_ORDER));
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -226,30 +437,27 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		return getCurrentList().iterator();
 	}
 	@Override
+	public boolean isLeaf(E e) {
+		try {
+			Node node = existingNode(e);
+			return node.left == null && node.right == null;
+		} catch(NodeNotFoundException ex) {
+			return false;
+		}
+	}
+	@Override
 	public List<E> leaves() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return leaves(root, new ArrayList<E>());
-	}
-	private List<E> leaves(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			leaves(node.left, list);
-		if(node.left == null && node.right == null)
-			list.add(node.value);
-		if(node.right != null)
-			leaves(node.right, list);
-		return list;
+			return TreeIterator.toList(traversal(root, Traversal.LEAVES));
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
-		else {
-			LinkedList<Node> queue = new LinkedList<Node>();
-			queue.add(root);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		else
+			return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -269,13 +477,13 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return postOrderTraversal(root, new ArrayList<E>());
+			return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
 	}
 	public List<E> preOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return preOrderTraversal(root, new ArrayList<E>());
+			return TreeIterator.toList(traversal(root, Traversal.PRE_ORDER));
 	}
 	/**
 	 * Deletes node as mentioned in <a href="http://en.wikipedia.org/wiki/Binary_search_tree#Deletion">BST</a>.
@@ -290,33 +498,39 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 			Node node;
 			if(isEmpty())
 				return false;
-			else if(o instanceof Comparable) {
-				node = node(root, (Comparable<E>) o);
-			} else
+			try {
+				node = node(root, (E) o);
+			} catch (ClassCastException e) {//o can't be ordered with the elements, but may still equal one
 				node = searchTree(root, o);
+				if(node == null)
+					return false;
+			}
 			boolean remove = remove(node);
 			size--;
-			depth = recalculateDepth(root, 0);
+			depth = -1;
+			if(alpha < 1 && size < alpha * maxSize) {
+				if(root != null)
+					rebuild(root);
+				maxSize = size;
+			}
 			return remove;
 		} catch (NodeNotFoundException e) {
 			return false;
 		}
 	}
 	private Node searchTree(Node node, Object o) {
-		if(node.left != null) {
-			Node nodeReturned = searchTree(node.left, o);
-			if(nodeReturned != null)
-				return nodeReturned;
-		}
-		if(node.right != null) {
-			Node nodeReturned = searchTree(node.right, o);
-			if(nodeReturned != null)
-				return nodeReturned;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		stack.add(node);
+		while(!stack.isEmpty()) {
+			node = stack.remove(stack.size() - 1);
+			if(o.equals(node.value))
+				return node;
+			if(node.right != null)
+				stack.add(node.right);
+			if(node.left != null)
+				stack.add(node.left);
 		}
-		if(o.equals(node.value))
-			return node;
-		else
-			return null;
+		return null;
 	}
 	private boolean remove(Node node) throws NodeNotFoundException {
 		int children = 0;
@@ -341,17 +555,27 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		node.value = nodeToReplace.value;
 		remove(nodeToReplace);
 	}
-	private void deleteCase2(Node node) throws NodeNotFoundException {
+	/**
+	 * Links the only child of node to the parent of node
+	 */
+	private void deleteCase2(Node node) {
 		Node child;
 		if(node.left != null)
 			child = node.left;
 		else
 			child = node.right;
-		node.value = child.value;
-		remove(child);
+		child.parent = node.parent;
+		if(node.parent == null)
+			root = child;
+		else if(node.parent.left == node)
+			node.parent.left = child;
+		else
+			node.parent.right = child;
 	}
 	private void deleteCase1(Node node) {
-		if(node.parent.left == node)
+		if(node.parent == null)
+			root = null;
+		else if(node.parent.left == node)
 			node.parent.left = null;
 		else
 			node.parent.right = null;
@@ -411,6 +635,51 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
 	}
 
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. Missing children count as empty slots, so in-order traversal is sorted as
+	 * {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingNode(from), order);
+	}
+	/**
+	 * Traverses the sub-tree rooted at from iteratively, so that degenerate trees do not overflow the call stack
+	 */
+	private Iterator<E> traversal(Node from, Traversal order) {
+		return new TreeIterator<E, Node>(order, from) {
+			@Override
+			protected E element(Node node) {
+				return node.value;
+			}
+			@Override
+			protected void children(Node node, List<Node> children) {
+				children.add(node.left);
+				children.add(node.right);
+			}
+		};
+	}
 	@Override
 	public E root() {
 		if(isEmpty())
@@ -452,61 +721,47 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		rootNode.value = root;
 		this.root = rootNode;
 		size++;
-		depth++;
+		depth = 1;
+		maxSize = Math.max(maxSize, size);
 	}
 
 	private void checkNode(Object child) {
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
+	private Node existingNode(E e) throws NodeNotFoundException {
+		checkNode(e);
+		if(isEmpty())
+			throw new NodeNotFoundException("No node was found for object");
+		return node(root, e);
+	}
 
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			inOrderTraversal(node.left, list);
-		list.add(node.value);
-		if(node.right != null)
-			inOrderTraversal(node.right, list);
-		return list;
-	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Node> queue) {
-		while(!queue.isEmpty()) {
-			list.add(queue.getFirst().value);
-			if(queue.getFirst().left != null)
-				queue.add(queue.getFirst().left);
-			if(queue.getFirst().right != null)
-				queue.add(queue.getFirst().right);
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			postOrderTraversal(node.left, list);
-		if(node.right != null)
-			postOrderTraversal(node.right, list);
-		list.add(node.value);
-		return list;
-	}
-	private List<E> preOrderTraversal(Node node, ArrayList<E> list) {
-		list.add(node.value);
-		if(node.left != null)
-			preOrderTraversal(node.left, list);
-		if(node.right != null)
-			preOrderTraversal(node.right, list);
-		return list;
-	}
-	private int recalculateDepth(Node node, int depth) {
-		int childDepth = depth + 1;
-		if(node.left == null && node.right == null)
-			return childDepth;
-		else {
-			if(node.left != null)
-				depth = Math.max(depth, recalculateDepth(node.left, childDepth));
-			if(node.right != null)
-				depth = Math.max(depth, recalculateDepth(node.right, childDepth));
+	/**
+	 * @return number of nodes on the longest path from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		if(root == null)
+			return depth;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		IntList levels = new IntList();
+		stack.add(root);
+		levels.add(1);
+		while(!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			int level = levels.removeLast();
+			depth = Math.max(depth, level);
+			if(node.left != null) {
+				stack.add(node.left);
+				levels.add(level + 1);
+			}
+			if(node.right != null) {
+				stack.add(node.right);
+				levels.add(level + 1);
+			}
 		}
 		return depth;
 	}
@@ -516,20 +771,20 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 
 	private Node findParent(Node parent, E child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return findParent(right, child);
-			else
-				return parent;
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return findParent(left, child);
+		long key = order.key(child);
+		while(true) {
+			int comparison = order.compare(child, key, parent.value);
+			Node next;
+			if(comparison > 0)
+				next = parent.right;
+			else if(comparison < 0)
+				next = parent.left;
 			else
+				return null;//Such a node already exists
+			if(next == null)
 				return parent;
-		} else
-			return null;//Such a node already exists
+			parent = next;
+		}
 	}
 	/**
 	 * @param parent
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Long addressable byte storage made of {@link ByteBuffer} chunks, as a single buffer cannot hold more than
+ * 2GB. Chunks are either direct buffers allocated by this class, in which case the storage grows on demand, or
+ * buffers supplied by the caller e.g. memory mapped regions of a file.
+ * <br>
+ * All chunks except the last one have the same power of two size, so ints and longs at positions aligned to
+ * their size never span two chunks. Byte ranges may span chunks.
+ * @author Gaurav Saxena
+ */
+final class ChunkedBuffer {
+	private static final int INITIAL_CHUNK_SIZE = 4096;
+	private final int chunkShift;
+	private final long chunkMask;
+	private final boolean growable;
+	private ByteBuffer[] chunks;
+	private int chunkCount;
+	private long capacity;
+
+	/**
+	 * Creates an empty storage which allocates direct chunks of at most 2^chunkShift bytes when it grows
+	 */
+	ChunkedBuffer(int chunkShift) {
+		this.chunkShift = chunkShift;
+		this.chunkMask = (1L << chunkShift) - 1;
+		this.growable = true;
+		this.chunks = new ByteBuffer[1];
+	}
+	/**
+	 * Wraps the given chunks. All of them except the last one must contain exactly 2^chunkShift bytes
+	 */
+	ChunkedBuffer(ByteBuffer[] chunks, int chunkShift) {
+		this.chunkShift = chunkShift;
+		this.chunkMask = (1L << chunkShift) - 1;
+		this.growable = false;
+		this.chunks = chunks;
+		this.chunkCount = chunks.length;
+		for(ByteBuffer chunk : chunks) {
+			chunk.order(ByteOrder.LITTLE_ENDIAN);
+			capacity += chunk.capacity();
+		}
+	}
+	long capacity() {
+		return capacity;
+	}
+	/**
+	 * Makes sure that positions below bytes can be accessed. The first chunk is doubled till it reaches the chunk
+	 * size so that small trees do not reserve a whole chunk per column.
+	 */
+	void ensureCapacity(long bytes) {
+		if(bytes <= capacity)
+			return;
+		if(!growable)
+			throw new IllegalStateException("buffer cannot grow beyond " + capacity + " bytes");
+		long chunkSize = 1L << chunkShift;
+		if(chunkCount <= 1 && capacity < chunkSize) {
+			long newSize = Math.max(capacity, INITIAL_CHUNK_SIZE);
+			while(newSize < bytes && newSize < chunkSize)
+				newSize <<= 1;
+			ByteBuffer chunk = allocate((int) newSize);
+			if(chunkCount == 1) {
+				ByteBuffer old = chunks[0];
+				old.clear();
+				chunk.put(old);
+				chunk.clear();
+				release(old);
+			}
+			chunks[0] = chunk;
+			chunkCount = 1;
+			capacity = newSize;
+		}
+		while(capacity < bytes) {
+			if(chunkCount == chunks.length)
+				chunks = Arrays.copyOf(chunks, chunkCount << 1);
+			chunks[chunkCount++] = allocate((int) chunkSize);
+			capacity += chunkSize;
+		}
+	}
+	byte get(long position) {
+		return chunks[(int) (position >>> chunkShift)].get((int) (position & chunkMask));
+	}
+	void put(long position, byte value) {
+		chunks[(int) (position >>> chunkShift)].put((int) (position & chunkMask), value);
+	}
+	int getInt(long position) {
+		return chunks[(int) (position >>> chunkShift)].getInt((int) (position & chunkMask));
+	}
+	void putInt(long position, int value) {
+		chunks[(int) (position >>> chunkShift)].putInt((int) (position & chunkMask), value);
+	}
+	long getLong(long position) {
+		return chunks[(int) (position >>> chunkShift)].getLong((int) (position & chunkMask));
+	}
+	void putLong(long position, long value) {
+		chunks[(int) (position >>> chunkShift)].putLong((int) (position & chunkMask), value);
+	}
+	void get(long position, byte[] destination, int offset, int length) {
+		for(int i = 0; i < length; i++)
+			destination[offset + i] = get(position + i);
+	}
+	void put(long position, byte[] source, int offset, int length) {
+		for(int i = 0; i < length; i++)
+			put(position + i, source[offset + i]);
+	}
+	/**
+	 * @return true if length bytes starting at position are equal to the first length bytes of source
+	 */
+	boolean rangeEquals(long position, byte[] source, int length) {
+		for(int i = 0; i < length; i++)
+			if(get(position + i) != source[i])
+				return false;
+		return true;
+	}
+	/**
+	 * @return hash of the first length bytes of source. Unlike the hash code of the element they encode, it is the
+	 * same in every JVM and for every two elements with equal encodings.
+	 */
+	static int hash(byte[] source, int length) {
+		int hash = 1;
+		for(int i = 0; i < length; i++)
+			hash = 31 * hash + source[i];
+		return hash;
+	}
+	/**
+	 * @return stream reading bytes from position till limit. The stream is not thread safe but any number of
+	 * streams may read the same buffer concurrently
+	 */
+	RangeInputStream inputStream(long position, long limit) {
+		RangeInputStream stream = new RangeInputStream();
+		stream.reset(position, limit);
+		return stream;
+	}
+	/**
+	 * Releases the memory held by the chunks. The buffer cannot be used afterwards
+	 */
+	void free() {
+		for(int i = 0; i < chunkCount; i++) {
+			release(chunks[i]);
+			chunks[i] = null;
+		}
+		chunkCount = 0;
+		capacity = 0;
+	}
+	private static ByteBuffer allocate(int size) {
+		return ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	/**
+	 * Frees the native memory behind a direct or mapped buffer right away instead of waiting for the buffer to be
+	 * garbage collected. There is no public API for this, so it falls back to garbage collection when neither
+	 * the java 9+ nor the java 6-8 internal API is accessible.
+	 */
+	static void release(ByteBuffer buffer) {
+		if(buffer == null || !buffer.isDirect())
+			return;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+		} catch (Exception e) {
+			try {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if(cleaner != null)
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+			} catch (Exception ex) {
+				//memory will be released when the buffer is garbage collected
+			}
+		}
+	}
+	/**
+	 * Reads a range of the buffer. It can be repositioned so that a single instance, and the
+	 * {@link java.io.DataInputStream} wrapping it, can be used for decoding many elements.
+	 */
+	final class RangeInputStream extends InputStream {
+		private long position;
+		private long limit;
+
+		void reset(long position, long limit) {
+			this.position = position;
+			this.limit = limit;
+		}
+		@Override
+		public int read() {
+			if(position >= limit)
+				return -1;
+			return get(position++) & 0xff;
+		}
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if(len == 0)
+				return 0;
+			if(position >= limit)
+				return -1;
+			int count = (int) Math.min(len, limit - position);
+			get(position, b, off, count);
+			position += count;
+			return count;
+		}
+		@Override
+		public int available() {
+			return (int) Math.min(Integer.MAX_VALUE, limit - position);
+		}
+	}
+}
@@ -0,0 +1,638 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Crit-bit tree, a binary radix tree as given in <a href='http://cr.yp.to/critbit.html'>D. J. Bernstein's notes</a>,
+ * of long keys. Keys are kept in leaves and an inner node holds the most significant bit in which the keys
+ * under its two children differ, so a search tests at most 64 bits and compares a single key at the leaf.
+ * Nothing is ever rebalanced: the shape depends only on the keys and not on the order in which they were added.
+ * Keys are ordered as signed longs, int keys can be added as they are widened.
+ * <br>
+ * Nodes are stored in columns as in {@link ArrayRedBlackTree}: keys of leaves are unboxed in a long array and
+ * an inner node is its crit bit and two child references, so a key costs about 17 bytes. Removed slots are reused.
+ * <br>
+ * As a {@link Tree}, the first key under an inner node is the parent of the first key under its second child,
+ * as in {@link BPlusTree}. The root is the smallest key and every key precedes the keys of its sub-tree, so
+ * pre-order and in-order traversals are sorted.
+ * @author Gaurav Saxena
+ */
+public class CritBitTree implements SortedTree<Long>, Cloneable {
+	private static final int NONE = Integer.MIN_VALUE;//a reference to no node, inner nodes are i and leaves ~i
+	/**
+	 * The highest node of which a key is the first, with the node above it and its level
+	 */
+	private static class Position {
+		int top;
+		int above = NONE;
+		int level = 1;
+	}
+	private long[] keys;//keys of leaves, free leaves are linked through their key
+	private byte[] bits;//crit bits of inner nodes, counted from the least significant
+	private int[] children;//children of inner node i are at 2i and 2i + 1, free inner nodes are linked through 2i
+	private int root = NONE;
+	private int freeLeaf = NONE;
+	private int freeInner = NONE;
+	private int usedLeaves = 0;//leaf slots below usedLeaves have been allocated at least once
+	private int usedInner = 0;
+	private int size = 0;
+	private int depth = 0;//-1 once adding or removing has made it unknown
+
+	public CritBitTree() {
+		this(16);
+	}
+	/**
+	 * @param capacity number of keys the tree can hold before it has to grow its arrays
+	 */
+	public CritBitTree(int capacity) {
+		capacity = Math.max(capacity, 1);
+		keys = new long[capacity];
+		bits = new byte[capacity];
+		children = new int[2 * capacity];
+	}
+	@Override
+	public boolean add(Long e) {
+		checkNode(e);
+		return add(e.longValue());
+	}
+	/**
+	 * Adds key without boxing it
+	 * @return true if key was not present
+	 */
+	public boolean add(long key) {
+		if(size == 0) {
+			root = allocateLeaf(key);
+			size = 1;
+			depth = 1;
+			return true;
+		}
+		int ref = root;
+		while(ref >= 0)
+			ref = children[2 * ref + direction(key, bits[ref])];
+		long other = keys[~ref];
+		if(other == key)
+			return false;
+		int bit = 63 - Long.numberOfLeadingZeros(key ^ other);
+		int parent = NONE;
+		int side = 0;
+		ref = root;
+		while(ref >= 0 && bits[ref] > bit) {//crit bits decrease downwards, so the new inner node goes above the first lower one
+			parent = ref;
+			side = direction(key, bits[ref]);
+			ref = children[2 * ref + side];
+		}
+		int leaf = allocateLeaf(key);
+		int node = allocateInner(bit);
+		int direction = direction(key, bit);
+		children[2 * node + direction] = leaf;
+		children[2 * node + 1 - direction] = ref;
+		if(parent == NONE)
+			root = node;
+		else
+			children[2 * parent + side] = node;
+		size++;
+		depth = -1;
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * A crit-bit tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Long)})
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(Long parent, Long child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A crit-bit tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public boolean addAll(Collection<? extends Long> c) {
+		boolean retVal = false;
+		for (Iterator<? extends Long> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	/**
+	 * Unsupported Operation
+	 * A crit-bit tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.gaurav.tree.Tree#addAll(java.lang.Object, java.util.Collection)
+	 **/
+	@Override
+	public boolean addAll(Long parent, Collection<? extends Long> c) {
+		throw new UnsupportedOperationException("A crit-bit tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Unsupported Operation
+	 * A crit-bit tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(Long node, Long newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A crit-bit tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
+	@Override
+	public List<Long> children(Long e) throws NodeNotFoundException {
+		ArrayList<Integer> refs = new ArrayList<Integer>();
+		children(locate(e).top, refs);
+		ArrayList<Long> list = new ArrayList<Long>(refs.size());
+		for(Integer i : refs)
+			list.add(first(i));
+		return list;
+	}
+	@Override
+	public void clear() {
+		root = NONE;
+		freeLeaf = NONE;
+		freeInner = NONE;
+		usedLeaves = 0;
+		usedInner = 0;
+		size = 0;
+		depth = 0;
+	}
+	@Override
+	public Object clone() {
+		CritBitTree clone = null;
+		try {
+			clone = (CritBitTree) super.clone();
+			clone.keys = keys.clone();
+			clone.bits = bits.clone();
+			clone.children = children.clone();
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	@Override
+	public Long commonAncestor(Long node1, Long node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		return new TreeHelper().commonAncestor(this, node1, node2);
+	}
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Long && contains(((Long) o).longValue());
+	}
+	/**
+	 * Looks for key without boxing it
+	 */
+	public boolean contains(long key) {
+		if(size == 0)
+			return false;
+		int ref = root;
+		while(ref >= 0)
+			ref = children[2 * ref + direction(key, bits[ref])];
+		return keys[~ref] == key;
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * The level of a key is one more than the number of second children on the path to its leaf
+	 * @see com.gaurav.tree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		if(depth == -1) {
+			depth = 0;
+			IntList stack = new IntList();
+			IntList levels = new IntList();
+			stack.add(root);
+			levels.add(1);
+			while(!stack.isEmpty()) {
+				int ref = stack.removeLast();
+				int level = levels.removeLast();
+				if(ref < 0)
+					depth = Math.max(depth, level);
+				else {
+					stack.add(children[2 * ref]);
+					levels.add(level);
+					stack.add(children[2 * ref + 1]);
+					levels.add(level + 1);
+				}
+			}
+		}
+		return depth;
+	}
+	@Override
+	public int level(Long e) throws NodeNotFoundException {
+		return locate(e).level;
+	}
+	@Override
+	public int subtreeSize(Long e) throws NodeNotFoundException {
+		int count = 0;
+		IntList stack = new IntList();
+		stack.add(locate(e).top);
+		while(!stack.isEmpty()) {
+			int ref = stack.removeLast();
+			if(ref < 0)
+				count++;
+			else {
+				stack.add(children[2 * ref]);
+				stack.add(children[2 * ref + 1]);
+			}
+		}
+		return count;
+	}
+	@Override
+	@Deprecated
+	public List<Long> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<Long> inOrderTraversal() {
+		ArrayList<Long> list = new ArrayList<Long>(size);
+		for(Iterator<Long> i = iterator(); i.hasNext();)
+			list.add(i.next());
+		return list;
+	}
+	@Override
+	public boolean isAncestor(Long node, Long child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(Long parent, Long node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterates the keys in sorted order, reading the leaves from left to right without copying them
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Long> iterator() {
+		return new Iterator<Long>() {
+			private final IntList stack = new IntList();//second children still to be visited
+			{
+				if(size > 0)
+					stack.add(root);
+			}
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+			@Override
+			public Long next() {
+				if(stack.isEmpty())
+					throw new NoSuchElementException();
+				int ref = stack.removeLast();
+				while(ref >= 0) {
+					stack.add(children[2 * ref + 1]);
+					ref = children[2 * ref];
+				}
+				return keys[~ref];
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("elements cannot be removed through an iterator");
+			}
+		};
+	}
+	@Override
+	public boolean isLeaf(Long e) {
+		try {
+			return locate(e).top < 0;
+		} catch(NodeNotFoundException ex) {
+			return false;
+		}
+	}
+	@Override
+	public List<Long> leaves() {
+		if(isEmpty())
+			return new ArrayList<Long>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.LEAVES));
+	}
+	@Override
+	public List<Long> levelOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<Long>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public Long parent(Long e) throws NodeNotFoundException {
+		int above = locate(e).above;
+		return above == NONE ? null : first(above);
+	}
+	@Override
+	public List<Long> postOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<Long>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<Long> preOrderTraversal() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return the next larger key, the first under the second child of the lowest inner node where the search
+	 * for value went to the first child, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@Override
+	public Long successor(Long value) throws NodeNotFoundException {
+		checkNode(value);
+		long key = value;
+		int after = NONE;
+		int ref = root;
+		while(ref >= 0) {
+			int side = direction(key, bits[ref]);
+			if(side == 0)
+				after = children[2 * ref + 1];
+			ref = children[2 * ref + side];
+		}
+		if(size == 0 || keys[~ref] != key)
+			throw new NodeNotFoundException("No node was found for object");
+		return after == NONE ? null : first(after);
+	}
+	/**
+	 * @return the next smaller key, the last under the first child of the lowest inner node where the search
+	 * for value went to the second child, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@Override
+	public Long predecessor(Long value) throws NodeNotFoundException {
+		checkNode(value);
+		long key = value;
+		int before = NONE;
+		int ref = root;
+		while(ref >= 0) {
+			int side = direction(key, bits[ref]);
+			if(side == 1)
+				before = children[2 * ref];
+			ref = children[2 * ref + side];
+		}
+		if(size == 0 || keys[~ref] != key)
+			throw new NodeNotFoundException("No node was found for object");
+		return before == NONE ? null : last(before);
+	}
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		return o instanceof Long && remove(((Long) o).longValue());
+	}
+	/**
+	 * Removes key without boxing it. The sibling of its leaf takes the place of their parent.
+	 * @return true if key was present
+	 */
+	public boolean remove(long key) {
+		if(size == 0)
+			return false;
+		int grandparent = NONE;
+		int grandparentSide = 0;
+		int parent = NONE;
+		int side = 0;
+		int ref = root;
+		while(ref >= 0) {
+			grandparent = parent;
+			grandparentSide = side;
+			parent = ref;
+			side = direction(key, bits[ref]);
+			ref = children[2 * ref + side];
+		}
+		if(keys[~ref] != key)
+			return false;
+		freeLeaf(ref);
+		if(parent == NONE)
+			root = NONE;
+		else {
+			int sibling = children[2 * parent + 1 - side];
+			if(grandparent == NONE)
+				root = sibling;
+			else
+				children[2 * grandparent + grandparentSide] = sibling;
+			freeInner(parent);
+		}
+		size--;
+		depth = size == 0 ? 0 : -1;
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public List<Long> preOrderTraversal(Long from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<Long> postOrderTraversal(Long from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<Long> levelOrderTraversal(Long from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<Long> inOrderTraversal(Long from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<Long> leaves(Long from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Keys precede their sub-trees, so in-order traversal is the pre-order traversal, which is sorted
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<Long> iterator(Long from, Traversal order) throws NodeNotFoundException {
+		return traversal(locate(from).top, order == Traversal.IN_ORDER ? Traversal.PRE_ORDER : order);
+	}
+	private Iterator<Long> traversal(int from, Traversal order) {
+		return new TreeIterator<Long, Integer>(order, from) {
+			@Override
+			protected Long element(Integer ref) {
+				return first(ref);
+			}
+			@Override
+			protected void children(Integer ref, List<Integer> children) {
+				CritBitTree.this.children(ref, children);
+			}
+		};
+	}
+	@Override
+	public Long root() {
+		if(isEmpty())
+			return null;
+		else
+			return first(root);
+	}
+	@Override
+	public List<Long> siblings(Long e) throws NodeNotFoundException {
+		Long parent = parent(e);
+		if(parent == null)
+			return new ArrayList<Long>();
+		List<Long> siblings = children(parent);
+		siblings.remove(e);
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof CritBitTree) {
+			try {
+				return ((CritBitTree) o).size() == size
+						&& new TreeHelper().isEqual((CritBitTree) o, this, ((CritBitTree) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	private List<Long> getCurrentList() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return the child of an inner node with crit bit bit under which key is or would be. The sign bit is
+	 * flipped so that negative keys come first.
+	 */
+	private static int direction(long key, int bit) {
+		return (int) (((key ^ Long.MIN_VALUE) >>> bit) & 1);
+	}
+	private long first(int ref) {
+		while(ref >= 0)
+			ref = children[2 * ref];
+		return keys[~ref];
+	}
+	private long last(int ref) {
+		while(ref >= 0)
+			ref = children[2 * ref + 1];
+		return keys[~ref];
+	}
+	/**
+	 * Finds the highest node of which e is the first key, counting the steps to second children
+	 */
+	private Position locate(Long e) throws NodeNotFoundException {
+		checkNode(e);
+		if(size == 0)
+			throw new NodeNotFoundException("No node was found for object");
+		long key = e;
+		Position position = new Position();
+		position.top = root;
+		int ref = root;
+		while(ref >= 0) {
+			int side = direction(key, bits[ref]);
+			int child = children[2 * ref + side];
+			if(side == 1) {
+				position.above = ref;
+				position.top = child;
+				position.level++;
+			}
+			ref = child;
+		}
+		if(keys[~ref] != key)
+			throw new NodeNotFoundException("No node was found for object");
+		return position;
+	}
+	/**
+	 * Appends the children of the key first under ref in sorted order, the second children of the inner
+	 * nodes it is the first key of, from the lowest
+	 */
+	private void children(int ref, List<Integer> list) {
+		IntList spine = new IntList();
+		for(; ref >= 0; ref = children[2 * ref])
+			spine.add(children[2 * ref + 1]);
+		for(int i = spine.size() - 1; i >= 0; i--)
+			list.add(spine.get(i));
+	}
+	/**
+	 * @return reference to a leaf holding key, taken from the free leaves or else from the unused end of the array
+	 */
+	private int allocateLeaf(long key) {
+		int slot;
+		if(freeLeaf != NONE) {
+			slot = freeLeaf;
+			freeLeaf = (int) keys[slot];
+		} else {
+			if(usedLeaves == keys.length)
+				keys = Arrays.copyOf(keys, usedLeaves << 1);
+			slot = usedLeaves++;
+		}
+		keys[slot] = key;
+		return ~slot;
+	}
+	private int allocateInner(int bit) {
+		int slot;
+		if(freeInner != NONE) {
+			slot = freeInner;
+			freeInner = children[2 * slot];
+		} else {
+			if(usedInner == bits.length) {
+				bits = Arrays.copyOf(bits, usedInner << 1);
+				children = Arrays.copyOf(children, usedInner << 2);
+			}
+			slot = usedInner++;
+		}
+		bits[slot] = (byte) bit;
+		return slot;
+	}
+	private void freeLeaf(int ref) {
+		keys[~ref] = freeLeaf;
+		freeLeaf = ~ref;
+	}
+	private void freeInner(int slot) {
+		children[2 * slot] = freeInner;
+		freeInner = slot;
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts elements of a tree to bytes and back. It is used by the trees which keep their elements outside
+ * the java heap e.g. {@link OffHeapTree}. Commonly used codecs are available in {@link ElementCodecs}.
+ * <br>
+ * Encoding must be deterministic i.e. equal elements must always be encoded to the same bytes, as trees
+ * storing encoded elements compare them by their bytes.
+ * @author Gaurav Saxena
+ *
+ * @param <E> object type contained in the tree
+ */
+public interface ElementCodec<E> {
+	/**
+	 * @param element element to be written. It is never null
+	 * @param out output to which bytes of the element are written
+	 * @throws IOException if out fails to write
+	 */
+	public void encode(E element, DataOutput out) throws IOException;
+	/**
+	 * @param in input positioned at the first byte written by {@link #encode(Object, DataOutput)}
+	 * @return element read from in
+	 * @throws IOException if in fails to read or the bytes do not represent an element
+	 */
+	public E decode(DataInput in) throws IOException;
+}
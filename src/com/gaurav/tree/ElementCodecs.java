@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+
+/**
+ * {@link ElementCodec} implementations for commonly used element types
+ * @author Gaurav Saxena
+ */
+public final class ElementCodecs {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	/**
+	 * Writes strings as length followed by UTF-8 bytes. Unlike {@link DataOutput#writeUTF(String)} it is not
+	 * limited to 64K bytes
+	 */
+	public static final ElementCodec<String> STRING = new ElementCodec<String>() {
+		@Override
+		public void encode(String element, DataOutput out) throws IOException {
+			byte[] bytes = element.getBytes(UTF8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		@Override
+		public String decode(DataInput in) throws IOException {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new String(bytes, UTF8);
+		}
+	};
+	public static final ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+		@Override
+		public void encode(Integer element, DataOutput out) throws IOException {
+			out.writeInt(element);
+		}
+		@Override
+		public Integer decode(DataInput in) throws IOException {
+			return in.readInt();
+		}
+	};
+	public static final ElementCodec<Long> LONG = new ElementCodec<Long>() {
+		@Override
+		public void encode(Long element, DataOutput out) throws IOException {
+			out.writeLong(element);
+		}
+		@Override
+		public Long decode(DataInput in) throws IOException {
+			return in.readLong();
+		}
+	};
+
+	private ElementCodecs() {
+	}
+	/**
+	 * Codec using java serialization. It is considerably bigger and slower than a dedicated codec and should only
+	 * be used when there is no other option.
+	 * @return codec for any {@link Serializable} element
+	 */
+	public static <E extends Serializable> ElementCodec<E> serializable() {
+		return new ElementCodec<E>() {
+			@Override
+			public void encode(E element, DataOutput out) throws IOException {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				ObjectOutputStream objectStream = new ObjectOutputStream(bytes);
+				objectStream.writeObject(element);
+				objectStream.close();
+				out.writeInt(bytes.size());
+				out.write(bytes.toByteArray());
+			}
+			@SuppressWarnings("unchecked")
+			@Override
+			public E decode(DataInput in) throws IOException {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+				try {
+					return (E) objectStream.readObject();
+				} catch (ClassNotFoundException e) {
+					throw new IOException(e);
+				} finally {
+					objectStream.close();
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints. It is used as stack and queue of node indexes by the iterative tree
+ * algorithms so that they neither box indexes nor recurse.
+ * @author Gaurav Saxena
+ */
+final class IntList {
+	private int[] elements;
+	private int size = 0;
+
+	IntList() {
+		this(16);
+	}
+	IntList(int capacity) {
+		elements = new int[Math.max(capacity, 1)];
+	}
+	void add(int element) {
+		if(size == elements.length)
+			elements = Arrays.copyOf(elements, size << 1);
+		elements[size++] = element;
+	}
+	int get(int index) {
+		return elements[index];
+	}
+	void set(int index, int element) {
+		elements[index] = element;
+	}
+	int last() {
+		return elements[size - 1];
+	}
+	int removeLast() {
+		return elements[--size];
+	}
+	int size() {
+		return size;
+	}
+	boolean isEmpty() {
+		return size == 0;
+	}
+	void clear() {
+		size = 0;
+	}
+	IntList copy() {
+		IntList copy = new IntList(0);
+		copy.elements = Arrays.copyOf(elements, Math.max(size, 1));
+		copy.size = size;
+		return copy;
+	}
+	int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
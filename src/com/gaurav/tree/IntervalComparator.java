@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.Comparator;
+
+/**
+ * Orders elements spanning closed intervals of long points, such as time ranges in milliseconds, by their start
+ * and then by their end. {@link IntervalTree} reads the ends of its elements through it. Subclasses may override
+ * {@link #compare(Object, Object)} to tell apart elements over the same interval, as long as they order by start
+ * and end first.
+ * @author Gaurav Saxena
+ * @param <E>
+ */
+public abstract class IntervalComparator<E> implements Comparator<E> {
+	/**
+	 * @return first point of e
+	 */
+	public abstract long start(E e);
+	/**
+	 * @return last point of e, not before its start
+	 */
+	public abstract long end(E e);
+
+	@Override
+	public int compare(E e1, E e2) {
+		long start1 = start(e1), start2 = start(e2);
+		if(start1 != start2)
+			return start1 < start2 ? -1 : 1;
+		long end1 = end(e1), end2 = end(e2);
+		return end1 < end2 ? -1 : (end1 == end2 ? 0 : 1);
+	}
+}
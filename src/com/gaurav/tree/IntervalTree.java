@@ -0,0 +1,796 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Interval tree as given in <a href='http://en.wikipedia.org/wiki/Interval_tree#Augmented_tree'>Wikipedia</a>, a
+ * red black tree of elements spanning intervals, ordered by start as {@link BinaryRedBlackTree} orders by its
+ * comparator. Every node also holds the largest end in its sub-tree, which rotations and removals keep up to date,
+ * so {@link #overlapping(long, long)} skips the sub-trees that end too early or start too late and finds each
+ * overlapping element in O(log n) steps.
+ * <br>
+ * Like {@link ArrayRedBlackTree}, missing children and the parent of the root are a black nil node.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class IntervalTree<E> implements SortedTree<E>, Cloneable {
+	private class Node {
+		Node parent, left, right;
+		E value;
+		boolean red;
+		long max;//largest end in the sub-tree
+	}
+	private final IntervalComparator<? super E> intervals;
+	private Node nil = newNil();
+	private Node root = nil;
+	private int size = 0;
+	private int depth = 0;//-1 once rotations or removals have made it unknown
+
+	/**
+	 * @param intervals gives the ends of the elements and orders them
+	 */
+	public IntervalTree(IntervalComparator<? super E> intervals) {
+		if(intervals == null)
+			throw new IllegalArgumentException("an interval tree needs an interval comparator");
+		this.intervals = intervals;
+	}
+	/**
+	 * @return the comparator giving the ends of the elements
+	 */
+	public IntervalComparator<? super E> comparator() {
+		return intervals;
+	}
+	@Override
+	public boolean add(E child) {
+		checkNode(child);
+		long end = intervals.end(child);
+		if(end < intervals.start(child))
+			throw new IllegalArgumentException("end of an interval should not be before its start");
+		Node parent = nil;
+		Node node = root;
+		int comparison = 0;
+		int level = 1;
+		while(node != nil) {
+			comparison = intervals.compare(child, node.value);
+			if(comparison == 0) {
+				node.value = child;
+				return false;
+			}
+			parent = node;
+			node = comparison < 0 ? node.left : node.right;
+			level++;
+		}
+		node = new Node();
+		node.value = child;
+		node.max = end;
+		node.red = true;
+		node.left = nil;
+		node.right = nil;
+		node.parent = parent;
+		if(parent == nil)
+			root = node;
+		else if(comparison < 0)
+			parent.left = node;
+		else
+			parent.right = node;
+		for(; parent != nil && parent.max < end; parent = parent.parent)
+			parent.max = end;
+		size++;
+		if(depth != -1)
+			depth = Math.max(depth, level);
+		fixAfterInsertion(node);
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * An interval tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Object)})
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("An interval tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	/**
+	 * Unsupported Operation
+	 * An interval tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.gaurav.tree.Tree#addAll(java.lang.Object, java.util.Collection)
+	 **/
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("An interval tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Unsupported Operation
+	 * An interval tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("An interval tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
+	/**
+	 * Iterates the elements containing point in sorted order. Elements are found as the iterator advances.
+	 * @see #overlapping(long, long)
+	 */
+	public Iterator<E> overlapping(long point) {
+		return overlapping(point, point);
+	}
+	/**
+	 * Iterates the elements overlapping the closed interval from from to to, those starting at or before to and
+	 * ending at or after from, in sorted order. Elements are found as the iterator advances, and the tree
+	 * should not be changed until it is done.
+	 * @return lazy iterator of the overlapping elements
+	 */
+	public Iterator<E> overlapping(long from, long to) {
+		if(to < from)
+			throw new IllegalArgumentException("end of an interval should not be before its start");
+		return new OverlapIterator(from, to);
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		Node node = node(e);
+		ArrayList<E> list = new ArrayList<E>(2);
+		if(node.left != nil)
+			list.add(node.left.value);
+		if(node.right != nil)
+			list.add(node.right.value);
+		return list;
+	}
+	@Override
+	public void clear() {
+		root = nil;
+		size = 0;
+		depth = 0;
+	}
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		IntervalTree<E> clone = null;
+		try {
+			clone = (IntervalTree<E>) super.clone();
+			clone.nil = clone.newNil();
+			clone.root = clone.nil;
+			if(root != nil)
+				clone.root = clone.copy(root, nil);
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	/**
+	 * @return copy of the sub-tree at node of a tree whose nil is nodeNil, made without recursion
+	 */
+	private Node copy(Node node, Node nodeNil) {
+		ArrayList<Node> stack = new ArrayList<Node>();//pairs of node and its copy
+		Node copy = new Node();
+		copy.parent = nil;
+		stack.add(node);
+		stack.add(copy);
+		while(!stack.isEmpty()) {
+			Node cloneNode = stack.remove(stack.size() - 1);
+			Node original = stack.remove(stack.size() - 1);
+			cloneNode.value = original.value;
+			cloneNode.red = original.red;
+			cloneNode.max = original.max;
+			cloneNode.left = nil;
+			cloneNode.right = nil;
+			if(original.left != nodeNil) {
+				cloneNode.left = new Node();
+				cloneNode.left.parent = cloneNode;
+				stack.add(original.left);
+				stack.add(cloneNode.left);
+			}
+			if(original.right != nodeNil) {
+				cloneNode.right = new Node();
+				cloneNode.right.parent = cloneNode;
+				stack.add(original.right);
+				stack.add(cloneNode.right);
+			}
+		}
+		return copy;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		return new TreeHelper().commonAncestor(this, node1, node2);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null)
+			return false;
+		try {
+			return find((E) o) != nil;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	@Override
+	public int depth() {
+		if(depth == -1)
+			depth = recalculateDepth();
+		return depth;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		int level = 0;
+		for(Node node = node(e); node != nil; node = node.parent)
+			level++;
+		return level;
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return TreeHelper.subtreeSize(this, e);
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.IN_ORDER));
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	@Override
+	public Iterator<E> iterator() {
+		if(isEmpty())
+			return new ArrayList<E>().iterator();
+		else
+			return traversal(root, Traversal.IN_ORDER);
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		try {
+			Node node = node(e);
+			return node.left == nil && node.right == nil;
+		} catch(NodeNotFoundException ex) {
+			return false;
+		}
+	}
+	@Override
+	public List<E> leaves() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.LEAVES));
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		Node parent = node(e).parent;
+		return parent == nil ? null : parent.value;
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		if(isEmpty())
+			return new ArrayList<E>();
+		else
+			return TreeIterator.toList(traversal(root, Traversal.PRE_ORDER));
+	}
+	/**
+	 * @return the next larger element, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		Node node = node(value);
+		if(node.right != nil)
+			return minimum(node.right).value;
+		Node child = node;
+		node = node.parent;
+		while(node != nil && child == node.right) {
+			child = node;
+			node = node.parent;
+		}
+		return node == nil ? null : node.value;
+	}
+	/**
+	 * @return the next smaller element, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		Node node = node(value);
+		if(node.left != nil) {
+			node = node.left;
+			while(node.right != nil)
+				node = node.right;
+			return node.value;
+		}
+		Node child = node;
+		node = node.parent;
+		while(node != nil && child == node.left) {
+			child = node;
+			node = node.parent;
+		}
+		return node == nil ? null : node.value;
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		Node node;
+		try {
+			node = find((E) o);
+		} catch(ClassCastException e) {
+			return false;
+		}
+		if(node == nil)
+			return false;
+		delete(node);
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Missing children count as empty slots, so in-order traversal is sorted as {@link #inOrderTraversal()}
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(node(from), order);
+	}
+	private Iterator<E> traversal(Node from, Traversal order) {
+		return new TreeIterator<E, Node>(order, from) {
+			@Override
+			protected E element(Node node) {
+				return node.value;
+			}
+			@Override
+			protected void children(Node node, List<Node> children) {
+				children.add(node.left == nil ? null : node.left);
+				children.add(node.right == nil ? null : node.right);
+			}
+		};
+	}
+	@Override
+	public E root() {
+		return root == nil ? null : root.value;
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		Node node = node(e);
+		Node parent = node.parent;
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(parent != nil) {
+			Node sibling = node == parent.left ? parent.right : parent.left;
+			if(sibling != nil)
+				siblings.add(sibling.value);
+		}
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		Node node = node(parent).left;
+		return node == nil ? null : node.value;
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		Node node = node(parent).right;
+		return node == nil ? null : node.value;
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof IntervalTree) {
+			try {
+				return ((IntervalTree<E>) o).size() == size
+						&& new TreeHelper().isEqual((IntervalTree<E>) o, this, ((IntervalTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private Node newNil() {
+		Node nil = new Node();
+		nil.parent = nil;
+		nil.left = nil;
+		nil.right = nil;
+		nil.max = Long.MIN_VALUE;
+		return nil;
+	}
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	/**
+	 * @return the node of e, or nil if there is none
+	 */
+	private Node find(E e) {
+		Node node = root;
+		while(node != nil) {
+			int comparison = intervals.compare(e, node.value);
+			if(comparison == 0)
+				return node;
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return nil;
+	}
+	private Node node(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Node node = find(e);
+		if(node == nil)
+			throw new NodeNotFoundException("No node was found for object");
+		return node;
+	}
+	private Node minimum(Node node) {
+		while(node.left != nil)
+			node = node.left;
+		return node;
+	}
+	/**
+	 * Sets the largest end under node from its own and its children's
+	 */
+	private void updateMax(Node node) {
+		node.max = Math.max(intervals.end(node.value), Math.max(node.left.max, node.right.max));
+	}
+	private List<E> getCurrentList() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return number of nodes on the longest path from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		if(root == nil)
+			return depth;
+		ArrayList<Node> stack = new ArrayList<Node>();
+		IntList levels = new IntList();
+		stack.add(root);
+		levels.add(1);
+		while(!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			int level = levels.removeLast();
+			depth = Math.max(depth, level);
+			if(node.left != nil) {
+				stack.add(node.left);
+				levels.add(level + 1);
+			}
+			if(node.right != nil) {
+				stack.add(node.right);
+				levels.add(level + 1);
+			}
+		}
+		return depth;
+	}
+	/**
+	 * The rotated sub-tree keeps its elements, so q takes over the largest end of p
+	 */
+	private void rotateLeft(Node p) {
+		Node q = p.right;
+		p.right = q.left;
+		if(q.left != nil)
+			q.left.parent = p;
+		replace(p, q);
+		q.left = p;
+		p.parent = q;
+		q.max = p.max;
+		updateMax(p);
+		depth = -1;
+	}
+	private void rotateRight(Node q) {
+		Node p = q.left;
+		q.left = p.right;
+		if(p.right != nil)
+			p.right.parent = q;
+		replace(q, p);
+		p.right = q;
+		q.parent = p;
+		p.max = q.max;
+		updateMax(q);
+		depth = -1;
+	}
+	/**
+	 * Puts the sub-tree at by in place of the sub-tree at of
+	 */
+	private void replace(Node of, Node by) {
+		Node parent = of.parent;
+		by.parent = parent;
+		if(parent == nil)
+			root = by;
+		else if(parent.left == of)
+			parent.left = by;
+		else
+			parent.right = by;
+	}
+	private void fixAfterInsertion(Node node) {
+		while(node.parent.red) {
+			Node parent = node.parent;
+			Node grandParent = parent.parent;
+			boolean parentIsLeft = parent == grandParent.left;
+			Node uncle = parentIsLeft ? grandParent.right : grandParent.left;
+			if(uncle.red) {
+				parent.red = false;
+				uncle.red = false;
+				grandParent.red = true;
+				node = grandParent;
+			} else {
+				if(parentIsLeft && node == parent.right) {
+					node = parent;
+					rotateLeft(node);
+				} else if(!parentIsLeft && node == parent.left) {
+					node = parent;
+					rotateRight(node);
+				}
+				node.parent.red = false;
+				grandParent.red = true;
+				if(parentIsLeft)
+					rotateRight(grandParent);
+				else
+					rotateLeft(grandParent);
+			}
+		}
+		root.red = false;
+	}
+	/**
+	 * Unlinks node, moving its successor into its place if it has two children. Only the ancestors of the place
+	 * the child was moved to have lost an element, so their largest ends are updated before the colours are fixed.
+	 */
+	private void delete(Node node) {
+		boolean removedRed = node.red;
+		Node child;//node put in the place of the removed one, possibly nil
+		if(node.left == nil) {
+			child = node.right;
+			replace(node, child);
+		} else if(node.right == nil) {
+			child = node.left;
+			replace(node, child);
+		} else {
+			Node removed = minimum(node.right);
+			removedRed = removed.red;
+			child = removed.right;
+			if(removed.parent == node)
+				child.parent = removed;
+			else {
+				replace(removed, child);
+				removed.right = node.right;
+				removed.right.parent = removed;
+			}
+			replace(node, removed);
+			removed.left = node.left;
+			removed.left.parent = removed;
+			removed.red = node.red;
+		}
+		for(Node i = child.parent; i != nil; i = i.parent)
+			updateMax(i);
+		if(!removedRed)
+			fixAfterDeletion(child);
+		nil.parent = nil;
+		nil.red = false;
+		size--;
+		depth = -1;
+	}
+	/**
+	 * Restores the black height on the path to node, which lost a black node. Node may be nil, whose parent is
+	 * set during the removal.
+	 */
+	private void fixAfterDeletion(Node node) {
+		while(node != root && !node.red) {
+			Node parent = node.parent;
+			if(node == parent.left) {
+				Node sibling = parent.right;
+				if(sibling.red) {
+					sibling.red = false;
+					parent.red = true;
+					rotateLeft(parent);
+					sibling = parent.right;
+				}
+				if(!sibling.left.red && !sibling.right.red) {
+					sibling.red = true;
+					node = parent;
+				} else {
+					if(!sibling.right.red) {
+						sibling.left.red = false;
+						sibling.red = true;
+						rotateRight(sibling);
+						sibling = parent.right;
+					}
+					sibling.red = parent.red;
+					parent.red = false;
+					sibling.right.red = false;
+					rotateLeft(parent);
+					node = root;
+				}
+			} else {
+				Node sibling = parent.left;
+				if(sibling.red) {
+					sibling.red = false;
+					parent.red = true;
+					rotateRight(parent);
+					sibling = parent.left;
+				}
+				if(!sibling.left.red && !sibling.right.red) {
+					sibling.red = true;
+					node = parent;
+				} else {
+					if(!sibling.left.red) {
+						sibling.right.red = false;
+						sibling.red = true;
+						rotateLeft(sibling);
+						sibling = parent.left;
+					}
+					sibling.red = parent.red;
+					parent.red = false;
+					sibling.left.red = false;
+					rotateRight(parent);
+					node = root;
+				}
+			}
+		}
+		node.red = false;
+	}
+	/**
+	 * Walks the tree in order, skipping the sub-trees whose largest end is before from and the right sub-trees
+	 * of nodes starting after to, since all of their elements start later still
+	 */
+	private class OverlapIterator implements Iterator<E> {
+		private final long from;
+		private final long to;
+		private final ArrayList<Node> stack = new ArrayList<Node>();//nodes starting by to whose right sub-trees are still to be visited
+		private Node next;
+
+		OverlapIterator(long from, long to) {
+			this.from = from;
+			this.to = to;
+			descend(root);
+			advance();
+		}
+		private void descend(Node node) {
+			while(node != nil && node.max >= from) {
+				if(intervals.start(node.value) <= to)
+					stack.add(node);
+				node = node.left;
+			}
+		}
+		private void advance() {
+			next = null;
+			while(next == null && !stack.isEmpty()) {
+				Node node = stack.remove(stack.size() - 1);
+				descend(node.right);
+				if(intervals.end(node.value) >= from)
+					next = node;
+			}
+		}
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		@Override
+		public E next() {
+			if(next == null)
+				throw new NoSuchElementException();
+			E value = next.value;
+			advance();
+			return value;
+		}
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("elements cannot be removed through an iterator");
+		}
+	}
+}
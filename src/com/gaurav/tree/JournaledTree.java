@@ -0,0 +1,698 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * Tree which records every change made to an underlying tree in a journal file before returning, so that the
+ * tree can be recovered after a crash. A journaled tree is created over an empty tree and a directory. If the
+ * directory contains a snapshot and a journal from an earlier run, the snapshot is loaded into the tree and the
+ * changes recorded after it are replayed, ignoring a partially written last change.
+ * <br>
+ * {@link #checkpoint()} writes a snapshot of the tree with {@link TreeCodec} and empties the journal. It should be
+ * called often enough that replaying the journal stays cheap.
+ * <br>
+ * Changes are made to the underlying tree and appended to an in memory buffer while holding the lock of this
+ * tree, and then written to the journal and synced to the disk outside it. A thread syncing the journal syncs
+ * the changes of all the threads waiting behind it, so many concurrent changes share a single sync (group
+ * commit). Trees created with a sync delay return without waiting for the sync, and a background thread syncs
+ * the journal at most that many milliseconds after a change, losing at most that window of changes in a
+ * crash.
+ * <br>
+ * As the underlying tree is changed before the change is synced, other threads reading this tree may see a
+ * change before the method making it returns, and so a change which is lost in a crash. A change is durable only
+ * once the method making it, or {@link #sync()}, returns.
+ * <br>
+ * All the methods of this tree are synchronized. Methods changing the tree through other objects, such as
+ * retainAll(), are not supported.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class JournaledTree<E> implements Tree<E>, Closeable {
+	static final String SNAPSHOT = "snapshot";
+	static final String JOURNAL = "journal";
+	private static final int SNAPSHOT_MAGIC = 0x4A435450;
+	private static final int JOURNAL_MAGIC = 0x4A43544A;
+	private static final int HEADER_SIZE = 12;
+	private static final int MAX_RECORD_SIZE = 1 << 30;
+	private static final int MAX_PENDING_SIZE = 1 << 20;
+	private static final byte ADD = 1;
+	private static final byte ADD_TO_PARENT = 2;
+	private static final byte REMOVE = 3;
+	private static final byte CLEAR = 4;
+	private static final byte MOVE = 5;
+	private static final byte ADD_WITHOUT_PARENT = 6;
+	private final Tree<E> tree;
+	private final File directory;
+	private final ElementCodec<E> codec;
+	private final TreeCodec<E> treeCodec;
+	private final FileChannel journal;
+	private final Object fileLock = new Object();
+	private final CRC32 crc = new CRC32();
+	private final RecordBuffer record = new RecordBuffer();
+	private final DataOutputStream recordOutput = new DataOutputStream(record);
+	private RecordBuffer pending = new RecordBuffer();
+	private RecordBuffer writing = new RecordBuffer();
+	private final Thread syncer;
+	private long generation;
+	private long appended = 0;//guarded by this
+	private long durable = 0;//guarded by fileLock
+	private volatile IOException failure;
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a tree whose changes are synced to the journal before the changing methods return
+	 * @see #JournaledTree(Tree, File, ElementCodec, long)
+	 */
+	public JournaledTree(Tree<E> tree, File directory, ElementCodec<E> codec) throws IOException {
+		this(tree, directory, codec, 0);
+	}
+	/**
+	 * Recovers the tree from the directory, if it contains a snapshot or a journal, and opens the journal
+	 * @param tree empty tree which holds the nodes. It should not be changed other than through this tree
+	 * @param directory directory of the snapshot and the journal. It is created if it does not exist
+	 * @param codec codec used to write the elements to the snapshot and the journal
+	 * @param syncDelayMillis 0 if changing methods should wait for their changes to be synced, otherwise the
+	 * maximum time in milliseconds for which changes may stay unsynced
+	 * @throws IOException if the directory cannot be read or written
+	 */
+	public JournaledTree(Tree<E> tree, File directory, ElementCodec<E> codec, long syncDelayMillis) throws IOException {
+		if(!tree.isEmpty())
+			throw new IllegalArgumentException("journaled tree can be created only over an empty tree");
+		if(syncDelayMillis < 0)
+			throw new IllegalArgumentException("sync delay cannot be negative");
+		if(!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("directory " + directory + " could not be created");
+		this.tree = tree;
+		this.directory = directory;
+		this.codec = codec;
+		this.treeCodec = new TreeCodec<E>(codec);
+		generation = readSnapshot();
+		journal = FileChannel.open(new File(directory, JOURNAL).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long end = replayJournal();
+			if(end < 0)
+				resetJournal();
+			else {
+				journal.truncate(end);
+				journal.position(end);
+				journal.force(false);
+			}
+		} catch(IOException e) {
+			journal.close();
+			throw e;
+		}
+		if(syncDelayMillis > 0) {
+			syncer = new Syncer(syncDelayMillis);
+			syncer.start();
+		} else
+			syncer = null;
+	}
+	/**
+	 * Writes a snapshot of the tree and empties the journal. Changes wait till the snapshot is written.
+	 * @throws IOException if the snapshot or the journal cannot be written
+	 */
+	public void checkpoint() throws IOException {
+		synchronized (fileLock) {
+			synchronized (this) {
+				checkOpen();
+				File temporary = new File(directory, SNAPSHOT + ".tmp");
+				FileOutputStream out = new FileOutputStream(temporary);
+				try {
+					DataOutputStream data = new DataOutputStream(out);
+					data.writeInt(SNAPSHOT_MAGIC);
+					data.writeLong(generation + 1);
+					treeCodec.write(tree, out);
+					out.getFD().sync();
+				} finally {
+					out.close();
+				}
+				Files.move(temporary.toPath(), new File(directory, SNAPSHOT).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				syncDirectory();
+				//the journal of the previous generation is ignored from now on, even if resetting it fails
+				generation++;
+				pending.reset();
+				resetJournal();
+				durable = appended;
+			}
+		}
+	}
+	/**
+	 * Waits till all the changes made so far are synced to the journal
+	 * @throws IOException if the journal cannot be written
+	 */
+	public void sync() throws IOException {
+		long sequence;
+		synchronized (this) {
+			sequence = appended;
+		}
+		awaitDurable(sequence);
+	}
+	/**
+	 * Syncs the journal and closes it. The underlying tree is not affected. Closing a closed tree has no effect.
+	 * @throws IOException if the journal cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+		try {
+			sync();
+		} finally {
+			synchronized (fileLock) {
+				synchronized (this) {
+					closed = true;
+				}
+				journal.close();
+			}
+			if(syncer != null)
+				syncer.interrupt();
+		}
+	}
+	/**
+	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root 
+	 * @see java.util.Collection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E e) {
+		long sequence;
+		boolean added;
+		synchronized (this) {
+			checkOpen();
+			added = tree.add(e);
+			sequence = append(ADD, null, e);
+		}
+		commit(sequence);
+		return added;
+	}
+	/**
+	 * A null parent is recorded separately from {@link #add(Object)}, so that replaying the journal calls
+	 * the same method
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 */
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		long sequence;
+		boolean added;
+		synchronized (this) {
+			checkOpen();
+			added = tree.add(parent, child);
+			sequence = parent == null ? append(ADD_WITHOUT_PARENT, null, child) : append(ADD_TO_PARENT, parent, child);
+		}
+		commit(sequence);
+		return added;
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (E e : c)
+			retVal |= add(e);
+		return retVal;
+	}
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) throws NodeNotFoundException {
+		boolean retVal = false;
+		for (E e : c)
+			retVal |= add(parent, e);
+		return retVal;
+	}
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		long sequence;
+		synchronized (this) {
+			checkOpen();
+			tree.move(node, newParent);
+			sequence = append(MOVE, newParent, node);
+		}
+		commit(sequence);
+	}
+	@Override
+	public void clear() {
+		long sequence;
+		synchronized (this) {
+			checkOpen();
+			tree.clear();
+			sequence = append(CLEAR, null, null);
+		}
+		commit(sequence);
+	}
+	/**
+	 * Removes the sub-tree rooted at the node passed
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		long sequence;
+		synchronized (this) {
+			checkOpen();
+			if(!tree.remove(o))
+				return false;
+			sequence = append(REMOVE, null, (E) o);
+		}
+		commit(sequence);
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Object o : c)
+			retVal |= remove(o);
+		return retVal;
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+	@Override
+	public synchronized Collection<E> children(E e) throws NodeNotFoundException {
+		return tree.children(e);
+	}
+	@Override
+	public synchronized E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		return tree.commonAncestor(node1, node2);
+	}
+	@Override
+	public synchronized boolean contains(Object o) {
+		return tree.contains(o);
+	}
+	@Override
+	public synchronized boolean containsAll(Collection<?> c) {
+		return tree.containsAll(c);
+	}
+	@Override
+	public synchronized int depth() {
+		return tree.depth();
+	}
+	@Override
+	public synchronized int level(E e) throws NodeNotFoundException {
+		return tree.level(e);
+	}
+	@Override
+	public synchronized int subtreeSize(E e) throws NodeNotFoundException {
+		return tree.subtreeSize(e);
+	}
+	@Override
+	@Deprecated
+	public synchronized Collection<E> inorderOrderTraversal() {
+		return tree.inOrderTraversal();
+	}
+	@Override
+	public synchronized Collection<E> inOrderTraversal() {
+		return tree.inOrderTraversal();
+	}
+	@Override
+	public synchronized boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		return tree.isAncestor(node, child);
+	}
+	@Override
+	public synchronized boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		return tree.isDescendant(parent, node);
+	}
+	@Override
+	public synchronized boolean isEmpty() {
+		return tree.isEmpty();
+	}
+	/**
+	 * Iterator returns nodes as expected from inOrderTraversal. Removing nodes through it is not supported.
+	 * @see java.util.Collection#iterator()
+	 */
+	@Override
+	public synchronized Iterator<E> iterator() {
+		final Iterator<E> iterator = tree.inOrderTraversal().iterator();
+		return new Iterator<E>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+			@Override
+			public E next() {
+				return iterator.next();
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("nodes cannot be removed through the iterator of a journaled tree");
+			}
+		};
+	}
+	@Override
+	public synchronized Collection<E> leaves() {
+		return tree.leaves();
+	}
+	@Override
+	public synchronized boolean isLeaf(E e) {
+		return tree.isLeaf(e);
+	}
+	@Override
+	public synchronized Collection<E> levelOrderTraversal() {
+		return tree.levelOrderTraversal();
+	}
+	@Override
+	public synchronized E parent(E e) throws NodeNotFoundException {
+		return tree.parent(e);
+	}
+	@Override
+	public synchronized Collection<E> postOrderTraversal() {
+		return tree.postOrderTraversal();
+	}
+	@Override
+	public synchronized Collection<E> preOrderTraversal() {
+		return tree.preOrderTraversal();
+	}
+	@Override
+	public synchronized Collection<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.preOrderTraversal(from);
+	}
+	@Override
+	public synchronized Collection<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.postOrderTraversal(from);
+	}
+	@Override
+	public synchronized Collection<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.levelOrderTraversal(from);
+	}
+	@Override
+	public synchronized Collection<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.inOrderTraversal(from);
+	}
+	@Override
+	public synchronized Collection<E> leaves(E from) throws NodeNotFoundException {
+		return tree.leaves(from);
+	}
+	/**
+	 * The iterator reads the underlying tree lazily without holding the lock of this tree, so callers changing the
+	 * tree from other threads should synchronize on this tree while they use it
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public synchronized Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return tree.iterator(from, order);
+	}
+	@Override
+	public synchronized E root() {
+		return tree.root();
+	}
+	@Override
+	public synchronized Collection<E> siblings(E e) throws NodeNotFoundException {
+		return tree.siblings(e);
+	}
+	@Override
+	public synchronized int size() {
+		return tree.size();
+	}
+	@Override
+	public synchronized Object[] toArray() {
+		return tree.toArray();
+	}
+	@Override
+	public synchronized <T> T[] toArray(T[] a) {
+		return tree.toArray(a);
+	}
+	@Override
+	public synchronized String toString() {
+		return tree.toString();
+	}
+	@Override
+	public synchronized int hashCode() {
+		return tree.hashCode();
+	}
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof JournaledTree) {
+			Tree<?> other = ((JournaledTree<?>) o).tree;
+			synchronized (this) {
+				return tree.equals(other);
+			}
+		} else
+			return false;
+	}
+
+	private void checkOpen() {
+		if(closed)
+			throw new IllegalStateException("journal is closed");
+		if(failure != null)
+			throw new IllegalStateException("journal could not be written", failure);
+	}
+	/**
+	 * Appends a record of a change, as length, checksum, type and elements, to the pending buffer
+	 * @return sequence number of the record
+	 */
+	private long append(byte type, E first, E second) {
+		try {
+			record.reset();
+			recordOutput.writeByte(type);
+			if(first != null)
+				codec.encode(first, recordOutput);
+			if(second != null)
+				codec.encode(second, recordOutput);
+			recordOutput.flush();
+			crc.reset();
+			crc.update(record.bytes(), 0, record.size());
+			pending.writeInt(record.size());
+			pending.writeInt((int) crc.getValue());
+			pending.write(record.bytes(), 0, record.size());
+		} catch(IOException e) {
+			throw new IllegalArgumentException("element could not be encoded", e);
+		}
+		return ++appended;
+	}
+	/**
+	 * Waits for the record to be synced, unless the tree syncs with a delay. Those trees sync from the calling
+	 * thread only when too many records are pending.
+	 */
+	private void commit(long sequence) {
+		try {
+			if(syncer == null)
+				awaitDurable(sequence);
+			else {
+				int pendingSize;
+				synchronized (this) {
+					pendingSize = pending.size();
+				}
+				if(pendingSize > MAX_PENDING_SIZE)
+					awaitDurable(sequence);
+			}
+		} catch(IOException e) {
+			throw new IllegalStateException("journal could not be written", e);
+		}
+	}
+	/**
+	 * Threads waiting for the file lock find their records synced by the thread holding it, if they were
+	 * appended before it took the pending buffer
+	 */
+	private void awaitDurable(long sequence) throws IOException {
+		synchronized (fileLock) {
+			if(durable >= sequence)
+				return;
+			if(failure != null)
+				throw failure;
+			long batch;
+			synchronized (this) {
+				batch = appended;
+				RecordBuffer buffer = writing;
+				writing = pending;
+				pending = buffer;
+				pending.reset();
+			}
+			try {
+				ByteBuffer bytes = ByteBuffer.wrap(writing.bytes(), 0, writing.size());
+				while(bytes.hasRemaining())
+					journal.write(bytes);
+				journal.force(false);
+			} catch(IOException e) {
+				failure = e;
+				throw e;
+			}
+			durable = batch;
+		}
+	}
+	/**
+	 * @return generation of the snapshot or 0 if there is no snapshot
+	 */
+	private long readSnapshot() throws IOException {
+		File file = new File(directory, SNAPSHOT);
+		if(!file.exists())
+			return 0;
+		InputStream in = new FileInputStream(file);
+		try {
+			DataInputStream data = new DataInputStream(in);
+			if(data.readInt() != SNAPSHOT_MAGIC)
+				throw new IOException(file + " is not a snapshot");
+			long snapshotGeneration = data.readLong();
+			treeCodec.read(in, tree);
+			return snapshotGeneration;
+		} finally {
+			in.close();
+		}
+	}
+	/**
+	 * Replays the records of the journal of the current generation
+	 * @return position after the last complete record or -1 if the journal does not belong to the generation
+	 */
+	private long replayJournal() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while(header.hasRemaining())
+			if(journal.read(header, header.position()) < 0)
+				return -1;
+		if(header.getInt(0) != JOURNAL_MAGIC || header.getLong(4) != generation)
+			return -1;
+		DataInputStream data = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(directory, JOURNAL)), 1 << 16));
+		try {
+			long position = HEADER_SIZE;
+			data.skipBytes(HEADER_SIZE);
+			byte[] bytes = new byte[256];
+			while(true) {
+				int length;
+				int checksum;
+				try {
+					length = data.readInt();
+					checksum = data.readInt();
+					if(length < 1 || length > MAX_RECORD_SIZE)
+						return position;
+					if(bytes.length < length)
+						bytes = new byte[Math.max(length, bytes.length << 1)];
+					data.readFully(bytes, 0, length);
+				} catch(EOFException e) {
+					return position;//last record was not written completely
+				}
+				crc.reset();
+				crc.update(bytes, 0, length);
+				if((int) crc.getValue() != checksum)
+					return position;
+				replay(new DataInputStream(new ByteArrayInputStream(bytes, 0, length)));
+				position += 8 + length;
+			}
+		} finally {
+			data.close();
+		}
+	}
+	@SuppressWarnings("deprecation")
+	private void replay(DataInputStream record) throws IOException {
+		try {
+			switch(record.readByte()) {
+			case ADD:
+				tree.add(codec.decode(record));
+				break;
+			case ADD_TO_PARENT:
+				tree.add(codec.decode(record), codec.decode(record));
+				break;
+			case ADD_WITHOUT_PARENT:
+				tree.add(null, codec.decode(record));
+				break;
+			case REMOVE:
+				tree.remove(codec.decode(record));
+				break;
+			case CLEAR:
+				tree.clear();
+				break;
+			case MOVE:
+				E newParent = codec.decode(record);
+				tree.move(codec.decode(record), newParent);
+				break;
+			default:
+				throw new IOException("journal contains an unknown record");
+			}
+		} catch(NodeNotFoundException e) {
+			throw new IOException("journal does not match the snapshot", e);
+		}
+	}
+	private void resetJournal() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(JOURNAL_MAGIC).putLong(generation).flip();
+		journal.truncate(0);
+		while(header.hasRemaining())
+			journal.write(header, header.position());
+		journal.position(HEADER_SIZE);
+		journal.force(false);
+	}
+	/**
+	 * Makes the rename of the snapshot durable on file systems which need the directory to be synced
+	 */
+	private void syncDirectory() {
+		try {
+			FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+			try {
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		} catch(IOException e) {
+			//not supported on all platforms
+		}
+	}
+	/**
+	 * Byte output whose buffer can be read without copying
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+		byte[] bytes() {
+			return buf;
+		}
+		void writeInt(int value) {
+			write(value >>> 24);
+			write(value >>> 16);
+			write(value >>> 8);
+			write(value);
+		}
+	}
+	/**
+	 * Syncs the journal periodically for trees which do not sync on every change
+	 */
+	private class Syncer extends Thread {
+		private final long delayMillis;
+
+		Syncer(long delayMillis) {
+			super("tree-journal-sync");
+			this.delayMillis = delayMillis;
+			setDaemon(true);
+		}
+		@Override
+		public void run() {
+			while(!closed) {
+				try {
+					Thread.sleep(delayMillis);
+					sync();
+				} catch(InterruptedException e) {
+					return;
+				} catch(IOException e) {
+					return;//failure is reported to the next change
+				} catch(IllegalStateException e) {
+					return;
+				}
+			}
+		}
+	}
+}
@@ -35,6 +35,14 @@ public class KAryTree<E> extends ArrayListTree<E> {
 		else
 			throw new IndexOutOfBoundsException("Cannot add more than " + k +" children to a parent");
 	}
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		List<E> children = children(newParent);
+		if(children.size() < k || children.contains(node))
+			super.move(node, newParent);
+		else
+			throw new IndexOutOfBoundsException("Cannot add more than " + k +" children to a parent");
+	}
 	/**
 	 * @param parent the parent node
 	 * @param index index of child requested
@@ -52,6 +60,25 @@ public class KAryTree<E> extends ArrayListTree<E> {
 		else
 			return children.get(index);
 	}
+	@Override
+	public void attach(E parent, Tree<E> other) throws NodeNotFoundException {
+		if(parent != null && !other.isEmpty() && children(parent).size() >= k)
+			throw new IndexOutOfBoundsException("Cannot add more than " + k +" children to a parent");
+		super.attach(parent, other);
+	}
+	@Override
+	void splice(int parentIndex, List<E> nodes, IntList parents) {
+		int[] childCounts = new int[nodes.size()];
+		for(int i = 0; i < nodes.size(); i++)
+			if(parents.get(i) > -1 && ++childCounts[parents.get(i)] > k)
+				throw new IndexOutOfBoundsException("Cannot add more than " + k +" children to a parent");
+		super.splice(parentIndex, nodes, parents);
+	}
+	@Override
+	void checkChildCount(int count) {
+		if(count >= k)
+			throw new IndexOutOfBoundsException("Cannot add more than " + k +" children to a parent");
+	}
 	@SuppressWarnings("unchecked")
 	@Override
 	public Object clone() {
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.Comparator;
+
+/**
+ * Compares elements of a sorted tree by its comparator, or by their natural order when there is none. Lookups take
+ * the key of the element they look for once through {@link #key(Object)} and pass it to every
+ * {@link #compare(Object, long, Object)}, so that {@link IntKeyComparator} and {@link LongKeyComparator} only extract
+ * the key of the node being compared.
+ * @author Gaurav Saxena
+ * @param <E>
+ */
+final class KeyOrder<E> {
+	private final Comparator<? super E> comparator;
+	private final IntKeyComparator<? super E> intKey;
+	private final LongKeyComparator<? super E> longKey;
+
+	@SuppressWarnings("unchecked")
+	KeyOrder(Comparator<? super E> comparator) {
+		this.comparator = comparator;
+		intKey = comparator instanceof IntKeyComparator ? (IntKeyComparator<? super E>) comparator : null;
+		longKey = comparator instanceof LongKeyComparator ? (LongKeyComparator<? super E>) comparator : null;
+	}
+	Comparator<? super E> comparator() {
+		return comparator;
+	}
+	/**
+	 * @return true if the comparator orders elements by their {@link #key(Object)} alone
+	 */
+	boolean hasKeys() {
+		return intKey != null || longKey != null;
+	}
+	/**
+	 * @return the primitive key of e for {@link #compare(Object, long, Object)}, 0 if the comparator has none
+	 */
+	long key(E e) {
+		if(intKey != null)
+			return intKey.key(e);
+		else if(longKey != null)
+			return longKey.key(e);
+		else
+			return 0;
+	}
+	/**
+	 * @param key {@link #key(Object)} of e
+	 */
+	@SuppressWarnings("unchecked")
+	int compare(E e, long key, E value) {
+		if(intKey != null) {
+			int valueKey = intKey.key(value);
+			return key < valueKey ? -1 : (key == valueKey ? 0 : 1);
+		} else if(longKey != null) {
+			long valueKey = longKey.key(value);
+			return key < valueKey ? -1 : (key == valueKey ? 0 : 1);
+		} else if(comparator != null)
+			return comparator.compare(e, value);
+		else
+			return ((Comparable<? super E>) e).compareTo(value);
+	}
+	int compare(E e1, E e2) {
+		return compare(e1, key(e1), e2);
+	}
+}
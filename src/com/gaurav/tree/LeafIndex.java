@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Leaves of a tree kept in the order of {@link Tree#leaves()}, as a doubly linked list whose links are found
+ * by hashing the leaves. Membership, insertion next to a leaf and removal take constant time, and listing the
+ * leaves takes time linear in their number.
+ * <br>
+ * Leaves of a sub-tree are consecutive in this order, so trees keep the index up to date by inserting new
+ * leaves at the place of their parent if it was a leaf and otherwise after the last leaf of the sub-tree of
+ * their parent, and by removing the leaves between the first and the last leaf of a removed sub-tree.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+class LeafIndex<E> {
+	private static class Link<E> {
+		E element;
+		Link<E> previous;
+		Link<E> next;
+	}
+	private final HashMap<E, Link<E>> links = new HashMap<E, Link<E>>();
+	private final Link<E> head = new Link<E>();//sentinel, next of the last leaf and previous of the first
+
+	LeafIndex() {
+		head.previous = head;
+		head.next = head;
+	}
+	boolean contains(Object e) {
+		return links.containsKey(e);
+	}
+	int size() {
+		return links.size();
+	}
+	void clear() {
+		links.clear();
+		head.previous = head;
+		head.next = head;
+	}
+	/**
+	 * Inserts leaf after position, or first if position is null
+	 */
+	void insertAfter(E position, E leaf) {
+		Link<E> previous = position == null ? head : links.get(position);
+		Link<E> link = new Link<E>();
+		link.element = leaf;
+		link.previous = previous;
+		link.next = previous.next;
+		previous.next.previous = link;
+		previous.next = link;
+		links.put(leaf, link);
+	}
+	/**
+	 * Inserts the leaves in their order after position, or first if position is null
+	 */
+	void insertAfter(E position, List<E> leaves) {
+		for(E i : leaves) {
+			insertAfter(position, i);
+			position = i;
+		}
+	}
+	void remove(Object leaf) {
+		Link<E> link = links.remove(leaf);
+		link.previous.next = link.next;
+		link.next.previous = link.previous;
+	}
+	/**
+	 * Removes the leaves from first to last, both included
+	 * @return leaves removed in their order
+	 */
+	List<E> removeRange(E first, E last) {
+		ArrayList<E> removed = new ArrayList<E>();
+		Link<E> link = links.get(first);
+		Link<E> previous = link.previous;
+		while(true) {
+			removed.add(link.element);
+			links.remove(link.element);
+			if(link.element.equals(last))
+				break;
+			link = link.next;
+		}
+		previous.next = link.next;
+		link.next.previous = previous;
+		return removed;
+	}
+	/**
+	 * @return leaf before leaf, or null if it is the first
+	 */
+	E previous(E leaf) {
+		Link<E> previous = links.get(leaf).previous;
+		return previous == head ? null : previous.element;
+	}
+	/**
+	 * Keeps the instance of an equal leaf which replaced the leaf in the tree
+	 */
+	void update(E leaf) {
+		Link<E> link = links.get(leaf);
+		if(link != null)
+			link.element = leaf;
+	}
+	List<E> toList() {
+		ArrayList<E> list = new ArrayList<E>(links.size());
+		for(Link<E> i = head.next; i != head; i = i.next)
+			list.add(i.element);
+		return list;
+	}
+}
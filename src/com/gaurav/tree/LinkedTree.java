@@ -18,6 +18,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This is a general purpose tree where each node is free to have any number of children
@@ -27,10 +28,12 @@ import java.util.List;
  *
  * @param <E>
  */
-public class LinkedTree<E> implements Tree<E>, Cloneable{
+public class LinkedTree<E> implements PreOrderTree<E>, Cloneable{
 	private int size = 0;
 	private int depth = 0;
+	private boolean depthStale = false;//set when a move may have changed the depth
 	private Entry<E> root;
+	private LeafIndex<E> leafIndex;//null unless leaves are indexed
 	/* 
 	 * @see java.util.Collection#add(java.lang.Object)
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root
@@ -52,6 +55,8 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 		if(parent == null) {
 			if(isEmpty()) {
 				root = new Entry<E>(child, null);
+				if(leafIndex != null)
+					leafIndex.insertAfter(null, child);
 				size++;
 				depth++;
 				return true;
@@ -62,21 +67,18 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 		Entry<E> childEntry = getNode(child);
 		if(parentEntry != null) {
 			if(childEntry == null) {
-				parentEntry.children.add(new Entry<E>(child, parentEntry));
+				if(leafIndex != null)
+					leafIndex.insertAfter(leafPosition(parentEntry), child);
+				childEntry = new Entry<E>(child, parentEntry);
+				parentEntry.children.add(childEntry);
+				resize(parentEntry, 1);
 				size++;
-				int currentDepth = 1;
-				//TODO extract to a new method
-				while(parentEntry != null) {
-					currentDepth++;
-					parentEntry = parentEntry.parent;
-				}
-				depth = Math.max(currentDepth, depth);
+				depth = Math.max(childEntry.level, depth);
 				return true;
 			} else {
-				if(childEntry.parent != null)
-					childEntry.parent.children.set(childEntry.parent.children.indexOf(childEntry), new Entry<E>(child, parentEntry));
-				else
-					root.element = child;
+				childEntry.element = child;//keeps the children and the position of the replaced node
+				if(leafIndex != null)
+					leafIndex.update(child);
 				return false;
 			}
 		} else
@@ -123,8 +125,11 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	@Override
 	public void clear() {
 		root = null;
+		if(leafIndex != null)
+			leafIndex.clear();
 		size = 0;
 		depth = 0;
+		depthStale = false;
 	}
 	@SuppressWarnings("unchecked")
 	@Override
@@ -133,22 +138,43 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 		try {
 			v = (LinkedTree<E>) super.clone();
 			makeTree(v);
+			if(leafIndex != null) {
+				v.leafIndex = null;
+				v.setLeafIndexed(true);
+			}
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
 		return v;
 	}
+	/**
+	 * @return empty tree of the same class
+	 */
+	@SuppressWarnings("unchecked")
+	private LinkedTree<E> emptyCopy() {
+		try {
+			LinkedTree<E> v = (LinkedTree<E>) super.clone();
+			v.leafIndex = leafIndex == null ? null : new LeafIndex<E>();
+			v.clear();
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
 	private void makeTree(LinkedTree<E> v) {
 		LinkedList<Entry<E>> queue = new LinkedList<Entry<E>>();
 		LinkedList<Entry<E>> newQueue = new LinkedList<Entry<E>>();
 		queue.add(root);
 		newQueue.add(new Entry<E>(root.element, null));
 		v.root = newQueue.getFirst();
+		v.root.size = root.size;
 		while(!queue.isEmpty()) {
 			Entry<E> parent = newQueue.poll();
 			for(Entry<E> i : queue.poll().children) {
 				queue.add(i);
-				parent.children.add(new Entry<E>(i.element, parent));
+				Entry<E> copy = new Entry<E>(i.element, parent);
+				copy.size = i.size;
+				parent.children.add(copy);
 			}
 			newQueue.addAll(parent.children);
 		}
@@ -201,19 +227,25 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	}
 	@Override
 	public int depth() {
+		if(depthStale) {
+			if(root != null) {
+				recalculateDepthAndSize();
+			}
+			depthStale = false;
+		}
 		return depth;
 	}
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inOrderTraversal(root);
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return inOrderTraversal(root);
+			return TreeIterator.toList(iterator(root, Traversal.IN_ORDER));
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -250,37 +282,64 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	public Iterator<E> iterator() {
 		return getCurrentList().iterator();
 	}
+	/**
+	 * Unlike {@link #iterator()}, which iterates over a copy of the nodes, nodes are visited lazily one step at
+	 * a time, so the tree should not be changed while it is being iterated
+	 * @param order order in which nodes are visited
+	 * @return iterator over all the nodes of the tree
+	 */
+	public Iterator<E> iterator(Traversal order) {
+		return iterator(root, order);
+	}
+	/**
+	 * Takes time linear in the number of leaves if leaves are indexed, otherwise the tree is traversed
+	 * @see com.gaurav.tree.Tree#leaves()
+	 */
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
+		if(leafIndex != null)
+			return leafIndex.toList();
+		else if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return leaves(root);
-	}
-	private List<E> leaves(Entry<E> node) {
-		List<Entry<E>> children = node.children;
-		List<E> list = new ArrayList<E>();
-		if(children.size() > 0) {
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.size() / 2); i < len; i++)
-				list.addAll(leaves(node.children.get(i)));
-			if(node.children.isEmpty())
-				list.add(node.element);
-			for(int len = children.size(); i < len; i++)
-				list.addAll(leaves(node.children.get(i)));
-		} else if(node.children.isEmpty())
-			list.add(node.element);
-		return list;
+			return TreeIterator.toList(iterator(root, Traversal.LEAVES));
+	}
+	/**
+	 * Takes constant time if leaves are indexed, otherwise the node is searched
+	 * @see com.gaurav.tree.Tree#isLeaf(java.lang.Object)
+	 */
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		if(leafIndex != null)
+			return leafIndex.contains(e);
+		Entry<E> entry = getNode(e);
+		return entry != null && entry.children.isEmpty();
+	}
+	/**
+	 * Indexes the leaves so that they are kept up to date on every change, making {@link #leaves()} take time
+	 * linear in the number of leaves and {@link #isLeaf(Object)} constant time at the cost of hashing the leaves.
+	 * Enabling the index lists the leaves once and disabling it drops the index.
+	 * @param leafIndexed true to index the leaves
+	 */
+	public void setLeafIndexed(boolean leafIndexed) {
+		if(!leafIndexed)
+			leafIndex = null;
+		else if(leafIndex == null) {
+			LeafIndex<E> index = new LeafIndex<E>();
+			index.insertAfter(null, leaves());
+			leafIndex = index;
+		}
+	}
+	public boolean isLeafIndexed() {
+		return leafIndex != null;
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
-		else {
-			LinkedList<Entry<E>> queue = new LinkedList<Entry<E>>();
-			queue.add(root);
-			return levelOrderTraversal(queue);
-		}
+		else
+			return TreeIterator.toList(iterator(root, Traversal.LEVEL_ORDER));
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -300,14 +359,100 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 			return new ArrayList<E>();
 			
 		else
-			return postOrderTraversal(root);
+			return TreeIterator.toList(iterator(root, Traversal.POST_ORDER));
 	}
 	@Override
 	public List<E> preOrderTraversal() {
 		if(isEmpty())
 			return new ArrayList<E>();
 		else
-			return preOrderTraversal(root);
+			return TreeIterator.toList(iterator(root, Traversal.PRE_ORDER));
+	}
+	@Override
+	public void preOrder(List<E> nodes, IntList parents, IntList slots) {
+		if(!isEmpty())
+			preOrder(root, nodes, parents);
+	}
+	/**
+	 * Appends the nodes of the sub-tree rooted at entry to nodes in pre-order, along with the positions of their
+	 * parents in nodes
+	 */
+	private void preOrder(Entry<E> entry, List<E> nodes, IntList parents) {
+		int offset = nodes.size();
+		EntryCursor cursor = new EntryCursor(entry);
+		while(cursor.next()) {
+			parents.add(cursor.parent() == -1 ? -1 : offset + cursor.parent());
+			nodes.add(cursor.element());
+		}
+	}
+	@Override
+	public Cursor<E> preOrderCursor() {
+		return new EntryCursor(root);
+	}
+	@Override
+	public void load(List<E> nodes, IntList parents, IntList slots) {
+		clear();
+		splice(null, nodes, parents);
+	}
+	@Override
+	public Loader<E> loader() {
+		clear();
+		return new EntryLoader(null);
+	}
+	/**
+	 * Adds the nodes listed in pre-order as the last child of parentEntry, or as the whole tree if parentEntry
+	 * is null
+	 */
+	private void splice(Entry<E> parentEntry, List<E> nodes, IntList parents) {
+		EntryLoader loader = new EntryLoader(parentEntry);
+		for(int i = 0; i < nodes.size(); i++)
+			loader.add(nodes.get(i), parents.get(i), -1);
+		loader.finish();
+	}
+	/**
+	 * Copies the sub-tree rooted at node to a new tree of the same class, in time linear in the size of the
+	 * sub-tree
+	 * @param node root of the sub-tree
+	 * @return new tree whose root is node
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public LinkedTree<E> subtree(E node) throws NodeNotFoundException {
+		checkNode(node);
+		Entry<E> entry = getNode(node);
+		if(entry == null)
+			throw new NodeNotFoundException("No node was found for object");
+		ArrayList<E> nodes = new ArrayList<E>();
+		IntList parents = new IntList();
+		preOrder(entry, nodes, parents);
+		LinkedTree<E> tree = emptyCopy();
+		tree.load(nodes, parents, null);
+		return tree;
+	}
+	/**
+	 * Copies all the nodes of other under parent, so that the root of other becomes the last child of parent.
+	 * Nodes are added in time linear in the size of both the trees, as nodes of this tree are not indexed, and
+	 * depth is updated once.
+	 * @param parent node under which other is copied. Parent is allowed to be null only when this tree is empty.
+	 * In that case, the root of other becomes the root of this tree
+	 * @param other tree to be copied. It is not changed
+	 * @throws NodeNotFoundException if parent is not found
+	 * @throws IllegalArgumentException if a node of other is already present in this tree
+	 */
+	public void attach(E parent, Tree<E> other) throws NodeNotFoundException {
+		Entry<E> parentEntry = null;
+		if(parent == null) {
+			if(!isEmpty())
+				throw new NullPointerException("parent cannot be null except for root element");
+		} else if((parentEntry = getNode(parent)) == null)
+			throw new NodeNotFoundException("No node was found for parent object");
+		ArrayList<E> nodes = new ArrayList<E>(other.size());
+		IntList parents = new IntList(other.size());
+		TreeHelper.preOrder(other, nodes, parents);
+		ArrayList<E> present = new ArrayList<E>(size);
+		if(!isEmpty())
+			preOrder(root, present, new IntList(size));
+		TreeHelper.checkAbsent(present, nodes);
+		splice(parentEntry, nodes, parents);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -319,39 +464,262 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 			boolean isRemoved; 
 			if(node.equals(root)) {
 				root = null;
+				if(leafIndex != null)
+					leafIndex.clear();
 				isRemoved = true;
 				depth = 0;
 				size = 0;
 			} else {
+				resize(node.parent, -node.size);
+				List<E> leaves = leafIndex == null ? null : unindexLeaves(node);
 				isRemoved = node.parent.children.remove(node);
-				size = 0;
-				depth = 0;
-				recalculateDepthAndSize(root, 0);
+				if(leafIndex != null && node.parent.children.isEmpty())
+					leafIndex.insertAfter(leaves.get(leaves.size() - 1), node.parent.element);
+				recalculateDepthAndSize();
 			}
 			return isRemoved;
 		} else
 			return false;
 	}
 
-	private int recalculateDepthAndSize(Entry<E> node, int currentDepth) {
-		int childDepth = currentDepth + 1;
-		size++;
-		if(node.children.isEmpty())
-			return childDepth;
-		else for(Entry<E> i : node.children)
-			depth = Math.max(depth, recalculateDepthAndSize(i, childDepth));
-		return depth;
+	/**
+	 * Relinks the entry of the node to the entry of newParent. Levels of the sub-tree are shifted if the node
+	 * changes level, in which case depth is raised if the sub-tree went deeper and otherwise recalculated by the
+	 * next call to {@link #depth()}
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		checkNode(node);
+		checkNode(newParent);
+		Entry<E> entry = getNode(node);
+		Entry<E> newParentEntry = getNode(newParent);
+		if(entry == null || newParentEntry == null)
+			throw new NodeNotFoundException("No node was found for object");
+		if(entry == root)
+			throw new IllegalArgumentException("root cannot be moved");
+		for(Entry<E> i = newParentEntry; i != null; i = i.parent)
+			if(i == entry)
+				throw new IllegalArgumentException("node cannot be moved to its own sub-tree");
+		resize(entry.parent, -entry.size);
+		List<E> leaves = null;
+		if(leafIndex != null)
+			leaves = unindexLeaves(entry);
+		entry.parent.children.remove(entry);
+		if(leafIndex != null) {
+			E previous = leaves.remove(leaves.size() - 1);
+			if(entry.parent.children.isEmpty())
+				leafIndex.insertAfter(previous, entry.parent.element);
+			leafIndex.insertAfter(leafPosition(newParentEntry), leaves);
+		}
+		newParentEntry.children.add(entry);
+		entry.parent = newParentEntry;
+		resize(newParentEntry, entry.size);
+		relevel(entry, newParentEntry.level + 1);
+	}
+	/**
+	 * Level is kept in every entry and updated when nodes are added or moved
+	 * @see com.gaurav.tree.Tree#level(java.lang.Object)
+	 */
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return existingNode(e).level;
 	}
+	/**
+	 * Size of the sub-tree is kept in every entry and updated along the path to the root when nodes are added,
+	 * moved or removed
+	 * @see com.gaurav.tree.Tree#subtreeSize(java.lang.Object)
+	 */
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return existingNode(e).size;
+	}
+	private Entry<E> existingNode(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Entry<E> entry = getNode(e);
+		if(entry == null)
+			throw new NodeNotFoundException("No node was found for object");
+		return entry;
+	}
+	/**
+	 * Removes entry from the leaf index if it is a leaf, as it is about to get a child
+	 * @return leaf after which the leaves of a new last child of entry are to be inserted, null if they are the
+	 * first leaves
+	 */
+	private E leafPosition(Entry<E> entry) {
+		if(entry.children.isEmpty()) {
+			E previous = leafIndex.previous(entry.element);
+			leafIndex.remove(entry.element);
+			return previous;
+		}
+		while(!entry.children.isEmpty())
+			entry = entry.children.get(entry.children.size() - 1);
+		return entry.element;
+	}
+	/**
+	 * Removes the leaves of the sub-tree rooted at entry, which are consecutive, from the leaf index
+	 * @return leaves removed in their order, followed by the leaf before them or null if there is none
+	 */
+	private List<E> unindexLeaves(Entry<E> entry) {
+		Entry<E> first = entry;
+		while(!first.children.isEmpty())
+			first = first.children.get(0);
+		Entry<E> last = entry;
+		while(!last.children.isEmpty())
+			last = last.children.get(last.children.size() - 1);
+		E previous = leafIndex.previous(first.element);
+		List<E> leaves = leafIndex.removeRange(first.element, last.element);
+		leaves.add(previous);
+		return leaves;
+	}
+	/**
+	 * Adds delta to the sizes of the sub-trees of the entry and all its ancestors
+	 */
+	private void resize(Entry<E> entry, int delta) {
+		for(; entry != null; entry = entry.parent)
+			entry.size += delta;
+	}
+	/**
+	 * Shifts the levels of the sub-tree rooted at entry so that the entry is at level
+	 */
+	private void relevel(Entry<E> entry, int level) {
+		int shift = level - entry.level;
+		if(shift == 0)
+			return;
+		ArrayList<Entry<E>> stack = new ArrayList<Entry<E>>();
+		stack.add(entry);
+		while(!stack.isEmpty()) {
+			Entry<E> i = stack.remove(stack.size() - 1);
+			i.level += shift;
+			depth = Math.max(depth, i.level);
+			stack.addAll(i.children);
+		}
+		if(shift < 0)
+			depthStale = true;
+	}
+
+	/**
+	 * Counts the entries reachable from the root and finds the greatest level among them, without recursion
+	 */
+	private void recalculateDepthAndSize() {
+		size = 0;
+		depth = 0;
+		ArrayList<Entry<E>> stack = new ArrayList<Entry<E>>();
+		stack.add(root);
+		while(!stack.isEmpty()) {
+			Entry<E> entry = stack.remove(stack.size() - 1);
+			size++;
+			depth = Math.max(depth, entry.level);
+			stack.addAll(entry.children);
+		}
+	}
+	/** Removes the sub-tree rooted at the nodes in the collection passed. The nodes are found in one pass over the
+	 * tree and depth and size are recalculated once, however many nodes are removed.
+	 * @see java.util.Collection#removeAll(java.util.Collection)
+	 */
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		boolean retVal = false;
-		for (Object e: c)
-			retVal |= remove(e);
-		return retVal;
+		return removeSubtrees(c, false);
 	}
+	/**
+	 * Removes the sub-trees rooted at the nodes which are not present in the collection passed. A node present
+	 * in the collection is removed as well if any of its ancestors is not.
+	 * @see java.util.Collection#retainAll(java.util.Collection)
+	 */
 	@Override
 	public boolean retainAll(Collection<?> c) {
-		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+		return removeSubtrees(c, true);
+	}
+	/**
+	 * Filters the children of every kept entry in one pass over the tree, and then recalculates sizes of the
+	 * sub-trees in one pass back over the kept entries, and depth
+	 * @param retain true if nodes present in c are kept, false if they are removed
+	 */
+	private boolean removeSubtrees(Collection<?> c, boolean retain) {
+		if(isEmpty())
+			return false;
+		Set<?> set = TreeHelper.asSet(c);
+		if(set.contains(root.element) != retain) {
+			clear();
+			return true;
+		}
+		boolean changed = false;
+		ArrayList<Entry<E>> kept = new ArrayList<Entry<E>>();//parents precede their children
+		ArrayList<Entry<E>> stack = new ArrayList<Entry<E>>();
+		stack.add(root);
+		while(!stack.isEmpty()) {
+			Entry<E> entry = stack.remove(stack.size() - 1);
+			kept.add(entry);
+			ArrayList<Entry<E>> children = new ArrayList<Entry<E>>(entry.children.size());
+			for(Entry<E> i : entry.children)
+				if(set.contains(i.element) == retain) {
+					children.add(i);
+					stack.add(i);
+				}
+			if(children.size() < entry.children.size()) {
+				entry.children = children;
+				changed = true;
+			}
+		}
+		if(changed) {
+			for(int i = kept.size() - 1; i >= 0; i--) {
+				Entry<E> entry = kept.get(i);
+				entry.size = 1;
+				for(Entry<E> j : entry.children)
+					entry.size += j.size;
+			}
+			recalculateDepthAndSize();
+			depthStale = false;
+			if(leafIndex != null) {
+				leafIndex.clear();
+				leafIndex.insertAfter(null, TreeIterator.toList(iterator(root, Traversal.LEAVES)));
+			}
+		}
+		return changed;
+	}
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. The traversal follows the entries of the children.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return iterator(existingNode(from), order);
+	}
+	/**
+	 * Traverses the sub-tree rooted at from iteratively, so that every node is visited once whatever the depth
+	 * of the tree, or nothing if from is null
+	 */
+	private Iterator<E> iterator(Entry<E> from, Traversal order) {
+		return new TreeIterator<E, Entry<E>>(order, from) {
+			@Override
+			protected E element(Entry<E> node) {
+				return node.element;
+			}
+			@Override
+			protected void children(Entry<E> node, List<Entry<E>> children) {
+				children.addAll(node.children);
+			}
+		};
 	}
 	@Override
 	public E root() {
@@ -394,56 +762,135 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inOrderTraversal(Entry<E> node) {
-		List<Entry<E>> children = node.children;
-		List<E> list = new ArrayList<E>();
-		if(children.size() > 0) {
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.size() / 2); i < len; i++)
-				list.addAll(inOrderTraversal(node.children.get(i)));
-			list.add(node.element);
-			for(int len = children.size(); i < len; i++)
-				list.addAll(inOrderTraversal(node.children.get(i)));
-		} else
-			list.add(node.element);
-		return list;
-	}
-	private List<E> levelOrderTraversal( LinkedList<Entry<E>> queue) {
-		ArrayList<E> list = new ArrayList<E>();
-		while(!queue.isEmpty()) {
-			for(Entry<E> i : queue.getFirst().children)
-				queue.add(i);
-			list.add(queue.poll().element);
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(Entry<E> node) {
-		ArrayList<E> list = new ArrayList<E>();
-		for(Entry<E> i : node.children)
-			list.addAll(postOrderTraversal(i));
-		list.add(node.element);
-		return list;
-	}
-	private List<E> preOrderTraversal(Entry<E> node) {
-		ArrayList<E> list = new ArrayList<E>();
-		list.add(node.element);
-		for(Entry<E> i : node.children)
-			list.addAll(preOrderTraversal(i));
-		return list;
-	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
+	/**
+	 * Walks the sub-tree rooted at an entry keeping, for every entry on the path to the current entry, its
+	 * position in pre-order and the number of its children visited
+	 */
+	private class EntryCursor implements Cursor<E> {
+		private final ArrayList<Entry<E>> path = new ArrayList<Entry<E>>();
+		private final IntList positions = new IntList();
+		private final IntList visited = new IntList();
+		private final Entry<E> start;
+		private int count = 0;
+		private int parent = -1;
+		private int slot = 0;
+
+		EntryCursor(Entry<E> start) {
+			this.start = start;
+		}
+		@Override
+		public boolean next() {
+			if(count == 0) {
+				if(start == null)
+					return false;
+				push(start);
+				return true;
+			}
+			while(!path.isEmpty()) {
+				ArrayList<Entry<E>> children = path.get(path.size() - 1).children;
+				int child = visited.last();
+				if(child < children.size()) {
+					visited.set(visited.size() - 1, child + 1);
+					parent = positions.last();
+					slot = child;
+					push(children.get(child));
+					return true;
+				}
+				path.remove(path.size() - 1);
+				positions.removeLast();
+				visited.removeLast();
+			}
+			return false;
+		}
+		private void push(Entry<E> entry) {
+			path.add(entry);
+			positions.add(count++);
+			visited.add(0);
+		}
+		@Override
+		public E element() {
+			return path.get(path.size() - 1).element;
+		}
+		@Override
+		public int parent() {
+			return parent;
+		}
+		@Override
+		public int slot() {
+			return slot;
+		}
+	}
+	/**
+	 * Adds entries passed in pre-order as the last child of parentEntry, or as the whole tree if parentEntry is
+	 * null. Only the path to the last entry added is kept, as the parent of the next entry is always on it. Sizes
+	 * of the sub-trees of the entries are completed, and leaves are indexed, as the entries leave the path.
+	 */
+	private class EntryLoader implements Loader<E> {
+		private final Entry<E> parentEntry;
+		private final ArrayList<Entry<E>> path = new ArrayList<Entry<E>>();
+		private final IntList positions = new IntList();
+		private int count = 0;
+		private E leafPosition = null;
+
+		EntryLoader(Entry<E> parentEntry) {
+			this.parentEntry = parentEntry;
+		}
+		@Override
+		public void add(E element, int parent, int slot) {
+			popTo(parent);
+			if(parent != -1 && path.isEmpty())
+				throw new IllegalArgumentException("parent of node " + count + " is not an ancestor of the node before it");
+			if(count == 0 && leafIndex != null && parentEntry != null)
+				leafPosition = leafPosition(parentEntry);
+			Entry<E> parentOf = path.isEmpty() ? parentEntry : path.get(path.size() - 1);
+			Entry<E> entry = new Entry<E>(element, parentOf);
+			if(parentOf == null)
+				root = entry;
+			else
+				parentOf.children.add(entry);
+			depth = Math.max(depth, entry.level);
+			path.add(entry);
+			positions.add(count++);
+		}
+		/**
+		 * Removes entries from the end of the path until the entry at position
+		 */
+		private void popTo(int position) {
+			while(!positions.isEmpty() && positions.last() != position) {
+				positions.removeLast();
+				Entry<E> entry = path.remove(path.size() - 1);
+				if(!path.isEmpty())
+					path.get(path.size() - 1).size += entry.size;
+				if(leafIndex != null && entry.children.isEmpty()) {//leaves leave the path in pre-order
+					leafIndex.insertAfter(leafPosition, entry.element);
+					leafPosition = entry.element;
+				}
+			}
+		}
+		@Override
+		public void finish() {
+			popTo(-1);
+			size += count;
+			if(parentEntry != null)
+				resize(parentEntry, count);
+		}
+	}
 	private static class Entry<E> {
 		E element;
 		Entry<E> parent;
 		ArrayList<Entry<E>> children;
+		int level;//number of entries on the path from the root to this entry
+		int size = 1;//number of entries in the sub-tree rooted at this entry
 		public Entry(E element, Entry<E> parent) {
 			super();
 			this.element = element;
 			this.parent = parent;
 			this.children = new ArrayList<LinkedTree.Entry<E>>();
+			this.level = parent == null ? 1 : parent.level + 1;
 		}
 	}
 }
\ No newline at end of file
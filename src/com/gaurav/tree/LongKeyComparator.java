@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.Comparator;
+
+/**
+ * Orders elements by a long key extracted from them, so that elements need neither be {@link Comparable} nor be
+ * wrapped in objects that are. Sorted trees given one of these extract the key of the element they look for once and
+ * compare it to node keys as plain longs.
+ * @author Gaurav Saxena
+ * @param <E>
+ */
+public abstract class LongKeyComparator<E> implements Comparator<E> {
+	/**
+	 * @return key of e, equal keys mean equal elements in a sorted tree
+	 */
+	public abstract long key(E e);
+
+	@Override
+	public int compare(E e1, E e2) {
+		long key1 = key(e1), key2 = key(e2);
+		return key1 < key2 ? -1 : (key1 == key2 ? 0 : 1);
+	}
+}
@@ -0,0 +1,784 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Read only tree served directly from a memory mapped file written by {@link #write(Tree, File, ElementCodec)}.
+ * Opening the file only maps it, so the time to open does not depend on the size of the tree, and all the
+ * processes mapping the same file share its pages in the operating system's page cache.
+ * <br>
+ * Nodes are numbered in pre-order, so the root is node 0, the first child of a node is the node following it and
+ * {@link #preOrderTraversal()} is a sequential scan of the file. The file is laid out as little endian
+ * <ul>
+ * <li>header of {@value #HEADER_SIZE} bytes: magic, version, node count, depth, index capacity, dictionary length
+ * and the offsets of the following sections</li>
+ * <li>parent and next sibling of every node as int columns</li>
+ * <li>hash of every encoded element as int column and offset of every element in the dictionary as long column</li>
+ * <li>open addressing hash index from element hash to node</li>
+ * <li>dictionary of elements encoded by an {@link ElementCodec}, each preceded by its length</li>
+ * </ul>
+ * Elements returned by the tree are decoded copies and are compared by their encoded bytes, as in
+ * {@link OffHeapTree}. Methods modifying the tree throw {@link UnsupportedOperationException}. Any number of threads
+ * may read the tree concurrently, but none of them may be reading when {@link #close()} unmaps the file.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class MappedTree<E> implements Tree<E>, Closeable {
+	static final int HEADER_SIZE = 128;
+	private static final int MAGIC = 0x5254434A;
+	private static final int VERSION = 2;//version 1 stored the hash codes of the elements
+	private static final int NONE = -1;
+	private static final int CHUNK_SHIFT = 30;
+	private final ElementCodec<E> codec;
+	private final int size;
+	private final int depth;
+	private final long indexCapacity;
+	private ChunkedBuffer parents;
+	private ChunkedBuffer nextSiblings;
+	private ChunkedBuffer hashes;
+	private ChunkedBuffer keyOffsets;
+	private ChunkedBuffer index;
+	private ChunkedBuffer dictionary;
+	private volatile boolean closed = false;
+
+	private MappedTree(FileChannel channel, ElementCodec<E> codec) throws IOException {
+		this.codec = codec;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		while(header.hasRemaining())
+			if(channel.read(header, header.position()) < 0)
+				throw new IOException("file is too short to be a tree file");
+		if(header.getInt(0) != MAGIC)
+			throw new IOException("file is not a tree file");
+		if(header.getInt(4) != VERSION)
+			throw new IOException("unsupported tree file version " + header.getInt(4));
+		size = header.getInt(8);
+		depth = header.getInt(12);
+		indexCapacity = header.getLong(16);
+		long dictionaryLength = header.getLong(24);
+		Layout layout = new Layout(size, indexCapacity);
+		parents = map(channel, layout.parents, (long) size << 2, MapMode.READ_ONLY);
+		nextSiblings = map(channel, layout.nextSiblings, (long) size << 2, MapMode.READ_ONLY);
+		hashes = map(channel, layout.hashes, (long) size << 2, MapMode.READ_ONLY);
+		keyOffsets = map(channel, layout.keyOffsets, (long) size << 3, MapMode.READ_ONLY);
+		index = map(channel, layout.index, indexCapacity << 2, MapMode.READ_ONLY);
+		dictionary = map(channel, layout.dictionary, dictionaryLength, MapMode.READ_ONLY);
+	}
+	/**
+	 * Maps a file written by {@link #write(Tree, File, ElementCodec)}
+	 * @param file tree file
+	 * @param codec codec which was used to write the file
+	 * @return tree reading the file
+	 * @throws IOException if file cannot be read or is not a tree file
+	 */
+	public static <E> MappedTree<E> open(File file, ElementCodec<E> codec) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			return new MappedTree<E>(randomAccessFile.getChannel(), codec);
+		} finally {
+			randomAccessFile.close();//mappings stay valid after the channel is closed
+		}
+	}
+	/**
+	 * Writes the tree to file, replacing its contents, in the format read by {@link #open(File, ElementCodec)}.
+	 * Columns are written through a writable mapping and elements are streamed to the end of the file, so the
+	 * tree is never copied to the java heap.
+	 * @param tree tree to be written
+	 * @param file destination file
+	 * @param codec codec used to encode the elements
+	 * @throws IOException if file cannot be written
+	 */
+	public static <E> void write(Tree<E> tree, File file, ElementCodec<E> codec) throws IOException {
+		int size = tree.size();
+		long indexCapacity = 16;
+		while(indexCapacity * 3 < (long) size * 4)
+			indexCapacity <<= 1;
+		Layout layout = new Layout(size, indexCapacity);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(0);
+			FileChannel channel = randomAccessFile.getChannel();
+			ChunkedBuffer columns = map(channel, HEADER_SIZE, layout.dictionary - HEADER_SIZE, MapMode.READ_WRITE);
+			for(long i = layout.index - HEADER_SIZE, end = i + (indexCapacity << 2); i < end; i += 4)
+				columns.putInt(i, 0);
+			channel.position(layout.dictionary);
+			DictionaryWriter<E> writer = new DictionaryWriter<E>(channel, codec);
+			int depth;
+			if(tree instanceof PreOrderTree)
+				depth = writePreOrder((PreOrderTree<E>) tree, columns, layout, writer);
+			else
+				depth = writeChildren(tree, columns, layout, writer);
+			writer.flush();
+			columns.free();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(depth).putLong(indexCapacity).putLong(writer.length);
+			header.putLong(layout.parents).putLong(layout.nextSiblings).putLong(layout.hashes).putLong(layout.keyOffsets);
+			header.putLong(layout.index).putLong(layout.dictionary);
+			header.clear();
+			while(header.hasRemaining())
+				channel.write(header, header.position());
+		} catch(NodeNotFoundException e) {
+			throw new IllegalStateException("tree changed while it was being written", e);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+	/**
+	 * Writes the nodes visited by a pre-order cursor of the tree in linear time. The path from the root to the last
+	 * node written is kept to find the previous sibling of every node.
+	 * @return depth of the tree
+	 */
+	private static <E> int writePreOrder(PreOrderTree<E> tree, ChunkedBuffer columns, Layout layout, DictionaryWriter<E> writer) throws IOException {
+		PreOrderTree.Cursor<E> cursor = tree.preOrderCursor();
+		IntList path = new IntList();
+		IntList lastChildIds = new IntList();
+		int depth = 0;
+		int id = 0;
+		for(; cursor.next(); id++) {
+			if(id == tree.size())
+				throw new IllegalStateException("tree has more nodes than its size");
+			int parentId = cursor.parent();
+			while(!path.isEmpty() && path.last() != parentId) {
+				path.removeLast();
+				lastChildIds.removeLast();
+			}
+			writeNode(columns, layout, writer, cursor.element(), id, parentId);
+			if(!path.isEmpty()) {
+				if(lastChildIds.last() != NONE)
+					columns.putInt(layout.nextSiblings - HEADER_SIZE + ((long) lastChildIds.last() << 2), id);
+				lastChildIds.set(lastChildIds.size() - 1, id);
+			}
+			path.add(id);
+			lastChildIds.add(NONE);
+			depth = Math.max(depth, path.size());
+		}
+		checkSize(tree, id);
+		return depth;
+	}
+	/**
+	 * Walks the tree in pre-order using a stack of children iterators instead of recursion
+	 * @return depth of the tree
+	 */
+	private static <E> int writeChildren(Tree<E> tree, ChunkedBuffer columns, Layout layout, DictionaryWriter<E> writer) throws IOException, NodeNotFoundException {
+		if(tree.isEmpty())
+			return 0;
+		ArrayList<Iterator<E>> children = new ArrayList<Iterator<E>>();
+		IntList ids = new IntList();
+		IntList lastChildIds = new IntList();
+		int depth = 0;
+		int count = 0;
+		E root = tree.root();
+		writeNode(columns, layout, writer, root, count, NONE);
+		children.add(tree.children(root).iterator());
+		ids.add(count++);
+		lastChildIds.add(NONE);
+		while(!children.isEmpty()) {
+			depth = Math.max(depth, children.size());
+			int top = children.size() - 1;
+			if(children.get(top).hasNext()) {
+				E child = children.get(top).next();
+				if(count == tree.size())
+					throw new IllegalStateException("tree has more nodes than its size");
+				writeNode(columns, layout, writer, child, count, ids.get(top));
+				if(lastChildIds.get(top) != NONE)
+					columns.putInt(layout.nextSiblings - HEADER_SIZE + ((long) lastChildIds.get(top) << 2), count);
+				lastChildIds.set(top, count);
+				children.add(tree.children(child).iterator());
+				ids.add(count++);
+				lastChildIds.add(NONE);
+			} else {
+				children.remove(top);
+				ids.removeLast();
+				lastChildIds.removeLast();
+			}
+		}
+		checkSize(tree, count);
+		return depth;
+	}
+	private static void checkSize(Tree<?> tree, int count) {
+		if(count != tree.size())
+			throw new IllegalStateException("tree has " + count + " nodes but its size is " + tree.size());
+	}
+	private static <E> void writeNode(ChunkedBuffer columns, Layout layout, DictionaryWriter<E> writer, E element, int id, int parentId) throws IOException {
+		long position = (long) id << 2;
+		columns.putLong(layout.keyOffsets - HEADER_SIZE + ((long) id << 3), writer.write(element));
+		int hash = writer.hash();
+		columns.putInt(layout.parents - HEADER_SIZE + position, parentId);
+		columns.putInt(layout.nextSiblings - HEADER_SIZE + position, NONE);
+		columns.putInt(layout.hashes - HEADER_SIZE + position, hash);
+		long mask = layout.indexCapacity - 1;
+		long i = spread(hash) & mask;
+		while(columns.getInt(layout.index - HEADER_SIZE + (i << 2)) != 0)
+			i = (i + 1) & mask;
+		columns.putInt(layout.index - HEADER_SIZE + (i << 2), id + 1);
+	}
+	private static ChunkedBuffer map(FileChannel channel, long position, long length, MapMode mode) throws IOException {
+		long chunkSize = 1L << CHUNK_SHIFT;
+		int chunkCount = (int) Math.max(1, (length + chunkSize - 1) >>> CHUNK_SHIFT);
+		ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+		for(int i = 0; i < chunkCount; i++) {
+			long start = (long) i << CHUNK_SHIFT;
+			chunks[i] = channel.map(mode, position + start, Math.min(chunkSize, length - start));
+		}
+		return new ChunkedBuffer(chunks, CHUNK_SHIFT);
+	}
+	private static long spread(int hash) {
+		return ((hash ^ (hash >>> 16)) * 0x85EBCA6B) & 0xFFFFFFFFL;
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean add(E e) {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int id = existingId(e);
+		ArrayList<E> children = new ArrayList<E>();
+		for(int i = firstChildOf(id); i != NONE; i = nextSiblingOf(i))
+			children.add(element(i));
+		return children;
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Unmaps the file. The tree cannot be used afterwards. Closing a closed tree has no effect.
+	 */
+	@Override
+	public synchronized void close() {
+		if(!closed) {
+			closed = true;
+			parents.free();
+			nextSiblings.free();
+			hashes.free();
+			keyOffsets.free();
+			index.free();
+			dictionary.free();
+		}
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		int id1 = existingId(node1);
+		int id2 = existingId(node2);
+		while(id1 != id2) {
+			//a parent always has a smaller id than its children
+			if(id1 > id2)
+				id1 = parentOf(id1);
+			else
+				id2 = parentOf(id2);
+		}
+		return element(id1);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null)
+			return false;
+		try {
+			return id((E) o) != NONE;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	@Override
+	public int depth() {
+		return depth;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int level = 0;
+		for(int i = existingId(e); i != NONE; i = parentOf(i))
+			level++;
+		return level;
+	}
+	/**
+	 * Nodes of a sub-tree are numbered consecutively in pre-order, so its size is the distance to the next
+	 * sibling of the nearest node, among the node and its ancestors, which has one
+	 * @see com.gaurav.tree.Tree#subtreeSize(java.lang.Object)
+	 */
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int id = existingId(e);
+		for(int i = id; i != NONE; i = parentOf(i))
+			if(nextSiblingOf(i) != NONE)
+				return nextSiblingOf(i) - id;
+		return size - id;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList ids = new IntList();
+		IntList nextChildren = new IntList();
+		IntList remainingBefore = new IntList();
+		pushInOrderFrame(0, ids, nextChildren, remainingBefore);
+		while(!ids.isEmpty()) {
+			int top = ids.size() - 1;
+			int before = remainingBefore.get(top);
+			if(before == 0) {
+				list.add(element(ids.get(top)));
+				remainingBefore.set(top, -1);
+			}
+			int next = nextChildren.get(top);
+			if(next != NONE) {
+				nextChildren.set(top, nextSiblingOf(next));
+				if(before > 0)
+					remainingBefore.set(top, before - 1);
+				pushInOrderFrame(next, ids, nextChildren, remainingBefore);
+			} else {
+				ids.removeLast();
+				nextChildren.removeLast();
+				remainingBefore.removeLast();
+			}
+		}
+		return list;
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		int childId = existingId(child);
+		if(node == null)
+			return false;
+		int nodeId = id(node);
+		for(int i = parentOf(childId); i != NONE; i = parentOf(i))
+			if(i == nodeId)
+				return true;
+		return false;
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		if(id(parent) == NONE)
+			throw new NodeNotFoundException("parent node not found in the tree");
+		else if(node == null)
+			return false;
+		else
+			return isAncestor(parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterator returns nodes as expected from inOrderTraversal
+	 * @see java.util.Collection#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderTraversal().iterator();
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		checkOpen();
+		int id = id(e);
+		return id != NONE && firstChildOf(id) == NONE;
+	}
+	@Override
+	public List<E> leaves() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>();
+		for(int i = 0; i < size; i++)
+			if(firstChildOf(i) == NONE)
+				list.add(element(i));
+		return list;
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList queue = new IntList();
+		queue.add(0);
+		for(int head = 0; head < queue.size(); head++) {
+			int id = queue.get(head);
+			list.add(element(id));
+			for(int i = firstChildOf(id); i != NONE; i = nextSiblingOf(i))
+				queue.add(i);
+		}
+		return list;
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int parentId = parentOf(existingId(e));
+		if(parentId == NONE)
+			return null;
+		else
+			return element(parentId);
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList ids = new IntList();
+		IntList nextChildren = new IntList();
+		ids.add(0);
+		nextChildren.add(firstChildOf(0));
+		while(!ids.isEmpty()) {
+			int top = ids.size() - 1;
+			int next = nextChildren.get(top);
+			if(next != NONE) {
+				nextChildren.set(top, nextSiblingOf(next));
+				ids.add(next);
+				nextChildren.add(firstChildOf(next));
+			} else {
+				list.add(element(ids.removeLast()));
+				nextChildren.removeLast();
+			}
+		}
+		return list;
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		for(int i = 0; i < size; i++)
+			list.add(element(i));
+		return list;
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("MappedTree is read only");
+	}
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. The traversal follows the child and sibling links, and elements are decoded only
+	 * when they are returned.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return new TreeIterator<E, Integer>(order, existingId(from)) {
+			@Override
+			protected E element(Integer node) {
+				return MappedTree.this.element(node);
+			}
+			@Override
+			protected void children(Integer node, List<Integer> children) {
+				for(int i = firstChildOf(node); i != NONE; i = nextSiblingOf(i))
+					children.add(i);
+			}
+		};
+	}
+	@Override
+	public E root() {
+		checkOpen();
+		if(isEmpty())
+			return null;
+		else
+			return element(0);
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int id = existingId(e);
+		ArrayList<E> siblings = new ArrayList<E>();
+		int parentId = parentOf(id);
+		if(parentId != NONE)
+			for(int i = firstChildOf(parentId); i != NONE; i = nextSiblingOf(i))
+				if(i != id)
+					siblings.add(element(i));
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return inOrderTraversal().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return inOrderTraversal().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return inOrderTraversal().toString();
+	}
+	@Override
+	public int hashCode() {
+		return inOrderTraversal().hashCode();
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof MappedTree) {
+			try {
+				return new TreeHelper().isEqual((MappedTree<E>) o, this, ((MappedTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	private void checkOpen() {
+		if(closed)
+			throw new IllegalStateException("tree is closed");
+	}
+	private int parentOf(int id) {
+		return parents.getInt((long) id << 2);
+	}
+	private int nextSiblingOf(int id) {
+		return nextSiblings.getInt((long) id << 2);
+	}
+	/**
+	 * In pre-order numbering the first child of a node, if there is one, is the node following it
+	 */
+	private int firstChildOf(int id) {
+		if(id + 1 < size && parentOf(id + 1) == id)
+			return id + 1;
+		else
+			return NONE;
+	}
+	private void pushInOrderFrame(int id, IntList ids, IntList nextChildren, IntList remainingBefore) {
+		int childCount = 0;
+		for(int i = firstChildOf(id); i != NONE; i = nextSiblingOf(i))
+			childCount++;
+		ids.add(id);
+		nextChildren.add(firstChildOf(id));
+		remainingBefore.add((childCount + 1) / 2);
+	}
+	private E element(int id) {
+		long position = keyOffsets.getLong((long) id << 3);
+		int length = dictionary.getInt(position);
+		try {
+			return codec.decode(new DataInputStream(dictionary.inputStream(position + 4, position + 4 + length)));
+		} catch (IOException e) {
+			throw new IllegalStateException("element could not be decoded", e);
+		}
+	}
+	private int existingId(E e) throws NodeNotFoundException {
+		int id = id(e);
+		if(id == NONE)
+			throw new NodeNotFoundException("No node was found for object");
+		return id;
+	}
+	/**
+	 * @return id of the node of the element or NONE if it is not present
+	 */
+	private int id(E e) {
+		checkOpen();
+		KeyBuffer key = new KeyBuffer();
+		try {
+			DataOutputStream keyOutput = new DataOutputStream(key);
+			codec.encode(e, keyOutput);
+			keyOutput.flush();
+		} catch (IOException ex) {
+			throw new IllegalArgumentException("element could not be encoded", ex);
+		}
+		int hash = ChunkedBuffer.hash(key.bytes(), key.size());
+		long mask = indexCapacity - 1;
+		for(long i = spread(hash) & mask; ; i = (i + 1) & mask) {
+			int id = index.getInt(i << 2) - 1;
+			if(id == NONE)
+				return NONE;
+			if(hashes.getInt((long) id << 2) == hash) {
+				long position = keyOffsets.getLong((long) id << 3);
+				if(dictionary.getInt(position) == key.size() && dictionary.rangeEquals(position + 4, key.bytes(), key.size()))
+					return id;
+			}
+		}
+	}
+	/**
+	 * Offsets of the sections of a tree file, all of them 8 byte aligned
+	 */
+	private static class Layout {
+		final long indexCapacity;
+		final long parents;
+		final long nextSiblings;
+		final long hashes;
+		final long keyOffsets;
+		final long index;
+		final long dictionary;
+
+		Layout(int size, long indexCapacity) {
+			long intColumn = align((long) size << 2);
+			this.indexCapacity = indexCapacity;
+			parents = HEADER_SIZE;
+			nextSiblings = parents + intColumn;
+			hashes = nextSiblings + intColumn;
+			keyOffsets = hashes + intColumn;
+			index = keyOffsets + ((long) size << 3);
+			dictionary = index + align(indexCapacity << 2);
+		}
+		private static long align(long length) {
+			return (length + 7) & ~7L;
+		}
+	}
+	/**
+	 * Appends encoded elements, each preceded by its length and aligned to 4 bytes, to a channel
+	 */
+	private static class DictionaryWriter<E> {
+		private final ElementCodec<E> codec;
+		private final DataOutputStream out;
+		private final KeyBuffer key = new KeyBuffer();
+		private final DataOutputStream keyOutput = new DataOutputStream(key);
+		long length = 0;
+
+		DictionaryWriter(FileChannel channel, ElementCodec<E> codec) {
+			this.codec = codec;
+			this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+		}
+		/**
+		 * @return offset at which element is written
+		 */
+		long write(E element) throws IOException {
+			key.reset();
+			codec.encode(element, keyOutput);
+			keyOutput.flush();
+			for(; (length & 3) != 0; length++)
+				out.write(0);
+			long offset = length;
+			out.writeInt(Integer.reverseBytes(key.size()));//little endian as the rest of the file
+			out.write(key.bytes(), 0, key.size());
+			length += 4 + key.size();
+			return offset;
+		}
+		/**
+		 * @return hash of the encoding of the element written last
+		 */
+		int hash() {
+			return ChunkedBuffer.hash(key.bytes(), key.size());
+		}
+		void flush() throws IOException {
+			out.flush();
+		}
+	}
+	/**
+	 * Byte output whose buffer can be read without copying
+	 */
+	private static class KeyBuffer extends ByteArrayOutputStream {
+		byte[] bytes() {
+			return buf;
+		}
+	}
+}
@@ -35,6 +35,17 @@ public interface NumberedTree<E> extends Tree<E>{
 	 * @throws NodeNotFoundException
 	 */
 	public boolean add(E parent, E child, int index) throws NodeNotFoundException;
+	/**
+	 * Moves the sub-tree rooted at node to a particular index among the children of newParent
+	 * Implementations which number children according to their own logic may throw {@link UnsupportedOperationException}
+	 * @param node root of the sub-tree to be moved
+	 * @param newParent object to which node needs to be moved
+	 * @param index index at which node needs to be placed. It should be between 0 and k-1, 
+	 * k being the maximum number of children allowed
+	 * @throws NodeNotFoundException if node or newParent is not found
+	 * @throws IndexOutOfBoundsException if another child of newParent is present at index
+	 */
+	public void move(E node, E newParent, int index) throws NodeNotFoundException;
 	/**
 	 * @param parent
 	 * @param index
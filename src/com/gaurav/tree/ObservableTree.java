@@ -0,0 +1,478 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tree which reports the changes made to an underlying tree to {@link TreeChangeListener}s, so that structures
+ * mirroring the tree can follow it in time proportional to the changes instead of the size of the tree.
+ * <br>
+ * Changes are reported as {@link TreeChangeEvent}s in batches. By default the events of a method call are
+ * delivered as one batch, from the calling thread, before the method returns. Trees created with a capacity
+ * instead put the events in a queue of that capacity and return, and a consumer thread delivers all the
+ * events queued at a time as one batch. Changing methods wait when the queue is full. Exceptions thrown by
+ * listeners are propagated to the caller in the first case and printed in the second.
+ * <br>
+ * Removing a node from a {@link SortedTree} is reported as {@link TreeChangeEvent.Type#REMOVED} of the node
+ * alone, as those trees relink the children of the node. Removals from other trees are reported as
+ * {@link TreeChangeEvent.Type#SUBTREE_REMOVED}.
+ * <br>
+ * No events are created while there are no listeners. Like the underlying trees, this tree is not synchronized.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class ObservableTree<E> implements Tree<E>, Closeable {
+	private static final TreeChangeEvent<Object> END = new TreeChangeEvent<Object>(null, null, null);
+	private static final int MAX_BATCH_SIZE = 1024;
+	private final Tree<E> tree;
+	private final CopyOnWriteArrayList<TreeChangeListener<E>> listeners = new CopyOnWriteArrayList<TreeChangeListener<E>>();
+	private final ArrayBlockingQueue<TreeChangeEvent<E>> queue;
+	private final Thread consumer;
+	private final ArrayList<TreeChangeEvent<E>> batch = new ArrayList<TreeChangeEvent<E>>();
+	private int callDepth = 0;
+	private boolean closed = false;
+
+	/**
+	 * Creates a tree delivering events from the thread making the changes
+	 * @param tree underlying tree. It should not be changed other than through this tree
+	 */
+	public ObservableTree(Tree<E> tree) {
+		this.tree = tree;
+		this.queue = null;
+		this.consumer = null;
+	}
+	/**
+	 * Creates a tree delivering events from a consumer thread
+	 * @param tree underlying tree. It should not be changed other than through this tree
+	 * @param capacity maximum number of events waiting to be delivered
+	 */
+	public ObservableTree(Tree<E> tree, int capacity) {
+		this.tree = tree;
+		this.queue = new ArrayBlockingQueue<TreeChangeEvent<E>>(capacity);
+		this.consumer = new Consumer();
+		this.consumer.start();
+	}
+	public void addListener(TreeChangeListener<E> listener) {
+		listeners.add(listener);
+	}
+	public void removeListener(TreeChangeListener<E> listener) {
+		listeners.remove(listener);
+	}
+	/**
+	 * Delivers the queued events and stops the consumer thread. Closing a closed tree has no effect.
+	 * Trees delivering events from the calling thread have nothing to close.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void close() {
+		if(consumer == null || closed)
+			return;
+		closed = true;
+		try {
+			queue.put((TreeChangeEvent<E>) END);
+			consumer.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	/**
+	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root
+	 * @see java.util.Collection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E e) {
+		begin();
+		try {
+			boolean added = tree.add(e);
+			if(added && !listeners.isEmpty())
+				emit(TreeChangeEvent.Type.ADDED, e, tree.parent(e));
+			else if(!added)
+				emit(TreeChangeEvent.Type.REPLACED, e, null);
+			return added;
+		} catch(NodeNotFoundException ex) {
+			throw new IllegalStateException("node added is not present in the tree", ex);
+		} finally {
+			end();
+		}
+	}
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		begin();
+		try {
+			boolean added = tree.add(parent, child);
+			if(added)
+				emit(TreeChangeEvent.Type.ADDED, child, parent);
+			else
+				emit(TreeChangeEvent.Type.REPLACED, child, null);
+			return added;
+		} finally {
+			end();
+		}
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		begin();
+		try {
+			boolean retVal = false;
+			for (E e : c)
+				retVal |= add(e);
+			return retVal;
+		} finally {
+			end();
+		}
+	}
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) throws NodeNotFoundException {
+		begin();
+		try {
+			boolean retVal = false;
+			for (E e : c)
+				retVal |= add(parent, e);
+			return retVal;
+		} finally {
+			end();
+		}
+	}
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		begin();
+		try {
+			tree.move(node, newParent);
+			emit(TreeChangeEvent.Type.MOVED, node, newParent);
+		} finally {
+			end();
+		}
+	}
+	@Override
+	public void clear() {
+		begin();
+		try {
+			E root = tree.root();
+			tree.clear();
+			if(root != null)
+				emit(TreeChangeEvent.Type.SUBTREE_REMOVED, root, null);
+		} finally {
+			end();
+		}
+	}
+	/**
+	 * Removes the sub-tree rooted at the node passed, or only the node if the underlying tree is a
+	 * {@link SortedTree}
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		if(listeners.isEmpty())
+			return tree.remove(o);
+		begin();
+		try {
+			E parent;
+			try {
+				parent = tree.parent((E) o);
+			} catch(NodeNotFoundException e) {
+				return false;
+			}
+			boolean removed = tree.remove(o);
+			if(removed)
+				emit(removal(), (E) o, parent);
+			return removed;
+		} finally {
+			end();
+		}
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		begin();
+		try {
+			boolean retVal = false;
+			for (Object o : c)
+				retVal |= remove(o);
+			return retVal;
+		} finally {
+			end();
+		}
+	}
+	/**
+	 * Delegates to the underlying tree, and reports the nodes missing from it afterwards in pre-order. Nodes
+	 * whose parents were removed along with them are not reported unless the tree is a {@link SortedTree}.
+	 * @see java.util.Collection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		if(listeners.isEmpty())
+			return tree.retainAll(c);
+		begin();
+		try {
+			ArrayList<E> nodes = new ArrayList<E>(tree.size());
+			IntList parents = new IntList(tree.size());
+			TreeHelper.preOrder(tree, nodes, parents);
+			if(!tree.retainAll(c))
+				return false;
+			HashSet<E> kept = new HashSet<E>(tree.preOrderTraversal());
+			TreeChangeEvent.Type type = removal();
+			boolean[] removed = new boolean[nodes.size()];
+			for(int i = 0; i < nodes.size(); i++) {
+				int parent = parents.get(i);
+				removed[i] = !kept.contains(nodes.get(i));
+				if(removed[i] && (type == TreeChangeEvent.Type.REMOVED || parent == -1 || !removed[parent]))
+					emit(type, nodes.get(i), parent == -1 ? null : nodes.get(parent));
+			}
+			return true;
+		} finally {
+			end();
+		}
+	}
+	@Override
+	public Collection<E> children(E e) throws NodeNotFoundException {
+		return tree.children(e);
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		return tree.commonAncestor(node1, node2);
+	}
+	@Override
+	public boolean contains(Object o) {
+		return tree.contains(o);
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		return tree.containsAll(c);
+	}
+	@Override
+	public int depth() {
+		return tree.depth();
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return tree.level(e);
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		return tree.subtreeSize(e);
+	}
+	@Override
+	@Deprecated
+	public Collection<E> inorderOrderTraversal() {
+		return tree.inOrderTraversal();
+	}
+	@Override
+	public Collection<E> inOrderTraversal() {
+		return tree.inOrderTraversal();
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		return tree.isAncestor(node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		return tree.isDescendant(parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return tree.isEmpty();
+	}
+	/**
+	 * Iterator returns nodes as expected from inOrderTraversal. Removing nodes through it is not supported.
+	 * @see java.util.Collection#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		final Iterator<E> iterator = tree.inOrderTraversal().iterator();
+		return new Iterator<E>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+			@Override
+			public E next() {
+				return iterator.next();
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("nodes cannot be removed through the iterator of an observable tree");
+			}
+		};
+	}
+	@Override
+	public Collection<E> leaves() {
+		return tree.leaves();
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		return tree.isLeaf(e);
+	}
+	@Override
+	public Collection<E> levelOrderTraversal() {
+		return tree.levelOrderTraversal();
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		return tree.parent(e);
+	}
+	@Override
+	public Collection<E> postOrderTraversal() {
+		return tree.postOrderTraversal();
+	}
+	@Override
+	public Collection<E> preOrderTraversal() {
+		return tree.preOrderTraversal();
+	}
+	@Override
+	public Collection<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.preOrderTraversal(from);
+	}
+	@Override
+	public Collection<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.postOrderTraversal(from);
+	}
+	@Override
+	public Collection<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.levelOrderTraversal(from);
+	}
+	@Override
+	public Collection<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return tree.inOrderTraversal(from);
+	}
+	@Override
+	public Collection<E> leaves(E from) throws NodeNotFoundException {
+		return tree.leaves(from);
+	}
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return tree.iterator(from, order);
+	}
+	@Override
+	public E root() {
+		return tree.root();
+	}
+	@Override
+	public Collection<E> siblings(E e) throws NodeNotFoundException {
+		return tree.siblings(e);
+	}
+	@Override
+	public int size() {
+		return tree.size();
+	}
+	@Override
+	public Object[] toArray() {
+		return tree.toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return tree.toArray(a);
+	}
+	@Override
+	public String toString() {
+		return tree.toString();
+	}
+	@Override
+	public int hashCode() {
+		return tree.hashCode();
+	}
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof ObservableTree)
+			return tree.equals(((ObservableTree<?>) o).tree);
+		else
+			return false;
+	}
+
+	/**
+	 * Marks the start of a changing method call. Methods calling other changing methods deliver their events
+	 * when the outermost call ends
+	 */
+	private void begin() {
+		if(closed)
+			throw new IllegalStateException("tree is closed");
+		callDepth++;
+	}
+	private void end() {
+		if(--callDepth == 0 && queue == null && !batch.isEmpty()) {
+			ArrayList<TreeChangeEvent<E>> events = new ArrayList<TreeChangeEvent<E>>(batch);
+			batch.clear();
+			deliver(events);
+		}
+	}
+	/**
+	 * @return type of the event reporting the removal of a node from the underlying tree
+	 */
+	private TreeChangeEvent.Type removal() {
+		return tree instanceof SortedTree ? TreeChangeEvent.Type.REMOVED : TreeChangeEvent.Type.SUBTREE_REMOVED;
+	}
+	private void emit(TreeChangeEvent.Type type, E node, E parent) {
+		if(listeners.isEmpty())
+			return;
+		TreeChangeEvent<E> event = new TreeChangeEvent<E>(type, node, parent);
+		if(queue == null)
+			batch.add(event);
+		else {
+			try {
+				queue.put(event);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while waiting for the event queue", e);
+			}
+		}
+	}
+	private void deliver(List<TreeChangeEvent<E>> events) {
+		for(TreeChangeListener<E> i : listeners)
+			i.treeChanged(events);
+	}
+	/**
+	 * Takes the events from the queue and delivers those queued together as one batch
+	 */
+	private class Consumer extends Thread {
+		Consumer() {
+			super("tree-change-consumer");
+			setDaemon(true);
+		}
+		@Override
+		public void run() {
+			ArrayList<TreeChangeEvent<E>> events = new ArrayList<TreeChangeEvent<E>>();
+			boolean ended = false;
+			while(!ended) {
+				try {
+					events.add(queue.take());
+				} catch(InterruptedException e) {
+					return;
+				}
+				queue.drainTo(events, MAX_BATCH_SIZE - 1);
+				if(events.get(events.size() - 1) == END) {
+					events.remove(events.size() - 1);
+					ended = true;
+				}
+				if(!events.isEmpty()) {
+					try {
+						deliver(new ArrayList<TreeChangeEvent<E>>(events));
+					} catch(RuntimeException e) {
+						e.printStackTrace();
+					}
+				}
+				events.clear();
+			}
+		}
+	}
+}
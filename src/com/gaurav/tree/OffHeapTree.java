@@ -0,0 +1,859 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * General purpose tree, like {@link ArrayListTree}, which keeps its nodes outside the java heap so that very
+ * large trees do not add to garbage collection work. Every node occupies a slot in direct memory columns holding
+ * its parent, first child, last child and next sibling, the hash of its encoded element and the offset of the
+ * element in a key dictionary. Elements are serialized into the dictionary by the {@link ElementCodec} given to the
+ * constructor and are located through an off-heap hash index.
+ * <br>
+ * As a consequence
+ * <ul>
+ * <li>elements returned by the tree are decoded copies of the added elements</li>
+ * <li>elements are compared by their encoded bytes, which requires a deterministic codec</li>
+ * <li>the dictionary is append only, space of removed elements is not reused</li>
+ * </ul>
+ * Lookups encode and decode elements in buffers of the calling thread, so any number of threads may read the tree
+ * while none changes it.
+ * <br>
+ * The memory is not released until {@link #close()} is called. A closed tree throws {@link IllegalStateException}
+ * on any access.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class OffHeapTree<E> implements Tree<E>, Closeable {
+	private static final int NONE = -1;
+	private static final int FREE = -2;
+	private static final int CHUNK_SHIFT = 26;
+	private static final int INITIAL_INDEX_CAPACITY = 16;
+	private final ElementCodec<E> codec;
+	private ChunkedBuffer parents;
+	private ChunkedBuffer firstChildren;
+	private ChunkedBuffer lastChildren;
+	private ChunkedBuffer nextSiblings;
+	private ChunkedBuffer hashes;
+	private ChunkedBuffer keyOffsets;
+	private ChunkedBuffer dictionary;
+	private ChunkedBuffer index;
+	private long indexCapacity;
+	private long dictionaryLength;
+	private int slotCount;
+	private int freeSlot = NONE;
+	private int size = 0;
+	private int depth = 0;
+	private boolean depthStale = false;
+	private int rootSlot = NONE;
+	private boolean closed = false;
+	private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+		@Override
+		protected Buffers initialValue() {
+			return new Buffers();
+		}
+	};
+
+	public OffHeapTree(ElementCodec<E> codec) {
+		this.codec = codec;
+		allocate();
+	}
+	/**
+	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root
+	 * @see java.util.Collection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E e) {
+		try{
+			if(isEmpty())
+				return add(null, e);
+			else
+				return add(root(), e);
+		} catch(NodeNotFoundException ex) {
+			throw new IllegalArgumentException(ex);//This should never happen as when tree is empty, we are adding the root and when it is not then we are adding to the root, which will always be present in a non-empty tree
+		}
+	}
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		checkNode(child);
+		checkOpen();
+		if(parent == null) {
+			if(isEmpty()) {
+				rootSlot = addSlot(child, NONE);
+				depth = 1;
+				return true;
+			} else
+				throw new IllegalArgumentException("parent cannot be null except for root element. The tree already has a root.");
+		}
+		int parentSlot = slot(parent);
+		if(parentSlot == NONE)
+			throw new NodeNotFoundException("No node was found for parent object");
+		if(slot(child) != NONE)
+			return false;
+		addSlot(child, parentSlot);
+		if(!depthStale) {
+			int currentDepth = 1;
+			for(int i = parentSlot; i != NONE; i = parentOf(i))
+				currentDepth++;
+			depth = Math.max(depth, currentDepth);
+		}
+		return true;
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		try{
+			for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+				add(parent, iterator.next());
+			return true;
+		} catch(NodeNotFoundException ex) {
+			return false;
+		}
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int slot = existingSlot(e);
+		ArrayList<E> children = new ArrayList<E>();
+		for(int i = firstChildOf(slot); i != NONE; i = nextSiblingOf(i))
+			children.add(element(i));
+		return children;
+	}
+	@Override
+	public void clear() {
+		checkOpen();
+		release();
+		allocate();
+	}
+	/**
+	 * Releases the off-heap memory held by the tree. The tree cannot be used afterwards. Closing a closed tree has
+	 * no effect.
+	 */
+	@Override
+	public void close() {
+		if(!closed) {
+			release();
+			closed = true;
+		}
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		int slot1 = existingSlot(node1);
+		int slot2 = existingSlot(node2);
+		int height1 = height(slot1);
+		int height2 = height(slot2);
+		for(; height1 > height2; height1--)
+			slot1 = parentOf(slot1);
+		for(; height2 > height1; height2--)
+			slot2 = parentOf(slot2);
+		while(slot1 != slot2) {
+			slot1 = parentOf(slot1);
+			slot2 = parentOf(slot2);
+		}
+		return element(slot1);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null)
+			return false;
+		checkOpen();
+		try {
+			return slot((E) o) != NONE;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Depth is recalculated lazily after removals, so that removing many nodes does not walk the whole tree for
+	 * every removal
+	 * @see com.gaurav.tree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		checkOpen();
+		if(depthStale) {
+			depth = isEmpty() ? 0 : recalculateDepth();
+			depthStale = false;
+		}
+		return depth;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		checkNode(e);
+		return height(existingSlot(e));
+	}
+	/**
+	 * Counts the nodes of the sub-tree by following the child and sibling links, without decoding any element
+	 * @see com.gaurav.tree.Tree#subtreeSize(java.lang.Object)
+	 */
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int count = 0;
+		IntList stack = new IntList();
+		stack.add(existingSlot(e));
+		while(!stack.isEmpty()) {
+			count++;
+			for(int i = firstChildOf(stack.removeLast()); i != NONE; i = nextSiblingOf(i))
+				stack.add(i);
+		}
+		return count;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList slots = new IntList();
+		IntList nextChildren = new IntList();
+		IntList remainingBefore = new IntList();
+		pushInOrderFrame(rootSlot, slots, nextChildren, remainingBefore);
+		while(!slots.isEmpty()) {
+			int top = slots.size() - 1;
+			int slot = slots.get(top);
+			int before = remainingBefore.get(top);
+			if(before == 0) {
+				list.add(element(slot));
+				remainingBefore.set(top, -1);
+			}
+			int next = nextChildren.get(top);
+			if(next != NONE) {
+				nextChildren.set(top, nextSiblingOf(next));
+				if(before > 0)
+					remainingBefore.set(top, before - 1);
+				pushInOrderFrame(next, slots, nextChildren, remainingBefore);
+			} else {
+				slots.removeLast();
+				nextChildren.removeLast();
+				remainingBefore.removeLast();
+			}
+		}
+		return list;
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		int childSlot = existingSlot(child);
+		if(node == null)
+			return false;
+		int nodeSlot = slot(node);
+		for(int i = parentOf(childSlot); i != NONE; i = parentOf(i))
+			if(i == nodeSlot)
+				return true;
+		return false;
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		if(slot(parent) == NONE)
+			throw new NodeNotFoundException("parent node not found in the tree");
+		else if(node == null)
+			return false;
+		else
+			return isAncestor(parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterator returns nodes as expected from inOrderTraversal
+	 * @see java.util.Collection#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderTraversal().iterator();
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		checkOpen();
+		int slot = slot(e);
+		return slot != NONE && firstChildOf(slot) == NONE;
+	}
+	@Override
+	public List<E> leaves() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>();
+		if(isEmpty())
+			return list;
+		IntList stack = new IntList();
+		stack.add(rootSlot);
+		while(!stack.isEmpty()) {
+			int slot = stack.removeLast();
+			if(firstChildOf(slot) == NONE)
+				list.add(element(slot));
+			else
+				pushChildrenReversed(slot, stack);
+		}
+		return list;
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList queue = new IntList();
+		queue.add(rootSlot);
+		for(int head = 0; head < queue.size(); head++) {
+			int slot = queue.get(head);
+			list.add(element(slot));
+			for(int i = firstChildOf(slot); i != NONE; i = nextSiblingOf(i))
+				queue.add(i);
+		}
+		return list;
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int parentSlot = parentOf(existingSlot(e));
+		if(parentSlot == NONE)
+			return null;
+		else
+			return element(parentSlot);
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList slots = new IntList();
+		IntList nextChildren = new IntList();
+		slots.add(rootSlot);
+		nextChildren.add(firstChildOf(rootSlot));
+		while(!slots.isEmpty()) {
+			int top = slots.size() - 1;
+			int next = nextChildren.get(top);
+			if(next != NONE) {
+				nextChildren.set(top, nextSiblingOf(next));
+				slots.add(next);
+				nextChildren.add(firstChildOf(next));
+			} else {
+				list.add(element(slots.removeLast()));
+				nextChildren.removeLast();
+			}
+		}
+		return list;
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		checkOpen();
+		ArrayList<E> list = new ArrayList<E>(size);
+		if(isEmpty())
+			return list;
+		IntList stack = new IntList();
+		stack.add(rootSlot);
+		while(!stack.isEmpty()) {
+			int slot = stack.removeLast();
+			list.add(element(slot));
+			pushChildrenReversed(slot, stack);
+		}
+		return list;
+	}
+	/**
+	 * Relinks the slot of the node to the slot of newParent. Keys and the index are not touched. Depth is kept if
+	 * the node stays at the same level, otherwise it is recalculated by the next call to {@link #depth()}
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		checkNode(node);
+		checkNode(newParent);
+		int slot = existingSlot(node);
+		int newParentSlot = existingSlot(newParent);
+		if(slot == rootSlot)
+			throw new IllegalArgumentException("root cannot be moved");
+		int newLevel = 1;
+		for(int i = newParentSlot; i != NONE; i = parentOf(i)) {
+			if(i == slot)
+				throw new IllegalArgumentException("node cannot be moved to its own sub-tree");
+			newLevel++;
+		}
+		if(newLevel != height(slot))
+			depthStale = true;
+		unlink(slot);
+		link(slot, newParentSlot);
+	}
+	/**
+	 * Removes the sub-tree rooted at the node passed
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		checkOpen();
+		int slot;
+		try {
+			slot = slot((E) o);
+		} catch(ClassCastException e) {
+			return false;
+		}
+		if(slot == NONE)
+			return false;
+		if(slot == rootSlot) {
+			clear();
+			return true;
+		}
+		unlink(slot);
+		IntList stack = new IntList();
+		stack.add(slot);
+		while(!stack.isEmpty()) {
+			int i = stack.removeLast();
+			for(int child = firstChildOf(i); child != NONE; child = nextSiblingOf(child))
+				stack.add(child);
+			freeSlot(i);
+		}
+		depthStale = true;
+		return true;
+	}
+	/** Removes the sub-tree rooted at the nodes in the collection passed
+	 * @see java.util.Collection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Only from is searched. The traversal follows the child and sibling links, and elements are decoded only
+	 * when they are returned.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return new TreeIterator<E, Integer>(order, existingSlot(from)) {
+			@Override
+			protected E element(Integer node) {
+				return OffHeapTree.this.element(node);
+			}
+			@Override
+			protected void children(Integer node, List<Integer> children) {
+				for(int i = firstChildOf(node); i != NONE; i = nextSiblingOf(i))
+					children.add(i);
+			}
+		};
+	}
+	@Override
+	public E root() {
+		checkOpen();
+		if(isEmpty())
+			return null;
+		else
+			return element(rootSlot);
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int slot = existingSlot(e);
+		ArrayList<E> siblings = new ArrayList<E>();
+		int parentSlot = parentOf(slot);
+		if(parentSlot != NONE)
+			for(int i = firstChildOf(parentSlot); i != NONE; i = nextSiblingOf(i))
+				if(i != slot)
+					siblings.add(element(i));
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return inOrderTraversal().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return inOrderTraversal().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return inOrderTraversal().toString();
+	}
+	@Override
+	public int hashCode() {
+		return inOrderTraversal().hashCode();
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof OffHeapTree) {
+			try {
+				return new TreeHelper().isEqual((OffHeapTree<E>) o, this, ((OffHeapTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+
+	private void allocate() {
+		parents = new ChunkedBuffer(CHUNK_SHIFT);
+		firstChildren = new ChunkedBuffer(CHUNK_SHIFT);
+		lastChildren = new ChunkedBuffer(CHUNK_SHIFT);
+		nextSiblings = new ChunkedBuffer(CHUNK_SHIFT);
+		hashes = new ChunkedBuffer(CHUNK_SHIFT);
+		keyOffsets = new ChunkedBuffer(CHUNK_SHIFT);
+		dictionary = new ChunkedBuffer(CHUNK_SHIFT);
+		index = new ChunkedBuffer(CHUNK_SHIFT);
+		indexCapacity = INITIAL_INDEX_CAPACITY;
+		index.ensureCapacity(indexCapacity * 4);
+		dictionaryLength = 0;
+		slotCount = 0;
+		freeSlot = NONE;
+		size = 0;
+		depth = 0;
+		depthStale = false;
+		rootSlot = NONE;
+	}
+	private void release() {
+		parents.free();
+		firstChildren.free();
+		lastChildren.free();
+		nextSiblings.free();
+		hashes.free();
+		keyOffsets.free();
+		dictionary.free();
+		index.free();
+	}
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	private void checkOpen() {
+		if(closed)
+			throw new IllegalStateException("tree is closed");
+	}
+	private int parentOf(int slot) {
+		return parents.getInt((long) slot << 2);
+	}
+	private int firstChildOf(int slot) {
+		return firstChildren.getInt((long) slot << 2);
+	}
+	private int lastChildOf(int slot) {
+		return lastChildren.getInt((long) slot << 2);
+	}
+	private int nextSiblingOf(int slot) {
+		return nextSiblings.getInt((long) slot << 2);
+	}
+	private int height(int slot) {
+		int height = 0;
+		for(; slot != NONE; slot = parentOf(slot))
+			height++;
+		return height;
+	}
+	private void pushChildrenReversed(int slot, IntList stack) {
+		int start = stack.size();
+		for(int i = firstChildOf(slot); i != NONE; i = nextSiblingOf(i))
+			stack.add(i);
+		for(int i = start, j = stack.size() - 1; i < j; i++, j--) {
+			int swap = stack.get(i);
+			stack.set(i, stack.get(j));
+			stack.set(j, swap);
+		}
+	}
+	private void pushInOrderFrame(int slot, IntList slots, IntList nextChildren, IntList remainingBefore) {
+		int childCount = 0;
+		for(int i = firstChildOf(slot); i != NONE; i = nextSiblingOf(i))
+			childCount++;
+		slots.add(slot);
+		nextChildren.add(firstChildOf(slot));
+		remainingBefore.add((childCount + 1) / 2);
+	}
+	private int recalculateDepth() {
+		int maxDepth = 0;
+		IntList stack = new IntList();
+		IntList levels = new IntList();
+		stack.add(rootSlot);
+		levels.add(1);
+		while(!stack.isEmpty()) {
+			int slot = stack.removeLast();
+			int level = levels.removeLast();
+			maxDepth = Math.max(maxDepth, level);
+			for(int i = firstChildOf(slot); i != NONE; i = nextSiblingOf(i)) {
+				stack.add(i);
+				levels.add(level + 1);
+			}
+		}
+		return maxDepth;
+	}
+	/**
+	 * Stores the element in a free slot, links it as the last child of parentSlot and indexes it
+	 */
+	private int addSlot(E element, int parentSlot) {
+		KeyBuffer key = encode(element);
+		int hash = ChunkedBuffer.hash(key.bytes(), key.size());
+		if((long) (size + 1) * 4 > indexCapacity * 3)
+			resizeIndex(indexCapacity << 1);
+		int slot;
+		if(freeSlot != NONE) {
+			slot = freeSlot;
+			freeSlot = nextSiblingOf(slot);
+		} else {
+			slot = slotCount++;
+			long columnBytes = (long) slotCount << 2;
+			parents.ensureCapacity(columnBytes);
+			firstChildren.ensureCapacity(columnBytes);
+			lastChildren.ensureCapacity(columnBytes);
+			nextSiblings.ensureCapacity(columnBytes);
+			hashes.ensureCapacity(columnBytes);
+			keyOffsets.ensureCapacity((long) slotCount << 3);
+		}
+		long position = (long) slot << 2;
+		parents.putInt(position, parentSlot);
+		firstChildren.putInt(position, NONE);
+		lastChildren.putInt(position, NONE);
+		nextSiblings.putInt(position, NONE);
+		hashes.putInt(position, hash);
+		keyOffsets.putLong((long) slot << 3, appendKey(key));
+		if(parentSlot != NONE)
+			link(slot, parentSlot);
+		insertIntoIndex(slot, hash);
+		size++;
+		return slot;
+	}
+	/**
+	 * Adds slot as the last child of parentSlot
+	 */
+	private void link(int slot, int parentSlot) {
+		parents.putInt((long) slot << 2, parentSlot);
+		nextSiblings.putInt((long) slot << 2, NONE);
+		int last = lastChildOf(parentSlot);
+		if(last == NONE)
+			firstChildren.putInt((long) parentSlot << 2, slot);
+		else
+			nextSiblings.putInt((long) last << 2, slot);
+		lastChildren.putInt((long) parentSlot << 2, slot);
+	}
+	/**
+	 * Removes slot from the children of its parent
+	 */
+	private void unlink(int slot) {
+		int parentSlot = parentOf(slot);
+		int previous = NONE;
+		for(int i = firstChildOf(parentSlot); i != slot; i = nextSiblingOf(i))
+			previous = i;
+		int next = nextSiblingOf(slot);
+		if(previous == NONE)
+			firstChildren.putInt((long) parentSlot << 2, next);
+		else
+			nextSiblings.putInt((long) previous << 2, next);
+		if(lastChildOf(parentSlot) == slot)
+			lastChildren.putInt((long) parentSlot << 2, previous);
+	}
+	private void freeSlot(int slot) {
+		removeFromIndex(slot);
+		parents.putInt((long) slot << 2, FREE);
+		nextSiblings.putInt((long) slot << 2, freeSlot);
+		freeSlot = slot;
+		size--;
+	}
+	/**
+	 * Writes the encoded element to the dictionary preceded by its length. Lengths are kept 4 byte aligned so that
+	 * they are never split between chunks.
+	 * @return position of the length in the dictionary
+	 */
+	private long appendKey(KeyBuffer key) {
+		int length = key.size();
+		long position = (dictionaryLength + 3) & ~3L;
+		dictionary.ensureCapacity(position + 4 + length);
+		dictionary.putInt(position, length);
+		dictionary.put(position + 4, key.bytes(), 0, length);
+		dictionaryLength = position + 4 + length;
+		return position;
+	}
+	/**
+	 * @return key buffer of the calling thread holding the encoded element
+	 */
+	private KeyBuffer encode(E element) {
+		Buffers threadBuffers = buffers.get();
+		threadBuffers.key.reset();
+		try {
+			codec.encode(element, threadBuffers.keyOutput);
+			threadBuffers.keyOutput.flush();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("element could not be encoded", e);
+		}
+		return threadBuffers.key;
+	}
+	/**
+	 * Decodes the element of slot through the input stream of the calling thread, which is repositioned instead of
+	 * being created for every element
+	 */
+	private E element(int slot) {
+		long position = keyOffsets.getLong((long) slot << 3);
+		int length = dictionary.getInt(position);
+		Buffers threadBuffers = buffers.get();
+		if(threadBuffers.dictionary != dictionary) {//the tree has been cleared since the thread last read it
+			threadBuffers.dictionary = dictionary;
+			threadBuffers.range = dictionary.inputStream(0, 0);
+			threadBuffers.input = new DataInputStream(threadBuffers.range);
+		}
+		threadBuffers.range.reset(position + 4, position + 4 + length);
+		try {
+			return codec.decode(threadBuffers.input);
+		} catch (IOException e) {
+			throw new IllegalStateException("element could not be decoded", e);
+		}
+	}
+	private int existingSlot(E e) throws NodeNotFoundException {
+		int slot = slot(e);
+		if(slot == NONE)
+			throw new NodeNotFoundException("No node was found for object");
+		return slot;
+	}
+	/**
+	 * @return slot of the element or NONE if it is not present
+	 */
+	private int slot(E e) {
+		checkOpen();
+		KeyBuffer key = encode(e);
+		int hash = ChunkedBuffer.hash(key.bytes(), key.size());
+		long mask = indexCapacity - 1;
+		for(long i = spread(hash) & mask; ; i = (i + 1) & mask) {
+			int slot = index.getInt(i << 2) - 1;
+			if(slot == NONE)
+				return NONE;
+			if(hashes.getInt((long) slot << 2) == hash && keyEquals(slot, key))
+				return slot;
+		}
+	}
+	private boolean keyEquals(int slot, KeyBuffer key) {
+		long position = keyOffsets.getLong((long) slot << 3);
+		return dictionary.getInt(position) == key.size() && dictionary.rangeEquals(position + 4, key.bytes(), key.size());
+	}
+	private static long spread(int hash) {
+		return ((hash ^ (hash >>> 16)) * 0x85EBCA6B) & 0xFFFFFFFFL;
+	}
+	private void insertIntoIndex(int slot, int hash) {
+		long mask = indexCapacity - 1;
+		long i = spread(hash) & mask;
+		while(index.getInt(i << 2) != 0)
+			i = (i + 1) & mask;
+		index.putInt(i << 2, slot + 1);
+	}
+	/**
+	 * Deletes slot from the linear probing index by shifting back the entries following it, so that no tombstones
+	 * are needed
+	 */
+	private void removeFromIndex(int slot) {
+		long mask = indexCapacity - 1;
+		long i = spread(hashes.getInt((long) slot << 2)) & mask;
+		while(index.getInt(i << 2) != slot + 1)
+			i = (i + 1) & mask;
+		long j = i;
+		while(true) {
+			j = (j + 1) & mask;
+			int entry = index.getInt(j << 2);
+			if(entry == 0)
+				break;
+			long home = spread(hashes.getInt((long) (entry - 1) << 2)) & mask;
+			boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+			if(movable) {
+				index.putInt(i << 2, entry);
+				i = j;
+			}
+		}
+		index.putInt(i << 2, 0);
+	}
+	private void resizeIndex(long capacity) {
+		index.free();
+		index = new ChunkedBuffer(CHUNK_SHIFT);
+		index.ensureCapacity(capacity << 2);
+		indexCapacity = capacity;
+		for(int slot = 0; slot < slotCount; slot++)
+			if(parentOf(slot) != FREE)
+				insertIntoIndex(slot, hashes.getInt((long) slot << 2));
+	}
+	/**
+	 * Encoding and decoding buffers of a thread, so that concurrent readers neither share them nor allocate them
+	 * for every element
+	 */
+	private static class Buffers {
+		final KeyBuffer key = new KeyBuffer();
+		final DataOutputStream keyOutput = new DataOutputStream(key);
+		ChunkedBuffer dictionary;//dictionary read by range, which is replaced when the tree is cleared
+		ChunkedBuffer.RangeInputStream range;
+		DataInputStream input;
+	}
+	/**
+	 * Byte output whose buffer can be read without copying
+	 */
+	private static class KeyBuffer extends ByteArrayOutputStream {
+		byte[] bytes() {
+			return buf;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.List;
+
+/**
+ * Trees which can list all their nodes in pre-order along with their parents, and be loaded from such a list,
+ * in time linear in their size. {@link TreeCodec} and {@link MappedTree} use it instead of calling
+ * {@link Tree#children(Object)} or {@link Tree#add(Object, Object)} once per node, which costs a search of the
+ * tree per call in trees without an index. Nodes can also be passed one at a time through a {@link Cursor} and a
+ * {@link Loader}, which keep only the path to the current node instead of a list of all the nodes.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+interface PreOrderTree<E> extends Tree<E> {
+	/**
+	 * Appends the nodes of the tree to nodes in pre-order
+	 * @param nodes list receiving the nodes
+	 * @param parents list receiving, for every node, the position of its parent in nodes or -1 for the root
+	 * @param slots list receiving, for every node, its child index in its parent or 0 for the root. It may be null
+	 * and is ignored by trees which do not number children
+	 */
+	void preOrder(List<E> nodes, IntList parents, IntList slots);
+	/**
+	 * Replaces the contents of the tree by the nodes listed as by {@link #preOrder(List, IntList, IntList)}.
+	 * Parents are expected to precede their children and nodes are expected to be unique.
+	 * @param nodes nodes in pre-order
+	 * @param parents position of the parent of every node, -1 for the first node
+	 * @param slots child index of every node, or null to add children in the order of nodes
+	 */
+	void load(List<E> nodes, IntList parents, IntList slots);
+	/**
+	 * @return cursor visiting the nodes of the tree in the order of {@link #preOrder(List, IntList, IntList)}.
+	 * The tree must not be changed while the cursor is in use.
+	 */
+	Cursor<E> preOrderCursor();
+	/**
+	 * Clears the tree and returns a loader replacing its contents by nodes passed in pre-order, as
+	 * {@link #load(List, IntList, IntList)} does with a list
+	 */
+	Loader<E> loader();
+
+	/**
+	 * Position in a pre-order walk of a tree, moved by {@link #next()} before every node
+	 * @param <E>
+	 */
+	interface Cursor<E> {
+		/**
+		 * Moves to the next node in pre-order
+		 * @return false if all the nodes have been visited
+		 */
+		boolean next();
+		/**
+		 * @return element of the current node
+		 */
+		E element();
+		/**
+		 * @return position in pre-order of the parent of the current node, -1 for the root
+		 */
+		int parent();
+		/**
+		 * @return child index of the current node in its parent, 0 for the root
+		 */
+		int slot();
+	}
+	/**
+	 * Receiver of the nodes of a tree in pre-order. Nodes are expected to be unique and the parent of every node
+	 * is expected to be on the path from the first node to the node added before it.
+	 * @param <E>
+	 */
+	interface Loader<E> {
+		/**
+		 * Adds a node after the nodes added before it
+		 * @param element element of the node
+		 * @param parent position of the parent of the node among the nodes added, -1 for the first node
+		 * @param slot child index of the node, or -1 to add it after its siblings. It is ignored by trees which do
+		 * not number children.
+		 */
+		void add(E element, int parent, int slot);
+		/**
+		 * Completes the sub-tree sizes and hashes of the nodes added. The loader must not be used afterwards.
+		 */
+		void finish();
+	}
+}
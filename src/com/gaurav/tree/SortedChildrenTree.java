@@ -14,15 +14,41 @@
 package com.gaurav.tree;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
-public class SortedChildrenTree<E extends Comparable<E>> extends ArrayListTree<E> {
+/**
+ * This is an {@link ArrayListTree} that keeps the children of every node sorted, whether they are added, moved,
+ * attached or loaded
+ *
+ * @param <E>
+ */
+public class SortedChildrenTree<E> extends ArrayListTree<E> {
+	private final Comparator<? super E> comparator;//null sorts children in their natural order
+
+	public SortedChildrenTree() {
+		this(null);
+	}
+	/**
+	 * @param comparator orders the children of every node, null for their natural order which requires them to be {@link Comparable}
+	 */
+	public SortedChildrenTree(Comparator<? super E> comparator) {
+		this.comparator = comparator;
+	}
+	/**
+	 * @return the comparator ordering the children, or null if they are in their natural order
+	 */
+	public Comparator<? super E> comparator() {
+		return comparator;
+	}
 	/**
-	 * This adds the child at a insertion position defined by {@link Collections#binarySearch(List, Object)}
+	 * This adds the child at a insertion position defined by {@link Collections#binarySearch(List, Object, Comparator)}.
+	 * A child ordered equal to a sibling is added next to it
 	 * @see com.gaurav.tree.ArrayListTree#getChildAddPosition(java.util.List, java.lang.Object)
 	 */
 	@Override
 	protected int getChildAddPosition(List<E> children, E newChild) {
-		return -Collections.binarySearch(children, newChild) - 1;
+		int position = Collections.binarySearch(children, newChild, comparator);
+		return position < 0 ? -position - 1 : position;
 	}
 }
@@ -14,11 +14,11 @@
 package com.gaurav.tree;
 
 /**
- * Trees of this type keep nodes sorted e.g. BST etc.
+ * Trees of this type keep nodes sorted e.g. BST etc. Elements are either {@link Comparable} or ordered by a comparator given to the tree.
  * @author Gaurav Saxena
  * @param <E>
  */
-public interface SortedTree<E extends Comparable<E>> extends Tree<E> {
+public interface SortedTree<E> extends Tree<E> {
 
 	E successor(E node) throws NodeNotFoundException;
 
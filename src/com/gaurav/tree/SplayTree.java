@@ -0,0 +1,683 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Self-adjusting splay tree as given in <a href='http://en.wikipedia.org/wiki/Splay_tree'>Wikipedia</a>.
+ * {@link #add(Comparable)}, {@link #remove(Object)}, {@link #contains(Object)}, {@link #successor(Comparable)}
+ * and {@link #predecessor(Comparable)} splay the element they look for to the root, top-down in a single
+ * pass, so that frequently used elements stay near the root and are found after a few comparisons.
+ * <br>
+ * Navigation e.g. {@link #parent(Object)}, {@link #children(Object)} and traversals never change the tree.
+ * With splaying disabled, lookups leave the tree as it is too, so that a snapshot can be read and iterated
+ * in a stable shape. Changes always splay.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class SplayTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+	private static class Node<E> {
+		Node<E> left, right;
+		E value;
+	}
+	private int size = 0;
+	private int depth = 0;//-1 once splaying has made it unknown
+	private Node<E> root;
+	private boolean splaying = true;
+
+	/**
+	 * @param splaying false to keep lookups from changing the tree
+	 */
+	public void setSplaying(boolean splaying) {
+		this.splaying = splaying;
+	}
+	public boolean isSplaying() {
+		return splaying;
+	}
+	@Override
+	public boolean add(E child) {
+		checkNode(child);
+		Node<E> node = new Node<E>();
+		node.value = child;
+		if(root == null) {
+			root = node;
+			size++;
+			depth = 1;
+			return true;
+		}
+		splay(child);
+		int comparison = child.compareTo(root.value);
+		if(comparison == 0) {
+			root.value = child;
+			return false;
+		} else if(comparison < 0) {
+			node.left = root.left;
+			node.right = root;
+			root.left = null;
+		} else {
+			node.right = root.right;
+			node.left = root;
+			root.right = null;
+		}
+		root = node;
+		size++;
+		depth = -1;
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * A splay tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Comparable)})
+	 * @see com.gaurav.tree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A splay tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	/**
+	 * Unsupported Operation
+	 * A splay tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.gaurav.tree.Tree#addAll(java.lang.Object, java.util.Collection)
+	 **/
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A splay tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Unsupported Operation
+	 * A splay tree determines parent of a child on its own and hence it is not possible to move the child to any given parent
+	 * @see com.gaurav.tree.Tree#move(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A splay tree determines parent of a child on its own and hence it is not possible to move the child to any given parent");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		Node<E> node = existingNode(e);
+		ArrayList<E> list = new ArrayList<E>(2);
+		if(node.left != null)
+			list.add(node.left.value);
+		if(node.right != null)
+			list.add(node.right.value);
+		return list;
+	}
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+		depth = 0;
+	}
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		SplayTree<E> clone = null;
+		try {
+			clone = (SplayTree<E>) super.clone();
+			clone.root = null;
+			if(this.root != null) {
+				clone.root = new Node<E>();
+				copy(clone.root, this.root);
+			}
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	private void copy(Node<E> cloneNode, Node<E> node) {
+		ArrayList<Node<E>> stack = new ArrayList<Node<E>>();//pairs of node and its copy
+		stack.add(node);
+		stack.add(cloneNode);
+		while(!stack.isEmpty()) {
+			cloneNode = stack.remove(stack.size() - 1);
+			node = stack.remove(stack.size() - 1);
+			cloneNode.value = node.value;
+			if(node.left != null) {
+				cloneNode.left = new Node<E>();
+				stack.add(node.left);
+				stack.add(cloneNode.left);
+			}
+			if(node.right != null) {
+				cloneNode.right = new Node<E>();
+				stack.add(node.right);
+				stack.add(cloneNode.right);
+			}
+		}
+	}
+	/**
+	 * The common ancestor is where the paths to both nodes from the root part
+	 * @see com.gaurav.tree.Tree#commonAncestor(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		existingNode(node1);
+		existingNode(node2);
+		Node<E> node = root;
+		while(true) {
+			int comparison1 = node1.compareTo(node.value);
+			int comparison2 = node2.compareTo(node.value);
+			if(comparison1 < 0 && comparison2 < 0)
+				node = node.left;
+			else if(comparison1 > 0 && comparison2 > 0)
+				node = node.right;
+			else
+				return node.value;
+		}
+	}
+	/**
+	 * Splays o to the root if it is present and splaying is enabled
+	 * @see java.util.Collection#contains(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null || root == null)
+			return false;
+		try {
+			if(splaying) {
+				splay((E) o);
+				return ((E) o).compareTo(root.value) == 0;
+			} else
+				return node((E) o) != null;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Recalculated, if splaying has changed it since it was last known
+	 * @see com.gaurav.tree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		if(depth == -1)
+			depth = recalculateDepth();
+		return depth;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int level = 1;
+		Node<E> node = root;
+		while(node != null) {
+			int comparison = e.compareTo(node.value);
+			if(comparison == 0)
+				return level;
+			node = comparison < 0 ? node.left : node.right;
+			level++;
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		ArrayList<Node<E>> stack = new ArrayList<Node<E>>();
+		stack.add(existingNode(e));
+		int count = 0;
+		while(!stack.isEmpty()) {
+			Node<E> node = stack.remove(stack.size() - 1);
+			count++;
+			if(node.left != null)
+				stack.add(node.left);
+			if(node.right != null)
+				stack.add(node.right);
+		}
+		return count;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.IN_ORDER));
+	}
+	/**
+	 * Looks for both nodes without splaying
+	 * @see com.gaurav.tree.Tree#isAncestor(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		existingNode(child);
+		if(node == null)
+			return false;
+		for(Node<E> i = root; i != null;) {
+			int comparison = child.compareTo(i.value);
+			if(comparison == 0)
+				return false;
+			else if(node.compareTo(i.value) == 0)
+				return true;
+			i = comparison < 0 ? i.left : i.right;
+		}
+		return false;
+	}
+	/**
+	 * Looks for both nodes without splaying
+	 * @see com.gaurav.tree.Tree#isDescendant(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		existingNode(parent);
+		if(node == null)
+			return false;
+		else
+			return isAncestor(parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * Iterates the elements in sorted order without splaying
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return traversal(root, Traversal.IN_ORDER);
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		Node<E> node = node(e);
+		return node != null && node.left == null && node.right == null;
+	}
+	@Override
+	public List<E> leaves() {
+		return TreeIterator.toList(traversal(root, Traversal.LEAVES));
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.LEVEL_ORDER));
+	}
+	/**
+	 * Nodes do not link to their parents, so the parent is the last node passed on the way to e from the root
+	 * @see com.gaurav.tree.Tree#parent(java.lang.Object)
+	 */
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Node<E> parent = null;
+		Node<E> node = root;
+		while(node != null) {
+			int comparison = e.compareTo(node.value);
+			if(comparison == 0)
+				return parent == null ? null : parent.value;
+			parent = node;
+			node = comparison < 0 ? node.left : node.right;
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return TreeIterator.toList(traversal(root, Traversal.PRE_ORDER));
+	}
+	/**
+	 * Splays value to the root if splaying is enabled
+	 * @return the next larger element, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		checkNode(value);
+		Node<E> node;
+		if(splaying) {
+			existingRoot(value);
+			node = root.right;
+		} else {
+			Node<E> larger = null;//last node passed on the left
+			node = root;
+			while(node != null && value.compareTo(node.value) != 0) {
+				if(value.compareTo(node.value) < 0) {
+					larger = node;
+					node = node.left;
+				} else
+					node = node.right;
+			}
+			if(node == null)
+				throw new NodeNotFoundException("No node was found for object");
+			if(node.right == null)
+				return larger == null ? null : larger.value;
+			node = node.right;
+		}
+		if(node == null)
+			return null;
+		while(node.left != null)
+			node = node.left;
+		return node.value;
+	}
+	/**
+	 * Splays value to the root if splaying is enabled
+	 * @return the next smaller element, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		checkNode(value);
+		Node<E> node;
+		if(splaying) {
+			existingRoot(value);
+			node = root.left;
+		} else {
+			Node<E> smaller = null;//last node passed on the right
+			node = root;
+			while(node != null && value.compareTo(node.value) != 0) {
+				if(value.compareTo(node.value) > 0) {
+					smaller = node;
+					node = node.right;
+				} else
+					node = node.left;
+			}
+			if(node == null)
+				throw new NodeNotFoundException("No node was found for object");
+			if(node.left == null)
+				return smaller == null ? null : smaller.value;
+			node = node.left;
+		}
+		if(node == null)
+			return null;
+		while(node.right != null)
+			node = node.right;
+		return node.value;
+	}
+	/**
+	 * Splays o to the root and joins its sub-trees, by splaying the largest element of the left one to its root
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		if(root == null)
+			return false;
+		E e;
+		try {
+			e = (E) o;
+			splay(e);
+			if(e.compareTo(root.value) != 0)
+				return false;
+		} catch(ClassCastException ex) {
+			return false;
+		}
+		Node<E> right = root.right;
+		if(root.left == null)
+			root = right;
+		else {
+			root = root.left;
+			splay(e);//e is larger than all of the left sub-tree, so its largest element comes up with no right child
+			root.right = right;
+		}
+		size--;
+		depth = -1;
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Missing children count as empty slots, so in-order traversal is sorted as {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingNode(from), order);
+	}
+	private Iterator<E> traversal(Node<E> from, Traversal order) {
+		return new TreeIterator<E, Node<E>>(order, from) {
+			@Override
+			protected E element(Node<E> node) {
+				return node.value;
+			}
+			@Override
+			protected void children(Node<E> node, List<Node<E>> children) {
+				children.add(node.left);
+				children.add(node.right);
+			}
+		};
+	}
+	@Override
+	public E root() {
+		return root == null ? null : root.value;
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		E parent = parent(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(parent != null)
+			for(E i : children(parent))
+				if(i.compareTo(e) != 0)
+					siblings.add(i);
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		Node<E> node = existingNode(parent).left;
+		return node == null ? null : node.value;
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		Node<E> node = existingNode(parent).right;
+		return node == null ? null : node.value;
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof SplayTree) {
+			try {
+				return new TreeHelper().isEqual((SplayTree<E>) o, this, ((SplayTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	/**
+	 * @return node of e found without splaying, or null if it is not present
+	 */
+	private Node<E> node(E e) {
+		Node<E> node = root;
+		while(node != null) {
+			int comparison = e.compareTo(node.value);
+			if(comparison == 0)
+				return node;
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+	private Node<E> existingNode(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Node<E> node = node(e);
+		if(node == null)
+			throw new NodeNotFoundException("No node was found for object");
+		return node;
+	}
+	/**
+	 * Splays e to the root
+	 * @throws NodeNotFoundException if it is not present
+	 */
+	private void existingRoot(E e) throws NodeNotFoundException {
+		checkNode(e);
+		if(root == null)
+			throw new NodeNotFoundException("No node was found for object");
+		splay(e);
+		if(e.compareTo(root.value) != 0)
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * Top-down splay as given by Sleator and Tarjan. Brings e, or else the last node on the way to it, to the
+	 * root in a single pass down, hanging the nodes passed on the way on a left tree of smaller nodes and a right
+	 * tree of larger nodes, which become the sub-trees of the new root.
+	 */
+	private void splay(E e) {
+		Node<E> header = new Node<E>();//left child is the right tree and right child is the left tree
+		Node<E> left = header;//largest node of the left tree
+		Node<E> right = header;//smallest node of the right tree
+		Node<E> node = root;
+		boolean rotated = false;
+		while(true) {
+			int comparison = e.compareTo(node.value);
+			if(comparison < 0) {
+				if(node.left == null)
+					break;
+				if(e.compareTo(node.left.value) < 0) {
+					Node<E> child = node.left;//rotate right
+					node.left = child.right;
+					child.right = node;
+					node = child;
+					if(node.left == null)
+						break;
+				}
+				right.left = node;//link right
+				right = node;
+				node = node.left;
+			} else if(comparison > 0) {
+				if(node.right == null)
+					break;
+				if(e.compareTo(node.right.value) > 0) {
+					Node<E> child = node.right;//rotate left
+					node.right = child.left;
+					child.left = node;
+					node = child;
+					if(node.right == null)
+						break;
+				}
+				left.right = node;//link left
+				left = node;
+				node = node.right;
+			} else
+				break;
+			rotated = true;
+		}
+		left.right = node.left;
+		right.left = node.right;
+		node.left = header.right;
+		node.right = header.left;
+		if(rotated || node != root)
+			depth = -1;
+		root = node;
+	}
+	private List<E> getCurrentList() {
+		return inOrderTraversal();
+	}
+	/**
+	 * @return number of nodes on the longest path from the root, found without recursion
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		if(root == null)
+			return depth;
+		ArrayList<Node<E>> stack = new ArrayList<Node<E>>();
+		IntList levels = new IntList();
+		stack.add(root);
+		levels.add(1);
+		while(!stack.isEmpty()) {
+			Node<E> node = stack.remove(stack.size() - 1);
+			int level = levels.removeLast();
+			depth = Math.max(depth, level);
+			if(node.left != null) {
+				stack.add(node.left);
+				levels.add(level + 1);
+			}
+			if(node.right != null) {
+				stack.add(node.right);
+				levels.add(level + 1);
+			}
+		}
+		return depth;
+	}
+}
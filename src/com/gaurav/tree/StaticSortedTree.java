@@ -0,0 +1,603 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only search tree over a sorted set, built once from a {@link SortedTree} or a sorted array. Elements are kept
+ * in a single array in <a href="http://en.wikipedia.org/wiki/Binary_heap">Eytzinger</a> (breadth first) order: the root
+ * is at index 1 and the children of index k are at 2k and 2k + 1. The tree is complete, so it has no links to follow,
+ * the first levels a search visits share a few cache lines and a search descends with one comparison and no
+ * unpredictable branch per level.
+ * <br>
+ * With {@link Layout#VAN_EMDE_BOAS} the same tree is stored in van Emde Boas order instead, see {@link Layout}.
+ * <br>
+ * When the tree is ordered by an {@link IntKeyComparator} or a {@link LongKeyComparator}, the keys are also copied
+ * into a long array in the same order, so that searches read only that array and touch a single element at the end.
+ * <br>
+ * Methods modifying the tree throw {@link UnsupportedOperationException}. Any number of threads may read the tree
+ * concurrently.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class StaticSortedTree<E> implements SortedTree<E> {
+	/**
+	 * Order of the nodes in the array. Nodes are numbered in breadth first order in either layout, and the number of
+	 * a node is mapped to its place in the array.
+	 */
+	public enum Layout {
+		/**
+		 * Breadth first order, the place of a node is its number. The first levels of a search share a few cache lines,
+		 * but each of the later levels reads another one.
+		 */
+		EYTZINGER,
+		/**
+		 * Recursive <a href="http://en.wikipedia.org/wiki/Van_Emde_Boas_layout">van Emde Boas</a> order: the tree is cut
+		 * at half its height, and the top tree followed by each of the bottom trees are laid out the same way. A search
+		 * reads O(log<sub>B</sub> n) cache lines of B elements whatever B is. The tree is laid out as if it were perfect,
+		 * so up to half of the array is left empty, and the place of a node is computed in O(log log n) steps from its number.
+		 */
+		VAN_EMDE_BOAS
+	}
+	private final KeyOrder<E> order;
+	private final Layout layout;
+	private final Object[] elements;//index 0 is unused
+	private final long[] keys;//keys of elements when the order has them, null otherwise
+	private final int size;
+	private final int height;
+
+	/**
+	 * @param tree elements in their natural order
+	 */
+	public StaticSortedTree(SortedTree<E> tree) {
+		this(tree, null);
+	}
+	/**
+	 * @param tree elements, which should be sorted by comparator as {@link SortedTree#inOrderTraversal()} lists them
+	 * @param comparator null for the natural order
+	 */
+	public StaticSortedTree(SortedTree<E> tree, Comparator<? super E> comparator) {
+		this(tree, comparator, Layout.EYTZINGER);
+	}
+	/**
+	 * @param tree elements, which should be sorted by comparator as {@link SortedTree#inOrderTraversal()} lists them
+	 * @param comparator null for the natural order
+	 */
+	public StaticSortedTree(SortedTree<E> tree, Comparator<? super E> comparator, Layout layout) {
+		this(new ArrayList<E>(tree.inOrderTraversal()), comparator, layout);
+	}
+	/**
+	 * @param sorted distinct elements in their natural order
+	 */
+	public StaticSortedTree(E[] sorted) {
+		this(sorted, null);
+	}
+	/**
+	 * @param sorted distinct elements sorted by comparator
+	 * @param comparator null for the natural order
+	 */
+	public StaticSortedTree(E[] sorted, Comparator<? super E> comparator) {
+		this(sorted, comparator, Layout.EYTZINGER);
+	}
+	/**
+	 * @param sorted distinct elements sorted by comparator
+	 * @param comparator null for the natural order
+	 */
+	public StaticSortedTree(E[] sorted, Comparator<? super E> comparator, Layout layout) {
+		this(Arrays.asList(sorted), comparator, layout);
+	}
+	private StaticSortedTree(List<E> sorted, Comparator<? super E> comparator, Layout layout) {
+		order = new KeyOrder<E>(comparator);
+		this.layout = layout;
+		size = sorted.size();
+		height = 32 - Integer.numberOfLeadingZeros(size);
+		int length = layout == Layout.EYTZINGER ? size + 1 : 1 << height;
+		elements = new Object[length];
+		keys = order.hasKeys() ? new long[length] : null;
+		for(int i = 0; i < size; i++) {
+			checkNode(sorted.get(i));
+			if(i > 0 && order.compare(sorted.get(i - 1), sorted.get(i)) >= 0)
+				throw new IllegalArgumentException("elements should be sorted and distinct");
+		}
+		IntList stack = new IntList();
+		int i = 0;
+		for(int k = 1; k <= size || !stack.isEmpty(); k = 2 * k + 1) {//in-order walk of the indexes fills them in sorted order
+			for(; k <= size; k *= 2)
+				stack.add(k);
+			k = stack.removeLast();
+			E element = sorted.get(i++);
+			elements[slot(k)] = element;
+			if(keys != null)
+				keys[slot(k)] = order.key(element);
+		}
+	}
+	/**
+	 * @return the comparator ordering the elements, or null if they are in their natural order
+	 */
+	public Comparator<? super E> comparator() {
+		return order.comparator();
+	}
+	public Layout layout() {
+		return layout;
+	}
+	/**
+	 * @return the smallest element not smaller than e, or null if there is none
+	 */
+	public E ceiling(E e) {
+		checkNode(e);
+		return element(ceilingIndex(e));
+	}
+	/**
+	 * @return the largest element not larger than e, or null if there is none
+	 */
+	public E floor(E e) {
+		checkNode(e);
+		int k = ceilingIndex(e);
+		if(k == 0)
+			return element(last());
+		else if(order.compare(e, element(k)) == 0)
+			return element(k);
+		else
+			return element(previous(k));
+	}
+	/**
+	 * @return the next larger element, or null if value is the largest
+	 * @see com.gaurav.tree.SortedTree#successor(java.lang.Object)
+	 */
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		return element(next(existingIndex(value)));
+	}
+	/**
+	 * @return the next smaller element, or null if value is the smallest
+	 * @see com.gaurav.tree.SortedTree#predecessor(java.lang.Object)
+	 */
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		return element(previous(existingIndex(value)));
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null)
+			return false;
+		try {
+			return index((E) o) != 0;
+		} catch(ClassCastException e) {
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean add(E e) {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public void move(E node, E newParent) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	/**
+	 * Throws {@link UnsupportedOperationException} as the tree is read only
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("StaticSortedTree is read only");
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		int k = existingIndex(e);
+		ArrayList<E> children = new ArrayList<E>(2);
+		if(2 * k <= size)
+			children.add(element(2 * k));
+		if(2 * k + 1 <= size)
+			children.add(element(2 * k + 1));
+		return children;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		int k1 = existingIndex(node1);
+		int k2 = existingIndex(node2);
+		while(k1 != k2)
+			if(k1 > k2)
+				k1 /= 2;
+			else
+				k2 /= 2;
+		return element(k1);
+	}
+	@Override
+	public int depth() {
+		return height;
+	}
+	@Override
+	public int level(E e) throws NodeNotFoundException {
+		return 32 - Integer.numberOfLeadingZeros(existingIndex(e));
+	}
+	/**
+	 * Counts the indexes under e level by level
+	 * @see com.gaurav.tree.Tree#subtreeSize(java.lang.Object)
+	 */
+	@Override
+	public int subtreeSize(E e) throws NodeNotFoundException {
+		long first = existingIndex(e);
+		int count = 0;
+		for(long width = 1; first <= size; first *= 2, width *= 2)
+			count += Math.min(first + width - 1, size) - first + 1;
+		return count;
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		int c = existingIndex(child);
+		if(node == null)
+			return false;
+		int k = index(node);
+		if(k == 0)
+			return false;
+		do
+			c /= 2;
+		while(c > k);
+		return c == k;
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		existingIndex(parent);
+		if(node == null)
+			return false;
+		else
+			return isAncestor(parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	@Override
+	public boolean isLeaf(E e) {
+		checkNode(e);
+		int k = index(e);
+		return k != 0 && 2 * k > size;
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		return element(existingIndex(e) / 2);
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		int k = 2 * existingIndex(parent);
+		return k <= size ? element(k) : null;
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		int k = 2 * existingIndex(parent) + 1;
+		return k <= size ? element(k) : null;
+	}
+	@Override
+	public E root() {
+		return element(size == 0 ? 0 : 1);
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		int k = existingIndex(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(k > 1 && (k ^ 1) <= size)
+			siblings.add(element(k ^ 1));
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		return getCurrentList();
+	}
+	@Override
+	public List<E> leaves() {
+		return TreeIterator.toList(traversal(1, Traversal.LEAVES));
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		ArrayList<E> list = new ArrayList<E>(size);
+		for(int k = 1; k <= size; k++)
+			list.add(element(k));
+		return list;
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return TreeIterator.toList(traversal(1, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return TreeIterator.toList(traversal(1, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> preOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.PRE_ORDER));
+	}
+	@Override
+	public List<E> postOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.POST_ORDER));
+	}
+	@Override
+	public List<E> levelOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEVEL_ORDER));
+	}
+	@Override
+	public List<E> inOrderTraversal(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.IN_ORDER));
+	}
+	@Override
+	public List<E> leaves(E from) throws NodeNotFoundException {
+		return TreeIterator.toList(iterator(from, Traversal.LEAVES));
+	}
+	/**
+	 * Missing children count as empty slots, so in-order traversal is sorted as {@link #inOrderTraversal()}.
+	 * @see com.gaurav.tree.Tree#iterator(java.lang.Object, com.gaurav.tree.Tree.Traversal)
+	 */
+	@Override
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException {
+		return traversal(existingIndex(from), order);
+	}
+	private Iterator<E> traversal(int from, Traversal order) {
+		return new TreeIterator<E, Integer>(order, from <= size ? from : null) {
+			@Override
+			protected E element(Integer node) {
+				return StaticSortedTree.this.element(node);
+			}
+			@Override
+			protected void children(Integer node, List<Integer> children) {
+				children.add(2 * node <= size ? 2 * node : null);
+				children.add(2 * node + 1 <= size ? 2 * node + 1 : null);
+			}
+		};
+	}
+	/**
+	 * Iterates the elements in sorted order, stepping from an index to the next without a stack
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private int next = size == 0 ? 0 : first();
+			@Override
+			public boolean hasNext() {
+				return next != 0;
+			}
+			@Override
+			public E next() {
+				if(next == 0)
+					throw new NoSuchElementException();
+				E element = element(next);
+				next = StaticSortedTree.this.next(next);
+				return element;
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("StaticSortedTree is read only");
+			}
+		};
+	}
+	@Override
+	public Object[] toArray() {
+		return getCurrentList().toArray();
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return getCurrentList().toArray(a);
+	}
+	@Override
+	public String toString() {
+		return getCurrentList().toString();
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof StaticSortedTree) {
+			try {
+				return new TreeHelper().isEqual((StaticSortedTree<E>) o, this, ((StaticSortedTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	@Override
+	public int hashCode() {
+		return getCurrentList().hashCode();
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	/**
+	 * @return element numbered k, null for 0
+	 */
+	@SuppressWarnings("unchecked")
+	private E element(int k) {
+		return k == 0 ? null : (E) elements[slot(k)];
+	}
+	/**
+	 * @return place in the array of the node numbered k in breadth first order
+	 */
+	private int slot(int k) {
+		if(layout == Layout.EYTZINGER)
+			return k;
+		int slot = 1;
+		int height = this.height;//of the sub-tree being cut, which k is in
+		int depth = 31 - Integer.numberOfLeadingZeros(k);//of k in that sub-tree
+		while(height > 1) {
+			int top = height / 2;
+			if(depth < top)
+				height = top;
+			else {
+				int below = depth - top;//levels from the root of the bottom tree down to k
+				int bottom = height - top;
+				slot += (1 << top) - 1 + ((k >>> below) - (1 << top)) * ((1 << bottom) - 1);
+				k = (k & ((1 << below) - 1)) | (1 << below);
+				depth = below;
+				height = bottom;
+			}
+		}
+		return slot;
+	}
+	/**
+	 * Descends all the levels choosing a child by a comparison, and not by a branch, and stops only below the leaves.
+	 * The bits of the index then record the turns taken, and the ceiling is where the search last went left.
+	 * @return index of the smallest element not smaller than e, 0 if all are smaller
+	 */
+	private int ceilingIndex(E e) {
+		int k = 1;
+		long key = order.key(e);
+		if(keys != null)
+			while(k <= size)
+				k = 2 * k + (keys[slot(k)] < key ? 1 : 0);
+		else
+			while(k <= size)
+				k = 2 * k + (order.compare(e, key, element(k)) > 0 ? 1 : 0);
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+	/**
+	 * @return index of e, 0 if it is not present
+	 */
+	private int index(E e) {
+		int k = ceilingIndex(e);
+		if(k == 0)
+			return 0;
+		else if(keys != null)
+			return keys[slot(k)] == order.key(e) ? k : 0;//equal keys mean equal elements, and the element itself is not read
+		else
+			return order.compare(e, element(k)) == 0 ? k : 0;
+	}
+	private int existingIndex(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int k = index(e);
+		if(k == 0)
+			throw new NodeNotFoundException("No node was found for object");
+		return k;
+	}
+	private int first() {
+		int k = 1;
+		while(2 * k <= size)
+			k = 2 * k;
+		return k;
+	}
+	private int last() {
+		int k = size == 0 ? 0 : 1;
+		while(2 * k + 1 <= size)
+			k = 2 * k + 1;
+		return k;
+	}
+	/**
+	 * @return index of the next element in sorted order, 0 if k is the last
+	 */
+	private int next(int k) {
+		if(2 * k + 1 <= size) {
+			k = 2 * k + 1;
+			while(2 * k <= size)
+				k = 2 * k;
+			return k;
+		} else
+			return k >>> (Integer.numberOfTrailingZeros(~k) + 1);//up past the ancestors k is right of
+	}
+	/**
+	 * @return index of the previous element in sorted order, 0 if k is the first
+	 */
+	private int previous(int k) {
+		if(2 * k <= size) {
+			k = 2 * k;
+			while(2 * k + 1 <= size)
+				k = 2 * k + 1;
+			return k;
+		} else
+			return k >>> (Integer.numberOfTrailingZeros(k) + 1);//up past the ancestors k is left of
+	}
+	private List<E> getCurrentList() {
+		ArrayList<E> list = new ArrayList<E>(size);
+		for(E e : this)
+			list.add(e);
+		return list;
+	}
+}
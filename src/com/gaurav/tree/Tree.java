@@ -14,6 +14,7 @@
 package com.gaurav.tree;
 
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  * The tree is a general interface for all tree types and their implementations. It extends {@link Collection}
@@ -32,6 +33,31 @@ import java.util.Collection;
  * @param <E> object type contained in the tree
  */
 public interface Tree<E> extends Collection<E>{
+	/**
+	 * Orders in which {@link Tree#iterator(Object, Traversal)} visits the nodes of a sub-tree
+	 */
+	public enum Traversal {
+		/**
+		 * as {@link Tree#preOrderTraversal()}
+		 */
+		PRE_ORDER,
+		/**
+		 * as {@link Tree#postOrderTraversal()}
+		 */
+		POST_ORDER,
+		/**
+		 * as {@link Tree#levelOrderTraversal()}
+		 */
+		LEVEL_ORDER,
+		/**
+		 * as {@link Tree#inOrderTraversal()}
+		 */
+		IN_ORDER,
+		/**
+		 * as {@link Tree#leaves()}
+		 */
+		LEAVES
+	}
 	/**
 	 * 
 	 * In case an equal object is already present in the tree then the method returns false and the original 
@@ -68,10 +94,34 @@ public interface Tree<E> extends Collection<E>{
 	 * @throws NodeNotFoundException 
 	 */
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException;
+	/**
+	 * Moves the sub-tree rooted at node to newParent. The node keeps all its descendants and is placed among
+	 * the children of newParent where add(newParent, node) would place a new child, even if newParent already
+	 * is its parent e.g. as the last child in trees keeping children in insertion order.
+	 * @param node root of the sub-tree to be moved
+	 * @param newParent object to which node needs to be moved
+	 * @throws NodeNotFoundException if node or newParent is not found
+	 * @throws IllegalArgumentException if node is the root or newParent belongs to the sub-tree rooted at node
+	 * @throws UnsupportedOperationException if the tree decides the parents of nodes on its own e.g. BST
+	 */
+	public void move(E node, E newParent) throws NodeNotFoundException;
 	/**
 	 * @return depth of the tree i.e. the length of the path which has maximum number of nodes
 	 */
 	public int depth();
+	/**
+	 * @param e node whose level is needed
+	 * @return number of nodes on the path from the root to e, so that the root is at level 1 and the deepest
+	 * node is at level {@link #depth()}
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	public int level(E e) throws NodeNotFoundException;
+	/**
+	 * @param e root of the sub-tree
+	 * @return number of nodes in the sub-tree rooted at e, including e
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	public int subtreeSize(E e) throws NodeNotFoundException;
 	/**
 	 * Deprecated in favor of better named {@link #inOrderTraversal()} <br> 
 	 * This will be deleted in upcoming versions
@@ -87,6 +137,12 @@ public interface Tree<E> extends Collection<E>{
 	 * children.size
 	 */
 	public Collection<E> inOrderTraversal();
+	/**
+	 * @param from root of the sub-tree
+	 * @return nodes of the sub-tree rooted at from, arranged as {@link #inOrderTraversal()}
+	 * @throws NodeNotFoundException if from is not found
+	 */
+	public Collection<E> inOrderTraversal(E from) throws NodeNotFoundException;
 	
 	/**
 	 * Finds if the given node is an ancestor of the child node.
@@ -110,10 +166,36 @@ public interface Tree<E> extends Collection<E>{
 	 * @return all the leaves of the tree i.e. those nodes which do not have children
 	 */
 	public Collection<E> leaves();
+	/**
+	 * @param from root of the sub-tree
+	 * @return leaves of the sub-tree rooted at from, in the order of {@link #leaves()}
+	 * @throws NodeNotFoundException if from is not found
+	 */
+	public Collection<E> leaves(E from) throws NodeNotFoundException;
+	/**
+	 * @param e node to be checked
+	 * @return true if e is present in the tree and has no children, false otherwise
+	 */
+	public boolean isLeaf(E e);
 	/**
 	 * @return collection of children arranged as levelOrderTraversal of underlying tree
 	 */
 	public Collection<E> levelOrderTraversal();
+	/**
+	 * @param from root of the sub-tree
+	 * @return nodes of the sub-tree rooted at from, arranged as {@link #levelOrderTraversal()}
+	 * @throws NodeNotFoundException if from is not found
+	 */
+	public Collection<E> levelOrderTraversal(E from) throws NodeNotFoundException;
+	/**
+	 * Traverses the sub-tree rooted at from lazily, so that only the nodes which are read are visited. The tree
+	 * should not be changed while the iterator is in use.
+	 * @param from root of the sub-tree
+	 * @param order order in which the nodes are returned
+	 * @return iterator over the nodes of the sub-tree. Removing nodes through it is not supported
+	 * @throws NodeNotFoundException if from is not found
+	 */
+	public Iterator<E> iterator(E from, Traversal order) throws NodeNotFoundException;
 	/**
 	 * @param e child object
 	 * @return the parent object. Null if e is root
@@ -124,10 +206,22 @@ public interface Tree<E> extends Collection<E>{
 	 * @return collection of children arranged as postOrderTraversal of underlying tree
 	 */
 	public Collection<E> postOrderTraversal();
+	/**
+	 * @param from root of the sub-tree
+	 * @return nodes of the sub-tree rooted at from, arranged as {@link #postOrderTraversal()}
+	 * @throws NodeNotFoundException if from is not found
+	 */
+	public Collection<E> postOrderTraversal(E from) throws NodeNotFoundException;
 	/**
 	 * @return collection of children arranged as preOrderTraversal of underlying tree
 	 */
 	public Collection<E> preOrderTraversal();
+	/**
+	 * @param from root of the sub-tree
+	 * @return nodes of the sub-tree rooted at from, arranged as {@link #preOrderTraversal()}
+	 * @throws NodeNotFoundException if from is not found
+	 */
+	public Collection<E> preOrderTraversal(E from) throws NodeNotFoundException;
 	/**
 	 * @return the root node or null if tree is empty
 	 */
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+/**
+ * A change made to an {@link ObservableTree}
+ * @author Gaurav Saxena
+ *
+ * @param <E> object type contained in the tree
+ */
+public class TreeChangeEvent<E> {
+	public enum Type {
+		/**
+		 * node was added as a child of parent, or as root if parent is null
+		 */
+		ADDED,
+		/**
+		 * node replaced an equal node already present in the tree
+		 */
+		REPLACED,
+		/**
+		 * node was removed from parent along with all its descendants. Parent is null if root was removed
+		 */
+		SUBTREE_REMOVED,
+		/**
+		 * node alone was removed from parent, and its children were relinked by the tree as in a
+		 * {@link SortedTree}. Parent is null if root was removed
+		 */
+		REMOVED,
+		/**
+		 * node was moved along with all its descendants to be a child of parent
+		 */
+		MOVED
+	}
+	private final Type type;
+	private final E node;
+	private final E parent;
+
+	public TreeChangeEvent(Type type, E node, E parent) {
+		this.type = type;
+		this.node = node;
+		this.parent = parent;
+	}
+	public Type getType() {
+		return type;
+	}
+	public E getNode() {
+		return node;
+	}
+	/**
+	 * @return parent of the node when the change was made, null if it was root or is not known
+	 */
+	public E getParent() {
+		return parent;
+	}
+	@Override
+	public String toString() {
+		return type + "(" + node + ", " + parent + ")";
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.List;
+
+/**
+ * Receives the changes made to an {@link ObservableTree}
+ * @author Gaurav Saxena
+ *
+ * @param <E> object type contained in the tree
+ */
+public interface TreeChangeListener<E> {
+	/**
+	 * @param events changes in the order in which they were made. Events delivered from the thread making the
+	 * changes are batched per method call of the tree, events delivered from a consumer thread are batched as
+	 * they were queued
+	 */
+	public void treeChanged(List<TreeChangeEvent<E>> events);
+}
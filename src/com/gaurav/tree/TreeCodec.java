@@ -0,0 +1,260 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Writes any {@link Tree} to a stream and reads it back in a single pass. Nodes are written in pre-order, each
+ * one as the distance to its parent in pre-order followed by the element encoded by an {@link ElementCodec}.
+ * Distances are written as variable length ints, so most nodes cost a single byte besides their element.
+ * <br>
+ * Output goes through a fixed size buffer and is never materialized as a whole, so trees larger than the heap
+ * available for a byte array can be written to files, sockets or any {@link WritableByteChannel}. Trees of this
+ * package which keep their nodes in lists are written and read in time linear in their size, one node at a time,
+ * so that only the path to the current node is kept besides the tree and the buffers. Other trees are
+ * written using {@link Tree#children(Object)} and read using {@link Tree#add(Object, Object)}, or
+ * {@link Tree#add(Object)} for {@link SortedTree}s, which rebuilds the same shape for binary search trees.
+ * <br>
+ * The stream starts with a header containing the number of nodes. Child indexes of {@link ArrayTree} are
+ * written as well, so that it keeps its empty slots when read back into an {@link ArrayTree}.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class TreeCodec<E> {
+	private static final int MAGIC = 0x4A435453;
+	private static final int VERSION = 1;
+	private static final int NUMBERED = 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private final ElementCodec<E> codec;
+
+	/**
+	 * @param codec codec used for the elements of the tree
+	 */
+	public TreeCodec(ElementCodec<E> codec) {
+		this.codec = codec;
+	}
+	/**
+	 * Writes the tree to out. The stream is flushed but not closed.
+	 * @param tree tree to be written
+	 * @param out stream to which tree is written
+	 * @throws IOException if out fails to write
+	 */
+	public void write(Tree<E> tree, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		boolean numbered = tree instanceof NumberedTree && tree instanceof PreOrderTree;
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		data.writeByte(numbered ? NUMBERED : 0);
+		writeVarInt(data, tree.size());
+		int count;
+		if(tree instanceof PreOrderTree) {
+			PreOrderTree.Cursor<E> cursor = ((PreOrderTree<E>) tree).preOrderCursor();
+			for(count = 0; cursor.next(); count++) {
+				writeVarInt(data, cursor.parent() == -1 ? 0 : count - cursor.parent());
+				if(numbered)
+					writeVarInt(data, cursor.slot());
+				codec.encode(cursor.element(), data);
+			}
+		} else
+			count = writeChildren(tree, data);
+		if(count != tree.size())
+			throw new IllegalStateException("tree has " + count + " nodes but its size is " + tree.size());
+		data.flush();
+	}
+	/**
+	 * Writes the tree to channel
+	 * @see #write(Tree, OutputStream)
+	 */
+	public void write(Tree<E> tree, WritableByteChannel channel) throws IOException {
+		write(tree, Channels.newOutputStream(channel));
+	}
+	/**
+	 * Reads a tree written by {@link #write(Tree, OutputStream)} into tree. Input is buffered, so bytes following
+	 * the tree in the stream may be consumed as well.
+	 * @param in stream from which tree is read
+	 * @param tree an empty tree to which nodes are added
+	 * @return tree passed as parameter
+	 * @throws IOException if in fails to read or does not contain a tree
+	 */
+	public <T extends Tree<E>> T read(InputStream in, T tree) throws IOException {
+		if(!tree.isEmpty())
+			throw new IllegalArgumentException("nodes can be read only into an empty tree");
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+		if(data.readInt() != MAGIC)
+			throw new IOException("stream does not contain a tree");
+		int version = data.readUnsignedByte();
+		if(version != VERSION)
+			throw new IOException("unsupported tree stream version " + version);
+		boolean numbered = (data.readUnsignedByte() & NUMBERED) != 0;
+		int size = readVarInt(data);
+		if(tree instanceof PreOrderTree)
+			readPreOrder((PreOrderTree<E>) tree, data, size, numbered, tree instanceof NumberedTree);
+		else
+			readChildren(tree, data, size, numbered);
+		return tree;
+	}
+	/**
+	 * Reads a tree from channel
+	 * @see #read(InputStream, Tree)
+	 */
+	public <T extends Tree<E>> T read(ReadableByteChannel channel, T tree) throws IOException {
+		return read(Channels.newInputStream(channel), tree);
+	}
+	/**
+	 * Walks the tree in pre-order using a stack of children iterators instead of recursion
+	 * @return number of nodes written
+	 */
+	private int writeChildren(Tree<E> tree, DataOutputStream data) throws IOException {
+		if(tree.isEmpty())
+			return 0;
+		try {
+			ArrayList<Iterator<E>> children = new ArrayList<Iterator<E>>();
+			IntList positions = new IntList();
+			E root = tree.root();
+			writeVarInt(data, 0);
+			codec.encode(root, data);
+			children.add(tree.children(root).iterator());
+			positions.add(0);
+			int count = 1;
+			while(!children.isEmpty()) {
+				int top = children.size() - 1;
+				if(children.get(top).hasNext()) {
+					E child = children.get(top).next();
+					writeVarInt(data, count - positions.get(top));
+					codec.encode(child, data);
+					children.add(tree.children(child).iterator());
+					positions.add(count++);
+				} else {
+					children.remove(top);
+					positions.removeLast();
+				}
+			}
+			return count;
+		} catch(NodeNotFoundException e) {
+			throw new IllegalStateException("tree changed while it was being written", e);
+		}
+	}
+	/**
+	 * Passes the nodes to a loader of the tree as they are read. The tree is cleared if the stream turns out to be
+	 * corrupt, so that it is never left partially loaded.
+	 * @param slotted true if slots read are passed to the loader, false if they are skipped
+	 */
+	private void readPreOrder(PreOrderTree<E> tree, DataInputStream data, int size, boolean numbered, boolean slotted) throws IOException {
+		PreOrderTree.Loader<E> loader = tree.loader();
+		IntList positions = new IntList();
+		boolean loaded = false;
+		try {
+			for(int i = 0; i < size; i++) {
+				int parent = readParent(data, i);
+				int slot = numbered ? readVarInt(data) : -1;
+				E element = codec.decode(data);
+				toParent(positions, parent, i);
+				loader.add(element, parent, slotted ? slot : -1);
+				positions.add(i);
+			}
+			loader.finish();
+			loaded = true;
+		} finally {
+			if(!loaded)
+				tree.clear();
+		}
+	}
+	/**
+	 * Adds nodes to the tree keeping only the path from the root to the last node read. As with
+	 * {@link #readPreOrder(PreOrderTree, DataInputStream, int, boolean, boolean)}, the tree is cleared if the stream
+	 * turns out to be corrupt.
+	 */
+	@SuppressWarnings("deprecation")
+	private void readChildren(Tree<E> tree, DataInputStream data, int size, boolean numbered) throws IOException {
+		ArrayList<E> path = new ArrayList<E>();
+		IntList positions = new IntList();
+		boolean loaded = false;
+		try {
+			for(int i = 0; i < size; i++) {
+				int parent = readParent(data, i);
+				if(numbered)
+					readVarInt(data);
+				E element = codec.decode(data);
+				toParent(positions, parent, i);
+				while(path.size() > positions.size())
+					path.remove(path.size() - 1);
+				boolean added;
+				if(tree instanceof SortedTree)
+					added = tree.add(element);
+				else if(parent == -1)
+					added = tree.add(null, element);
+				else
+					added = tree.add(path.get(path.size() - 1), element);
+				if(!added)
+					throw new IOException("corrupt tree stream, node " + i + " is already present");
+				path.add(element);
+				positions.add(i);
+			}
+			loaded = true;
+		} catch(NodeNotFoundException e) {
+			throw new IOException("corrupt tree stream", e);
+		} finally {
+			if(!loaded)
+				tree.clear();
+		}
+	}
+	/**
+	 * Removes positions from the end of the path from the root to the last node read until the parent of the node
+	 * at position, as the parent of a node in pre-order is always on that path
+	 * @throws IOException if parent is not on the path
+	 */
+	private static void toParent(IntList positions, int parent, int position) throws IOException {
+		while(!positions.isEmpty() && positions.last() != parent)
+			positions.removeLast();
+		if(parent != -1 && positions.isEmpty())
+			throw new IOException("corrupt tree stream, parent of node " + position + " is not its ancestor");
+	}
+	private static int readParent(DataInput data, int position) throws IOException {
+		int distance = readVarInt(data);
+		if(position == 0 ? distance != 0 : distance < 1 || distance > position)
+			throw new IOException("corrupt tree stream, invalid parent of node " + position);
+		return position - distance - (position == 0 ? 1 : 0);
+	}
+	private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			data.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data.writeByte(value);
+	}
+	private static int readVarInt(DataInput data) throws IOException {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			int b = data.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("corrupt tree stream, variable length int is too long");
+	}
+}
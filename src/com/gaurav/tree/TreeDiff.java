@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Edit script turning one tree into another. Nodes of the two trees are matched by equality, so the script
+ * is computed in time linear in the size of the trees, and its length depends only on the number of changed
+ * nodes. It can be written to a stream and applied to a copy of the old tree elsewhere, so that a replica
+ * receives only the changes.
+ * <br>
+ * Edits are in the pre-order of the new tree followed by the deletions. A node whose parent changed is moved
+ * along with its subtree and only the topmost node of a deleted subtree is deleted. Children are appended to
+ * their parents, so a child which is no longer in the order of its siblings is moved to its own parent to put
+ * it at the end, and the patched tree has the children in the same order as the new tree.
+ * <br>
+ * Trees cannot change their roots, so if the roots are different the script deletes the old root and inserts
+ * every node of the new tree.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class TreeDiff<E> {
+	/**
+	 * A single change of the script
+	 */
+	public static class Edit<E> {
+		public enum Type {
+			/**
+			 * node is added as the last child of parent, or as root if parent is null
+			 */
+			INSERT,
+			/**
+			 * node is removed along with its subtree
+			 */
+			DELETE,
+			/**
+			 * node is moved along with its subtree to be the last child of parent
+			 */
+			MOVE,
+			/**
+			 * node replaces the equal node in the tree
+			 */
+			REPLACE
+		}
+		private final Type type;
+		private final E node;
+		private final E parent;
+
+		public Edit(Type type, E node, E parent) {
+			this.type = type;
+			this.node = node;
+			this.parent = parent;
+		}
+		public Type getType() {
+			return type;
+		}
+		public E getNode() {
+			return node;
+		}
+		/**
+		 * @return parent of the node for INSERT and MOVE, null otherwise
+		 */
+		public E getParent() {
+			return parent;
+		}
+		@Override
+		public String toString() {
+			return type + "(" + node + (parent == null ? "" : ", " + parent) + ")";
+		}
+	}
+	private final List<Edit<E>> edits;
+
+	private TreeDiff(List<Edit<E>> edits) {
+		this.edits = edits;
+	}
+	/**
+	 * Computes the script turning oldTree into newTree
+	 * @param oldTree tree to be changed
+	 * @param newTree tree to be reached
+	 * @return script which when applied to oldTree by {@link #patch(Tree, TreeDiff)} makes it equal to newTree
+	 */
+	public static <E> TreeDiff<E> compute(Tree<E> oldTree, Tree<E> newTree) {
+		ArrayList<E> oldNodes = new ArrayList<E>(oldTree.size());
+		IntList oldParents = new IntList(oldTree.size());
+		TreeHelper.preOrder(oldTree, oldNodes, oldParents);
+		ArrayList<E> newNodes = new ArrayList<E>(newTree.size());
+		IntList newParents = new IntList(newTree.size());
+		TreeHelper.preOrder(newTree, newNodes, newParents);
+		ArrayList<Edit<E>> edits = new ArrayList<Edit<E>>();
+		if(oldNodes.isEmpty() || newNodes.isEmpty() || !oldNodes.get(0).equals(newNodes.get(0))) {
+			if(!oldNodes.isEmpty())
+				edits.add(new Edit<E>(Edit.Type.DELETE, oldNodes.get(0), null));
+			for(int i = 0; i < newNodes.size(); i++)
+				edits.add(new Edit<E>(Edit.Type.INSERT, newNodes.get(i), newParents.get(i) == -1 ? null : newNodes.get(newParents.get(i))));
+			return new TreeDiff<E>(edits);
+		}
+		HashMap<E, Integer> oldPositions = new HashMap<E, Integer>(oldNodes.size() * 4 / 3 + 1);
+		for(int i = 0; i < oldNodes.size(); i++)
+			oldPositions.put(oldNodes.get(i), i);
+		int[] newToOld = new int[newNodes.size()];
+		boolean[] kept = new boolean[oldNodes.size()];
+		//children keep their place while they follow their previous sibling in the old tree as well
+		int[] lastKeptChild = new int[newNodes.size()];
+		boolean[] inOrder = new boolean[newNodes.size()];
+		for(int i = 0; i < newNodes.size(); i++) {
+			E node = newNodes.get(i);
+			Integer oldPosition = oldPositions.get(node);
+			newToOld[i] = oldPosition == null ? -1 : oldPosition;
+			lastKeptChild[i] = -1;
+			inOrder[i] = true;
+			if(oldPosition != null) {
+				kept[oldPosition] = true;
+				if(oldNodes.get(oldPosition) != node)
+					edits.add(new Edit<E>(Edit.Type.REPLACE, node, null));
+			}
+			int parent = newParents.get(i);
+			if(parent == -1)
+				continue;
+			if(oldPosition == null) {
+				edits.add(new Edit<E>(Edit.Type.INSERT, node, newNodes.get(parent)));
+				inOrder[parent] = false;
+			} else if(oldParents.get(oldPosition) != newToOld[parent] || !inOrder[parent] || oldPosition < lastKeptChild[parent]) {
+				edits.add(edits.size() - (oldNodes.get(oldPosition) != node ? 1 : 0), new Edit<E>(Edit.Type.MOVE, node, newNodes.get(parent)));
+				inOrder[parent] = false;
+			} else
+				lastKeptChild[parent] = oldPosition;
+		}
+		for(int i = 0; i < oldNodes.size(); i++)
+			if(!kept[i] && kept[oldParents.get(i)])
+				edits.add(new Edit<E>(Edit.Type.DELETE, oldNodes.get(i), null));
+		return new TreeDiff<E>(edits);
+	}
+	/**
+	 * Applies the script to the tree
+	 * @param tree tree equal to the old tree of the script
+	 * @param diff script to be applied
+	 * @throws NodeNotFoundException if tree does not have a node changed by the script
+	 */
+	@SuppressWarnings("deprecation")
+	public static <E> void patch(Tree<E> tree, TreeDiff<E> diff) throws NodeNotFoundException {
+		for(Edit<E> i : diff.edits) {
+			switch(i.type) {
+			case INSERT:
+				tree.add(i.parent, i.node);
+				break;
+			case DELETE:
+				if(!tree.remove(i.node))
+					throw new NodeNotFoundException("No node was found for object");
+				break;
+			case MOVE:
+				tree.move(i.node, i.parent);
+				break;
+			case REPLACE:
+				if(!tree.contains(i.node))
+					throw new NodeNotFoundException("No node was found for object");
+				tree.add(i.node);
+				break;
+			}
+		}
+	}
+	/**
+	 * @return edits of the script in the order in which they are applied
+	 */
+	public List<Edit<E>> edits() {
+		return Collections.unmodifiableList(edits);
+	}
+	/**
+	 * @return true if the trees were equal
+	 */
+	public boolean isEmpty() {
+		return edits.isEmpty();
+	}
+	/**
+	 * Writes the script to out. The stream is flushed but not closed.
+	 * @param out stream to which the script is written
+	 * @param codec codec used for the elements
+	 * @throws IOException if out fails to write
+	 */
+	public void writeTo(OutputStream out, ElementCodec<E> codec) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(edits.size());
+		for(Edit<E> i : edits) {
+			data.writeByte(i.type.ordinal());
+			codec.encode(i.node, data);
+			data.writeBoolean(i.parent != null);
+			if(i.parent != null)
+				codec.encode(i.parent, data);
+		}
+		data.flush();
+	}
+	/**
+	 * Reads a script written by {@link #writeTo(OutputStream, ElementCodec)}
+	 * @param in stream from which the script is read
+	 * @param codec codec used for the elements
+	 * @return script read
+	 * @throws IOException if in fails to read or does not contain a script
+	 */
+	public static <E> TreeDiff<E> readFrom(InputStream in, ElementCodec<E> codec) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int size = data.readInt();
+		if(size < 0)
+			throw new IOException("stream does not contain a tree diff");
+		ArrayList<Edit<E>> edits = new ArrayList<Edit<E>>(Math.min(size, 1 << 16));
+		Edit.Type[] types = Edit.Type.values();
+		for(int i = 0; i < size; i++) {
+			int type = data.readUnsignedByte();
+			if(type >= types.length)
+				throw new IOException("stream does not contain a tree diff");
+			E node = codec.decode(data);
+			E parent = data.readBoolean() ? codec.decode(data) : null;
+			edits.add(new Edit<E>(types[type], node, parent));
+		}
+		return new TreeDiff<E>(edits);
+	}
+	@Override
+	public String toString() {
+		return edits.toString();
+	}
+}
@@ -13,27 +13,125 @@
  */
 package com.gaurav.tree;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 class TreeHelper {
+	/**
+	 * Lists the nodes of any tree in pre-order along with the position of their parents, in linear time for
+	 * {@link PreOrderTree}s and otherwise using a stack of children iterators instead of recursion
+	 */
+	static <E> void preOrder(Tree<E> tree, List<E> nodes, IntList parents) {
+		if(tree instanceof PreOrderTree) {
+			((PreOrderTree<E>) tree).preOrder(nodes, parents, null);
+			return;
+		}
+		if(tree.isEmpty())
+			return;
+		try {
+			ArrayList<Iterator<E>> children = new ArrayList<Iterator<E>>();
+			IntList positions = new IntList();
+			nodes.add(tree.root());
+			parents.add(-1);
+			children.add(tree.children(tree.root()).iterator());
+			positions.add(0);
+			while(!children.isEmpty()) {
+				int top = children.size() - 1;
+				if(children.get(top).hasNext()) {
+					E child = children.get(top).next();
+					parents.add(positions.get(top));
+					positions.add(nodes.size());
+					nodes.add(child);
+					children.add(tree.children(child).iterator());
+				} else {
+					children.remove(top);
+					positions.removeLast();
+				}
+			}
+		} catch(NodeNotFoundException e) {
+			throw new IllegalStateException("tree changed while it was being traversed", e);
+		}
+	}
+	/**
+	 * Finds the level of a node by walking up its parents, for trees which do not keep levels
+	 */
+	static <E> int level(Tree<E> tree, E node) throws NodeNotFoundException {
+		if(!tree.contains(node))
+			throw new NodeNotFoundException("No node was found for object");
+		int level = 0;
+		for(E i = node; i != null; i = tree.parent(i))
+			level++;
+		return level;
+	}
+	/**
+	 * Counts the nodes of the sub-tree rooted at node using a stack instead of recursion, for trees which do not
+	 * keep sizes of sub-trees
+	 */
+	static <E> int subtreeSize(Tree<E> tree, E node) throws NodeNotFoundException {
+		int size = 0;
+		ArrayList<E> stack = new ArrayList<E>();
+		stack.add(node);
+		while(!stack.isEmpty()) {
+			size++;
+			stack.addAll(tree.children(stack.remove(stack.size() - 1)));
+		}
+		return size;
+	}
+	/**
+	 * Checks in a single pass over present that none of the nodes is present in it
+	 * @throws IllegalArgumentException if a node is present
+	 */
+	static <E> void checkAbsent(Collection<?> present, List<E> nodes) {
+		HashSet<E> set = new HashSet<E>(nodes);
+		for(Object i : present)
+			if(i != null && set.contains(i))
+				throw new IllegalArgumentException(i + " is already present in the tree");
+	}
+	/**
+	 * @return c if it is a set, otherwise a hash set of its elements, so that bulk removals look up every node
+	 * in constant time
+	 */
+	static Set<?> asSet(Collection<?> c) {
+		if(c instanceof Set)
+			return (Set<?>) c;
+		else
+			return new HashSet<Object>(c);
+	}
+	/**
+	 * Spreads the bits of a combined hash so that similar trees do not get similar hashes
+	 */
+	static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		return hash ^ (hash >>> 16);
+	}
 	public <E, F> boolean isEqual(Tree<E> testTree, Tree<F> thisTree, E testNode, F thisNode) throws NodeNotFoundException {
-		if((thisNode == null && testNode == null))
-			return true;
-		else if(thisNode != null && testNode != null && thisNode.equals(testNode)) {
-			Collection<E> testChildren = testTree.children(testNode);
-			Collection<F> thisChildren = thisTree.children(thisNode);
-			if(testChildren.equals(thisChildren)) {
-				Iterator<E> i = testChildren.iterator();
-				Iterator<F> j = thisChildren.iterator();
-				for(; i.hasNext() && j.hasNext();)
-					if(!isEqual(testTree, thisTree, i.next(), j.next()))
-						return false;
-				return true;
+		ArrayList<E> testStack = new ArrayList<E>();//pairs of nodes still to be compared, instead of recursion
+		ArrayList<F> thisStack = new ArrayList<F>();
+		testStack.add(testNode);
+		thisStack.add(thisNode);
+		while(!testStack.isEmpty()) {
+			testNode = testStack.remove(testStack.size() - 1);
+			thisNode = thisStack.remove(thisStack.size() - 1);
+			if(thisNode == null && testNode == null)
+				continue;
+			else if(thisNode != null && testNode != null && thisNode.equals(testNode)) {
+				Collection<E> testChildren = testTree.children(testNode);
+				Collection<F> thisChildren = thisTree.children(thisNode);
+				if(!testChildren.equals(thisChildren))
+					return false;
+				testStack.addAll(testChildren);
+				thisStack.addAll(thisChildren);
 			} else
 				return false;
-		} else
-			return false;
+		}
+		return true;
 	}
 	//node cannot be false for this implementation
 	public <E> boolean isAncestor(Tree<E> tree, E node, E child) throws NodeNotFoundException {
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gaurav.tree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy traversal of the sub-tree rooted at a node, in any of the orders of {@link Tree.Traversal}. Nodes are
+ * visited one step at a time using explicit stacks, so the cost of a step does not depend on the size of the
+ * tree and deep trees do not overflow the call stack.
+ * <br>
+ * Trees give the element and the children of their internal nodes e.g. indexes or entries, so that the
+ * traversal never searches the tree for a node. Children may contain null for empty slots, which are skipped
+ * but count when the children are split for in-order traversal.
+ * <br>
+ * The tree should not be changed while it is being traversed. Removing nodes through the iterator is not
+ * supported.
+ * @author Gaurav Saxena
+ *
+ * @param <E> element type of the tree
+ * @param <N> internal node type of the tree
+ */
+abstract class TreeIterator<E, N> implements Iterator<E> {
+	private final Tree.Traversal order;
+	private final ArrayDeque<N> queue = new ArrayDeque<N>();//nodes to be visited in level order
+	private final ArrayList<N> stack = new ArrayList<N>();//nodes to be visited or, for post and in order, being visited
+	private final ArrayList<List<N>> childrenStack = new ArrayList<List<N>>();//children of nodes being visited, null until needed
+	private final IntList steps = new IntList();//steps taken for nodes being visited, each child and the node itself being one step
+	private N next;
+
+	TreeIterator(Tree.Traversal order, N from) {
+		this.order = order;
+		if(from != null) {
+			if(order == Tree.Traversal.LEVEL_ORDER)
+				queue.add(from);
+			else
+				push(from);
+		}
+	}
+	/**
+	 * @return element of the node
+	 */
+	protected abstract E element(N node);
+	/**
+	 * Appends the children of the node to children in their order
+	 */
+	protected abstract void children(N node, List<N> children);
+
+	@Override
+	public boolean hasNext() {
+		if(next == null)
+			next = advance();
+		return next != null;
+	}
+	@Override
+	public E next() {
+		if(!hasNext())
+			throw new NoSuchElementException();
+		N node = next;
+		next = null;
+		return element(node);
+	}
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("nodes cannot be removed through a traversal");
+	}
+	/**
+	 * Collects the remaining nodes of the traversal
+	 */
+	static <E> List<E> toList(Iterator<E> iterator) {
+		ArrayList<E> list = new ArrayList<E>();
+		while(iterator.hasNext())
+			list.add(iterator.next());
+		return list;
+	}
+
+	private void push(N node) {
+		stack.add(node);
+		childrenStack.add(null);
+		steps.add(0);
+	}
+	private void pop() {
+		stack.remove(stack.size() - 1);
+		childrenStack.remove(childrenStack.size() - 1);
+		steps.removeLast();
+	}
+	private List<N> childrenOf(N node) {
+		ArrayList<N> children = new ArrayList<N>();
+		children(node, children);
+		return children;
+	}
+	/**
+	 * @return next node of the traversal or null if there is none
+	 */
+	private N advance() {
+		switch(order) {
+		case LEVEL_ORDER:
+			return advanceLevelOrder();
+		case PRE_ORDER:
+			return advancePreOrder(false);
+		case LEAVES:
+			return advancePreOrder(true);
+		default:
+			return advanceDepthFirst();
+		}
+	}
+	private N advanceLevelOrder() {
+		N node = queue.poll();
+		if(node != null)
+			for(N i : childrenOf(node))
+				if(i != null)
+					queue.add(i);
+		return node;
+	}
+	/**
+	 * Leaves are in the same order in all the depth first traversals, so they are found in pre-order
+	 */
+	private N advancePreOrder(boolean leavesOnly) {
+		while(!stack.isEmpty()) {
+			N node = stack.get(stack.size() - 1);
+			pop();
+			List<N> children = childrenOf(node);
+			boolean leaf = true;
+			for(int i = children.size() - 1; i >= 0; i--)
+				if(children.get(i) != null) {
+					push(children.get(i));
+					leaf = false;
+				}
+			if(!leavesOnly || leaf)
+				return node;
+		}
+		return null;
+	}
+	/**
+	 * Post-order visits the node after all its children and in-order after Ceiling(children.size / 2) of them
+	 */
+	private N advanceDepthFirst() {
+		while(!stack.isEmpty()) {
+			int top = stack.size() - 1;
+			N node = stack.get(top);
+			List<N> children = childrenStack.get(top);
+			if(children == null) {
+				children = childrenOf(node);
+				childrenStack.set(top, children);
+			}
+			int step = steps.get(top);
+			int nodeStep = order == Tree.Traversal.IN_ORDER ? (children.size() + 1) / 2 : children.size();
+			if(step > children.size()) {
+				pop();
+				continue;
+			}
+			steps.set(top, step + 1);
+			if(step == nodeStep) {
+				if(order == Tree.Traversal.POST_ORDER)
+					pop();
+				return node;
+			}
+			N child = children.get(step < nodeStep ? step : step - 1);
+			if(child != null)
+				push(child);
+		}
+		return null;
+	}
+}
@@ -1,7 +1,9 @@
 package com.gaurav.tree;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -424,17 +426,40 @@ public class ArrayListTreeTest {
 			arrayListTree.add("C2-1", "C2-1-2");*/
 	  		Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
 	  			, new String[]{"Root1","C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3","C2","C2-1","C2-1-1","C2-1-2","C2-2"});
+	  		Assert.assertEquals(false, tree.removeAll(Arrays.asList(new String[]{"C6"})));
+	  		Assert.assertEquals(true, tree.removeAll(Arrays.asList(new String[]{"C6","C1-1","C1-1-1","C2-1","C2-2"})));
+	  		Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+	  			, new String[]{"Root1","C1","C1-2","C1-2-1","C1-3","C2"});
+	  		Assert.assertEquals(tree.size(), 6);
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		Assert.assertEquals(true, tree.removeAll(Arrays.asList(new String[]{"Root1"})));
+	  		Assert.assertEquals(true, tree.isEmpty());
 	  		break;
 	  }
   }
 
   @Test(dataProvider = "getTree")
-  public void retainAll(int testCaseNumber, ArrayListTree<String> tree) {
-   try {
-	   tree.retainAll(Arrays.asList(new String[]{""}));
-   } catch (UnsupportedOperationException e) {
-	   //passed
-   }
+  public void retainAll(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(false, tree.retainAll(Arrays.asList(new String[]{""})));
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(false, tree.retainAll(tree.preOrderTraversal()));
+	  		Assert.assertEquals(true, tree.retainAll(Arrays.asList(new String[]{"Root1","C1","C1-1","C1-1-2","C1-3","C2-1","C2-1-1"})));
+	  		Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+	  			, new String[]{"Root1","C1","C1-1","C1-1-2","C1-3"});
+	  		Assert.assertEquals(tree.size(), 5);
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		Assert.assertEquals(tree.parent("C1-1-2"), "C1-1");
+	  		Assert.assertEquals(tree.contains("C2-1"), false);
+	  		tree.add("C1-3", "C1-3-1");
+	  		Assert.assertEquals(tree.children("C1-3").toArray(new String[0]), new String[]{"C1-3-1"});
+	  		Assert.assertEquals(true, tree.retainAll(Arrays.asList(new String[]{"C1"})));
+	  		Assert.assertEquals(true, tree.isEmpty());
+	  		Assert.assertEquals(tree.depth(), 0);
+	  		break;
+	  }
   }
 
   @Test(dataProvider = "getTree")
@@ -551,4 +576,227 @@ public class ArrayListTreeTest {
 	  		break;
 	  }
   }
+  @Test(dataProvider = "getTree")
+  public void hashCode(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  ArrayListTree<String> other = new ArrayListTree<String>();
+	  for(String i : tree.levelOrderTraversal())
+		  other.add(tree.parent(i), i);
+	  Assert.assertEquals(other.hashCode(), tree.hashCode());
+	  if(testCaseNumber == 1) {
+		  other.add("C1-3", "New");
+		  Assert.assertEquals(false, other.hashCode() == tree.hashCode());
+		  other.remove("New");
+		  Assert.assertEquals(other.hashCode(), tree.hashCode());
+		  Assert.assertEquals(true, tree.equals(other));
+		  other.remove("C2-2");
+		  other.add("C2", "C2-2");
+		  Assert.assertEquals(other.hashCode(), tree.hashCode());
+		  other.remove("C2-1");
+		  other.add("C2", "C2-1");
+		  Assert.assertEquals(false, other.hashCode() == tree.hashCode());
+		  Assert.assertEquals(false, tree.equals(other));
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void diff(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  @SuppressWarnings("unchecked")
+	  ArrayListTree<String> clone = (ArrayListTree<String>) tree.clone();
+	  Assert.assertEquals(true, tree.diff(clone).isEmpty());
+	  if(testCaseNumber == 1) {
+		  clone.add("C1-2-1", "New");
+		  Assert.assertEquals(tree.diff(clone), Arrays.asList("C1-2-1"));
+		  Assert.assertEquals(clone.diff(tree), Arrays.asList("C1-2-1", "New"));
+		  clone.remove("C2-1");
+		  Assert.assertEquals(tree.diff(clone), Arrays.asList("C1-2-1", "C2", "C2-1"));
+		  clone.clear();
+		  clone.add("Root2");
+		  Assert.assertEquals(tree.diff(clone), Arrays.asList("Root1"));
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void move(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.move("Not present", "Root1");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1) {
+		  tree.move("C1-1", "C2-2");
+		  Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C1-2","C1-2-1","C1-3","C2","C2-1","C2-1-1","C2-1-2","C2-2","C1-1","C1-1-1","C1-1-2"});
+		  Assert.assertEquals("C2-2", tree.parent("C1-1"));
+		  Assert.assertEquals(5, tree.depth());
+		  tree.move("C1-1", "C1");
+		  Assert.assertEquals(tree.children("C1"), Arrays.asList("C1-2", "C1-3", "C1-1"));
+		  Assert.assertEquals(4, tree.depth());
+		  ArrayListTree<String> other = new ArrayListTree<String>();
+		  for(String i : tree.levelOrderTraversal())
+			  other.add(tree.parent(i), i);
+		  Assert.assertEquals(other.hashCode(), tree.hashCode());
+		  Assert.assertEquals(true, tree.equals(other));
+		  try {
+			  tree.move("C1", "C1-1-2");
+			  Assert.assertEquals(false, true);
+		  } catch (IllegalArgumentException e) {
+			  //passed
+		  }
+		  try {
+			  tree.move("Root1", "C2");
+			  Assert.assertEquals(false, true);
+		  } catch (IllegalArgumentException e) {
+			  //passed
+		  }
+		  Assert.assertEquals(13, tree.size());
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void subtreeAndAttach(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.subtree("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 0) {
+		  LinkedTree<String> other = new LinkedTree<String>();
+		  other.add("Root1");
+		  other.add("Root1", "C1");
+		  tree.attach(null, other);
+		  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("Root1", "C1"));
+		  Assert.assertEquals(2, tree.depth());
+	  } else {
+		  ArrayListTree<String> subtree = tree.subtree("C1");
+		  Assert.assertEquals(subtree.preOrderTraversal(), Arrays.asList("C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3"));
+		  Assert.assertEquals(3, subtree.depth());
+		  Assert.assertEquals(7, subtree.size());
+		  try {
+			  tree.attach("C2-2", subtree);
+			  Assert.assertEquals(false, true);
+		  } catch (IllegalArgumentException e) {
+			  //passed
+		  }
+		  Assert.assertEquals(13, tree.size());
+		  tree.remove("C1");
+		  tree.attach("C2-2", subtree);
+		  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("Root1","C2","C2-1","C2-1-1","C2-1-2","C2-2","C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3"));
+		  Assert.assertEquals("C2-2", tree.parent("C1"));
+		  Assert.assertEquals(6, tree.depth());
+		  Assert.assertEquals(13, tree.size());
+		  ArrayListTree<String> other = new ArrayListTree<String>();
+		  for(String i : tree.levelOrderTraversal())
+			  other.add(tree.parent(i), i);
+		  Assert.assertEquals(other.hashCode(), tree.hashCode());
+		  Assert.assertEquals(true, tree.equals(other));
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void levelAndSubtreeSize(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.level("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(1, tree.level("Root1"));
+		  Assert.assertEquals(13, tree.subtreeSize("Root1"));
+		  Assert.assertEquals(3, tree.level("C1-2"));
+		  Assert.assertEquals(2, tree.subtreeSize("C1-2"));
+		  Assert.assertEquals(7, tree.subtreeSize("C1"));
+		  tree.add("C1-2-1", "New");
+		  Assert.assertEquals(5, tree.level("New"));
+		  Assert.assertEquals(8, tree.subtreeSize("C1"));
+		  tree.move("C1-2", "C2-2");
+		  Assert.assertEquals(4, tree.level("C1-2"));
+		  Assert.assertEquals(6, tree.level("New"));
+		  Assert.assertEquals(6, tree.depth());
+		  Assert.assertEquals(5, tree.subtreeSize("C1"));
+		  Assert.assertEquals(4, tree.subtreeSize("C2-2"));
+		  Assert.assertEquals(8, tree.subtreeSize("C2"));
+		  tree.remove("C2-1");
+		  Assert.assertEquals(5, tree.subtreeSize("C2"));
+		  Assert.assertEquals(11, tree.subtreeSize("Root1"));
+		  ArrayListTree<String> copy = tree.subtree("C1-2-1");
+		  tree.removeAll(Arrays.asList(new String[]{"C2-2"}));
+		  tree.attach("C1-3", copy);
+		  Assert.assertEquals(tree.subtreeSize("C1"), 7);
+		  Assert.assertEquals(tree.level("New"), 5);
+		  Assert.assertEquals(tree.subtreeSize("Root1"), tree.size());
+		  for(String i : tree.preOrderTraversal()) {
+			  Assert.assertEquals(tree.level(i), TreeHelper.level(tree, i));
+			  Assert.assertEquals(tree.subtreeSize(i), TreeHelper.subtreeSize(tree, i));
+		  }
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void subtreeTraversals(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.preOrderTraversal("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.preOrderTraversal("C1"), Arrays.asList("C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3"));
+		  Assert.assertEquals(tree.postOrderTraversal("C1"), Arrays.asList("C1-1-1","C1-1-2","C1-1","C1-2-1","C1-2","C1-3","C1"));
+		  Assert.assertEquals(tree.levelOrderTraversal("C1"), Arrays.asList("C1","C1-1","C1-2","C1-3","C1-1-1","C1-1-2","C1-2-1"));
+		  Assert.assertEquals(tree.inOrderTraversal("C1"), Arrays.asList("C1-1-1","C1-1","C1-1-2","C1-2-1","C1-2","C1","C1-3"));
+		  Assert.assertEquals(tree.leaves("C1"), Arrays.asList("C1-1-1","C1-1-2","C1-2-1","C1-3"));
+		  Assert.assertEquals(tree.leaves("C2-2"), Arrays.asList("C2-2"));
+		  Assert.assertEquals(tree.preOrderTraversal("Root1"), tree.preOrderTraversal());
+		  Assert.assertEquals(tree.postOrderTraversal("Root1"), tree.postOrderTraversal());
+		  Assert.assertEquals(tree.levelOrderTraversal("Root1"), tree.levelOrderTraversal());
+		  Assert.assertEquals(tree.inOrderTraversal("Root1"), tree.inOrderTraversal());
+		  Assert.assertEquals(tree.leaves("Root1"), tree.leaves());
+		  Iterator<String> iterator = tree.iterator("C2", Tree.Traversal.PRE_ORDER);
+		  Assert.assertEquals(iterator.next(), "C2");
+		  Assert.assertEquals(iterator.next(), "C2-1");
+		  try {
+			  iterator.remove();
+			  Assert.assertEquals(false, true);
+		  } catch (UnsupportedOperationException e) {
+			  //passed
+		  }
+		  Assert.assertEquals(iterator.next(), "C2-1-1");
+		  Assert.assertEquals(iterator.next(), "C2-1-2");
+		  Assert.assertEquals(iterator.next(), "C2-2");
+		  Assert.assertEquals(iterator.hasNext(), false);
+		  try {
+			  iterator.next();
+			  Assert.assertEquals(false, true);
+		  } catch (NoSuchElementException e) {
+			  //passed
+		  }
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void leafIndex(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  tree.setLeafIndexed(true);
+	  Assert.assertEquals(true, tree.isLeafIndexed());
+	  Assert.assertEquals(false, tree.isLeaf("Not present"));
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C1-1-1","C1-1-2","C1-2-1","C1-3","C2-1-1","C2-1-2","C2-2"));
+		  Assert.assertEquals(true, tree.isLeaf("C1-3"));
+		  Assert.assertEquals(false, tree.isLeaf("C1"));
+		  tree.add("C1-3", "New");
+		  Assert.assertEquals(false, tree.isLeaf("C1-3"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C1-1-1","C1-1-2","C1-2-1","New","C2-1-1","C2-1-2","C2-2"));
+		  tree.move("C1-1", "C2-2");
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C1-2-1","New","C2-1-1","C2-1-2","C1-1-1","C1-1-2"));
+		  tree.remove("C1-2-1");
+		  Assert.assertEquals(true, tree.isLeaf("C1-2"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C1-2","New","C2-1-1","C2-1-2","C1-1-1","C1-1-2"));
+		  ArrayListTree<String> copy = tree.subtree("C2-1");
+		  tree.removeAll(Arrays.asList(new String[]{"C2-1"}));
+		  tree.attach("C1-2", copy);
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C2-1-1","C2-1-2","New","C1-1-1","C1-1-2"));
+		  Assert.assertEquals(((ArrayListTree<String>) tree.clone()).leaves(), tree.leaves());
+		  tree.setLeafIndexed(false);
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C2-1-1","C2-1-2","New","C1-1-1","C1-1-2"));
+		  Assert.assertEquals(true, tree.isLeaf("New"));
+	  }
+	  tree.clear();
+	  Assert.assertEquals(true, tree.leaves().isEmpty());
+  }
 }
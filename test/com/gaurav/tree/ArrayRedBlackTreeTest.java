@@ -0,0 +1,194 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class ArrayRedBlackTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		ArrayRedBlackTree<String> redBlackTree = new ArrayRedBlackTree<String>(4);
+		for(String i : new String[]{"C6","C3","C9","C1","C4","C7","CB","C2","C5","C8","CA","CC"})
+			redBlackTree.add(i);
+		/*
+								     C6
+							   ______|______
+							  |	            |
+							  C3            C9
+					    ______|__       ____|______
+					   |	     |     |           |
+					  C1        C4      C7          CB
+			           |____     |__    |__      ___|___
+			                |       |      |    |       |
+			                C2      C5     C8   CA      CC
+		 */
+		return new Object[][]{{0, new ArrayRedBlackTree<String>()},{1, redBlackTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(true, tree.add("C1.5"));
+	  Assert.assertEquals(false, tree.add("C1.5"));
+	  Assert.assertEquals(initialSize + 1, tree.size());
+	  Assert.assertEquals(true, tree.contains("C1.5"));
+	  if(testCaseNumber == 0)
+		  Assert.assertEquals("C1.5", tree.root());
+	  else {
+		  Assert.assertEquals("C1.5", tree.left("C3"));
+		  Assert.assertEquals(tree.children("C1.5"), Arrays.asList("C1", "C2"));
+		  Assert.assertEquals(true, tree.add("C0.5"));
+		  Assert.assertEquals("C0.5", tree.left("C1"));
+	  }
+	  tree.blackHeight();
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  tree.add(tree.root(), "New");
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals("C6", tree.root());
+		  Assert.assertEquals(tree.children("C6"), Arrays.asList("C3", "C9"));
+		  Assert.assertEquals(tree.children("C1"), Arrays.asList("C2"));
+		  Assert.assertEquals(tree.siblings("C7"), Arrays.asList("CB"));
+		  Assert.assertEquals(tree.siblings("C6"), Arrays.asList());
+		  Assert.assertEquals("CB", tree.parent("CA"));
+		  Assert.assertEquals(null, tree.parent("C6"));
+		  Assert.assertEquals("C3", tree.commonAncestor("C2", "C5"));
+		  Assert.assertEquals(true, tree.isAncestor("C9", "CC"));
+		  Assert.assertEquals(false, tree.isAncestor("C3", "CC"));
+		  Assert.assertEquals(null, tree.left("C7"));
+		  Assert.assertEquals("C8", tree.right("C7"));
+		  Assert.assertEquals(4, tree.depth());
+		  Assert.assertEquals(4, tree.level("CA"));
+		  Assert.assertEquals(6, tree.subtreeSize("C9"));
+		  Assert.assertEquals(true, tree.isLeaf("C8"));
+		  Assert.assertEquals(false, tree.isLeaf("C9"));
+	  } else {
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(false, tree.isLeaf("C1"));
+	  }
+	  try {
+		  tree.children(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 0) {
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.preOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.leaves().isEmpty());
+	  } else {
+		  List<String> sorted = Arrays.asList("C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC");
+		  Assert.assertEquals(tree.inOrderTraversal(), sorted);
+		  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("C6","C3","C1","C2","C4","C5","C9","C7","C8","CB","CA","CC"));
+		  Assert.assertEquals(tree.postOrderTraversal(), Arrays.asList("C2","C1","C5","C4","C3","C8","C7","CA","CC","CB","C9","C6"));
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C6","C3","C9","C1","C4","C7","CB","C2","C5","C8","CA","CC"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C2","C5","C8","CA","CC"));
+		  Assert.assertEquals(tree.inOrderTraversal("C9"), Arrays.asList("C7","C8","C9","CA","CB","CC"));
+		  Assert.assertEquals(tree.toArray(new String[0]), sorted.toArray(new String[0]));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void successor(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals("C6", tree.successor("C5"));
+		  Assert.assertEquals("C3", tree.successor("C2"));
+		  Assert.assertEquals(null, tree.successor("CC"));
+		  Assert.assertEquals("C5", tree.predecessor("C6"));
+		  Assert.assertEquals("C9", tree.predecessor("CA"));
+		  Assert.assertEquals(null, tree.predecessor("C1"));
+	  }
+	  try {
+		  tree.successor("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  Assert.assertEquals(false, tree.remove("Not present"));
+	  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.remove("C6"));
+		  Assert.assertEquals("C7", tree.root());
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C7","C3","C9","C1","C4","C8","CB","C2","C5","CA","CC"));
+		  tree.blackHeight();
+		  tree.removeAll(tree.leaves());
+		  tree.blackHeight();
+		  Assert.assertEquals(6, tree.size());
+		  Assert.assertEquals(true, tree.add("C6"));
+		  tree.removeAll(Arrays.asList("C1", "C3", "C4", "C6", "C7", "C8", "C9", "CB"));
+		  Assert.assertEquals(true, tree.isEmpty());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(0, tree.depth());
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  @SuppressWarnings("unchecked")
+	  ArrayRedBlackTree<String> clone = (ArrayRedBlackTree<String>) tree.clone();
+	  Assert.assertEquals(true, tree.equals(clone));
+	  Assert.assertEquals(tree.hashCode(), clone.hashCode());
+	  clone.add("CD");
+	  Assert.assertEquals(false, tree.equals(clone));
+	  Assert.assertEquals(false, tree.contains("CD"));
+	  clone.blackHeight();
+	  tree.blackHeight();
+  }
+
+  @Test(expectedExceptions = {UnsupportedOperationException.class})
+  public void retainAll() {
+	  new ArrayRedBlackTree<Integer>().retainAll(Arrays.asList(1));
+  }
+
+  @Test
+  public void random() throws NodeNotFoundException {
+	  Random random = new Random(0);
+	  ArrayRedBlackTree<Integer> tree = new ArrayRedBlackTree<Integer>(1);
+	  TreeSet<Integer> set = new TreeSet<Integer>();
+	  for(int i = 0; i < 20000; i++) {
+		  int key = random.nextInt(1000);
+		  if(random.nextInt(3) > 0)
+			  Assert.assertEquals(tree.add(key), set.add(key));
+		  else
+			  Assert.assertEquals(tree.remove(key), set.remove(key));
+		  if(i % 100 == 0)
+			  tree.blackHeight();
+	  }
+	  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+	  int depth = 0;
+	  for(Integer i : set) {
+		  Assert.assertEquals(tree.successor(i), set.higher(i));
+		  Assert.assertEquals(tree.predecessor(i), set.lower(i));
+		  depth = Math.max(depth, tree.level(i));
+	  }
+	  Assert.assertEquals(tree.depth(), depth);
+	  Assert.assertEquals(true, depth <= 2 * (int) Math.ceil(Math.log(set.size() + 1) / Math.log(2)));
+  }
+}
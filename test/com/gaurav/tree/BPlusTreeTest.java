@@ -0,0 +1,211 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class BPlusTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		BPlusTree<String> bPlusTree = new BPlusTree<String>(3);
+		for(String i : new String[]{"C6","C3","C9","C1","C4","C7","CB","C2","C5","C8","CA","CC"})
+			bPlusTree.add(i);
+		/*
+		                 [C6]
+		        _________|_________
+		       |                   |
+		     [C3]              [C9  CB]
+		   ___|___          ______|_______
+		  |       |        |      |       |
+		[C1 C2][C3 C4 C5][C6 C7 C8][C9 CA][CB CC]
+
+		as a tree of elements
+
+		                   C1
+		      _____________|_______
+		     |     |               |
+		     C2    C3              C6
+		         __|__     ______|______
+		        |     |   |   |   |     |
+		        C4    C5  C7  C8  C9    CB
+		                          |     |
+		                          CA    CC
+		 */
+		return new Object[][]{{0, new BPlusTree<String>(3)},{1, bPlusTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, BPlusTree<String> tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(true, tree.add("C1.5"));
+	  Assert.assertEquals(false, tree.add("C1.5"));
+	  Assert.assertEquals(initialSize + 1, tree.size());
+	  Assert.assertEquals(true, tree.contains("C1.5"));
+	  if(testCaseNumber == 0)
+		  Assert.assertEquals("C1.5", tree.root());
+	  else {
+		  Assert.assertEquals("C1", tree.parent("C1.5"));
+		  Assert.assertEquals(true, tree.add("C0"));
+		  Assert.assertEquals("C0", tree.root());
+	  }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, BPlusTree<String> tree) throws NodeNotFoundException {
+	  tree.add(tree.root(), "New");
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, BPlusTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals("C1", tree.root());
+		  Assert.assertEquals(tree.children("C1"), Arrays.asList("C2", "C3", "C6"));
+		  Assert.assertEquals(tree.children("C6"), Arrays.asList("C7", "C8", "C9", "CB"));
+		  Assert.assertEquals(tree.children("C7"), Arrays.asList());
+		  Assert.assertEquals(tree.siblings("C3"), Arrays.asList("C2", "C6"));
+		  Assert.assertEquals("C9", tree.parent("CA"));
+		  Assert.assertEquals("C6", tree.parent("CB"));
+		  Assert.assertEquals(null, tree.parent("C1"));
+		  Assert.assertEquals("C6", tree.commonAncestor("CA", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("C6", "CC"));
+		  Assert.assertEquals(false, tree.isAncestor("C3", "CC"));
+		  Assert.assertEquals(4, tree.depth());
+		  Assert.assertEquals(4, tree.level("CA"));
+		  Assert.assertEquals(2, tree.level("C3"));
+		  Assert.assertEquals(7, tree.subtreeSize("C6"));
+		  Assert.assertEquals(1, tree.subtreeSize("C8"));
+		  Assert.assertEquals(true, tree.isLeaf("C8"));
+		  Assert.assertEquals(false, tree.isLeaf("C9"));
+	  } else {
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(false, tree.isLeaf("C1"));
+	  }
+	  try {
+		  tree.children(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, BPlusTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 0) {
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.postOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.leaves().isEmpty());
+	  } else {
+		  List<String> sorted = Arrays.asList("C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC");
+		  Assert.assertEquals(tree.inOrderTraversal(), sorted);
+		  Assert.assertEquals(tree.preOrderTraversal(), sorted);
+		  Assert.assertEquals(tree.postOrderTraversal(), Arrays.asList("C2","C4","C5","C3","C7","C8","CA","C9","CC","CB","C6","C1"));
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C1","C2","C3","C6","C4","C5","C7","C8","C9","CB","CA","CC"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C2","C4","C5","C7","C8","CA","CC"));
+		  Assert.assertEquals(tree.inOrderTraversal("C6"), Arrays.asList("C6","C7","C8","C9","CA","CB","CC"));
+		  Assert.assertEquals(tree.leaves("C6"), Arrays.asList("C7","C8","CA","CC"));
+		  Assert.assertEquals(TreeIterator.toList(tree.range("C3", "C7")), Arrays.asList("C3","C4","C5","C6"));
+		  Assert.assertEquals(TreeIterator.toList(tree.range("C45", "D")), Arrays.asList("C5","C6","C7","C8","C9","CA","CB","CC"));
+		  Assert.assertEquals(tree.toArray(new String[0]), sorted.toArray(new String[0]));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void successor(int testCaseNumber, BPlusTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals("C6", tree.successor("C5"));
+		  Assert.assertEquals("C3", tree.successor("C2"));
+		  Assert.assertEquals(null, tree.successor("CC"));
+		  Assert.assertEquals("C5", tree.predecessor("C6"));
+		  Assert.assertEquals("C8", tree.predecessor("C9"));
+		  Assert.assertEquals(null, tree.predecessor("C1"));
+	  }
+	  try {
+		  tree.successor("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, BPlusTree<String> tree) throws NodeNotFoundException {
+	  Assert.assertEquals(false, tree.remove("Not present"));
+	  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.remove("C1"));
+		  Assert.assertEquals("C2", tree.root());
+		  tree.removeAll(Arrays.asList("C2", "C3", "C4", "C5", "C6", "C7", "C8"));
+		  Assert.assertEquals(tree.inOrderTraversal(), Arrays.asList("C9","CA","CB","CC"));
+		  Assert.assertEquals(3, tree.depth());
+		  tree.removeAll(Arrays.asList("CA", "CB", "CC"));
+		  Assert.assertEquals(1, tree.depth());
+		  Assert.assertEquals(true, tree.remove("C9"));
+		  Assert.assertEquals(true, tree.isEmpty());
+		  Assert.assertEquals(null, tree.root());
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, BPlusTree<String> tree) {
+	  @SuppressWarnings("unchecked")
+	  BPlusTree<String> clone = (BPlusTree<String>) tree.clone();
+	  Assert.assertEquals(true, tree.equals(clone));
+	  Assert.assertEquals(tree.hashCode(), clone.hashCode());
+	  clone.add("CD");
+	  Assert.assertEquals(false, tree.equals(clone));
+	  Assert.assertEquals(false, tree.contains("CD"));
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(TreeIterator.toList(clone.range("CC", "CE")), Arrays.asList("CC", "CD"));
+	  else
+		  Assert.assertEquals(TreeIterator.toList(clone.range("CC", "CE")), Arrays.asList("CD"));
+  }
+
+  @Test(expectedExceptions = {UnsupportedOperationException.class})
+  public void retainAll() {
+	  new BPlusTree<Integer>().retainAll(Arrays.asList(1));
+  }
+
+  @Test(expectedExceptions = {IllegalArgumentException.class})
+  public void order() {
+	  new BPlusTree<Integer>(2);
+  }
+
+  @Test
+  public void random() throws NodeNotFoundException {
+	  Random random = new Random(0);
+	  for(int order = 3; order <= 6; order++) {
+		  BPlusTree<Integer> tree = new BPlusTree<Integer>(order);
+		  TreeSet<Integer> set = new TreeSet<Integer>();
+		  for(int i = 0; i < 5000; i++) {
+			  int key = random.nextInt(500);
+			  if(random.nextInt(3) > 0)
+				  Assert.assertEquals(tree.add(key), set.add(key));
+			  else
+				  Assert.assertEquals(tree.remove(key), set.remove(key));
+		  }
+		  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+		  int depth = 0;
+		  for(Integer i : set) {
+			  Assert.assertEquals(tree.level(i), TreeHelper.level(tree, i));
+			  Assert.assertEquals(tree.subtreeSize(i), TreeHelper.subtreeSize(tree, i));
+			  Assert.assertEquals(tree.successor(i), set.higher(i));
+			  depth = Math.max(depth, tree.level(i));
+		  }
+		  Assert.assertEquals(tree.depth(), depth);
+		  Assert.assertEquals(TreeIterator.toList(tree.range(100, 200)), new ArrayList<Integer>(set.subSet(100, 200)));
+	  }
+  }
+}
@@ -2,6 +2,7 @@ package com.gaurav.tree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.testng.Assert;
@@ -628,4 +629,29 @@ public class BinaryRedBlackTreeTest {
 	  		break;
 	  }
   }
+  @Test
+  public void comparator() throws NodeNotFoundException {
+	  BinaryRedBlackTree<String> reverse = new BinaryRedBlackTree<String>(Collections.<String>reverseOrder());
+	  reverse.addAll(Arrays.asList(new String[]{"C6","C3","C9","C1"}));
+	  Assert.assertEquals(reverse.inOrderTraversal().toArray(new String[0]), new String[]{"C9","C6","C3","C1"});
+	  Assert.assertEquals("C1", reverse.successor("C3"));
+	  Assert.assertEquals(true, reverse.contains("C3"));
+	  Assert.assertEquals(false, reverse.contains(3));
+	  LongKeyComparator<long[]> first = new LongKeyComparator<long[]>() {
+		  @Override
+		  public long key(long[] e) {
+			  return e[0];
+		  }
+	  };
+	  BinaryRedBlackTree<long[]> arrays = new BinaryRedBlackTree<long[]>(first);
+	  for(int i = 0; i < 100; i++)
+		  Assert.assertEquals(true, arrays.add(new long[]{Long.MAX_VALUE - i, i}));
+	  Assert.assertEquals(false, arrays.add(new long[]{Long.MAX_VALUE, -1}));
+	  Assert.assertEquals(100, arrays.size());
+	  Assert.assertEquals(first, arrays.comparator());
+	  Assert.assertEquals(Long.MAX_VALUE - 99, arrays.inOrderTraversal().get(0)[0]);
+	  Assert.assertEquals(-1, arrays.inOrderTraversal().get(99)[1]);
+	  Assert.assertEquals(true, arrays.contains(new long[]{Long.MAX_VALUE - 5}));
+	  Assert.assertEquals(false, arrays.contains(new long[]{Long.MAX_VALUE - 100}));
+  }
 }
@@ -2,6 +2,7 @@ package com.gaurav.tree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.testng.Assert;
@@ -616,4 +617,92 @@ public class BinarySearchTreeTest {
 	  		break;
 	  }
   }
+  @Test(dataProvider = "getTree")
+  public void rebalance(int testCaseNumber, BinarySearchTree<String> tree) throws NodeNotFoundException {
+	  tree.rebalance();
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(0, tree.depth());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0]), new String[]{"C8","C4","CB","C2","C6","CA","CC","C1","C3","C5","C7","C9"});
+	  		Assert.assertEquals(4, tree.depth());
+	  		Assert.assertEquals("C6", tree.parent("C7"));
+	  		Assert.assertEquals(null, tree.parent("C8"));
+	  		Assert.assertEquals(true, tree.add("CD"));
+	  		Assert.assertEquals("CD", tree.right("CC"));
+	  		Assert.assertEquals(4, tree.depth());
+	  		break;
+	  }
+	  BinarySearchTree<Integer> chain = new BinarySearchTree<Integer>();
+	  for(int i = 0; i < 1000; i++)
+		  chain.add(i);
+	  Assert.assertEquals(1000, chain.depth());
+	  chain.rebalance();
+	  Assert.assertEquals(10, chain.depth());
+	  Assert.assertEquals(new Integer(511), chain.root());
+	  Assert.assertEquals(chain.size(), chain.inOrderTraversal().size());
+  }
+  @Test
+  public void scapegoat() throws NodeNotFoundException {
+	  BinarySearchTree<String> tree = new BinarySearchTree<String>(0.6);
+	  tree.addAll(Arrays.asList(new String[]{"C1","C2","C3","C4","C5","C6","C7"}));
+	  Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0]), new String[]{"C1","C5","C3","C7","C2","C4","C6"});
+	  Assert.assertEquals(4, tree.depth());
+	  tree.removeAll(Arrays.asList(new String[]{"C1","C2","C3"}));//falls below alpha of the largest size
+	  Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0]), new String[]{"C6","C5","C7","C4"});
+	  Assert.assertEquals("C6", tree.parent("C5"));
+	  try {
+		  new BinarySearchTree<String>(0.5);
+		  Assert.assertEquals(false, true);
+	  } catch(IllegalArgumentException e) {
+		  //passed
+	  }
+	  BinarySearchTree<Integer> sorted = new BinarySearchTree<Integer>(0.75);
+	  for(int i = 0; i < 10000; i++)
+		  sorted.add(i);
+	  Assert.assertEquals(true, sorted.depth() - 1 <= Math.log(10000) / Math.log(1 / 0.75));
+	  for(int i = 0; i < 10000; i += 2)
+		  sorted.remove(i);
+	  Assert.assertEquals(true, sorted.depth() - 1 <= Math.log(10000) / Math.log(1 / 0.75));
+	  Assert.assertEquals(5000, sorted.inOrderTraversal().size());
+	  for(Integer i : sorted) {
+		  Integer parent = sorted.parent(i);
+		  Assert.assertEquals(true, parent == null || sorted.children(parent).contains(i));
+	  }
+  }
+  @Test
+  public void comparator() throws NodeNotFoundException {
+	  BinarySearchTree<String> reverse = new BinarySearchTree<String>(Collections.<String>reverseOrder());
+	  reverse.addAll(Arrays.asList(new String[]{"C6","C3","C9","C1"}));
+	  Assert.assertEquals(reverse.inOrderTraversal().toArray(new String[0]), new String[]{"C9","C6","C3","C1"});
+	  Assert.assertEquals("C9", reverse.left("C6"));
+	  Assert.assertEquals(true, reverse.contains("C3"));
+	  Assert.assertEquals(false, reverse.contains(3));
+	  IntKeyComparator<int[]> first = new IntKeyComparator<int[]>() {
+		  @Override
+		  public int key(int[] e) {
+			  return e[0];
+		  }
+	  };
+	  BinarySearchTree<int[]> arrays = new BinarySearchTree<int[]>(first, 0.75);
+	  for(int i = 0; i < 100; i++)
+		  Assert.assertEquals(true, arrays.add(new int[]{99 - i, i}));
+	  Assert.assertEquals(false, arrays.add(new int[]{5, -1}));
+	  Assert.assertEquals(100, arrays.size());
+	  Assert.assertEquals(first, arrays.comparator());
+	  Assert.assertEquals(0, arrays.inOrderTraversal().get(0)[0]);
+	  Assert.assertEquals(true, arrays.contains(new int[]{5}));
+	  Assert.assertEquals(true, arrays.remove(new int[]{5}));
+	  Assert.assertEquals(false, arrays.contains(new int[]{5}));
+	  Assert.assertEquals(true, arrays.depth() <= 17);
+	  BinarySearchTree<int[]> unordered = new BinarySearchTree<int[]>();
+	  unordered.add(new int[]{1});
+	  try {
+		  unordered.add(new int[]{2});
+		  Assert.assertEquals(false, true);
+	  } catch(ClassCastException e) {
+		  //passed
+	  }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class CritBitTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		CritBitTree critBitTree = new CritBitTree();
+		for(long i : new long[]{6,3,9,1,4,7,11,2,5,8,10,12,-4})
+			critBitTree.add(i);
+		/*
+		 * the shape depends only on the keys, a key is the parent of the first keys under the second children
+		 * of the inner nodes it is the first key of
+		                 -4
+		                  |
+		                  1
+		         _________|_________
+		        |         |         |
+		        2         4         8
+		        |       __|__    ___|___
+		        |      |     |  |   |   |
+		        3      5     6  9   10  12
+		                     |      |
+		                     7      11
+		 */
+		return new Object[][]{{0, new CritBitTree()},{1, critBitTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, CritBitTree tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(true, tree.add(Long.valueOf(13)));
+	  Assert.assertEquals(false, tree.add(13));
+	  Assert.assertEquals(initialSize + 1, tree.size());
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.children(12L), Arrays.asList(13L));
+		  Assert.assertEquals(true, tree.add(Long.MIN_VALUE));
+		  Assert.assertEquals(Long.valueOf(Long.MIN_VALUE), tree.root());
+		  Assert.assertEquals(tree.children(Long.MIN_VALUE), Arrays.asList(-4L, 1L));
+	  } else
+		  Assert.assertEquals(Long.valueOf(13), tree.root());
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, CritBitTree tree) throws NodeNotFoundException {
+	  tree.add(tree.root(), 20L);
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, CritBitTree tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(Long.valueOf(-4), tree.root());
+		  Assert.assertEquals(tree.children(1L), Arrays.asList(2L, 4L, 8L));
+		  Assert.assertEquals(tree.siblings(2L), Arrays.asList(4L, 8L));
+		  Assert.assertEquals(tree.siblings(-4L), Arrays.asList());
+		  Assert.assertEquals(Long.valueOf(10), tree.parent(11L));
+		  Assert.assertEquals(null, tree.parent(-4L));
+		  Assert.assertEquals(Long.valueOf(4), tree.commonAncestor(5L, 7L));
+		  Assert.assertEquals(Long.valueOf(1), tree.commonAncestor(3L, 12L));
+		  Assert.assertEquals(true, tree.isAncestor(8L, 11L));
+		  Assert.assertEquals(false, tree.isAncestor(4L, 9L));
+		  Assert.assertEquals(true, tree.isDescendant(2L, 3L));
+		  Assert.assertEquals(5, tree.depth());
+		  Assert.assertEquals(5, tree.level(7L));
+		  Assert.assertEquals(5, tree.subtreeSize(8L));
+		  Assert.assertEquals(true, tree.isLeaf(12L));
+		  Assert.assertEquals(false, tree.isLeaf(10L));
+		  Assert.assertEquals(true, tree.remove(10L));
+		  Assert.assertEquals(tree.children(8L), Arrays.asList(9L, 11L, 12L));
+		  Assert.assertEquals(5, tree.depth());
+	  } else {
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(false, tree.isLeaf(1L));
+	  }
+	  try {
+		  tree.children(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.parent(20L);
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, CritBitTree tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.inOrderTraversal(), Arrays.asList(-4L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L));
+		  Assert.assertEquals(tree.preOrderTraversal(), tree.inOrderTraversal());
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList(-4L, 1L, 2L, 4L, 8L, 3L, 5L, 6L, 9L, 10L, 12L, 7L, 11L));
+		  Assert.assertEquals(tree.postOrderTraversal(), Arrays.asList(3L, 2L, 5L, 7L, 6L, 4L, 9L, 11L, 10L, 12L, 8L, 1L, -4L));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList(3L, 5L, 7L, 9L, 11L, 12L));
+		  Assert.assertEquals(tree.inOrderTraversal(8L), Arrays.asList(8L, 9L, 10L, 11L, 12L));
+	  } else {
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.leaves().isEmpty());
+		  Assert.assertEquals(false, tree.iterator().hasNext());
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void search(int testCaseNumber, CritBitTree tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.contains(7L));
+		  Assert.assertEquals(true, tree.contains(-4));
+		  Assert.assertEquals(false, tree.contains(Integer.valueOf(7)));
+		  Assert.assertEquals(false, tree.contains(13L));
+		  Assert.assertEquals(Long.valueOf(1), tree.successor(-4L));
+		  Assert.assertEquals(null, tree.successor(12L));
+		  Assert.assertEquals(Long.valueOf(7), tree.predecessor(8L));
+		  Assert.assertEquals(null, tree.predecessor(-4L));
+		  Assert.assertEquals(false, tree.remove(13L));
+		  Assert.assertEquals(true, tree.remove(-4L));
+		  Assert.assertEquals(Long.valueOf(1), tree.root());
+	  } else {
+		  Assert.assertEquals(false, tree.contains(1L));
+		  Assert.assertEquals(false, tree.remove(1L));
+	  }
+	  try {
+		  tree.successor(20L);
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, CritBitTree tree) {
+	  CritBitTree clone = (CritBitTree) tree.clone();
+	  Assert.assertEquals(true, tree.equals(clone));
+	  Assert.assertEquals(tree.hashCode(), clone.hashCode());
+	  clone.add(13L);
+	  Assert.assertEquals(false, tree.equals(clone));
+	  Assert.assertEquals(false, tree.contains(13L));
+	  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+  }
+
+  @Test(expectedExceptions = {UnsupportedOperationException.class})
+  public void retainAll() {
+	  new CritBitTree().retainAll(Arrays.asList(1L));
+  }
+
+  @Test
+  public void random() throws NodeNotFoundException {
+	  Random random = new Random(0);
+	  CritBitTree tree = new CritBitTree(1);
+	  TreeSet<Long> set = new TreeSet<Long>();
+	  for(int i = 0; i < 20000; i++) {
+		  long key = random.nextBoolean() ? random.nextInt(1000) - 500 : random.nextLong();
+		  switch(random.nextInt(4)) {
+		  case 0:
+			  Assert.assertEquals(tree.remove(key), set.remove(key));
+			  break;
+		  case 1:
+			  Assert.assertEquals(tree.contains(key), set.contains(key));
+			  break;
+		  default:
+			  Assert.assertEquals(tree.add(key), set.add(key));
+			  Assert.assertEquals(tree.successor(key), set.higher(key));
+			  Assert.assertEquals(tree.predecessor(key), set.lower(key));
+		  }
+	  }
+	  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Long>(set));
+	  int depth = 0;
+	  for(Long i : set) {
+		  int level = tree.level(i);
+		  Assert.assertEquals(level, tree.parent(i) == null ? 1 : tree.level(tree.parent(i)) + 1);
+		  Assert.assertEquals(tree.subtreeSize(i), tree.preOrderTraversal(i).size());
+		  depth = Math.max(depth, level);
+	  }
+	  Assert.assertEquals(tree.depth(), depth);
+  }
+}
@@ -0,0 +1,120 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Degenerate trees, i.e. chains, run on a thread with a small stack, so that any routine recursing once per level
+ * overflows it
+ */
+public class DeepTreeTest {
+	private static final int DEPTH = 1000000;
+	private static final long STACK_SIZE = 1 << 18;
+
+	@DataProvider
+	public Object[][] getTree() {
+		return new Object[][]{{new ArrayListTree<Integer>()},{new MapIndexedArrayListTree<Integer>()},{new ArrayTree<Integer>(2)},{new LinkedTree<Integer>()}};
+	}
+
+	@Test(dataProvider = "getTree")
+	public void chain(final PreOrderTree<Integer> tree) throws Exception {
+		onSmallStack(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				ArrayList<Integer> nodes = new ArrayList<Integer>(DEPTH);
+				IntList parents = new IntList(DEPTH);
+				for(int i = 0; i < DEPTH; i++) {
+					nodes.add(i);
+					parents.add(i - 1);
+				}
+				tree.load(nodes, parents, null);
+				Assert.assertEquals(tree.size(), DEPTH);
+				Assert.assertEquals(tree.depth(), DEPTH);
+				Assert.assertEquals(tree.preOrderTraversal(), nodes);
+				Assert.assertEquals(tree.postOrderTraversal().iterator().next(), Integer.valueOf(DEPTH - 1));
+				Assert.assertEquals(tree.inOrderTraversal().iterator().next(), Integer.valueOf(DEPTH - 1));
+				Assert.assertEquals(tree.levelOrderTraversal(), nodes);
+				Assert.assertEquals(tree.leaves(), Arrays.asList(DEPTH - 1));
+				Assert.assertEquals(tree.level(DEPTH - 1), DEPTH);
+				Assert.assertEquals(tree.subtreeSize(1), DEPTH - 1);
+				Iterator<Integer> iterator = tree.iterator(DEPTH / 2, Tree.Traversal.POST_ORDER);
+				Assert.assertEquals(iterator.next(), Integer.valueOf(DEPTH - 1));
+				@SuppressWarnings("unchecked")
+				Tree<Integer> clone = (Tree<Integer>) tree.getClass().getMethod("clone").invoke(tree);
+				Assert.assertEquals(clone.preOrderTraversal(), nodes);
+				Assert.assertEquals(tree.remove(DEPTH / 2), true);
+				Assert.assertEquals(tree.depth(), DEPTH / 2);
+				tree.removeAll(Arrays.asList(1));
+				Assert.assertEquals(tree.size(), 1);
+				Assert.assertEquals(tree.depth(), 1);
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void sortedBinarySearchTree() throws Exception {
+		sorted(new BinarySearchTree<Integer>(), 20000);
+	}
+	@Test
+	public void sortedArrayListBinarySearchTree() throws Exception {
+		sorted(new ArrayListBinarySearchTree<Integer>(), 10000);
+	}
+	@Test
+	public void sortedBinaryRedBlackTree() throws Exception {
+		sorted(new BinaryRedBlackTree<Integer>(), 20000);
+	}
+	private static void sorted(final SortedTree<Integer> tree, final int size) throws Exception {
+		onSmallStack(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				List<Integer> nodes = new ArrayList<Integer>(size);
+				for(int i = 0; i < size; i++) {
+					tree.add(i);
+					nodes.add(i);
+				}
+				Assert.assertEquals(tree.size(), size);
+				Assert.assertEquals(tree.inOrderTraversal(), nodes);
+				Assert.assertEquals(tree.preOrderTraversal().size(), size);
+				Assert.assertEquals(tree.postOrderTraversal().size(), size);
+				Assert.assertEquals(tree.levelOrderTraversal().size(), size);
+				Assert.assertEquals(tree.contains(size - 1), true);
+				Assert.assertEquals(tree.leaves().contains(size - 1), true);
+				Object clone = tree.getClass().getMethod("clone").invoke(tree);
+				Assert.assertEquals(clone, tree);
+				if(!(tree instanceof BinaryRedBlackTree))
+					Assert.assertEquals(tree.depth(), size);
+				return null;
+			}
+		});
+	}
+	private static void onSmallStack(final Callable<Void> test) throws Exception {
+		final Exception[] exception = new Exception[1];
+		final Error[] error = new Error[1];
+		Thread thread = new Thread(null, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					test.call();
+				} catch(Exception e) {
+					exception[0] = e;
+				} catch(Error e) {
+					error[0] = e;
+				}
+			}
+		}, "deep-tree", STACK_SIZE);
+		thread.start();
+		thread.join();
+		if(exception[0] != null)
+			throw exception[0];
+		if(error[0] != null)
+			throw error[0];
+	}
+}
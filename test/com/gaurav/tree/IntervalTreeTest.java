@@ -0,0 +1,179 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class IntervalTreeTest {
+	private static final IntervalComparator<String> RANGES = new IntervalComparator<String>() {//"start-end"
+		@Override
+		public long start(String e) {
+			return Long.parseLong(e.substring(0, e.indexOf('-')));
+		}
+		@Override
+		public long end(String e) {
+			return Long.parseLong(e.substring(e.indexOf('-') + 1));
+		}
+	};
+	@DataProvider
+	public Object[][] getTree() {
+		IntervalTree<String> intervalTree = new IntervalTree<String>(RANGES);
+		for(String i : new String[]{"15-20","10-30","17-19","5-20","12-15","30-40","1-3","25-28","8-9","16-22"})
+			intervalTree.add(i);
+		/*
+		                    15-20
+		            __________|__________
+		           |                     |
+		         10-30                 25-28
+		        ___|___               ___|___
+		       |       |             |       |
+		      5-20   12-15         17-19   30-40
+		     ___|___               ___|
+		    |       |             |
+		   1-3     8-9          16-22
+		 */
+		return new Object[][]{{0, new IntervalTree<String>(RANGES)},{1, intervalTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, IntervalTree<String> tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(true, tree.add("50-60"));
+	  Assert.assertEquals(false, tree.add("50-60"));
+	  Assert.assertEquals(initialSize + 1, tree.size());
+	  Assert.assertEquals(list(tree.overlapping(55)), Arrays.asList("50-60"));
+	  try {
+		  tree.add("60-50");
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, IntervalTree<String> tree) throws NodeNotFoundException {
+	  tree.add(tree.root(), "50-60");
+  }
+
+  @Test(dataProvider = "getTree")
+  public void overlapping(int testCaseNumber, IntervalTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(list(tree.overlapping(18)), Arrays.asList("5-20", "10-30", "15-20", "16-22", "17-19"));
+		  Assert.assertEquals(list(tree.overlapping(4)), Arrays.asList());
+		  Assert.assertEquals(list(tree.overlapping(29, 31)), Arrays.asList("10-30", "30-40"));
+		  Assert.assertEquals(list(tree.overlapping(40)), Arrays.asList("30-40"));
+		  Assert.assertEquals(list(tree.overlapping(41)), Arrays.asList());
+		  Assert.assertEquals(list(tree.overlapping(0, 100)), tree.inOrderTraversal());
+		  Assert.assertEquals(true, tree.remove("10-30"));
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("15-20","5-20","25-28","1-3","12-15","17-19","30-40","8-9","16-22"));
+		  Assert.assertEquals(list(tree.overlapping(29)), Arrays.asList());
+		  Assert.assertEquals(list(tree.overlapping(26, 29)), Arrays.asList("25-28"));
+	  } else
+		  Assert.assertEquals(false, tree.overlapping(0, 100).hasNext());
+	  try {
+		  tree.overlapping(5, 4);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, IntervalTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals("15-20", tree.root());
+		  Assert.assertEquals(tree.children("10-30"), Arrays.asList("5-20", "12-15"));
+		  Assert.assertEquals(tree.siblings("17-19"), Arrays.asList("30-40"));
+		  Assert.assertEquals(tree.siblings("16-22"), Arrays.asList());
+		  Assert.assertEquals("17-19", tree.parent("16-22"));
+		  Assert.assertEquals(null, tree.parent("15-20"));
+		  Assert.assertEquals("10-30", tree.commonAncestor("1-3", "12-15"));
+		  Assert.assertEquals(true, tree.isAncestor("25-28", "16-22"));
+		  Assert.assertEquals(true, tree.isDescendant("5-20", "8-9"));
+		  Assert.assertEquals("17-19", tree.left("25-28"));
+		  Assert.assertEquals(null, tree.right("17-19"));
+		  Assert.assertEquals(4, tree.depth());
+		  Assert.assertEquals(4, tree.level("8-9"));
+		  Assert.assertEquals(5, tree.subtreeSize("10-30"));
+		  Assert.assertEquals(true, tree.isLeaf("12-15"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("1-3", "8-9", "12-15", "16-22", "30-40"));
+		  Assert.assertEquals("16-22", tree.successor("15-20"));
+		  Assert.assertEquals(null, tree.successor("30-40"));
+		  Assert.assertEquals("1-3", tree.predecessor("5-20"));
+		  Assert.assertEquals(null, tree.predecessor("1-3"));
+	  } else {
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+		  Assert.assertEquals(false, tree.iterator().hasNext());
+	  }
+	  try {
+		  tree.parent("50-60");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, IntervalTree<String> tree) {
+	  @SuppressWarnings("unchecked")
+	  IntervalTree<String> clone = (IntervalTree<String>) tree.clone();
+	  Assert.assertEquals(true, tree.equals(clone));
+	  Assert.assertEquals(tree.hashCode(), clone.hashCode());
+	  clone.add("50-60");
+	  Assert.assertEquals(false, tree.equals(clone));
+	  Assert.assertEquals(false, tree.overlapping(55).hasNext());
+	  Assert.assertEquals(false, tree.contains("50-60"));
+	  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+  }
+
+  @Test(expectedExceptions = {UnsupportedOperationException.class})
+  public void retainAll() {
+	  new IntervalTree<String>(RANGES).retainAll(Arrays.asList("1-2"));
+  }
+
+  @Test
+  public void random() throws NodeNotFoundException {
+	  Random random = new Random(0);
+	  IntervalTree<String> tree = new IntervalTree<String>(RANGES);
+	  TreeSet<String> set = new TreeSet<String>(RANGES);
+	  for(int i = 0; i < 20000; i++) {
+		  int start = random.nextInt(1000);
+		  String interval = start + "-" + (start + random.nextInt(random.nextBoolean() ? 10 : 200));
+		  if(random.nextInt(3) == 0)
+			  Assert.assertEquals(tree.remove(interval), set.remove(interval));
+		  else
+			  Assert.assertEquals(tree.add(interval), set.add(interval));
+		  if(i % 100 == 0) {
+			  long from = random.nextInt(1000);
+			  long to = from + random.nextInt(50);
+			  List<String> overlapping = new ArrayList<String>();
+			  for(String j : set)
+				  if(RANGES.start(j) <= to && RANGES.end(j) >= from)
+					  overlapping.add(j);
+			  Assert.assertEquals(list(tree.overlapping(from, to)), overlapping);
+		  }
+	  }
+	  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<String>(set));
+	  Assert.assertEquals(true, tree.depth() <= 2 * (32 - Integer.numberOfLeadingZeros(set.size() + 1)));
+	  for(String i : set) {
+		  Assert.assertEquals(tree.successor(i), set.higher(i));
+		  Assert.assertEquals(tree.predecessor(i), set.lower(i));
+	  }
+  }
+
+  private static List<String> list(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+}
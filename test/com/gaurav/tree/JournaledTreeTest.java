@@ -0,0 +1,170 @@
+package com.gaurav.tree;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class JournaledTreeTest {
+	private final List<File> directories = new ArrayList<File>();
+
+	private File directory() throws IOException {
+		File directory = Files.createTempDirectory("journal").toFile();
+		directories.add(directory);
+		return directory;
+	}
+	@AfterMethod
+	public void deleteDirectories() {
+		for(File i : directories) {
+			File[] files = i.listFiles();
+			if(files != null)
+				for(File j : files)
+					j.delete();
+			i.delete();
+		}
+		directories.clear();
+	}
+	private static void populate(Tree<String> tree) throws NodeNotFoundException {
+		tree.add("Root1");
+		tree.add("Root1", "C1");
+		tree.add("Root1", "C2");
+		tree.add("C1", "C1-1");
+		tree.add("C1", "C1-2");
+		tree.add("C2", "C2-1");
+		tree.add("C1-1", "C1-1-1");
+	}
+
+  @Test
+  public void recover() throws IOException, NodeNotFoundException {
+	  File directory = directory();
+	  JournaledTree<String> tree = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  populate(tree);
+	  Assert.assertEquals(true, tree.remove("C1-1"));
+	  Assert.assertEquals(false, tree.remove("Not present"));
+	  Assert.assertEquals(false, tree.add("C2-1"));
+	  tree.move("C1-2", "C2");
+	  tree.close();
+	  JournaledTree<String> recovered = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.preOrderTraversal(), Arrays.asList("Root1", "C1", "C2", "C2-1", "C1-2"));
+	  Assert.assertEquals(true, recovered.equals(tree));
+	  recovered.clear();
+	  recovered.add("New");
+	  recovered.close();
+	  recovered = new JournaledTree<String>(new LinkedTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.preOrderTraversal(), Arrays.asList("New"));
+	  recovered.close();
+  }
+
+  @Test
+  public void recoverRootWithoutParent() throws IOException, NodeNotFoundException {
+	  File directory = directory();
+	  JournaledTree<String> tree = new JournaledTree<String>(new LinkedTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(true, tree.add(null, "Root1"));
+	  tree.add("Root1", "C1");
+	  tree.close();
+	  JournaledTree<String> recovered = new JournaledTree<String>(new LinkedTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.preOrderTraversal(), Arrays.asList("Root1", "C1"));
+	  recovered.close();
+  }
+
+  @Test
+  public void checkpoint() throws IOException, NodeNotFoundException {
+	  File directory = directory();
+	  JournaledTree<String> tree = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  populate(tree);
+	  tree.checkpoint();
+	  Assert.assertEquals(12, new File(directory, JournaledTree.JOURNAL).length());
+	  tree.add("C2", "C2-2");
+	  tree.remove("C1");
+	  tree.close();
+	  JournaledTree<String> recovered = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.preOrderTraversal(), Arrays.asList("Root1", "C2", "C2-1", "C2-2"));
+	  recovered.checkpoint();
+	  recovered.checkpoint();
+	  recovered.close();
+	  recovered = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.preOrderTraversal(), Arrays.asList("Root1", "C2", "C2-1", "C2-2"));
+	  recovered.close();
+  }
+
+  @Test
+  public void tornRecord() throws IOException, NodeNotFoundException {
+	  File directory = directory();
+	  JournaledTree<String> tree = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  populate(tree);
+	  tree.close();
+	  FileOutputStream out = new FileOutputStream(new File(directory, JournaledTree.JOURNAL), true);
+	  out.write(new byte[]{0, 0, 0, 20, 1, 2, 3, 4, 2, 0});
+	  out.close();
+	  JournaledTree<String> recovered = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.size(), 7);
+	  recovered.add("C2-1", "C2-1-1");
+	  recovered.close();
+	  recovered = new JournaledTree<String>(new ArrayListTree<String>(), directory, ElementCodecs.STRING);
+	  Assert.assertEquals(recovered.parent("C2-1-1"), "C2-1");
+	  Assert.assertEquals(recovered.size(), 8);
+	  recovered.close();
+  }
+
+  @Test
+  public void delayedSync() throws IOException {
+	  File directory = directory();
+	  JournaledTree<Integer> tree = new JournaledTree<Integer>(new BinarySearchTree<Integer>(), directory, ElementCodecs.INTEGER, 5);
+	  for(int i = 0; i < 1000; i++)
+		  tree.add((i * 7919) % 1000);
+	  tree.sync();
+	  tree.remove(500);
+	  tree.close();
+	  JournaledTree<Integer> recovered = new JournaledTree<Integer>(new BinarySearchTree<Integer>(), directory, ElementCodecs.INTEGER);
+	  Assert.assertEquals(recovered.preOrderTraversal(), tree.preOrderTraversal());
+	  recovered.close();
+  }
+
+  @Test
+  public void groupCommit() throws Exception {
+	  File directory = directory();
+	  final JournaledTree<Integer> tree = new JournaledTree<Integer>(new MapIndexedArrayListTree<Integer>(), directory, ElementCodecs.INTEGER);
+	  tree.add(-1);
+	  final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+	  Thread[] threads = new Thread[4];
+	  for(int i = 0; i < threads.length; i++) {
+		  final int thread = i;
+		  threads[i] = new Thread() {
+			  @Override
+			  public void run() {
+				  try {
+					  for(int j = 0; j < 200; j++)
+						  tree.add(-1, thread * 1000 + j);
+				  } catch(Exception e) {
+					  failure.set(e);
+				  }
+			  }
+		  };
+		  threads[i].start();
+	  }
+	  for(Thread i : threads)
+		  i.join();
+	  Assert.assertEquals(null, failure.get());
+	  tree.close();
+	  JournaledTree<Integer> recovered = new JournaledTree<Integer>(new MapIndexedArrayListTree<Integer>(), directory, ElementCodecs.INTEGER);
+	  Assert.assertEquals(recovered.size(), 801);
+	  Assert.assertEquals(recovered.children(-1), tree.children(-1));
+	  recovered.close();
+  }
+
+  @Test(expectedExceptions = {IllegalStateException.class})
+  public void closed() throws IOException {
+	  JournaledTree<String> tree = new JournaledTree<String>(new ArrayListTree<String>(), directory(), ElementCodecs.STRING);
+	  tree.close();
+	  tree.close();
+	  tree.add("Root");
+  }
+}
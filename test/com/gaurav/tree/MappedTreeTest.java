@@ -0,0 +1,187 @@
+package com.gaurav.tree;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class MappedTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		try {
+			ArrayListTree<String> arrayListTree = new ArrayListTree<String>();
+			arrayListTree.add("Root1");
+			arrayListTree.add("Root1", "C1");
+			arrayListTree.add("Root1", "C2");
+			arrayListTree.add("C1", "C1-1");
+			arrayListTree.add("C1", "C1-2");
+			arrayListTree.add("C1", "C1-3");
+			arrayListTree.add("C2", "C2-1");
+			arrayListTree.add("C2", "C2-2");
+			arrayListTree.add("C1-1", "C1-1-1");
+			arrayListTree.add("C1-1", "C1-1-2");
+			arrayListTree.add("C1-2", "C1-2-1");
+			arrayListTree.add("C2-1", "C2-1-1");
+			arrayListTree.add("C2-1", "C2-1-2");
+			return new Object[][]{{0, write(new ArrayListTree<String>())},{1, write(arrayListTree)}};
+		} catch(Exception e) {
+			throw new RuntimeException(e);
+		}
+	  }
+	private static MappedTree<String> write(Tree<String> tree) throws IOException {
+		File file = File.createTempFile("mapped", ".tree");
+		file.deleteOnExit();
+		MappedTree.write(tree, file, ElementCodecs.STRING);
+		return MappedTree.open(file, ElementCodecs.STRING);
+	}
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, MappedTree<String> tree) {
+	  if(testCaseNumber == 0) {
+		  Assert.assertEquals(0, tree.size());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(true, tree.preOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.leaves().isEmpty());
+	  } else {
+		  Assert.assertEquals(13, tree.size());
+		  Assert.assertEquals("Root1", tree.root());
+		  Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3","C2","C2-1","C2-1-1","C2-1-2","C2-2"});
+		  Assert.assertEquals(tree.postOrderTraversal().toArray(new String[0])
+				  , new String[]{"C1-1-1","C1-1-2","C1-1","C1-2-1","C1-2","C1-3","C1","C2-1-1","C2-1-2","C2-1","C2-2","C2","Root1"});
+		  Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C2","C1-1","C1-2","C1-3","C2-1","C2-2","C1-1-1","C1-1-2","C1-2-1","C2-1-1","C2-1-2"});
+		  Assert.assertEquals(tree.inOrderTraversal().toArray(new String[0])
+				  , new String[]{"C1-1-1","C1-1","C1-1-2","C1-2-1","C1-2","C1","C1-3","Root1","C2-1-1","C2-1","C2-1-2","C2","C2-2"});
+		  Assert.assertEquals(tree.leaves().toArray(new String[0])
+				  , new String[]{"C1-1-1","C1-1-2","C1-2-1","C1-3","C2-1-1","C2-1-2","C2-2"});
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, MappedTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.children("C1"), Arrays.asList("C1-1", "C1-2", "C1-3"));
+		  Assert.assertEquals(tree.siblings("C1-2"), Arrays.asList("C1-1", "C1-3"));
+		  Assert.assertEquals("C1-1", tree.parent("C1-1-2"));
+		  Assert.assertEquals(null, tree.parent("Root1"));
+		  Assert.assertEquals("C1", tree.commonAncestor("C1-1-1", "C1-2-1"));
+		  Assert.assertEquals("Root1", tree.commonAncestor("C1-1-1", "C2-2"));
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-1-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C2", "C1-1-1"));
+		  Assert.assertEquals(true, tree.isDescendant("C2", "C2-1-2"));
+		  Assert.assertEquals(true, tree.contains("C2-1-2"));
+		  Assert.assertEquals(false, tree.contains(Integer.valueOf(1)));
+		  Assert.assertEquals(4, tree.depth());
+	  }
+	  Assert.assertEquals(false, tree.contains("Not present"));
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void add(int testCaseNumber, MappedTree<String> tree) {
+	  tree.add("New");
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, MappedTree<String> tree) throws IOException {
+	  Assert.assertEquals(true, tree.equals(write(toArrayListTree(tree))));
+  }
+	private static ArrayListTree<String> toArrayListTree(MappedTree<String> tree) {
+		ArrayListTree<String> arrayListTree = new ArrayListTree<String>();
+		try {
+			for(String i : tree.levelOrderTraversal())
+				arrayListTree.add(tree.parent(i), i);
+		} catch (NodeNotFoundException e) {
+			throw new RuntimeException(e);
+		}
+		return arrayListTree;
+	}
+
+  @Test(dataProvider = "getTree")
+  public void levelAndSubtreeSize(int testCaseNumber, MappedTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.subtreeSize("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  ArrayListTree<String> arrayListTree = toArrayListTree(tree);
+	  for(String i : tree.preOrderTraversal()) {
+		  Assert.assertEquals(tree.level(i), arrayListTree.level(i));
+		  Assert.assertEquals(tree.subtreeSize(i), arrayListTree.subtreeSize(i));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void subtreeTraversals(int testCaseNumber, MappedTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.preOrderTraversal("C1"), Arrays.asList("C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3"));
+		  Assert.assertEquals(tree.inOrderTraversal("C1"), Arrays.asList("C1-1-1","C1-1","C1-1-2","C1-2-1","C1-2","C1","C1-3"));
+		  Assert.assertEquals(tree.postOrderTraversal("Root1"), tree.postOrderTraversal());
+		  Assert.assertEquals(tree.levelOrderTraversal("Root1"), tree.levelOrderTraversal());
+		  Assert.assertEquals(tree.leaves("C2"), Arrays.asList("C2-1-1","C2-1-2","C2-2"));
+	  } else {
+		  try {
+			  tree.iterator("Root1", Tree.Traversal.PRE_ORDER);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+
+  @Test
+  public void identityHashedElements() throws IOException, NodeNotFoundException {
+	  ElementCodec<StringBuilder> codec = new ElementCodec<StringBuilder>() {
+		  @Override
+		  public void encode(StringBuilder element, DataOutput out) throws IOException {
+			  out.writeUTF(element.toString());
+		  }
+		  @Override
+		  public StringBuilder decode(DataInput in) throws IOException {
+			  return new StringBuilder(in.readUTF());
+		  }
+	  };
+	  ArrayListTree<StringBuilder> source = new ArrayListTree<StringBuilder>();
+	  StringBuilder root = new StringBuilder("Root1");
+	  source.add(root);
+	  source.add(root, new StringBuilder("C1"));
+	  File file = File.createTempFile("mapped", ".tree");
+	  file.deleteOnExit();
+	  MappedTree.write(source, file, codec);
+	  MappedTree<StringBuilder> tree = MappedTree.open(file, codec);
+	  Assert.assertEquals(true, tree.contains(new StringBuilder("C1")));
+	  Assert.assertEquals("Root1", tree.parent(new StringBuilder("C1")).toString());
+	  tree.close();
+  }
+
+  @Test(expectedExceptions = {IllegalStateException.class})
+  public void close() throws IOException, NodeNotFoundException {
+	  ArrayListTree<Integer> source = new ArrayListTree<Integer>();
+	  source.add(0);
+	  for(int i = 1; i < 2000; i++)
+		  source.add((i - 1) / 3, i);
+	  File file = File.createTempFile("mapped", ".tree");
+	  file.deleteOnExit();
+	  MappedTree.write(source, file, ElementCodecs.INTEGER);
+	  MappedTree<Integer> tree = MappedTree.open(file, ElementCodecs.INTEGER);
+	  Assert.assertEquals(source.preOrderTraversal(), tree.preOrderTraversal());
+	  Assert.assertEquals(Integer.valueOf(666), tree.parent(1999));
+	  Assert.assertEquals(true, tree.contains(1999));
+	  tree.close();
+	  tree.close();
+	  tree.contains(0);
+  }
+}
@@ -0,0 +1,110 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ObservableTreeTest {
+	private static class Recorder implements TreeChangeListener<String> {
+		final List<List<String>> batches = new ArrayList<List<String>>();
+		@Override
+		public synchronized void treeChanged(List<TreeChangeEvent<String>> events) {
+			ArrayList<String> batch = new ArrayList<String>();
+			for(TreeChangeEvent<String> i : events)
+				batch.add(i.toString());
+			batches.add(batch);
+		}
+	}
+
+  @Test
+  public void synchronous() throws NodeNotFoundException {
+	  ObservableTree<String> tree = new ObservableTree<String>(new ArrayListTree<String>());
+	  tree.add("Root");
+	  Recorder recorder = new Recorder();
+	  tree.addListener(recorder);
+	  tree.add("Root", "C1");
+	  tree.addAll("C1", Arrays.asList("C1-1", "C1-2"));
+	  tree.add("C1-2");
+	  Assert.assertEquals(false, tree.remove("Not present"));
+	  tree.move("C1-2", "Root");
+	  tree.remove("C1");
+	  tree.clear();
+	  Assert.assertEquals(recorder.batches, Arrays.asList(
+			  Arrays.asList("ADDED(C1, Root)"),
+			  Arrays.asList("ADDED(C1-1, C1)", "ADDED(C1-2, C1)"),
+			  Arrays.asList("REPLACED(C1-2, null)"),
+			  Arrays.asList("MOVED(C1-2, Root)"),
+			  Arrays.asList("SUBTREE_REMOVED(C1, Root)"),
+			  Arrays.asList("SUBTREE_REMOVED(Root, null)")));
+	  tree.removeListener(recorder);
+	  tree.add("Root");
+	  Assert.assertEquals(recorder.batches.size(), 6);
+	  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("Root"));
+  }
+
+  @Test
+  public void sortedTree() {
+	  ObservableTree<Integer> tree = new ObservableTree<Integer>(new BinarySearchTree<Integer>());
+	  final List<String> events = new ArrayList<String>();
+	  tree.addListener(new TreeChangeListener<Integer>() {
+		  @Override
+		  public void treeChanged(List<TreeChangeEvent<Integer>> batch) {
+			  for(TreeChangeEvent<Integer> i : batch)
+				  events.add(i.toString());
+		  }
+	  });
+	  for(int i : new int[]{50, 30, 70, 20, 40})
+		  tree.add(i);
+	  tree.remove(30);
+	  Assert.assertEquals(events, Arrays.asList("ADDED(50, null)", "ADDED(30, 50)", "ADDED(70, 50)", "ADDED(20, 30)",
+			  "ADDED(40, 30)", "REMOVED(30, 50)"));
+	  Assert.assertEquals(tree.inOrderTraversal(), Arrays.asList(20, 40, 50, 70));
+  }
+
+  @Test
+  public void retainAll() throws NodeNotFoundException {
+	  ObservableTree<String> tree = new ObservableTree<String>(new ArrayListTree<String>());
+	  tree.add("Root");
+	  tree.addAll("Root", Arrays.asList("C1", "C2", "C3"));
+	  tree.addAll("C1", Arrays.asList("C1-1", "C1-2"));
+	  Recorder recorder = new Recorder();
+	  tree.addListener(recorder);
+	  Assert.assertEquals(true, tree.retainAll(Arrays.asList("Root", "C2", "C1-1")));
+	  Assert.assertEquals(false, tree.retainAll(Arrays.asList("Root", "C2")));
+	  Assert.assertEquals(recorder.batches, Arrays.asList(
+			  Arrays.asList("SUBTREE_REMOVED(C1, Root)", "SUBTREE_REMOVED(C3, Root)")));
+	  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("Root", "C2"));
+  }
+
+  @Test
+  public void asynchronous() throws NodeNotFoundException {
+	  ObservableTree<String> tree = new ObservableTree<String>(new LinkedTree<String>(), 4);
+	  Recorder recorder = new Recorder();
+	  tree.addListener(recorder);
+	  tree.add("Root");
+	  for(int i = 0; i < 100; i++)
+		  tree.add("Root", "C" + i);
+	  for(int i = 0; i < 100; i += 2)
+		  tree.remove("C" + i);
+	  tree.close();
+	  tree.close();
+	  ArrayList<String> events = new ArrayList<String>();
+	  for(List<String> i : recorder.batches)
+		  events.addAll(i);
+	  Assert.assertEquals(events.size(), 151);
+	  Assert.assertEquals(events.get(0), "ADDED(Root, null)");
+	  Assert.assertEquals(events.get(150), "SUBTREE_REMOVED(C98, Root)");
+	  Assert.assertEquals(tree.size(), 51);
+  }
+
+  @Test(expectedExceptions = {IllegalStateException.class})
+  public void closed() {
+	  ObservableTree<Integer> tree = new ObservableTree<Integer>(new BinarySearchTree<Integer>(), 16);
+	  tree.add(1);
+	  tree.close();
+	  tree.add(2);
+  }
+}
@@ -0,0 +1,209 @@
+package com.gaurav.tree;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class OffHeapTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		try {
+			OffHeapTree<String> offHeapTree = new OffHeapTree<String>(ElementCodecs.STRING);
+			offHeapTree.add("Root1");
+			offHeapTree.add("Root1", "C1");
+			offHeapTree.add("Root1", "C2");
+			offHeapTree.add("C1", "C1-1");
+			offHeapTree.add("C1", "C1-2");
+			offHeapTree.add("C1", "C1-3");
+			offHeapTree.add("C2", "C2-1");
+			offHeapTree.add("C2", "C2-2");
+			offHeapTree.add("C1-1", "C1-1-1");
+			offHeapTree.add("C1-1", "C1-1-2");
+			offHeapTree.add("C1-2", "C1-2-1");
+			offHeapTree.add("C2-1", "C2-1-1");
+			offHeapTree.add("C2-1", "C2-1-2");
+			return new Object[][]{{0, new OffHeapTree<String>(ElementCodecs.STRING)},{1, offHeapTree}};
+		} catch(NodeNotFoundException e) {
+			throw new RuntimeException();
+		}
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addEE(int testCaseNumber, OffHeapTree<String> tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  if(initialSize == 0) {
+		  Assert.assertEquals(true, tree.add(null, "New"));
+		  Assert.assertEquals("New", tree.root());
+		  Assert.assertEquals(1, tree.depth());
+	  } else {
+		  Assert.assertEquals(true, tree.add(tree.root(), "New"));
+		  Assert.assertEquals(true, tree.contains("New"));
+		  Assert.assertEquals(initialSize + 1, tree.size());
+		  Assert.assertEquals(true, tree.add("New","Child"));
+		  Assert.assertEquals(false, tree.add("Child"));
+		  Assert.assertEquals(initialSize + 2, tree.size());
+		  try {
+			  tree.add("Not present", "Child2");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, OffHeapTree<String> tree) {
+	  if(testCaseNumber == 0) {
+		  Assert.assertEquals(true, tree.preOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.leaves().isEmpty());
+	  } else {
+		  Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3","C2","C2-1","C2-1-1","C2-1-2","C2-2"});
+		  Assert.assertEquals(tree.postOrderTraversal().toArray(new String[0])
+				  , new String[]{"C1-1-1","C1-1-2","C1-1","C1-2-1","C1-2","C1-3","C1","C2-1-1","C2-1-2","C2-1","C2-2","C2","Root1"});
+		  Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C2","C1-1","C1-2","C1-3","C2-1","C2-2","C1-1-1","C1-1-2","C1-2-1","C2-1-1","C2-1-2"});
+		  Assert.assertEquals(tree.inOrderTraversal().toArray(new String[0])
+				  , new String[]{"C1-1-1","C1-1","C1-1-2","C1-2-1","C1-2","C1","C1-3","Root1","C2-1-1","C2-1","C2-1-2","C2","C2-2"});
+		  Assert.assertEquals(tree.leaves().toArray(new String[0])
+				  , new String[]{"C1-1-1","C1-1-2","C1-2-1","C1-3","C2-1-1","C2-1-2","C2-2"});
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, OffHeapTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.children("C1"), Arrays.asList("C1-1", "C1-2", "C1-3"));
+		  Assert.assertEquals(tree.siblings("C1-2"), Arrays.asList("C1-1", "C1-3"));
+		  Assert.assertEquals("C1-1", tree.parent("C1-1-2"));
+		  Assert.assertEquals(null, tree.parent("Root1"));
+		  Assert.assertEquals("C1", tree.commonAncestor("C1-1-1", "C1-2-1"));
+		  Assert.assertEquals("Root1", tree.commonAncestor("C1-1-1", "C2-2"));
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-1-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C2", "C1-1-1"));
+		  Assert.assertEquals(true, tree.isDescendant("C2", "C2-1-2"));
+		  Assert.assertEquals(4, tree.depth());
+	  }
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, OffHeapTree<String> tree) throws NodeNotFoundException {
+	  Assert.assertEquals(false, tree.remove("Not present"));
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.remove("C1-1"));
+		  Assert.assertEquals(10, tree.size());
+		  Assert.assertEquals(false, tree.contains("C1-1-2"));
+		  Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C1-2","C1-2-1","C1-3","C2","C2-1","C2-1-1","C2-1-2","C2-2"});
+		  tree.removeAll(tree.children("C2"));
+		  Assert.assertEquals(4, tree.depth());
+		  tree.remove("C1-2-1");
+		  Assert.assertEquals(3, tree.depth());
+		  Assert.assertEquals(true, tree.add("C1-3", "C1-1"));
+		  Assert.assertEquals(tree.children("C1-3"), Arrays.asList("C1-1"));
+		  Assert.assertEquals(true, tree.remove("Root1"));
+		  Assert.assertEquals(true, tree.isEmpty());
+		  Assert.assertEquals(null, tree.root());
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void move(int testCaseNumber, OffHeapTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  tree.move("C1-1", "C2-2");
+		  Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+				  , new String[]{"Root1","C1","C1-2","C1-2-1","C1-3","C2","C2-1","C2-1-1","C2-1-2","C2-2","C1-1","C1-1-1","C1-1-2"});
+		  Assert.assertEquals(5, tree.depth());
+		  tree.move("C1-2", "C1");
+		  Assert.assertEquals(tree.children("C1"), Arrays.asList("C1-3", "C1-2"));
+		  Assert.assertEquals(true, tree.contains("C1-1-2"));
+		  Assert.assertEquals(13, tree.size());
+		  try {
+			  tree.move("C2", "C1-1-1");
+			  Assert.assertEquals(false, true);
+		  } catch (IllegalArgumentException e) {
+			  //passed
+		  }
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, OffHeapTree<String> tree) throws NodeNotFoundException {
+	  OffHeapTree<String> other = new OffHeapTree<String>(ElementCodecs.STRING);
+	  for(String i : tree.levelOrderTraversal())
+		  other.add(tree.parent(i), i);
+	  Assert.assertEquals(true, tree.equals(other));
+	  other.add("Root2");
+	  Assert.assertEquals(false, tree.equals(other));
+	  other.close();
+  }
+
+  @Test(dataProvider = "getTree")
+  public void subtreeTraversals(int testCaseNumber, OffHeapTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.preOrderTraversal("C1"), Arrays.asList("C1","C1-1","C1-1-1","C1-1-2","C1-2","C1-2-1","C1-3"));
+		  Assert.assertEquals(tree.inOrderTraversal("C1"), Arrays.asList("C1-1-1","C1-1","C1-1-2","C1-2-1","C1-2","C1","C1-3"));
+		  Assert.assertEquals(tree.postOrderTraversal("Root1"), tree.postOrderTraversal());
+		  Assert.assertEquals(tree.levelOrderTraversal("Root1"), tree.levelOrderTraversal());
+		  Assert.assertEquals(tree.leaves("C2"), Arrays.asList("C2-1-1","C2-1-2","C2-2"));
+	  } else {
+		  try {
+			  tree.iterator("Root1", Tree.Traversal.PRE_ORDER);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+
+  @Test
+  public void concurrentReads() throws InterruptedException {
+	  final OffHeapTree<Integer> tree = new OffHeapTree<Integer>(ElementCodecs.INTEGER);
+	  for(int i = 0; i < 10000; i++)
+		  tree.add(i);
+	  final AtomicBoolean failed = new AtomicBoolean();
+	  Thread[] readers = new Thread[4];
+	  for(int i = 0; i < readers.length; i++) {
+		  final int offset = i;
+		  readers[i] = new Thread() {
+			  @Override
+			  public void run() {
+				  try {
+					  for(int j = 0; j < 10000; j++)
+						  if(!tree.contains((j + offset * 2500) % 10000) || tree.contains(10000 + j)
+								  || !Integer.valueOf(0).equals(tree.parent(j % 9999 + 1)))
+							  failed.set(true);
+				  } catch (NodeNotFoundException e) {
+					  failed.set(true);
+				  }
+			  }
+		  };
+		  readers[i].start();
+	  }
+	  for(Thread i : readers)
+		  i.join();
+	  Assert.assertEquals(false, failed.get());
+	  tree.close();
+  }
+
+  @Test(expectedExceptions = {IllegalStateException.class})
+  public void close() {
+	  OffHeapTree<Integer> tree = new OffHeapTree<Integer>(ElementCodecs.INTEGER);
+	  for(int i = 0; i < 100000; i++)
+		  tree.add(i);
+	  Assert.assertEquals(100000, tree.size());
+	  Assert.assertEquals(true, tree.contains(99999));
+	  tree.close();
+	  tree.close();
+	  tree.contains(0);
+  }
+}
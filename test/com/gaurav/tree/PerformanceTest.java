@@ -1,7 +1,12 @@
 package com.gaurav.tree;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 
 //@Test
@@ -9,6 +14,16 @@ public class PerformanceTest {
 	public static void main(String[] args) throws NodeNotFoundException {
 		ArrayListTreeTest();
 		MapIndexedArrayListTreeTest();
+		LinkedTreeTraversalTest();
+		BPlusTreeTest();
+		ArrayRedBlackTreeTest();
+		AVLTreeTest();
+		SplayTreeTest();
+		ScapegoatTreeTest();
+		ComparatorTest();
+		StaticSortedTreeTest();
+		CritBitTreeTest();
+		IntervalTreeTest();
 	}
 	public static void ArrayListTreeTest() throws NodeNotFoundException {
 		long freeMemory = Runtime.getRuntime().freeMemory();
@@ -59,4 +74,356 @@ public class PerformanceTest {
 			tree.children((int) (Math.random() * 5000));
 		System.out.println("LinkedTreeTest - " + (System.currentTimeMillis() - currentTimeMillis));
 	}
+	//time per node should stay flat as the chain gets deeper
+	public static void LinkedTreeTraversalTest() {
+		for(int depth = 12500; depth <= 800000; depth *= 4) {
+			ArrayList<Integer> nodes = new ArrayList<Integer>(depth);
+			IntList parents = new IntList(depth);
+			for(int i = 0; i < depth; i++) {
+				nodes.add(i);
+				parents.add(i - 1);
+			}
+			LinkedTree<Integer> tree = new LinkedTree<Integer>();
+			tree.load(nodes, parents, null);
+			long currentTimeMillis = System.currentTimeMillis();
+			for(int i = 0; i < 5; i++) {
+				tree.preOrderTraversal();
+				tree.postOrderTraversal();
+				tree.inOrderTraversal();
+				tree.levelOrderTraversal();
+				tree.leaves();
+			}
+			long time = System.currentTimeMillis() - currentTimeMillis;
+			System.out.println("LinkedTreeTraversalTest depth " + depth + " - " + time + " (" + (time * 1000000 / (5L * depth)) + " ns per node)");
+		}
+	}
+	//insertion into the red-black tree recalculates its depth, so the trees are kept small
+	public static void BPlusTreeTest() {
+		int size = 20000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(0));
+		BPlusTree<Integer> bPlusTree = new BPlusTree<Integer>();
+		BinaryRedBlackTree<Integer> redBlackTree = new BinaryRedBlackTree<Integer>();
+		System.out.println("BPlusTree insert - " + insert(bPlusTree, keys));
+		System.out.println("BinaryRedBlackTree insert - " + insert(redBlackTree, keys));
+		System.out.println("BPlusTree lookup - " + lookup(bPlusTree, keys));
+		System.out.println("BinaryRedBlackTree lookup - " + lookup(redBlackTree, keys));
+		long currentTimeMillis = System.currentTimeMillis();
+		long sum = 0;
+		for(int i = 0; i < 1000; i++)
+			for(Iterator<Integer> j = bPlusTree.range(keys.get(i), keys.get(i) + 1000); j.hasNext();)
+				sum += j.next();
+		System.out.println("BPlusTree range scan - " + (System.currentTimeMillis() - currentTimeMillis));
+		currentTimeMillis = System.currentTimeMillis();
+		for(int i = 0; i < 1000; i++)//no range iteration, so a scan walks the in-order traversal
+			for(Integer j : redBlackTree.inOrderTraversal())
+				if(j >= keys.get(i) && j < keys.get(i) + 1000)
+					sum -= j;
+		System.out.println("BinaryRedBlackTree range scan - " + (System.currentTimeMillis() - currentTimeMillis) + (sum == 0 ? "" : " mismatch"));
+	}
+	public static void ArrayRedBlackTreeTest() {
+		int size = 20000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(0));
+		usedMemory();//settles the heap, so that the first difference is not negative
+		long usedMemory = usedMemory();
+		ArrayRedBlackTree<Integer> arrayTree = new ArrayRedBlackTree<Integer>(size);
+		System.out.println("ArrayRedBlackTree insert - " + insert(arrayTree, keys));
+		System.out.println("ArrayRedBlackTree Memory - " + (usedMemory() - usedMemory));
+		usedMemory = usedMemory();
+		BinaryRedBlackTree<Integer> redBlackTree = new BinaryRedBlackTree<Integer>();
+		System.out.println("BinaryRedBlackTree insert - " + insert(redBlackTree, keys));
+		System.out.println("BinaryRedBlackTree Memory - " + (usedMemory() - usedMemory));
+		System.out.println("ArrayRedBlackTree lookup - " + lookup(arrayTree, keys));
+		System.out.println("BinaryRedBlackTree lookup - " + lookup(redBlackTree, keys));
+	}
+	//BinaryRedBlackTree does not rotate at its root, so ArrayRedBlackTree stands for a balanced red-black tree
+	public static void AVLTreeTest() {
+		int size = 20000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(0));
+		AVLTree<Integer> avlTree = new AVLTree<Integer>();
+		ArrayRedBlackTree<Integer> arrayTree = new ArrayRedBlackTree<Integer>();
+		BinaryRedBlackTree<Integer> redBlackTree = new BinaryRedBlackTree<Integer>();
+		insert(avlTree, keys);
+		insert(arrayTree, keys);
+		insert(redBlackTree, keys);
+		System.out.println("AVLTree depth - " + avlTree.depth() + ", ArrayRedBlackTree depth - " + arrayTree.depth()
+				+ ", BinaryRedBlackTree depth - " + redBlackTree.depth());
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			System.out.println("AVLTree lookup - " + lookup(avlTree, keys));
+			System.out.println("ArrayRedBlackTree lookup - " + lookup(arrayTree, keys));
+			System.out.println("BinaryRedBlackTree lookup - " + lookup(redBlackTree, keys));
+		}
+		Collections.sort(keys);
+		avlTree.clear();
+		arrayTree.clear();
+		insert(avlTree, keys);
+		insert(arrayTree, keys);
+		System.out.println("Sorted keys AVLTree depth - " + avlTree.depth() + ", ArrayRedBlackTree depth - " + arrayTree.depth());
+		System.out.println("Sorted keys AVLTree lookup - " + lookup(avlTree, keys));
+		System.out.println("Sorted keys ArrayRedBlackTree lookup - " + lookup(arrayTree, keys));
+	}
+	public static void SplayTreeTest() {
+		int size = 20000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(0));
+		//zipf(1) over the shuffled keys, the k-th most popular key is drawn with weight 1/k
+		double[] weights = new double[size];
+		double total = 0;
+		for(int i = 0; i < size; i++)
+			weights[i] = total += 1.0 / (i + 1);
+		Random random = new Random(1);
+		List<Integer> zipf = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++) {
+			int rank = Arrays.binarySearch(weights, random.nextDouble() * total);
+			zipf.add(keys.get(rank < 0 ? -rank - 1 : rank));
+		}
+		SplayTree<Integer> splayTree = new SplayTree<Integer>();
+		AVLTree<Integer> avlTree = new AVLTree<Integer>();
+		ArrayRedBlackTree<Integer> arrayTree = new ArrayRedBlackTree<Integer>();
+		System.out.println("SplayTree insert - " + insert(splayTree, keys));
+		System.out.println("AVLTree insert - " + insert(avlTree, keys));
+		System.out.println("ArrayRedBlackTree insert - " + insert(arrayTree, keys));
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			System.out.println("Zipf SplayTree lookup - " + lookup(splayTree, zipf));
+			System.out.println("Zipf AVLTree lookup - " + lookup(avlTree, zipf));
+			System.out.println("Zipf ArrayRedBlackTree lookup - " + lookup(arrayTree, zipf));
+		}
+		System.out.println("Uniform SplayTree lookup - " + lookup(splayTree, keys));
+		System.out.println("Uniform AVLTree lookup - " + lookup(avlTree, keys));
+		splayTree.setSplaying(false);
+		System.out.println("Uniform SplayTree lookup without splaying - " + lookup(splayTree, keys));
+	}
+	public static void ScapegoatTreeTest() {
+		int size = 20000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(i);
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			BinarySearchTree<Integer> plainTree = new BinarySearchTree<Integer>();
+			BinarySearchTree<Integer> scapegoatTree = new BinarySearchTree<Integer>(0.75);
+			AVLTree<Integer> avlTree = new AVLTree<Integer>();
+			System.out.println("Sorted keys BinarySearchTree insert - " + insert(plainTree, keys) + ", depth - " + plainTree.depth());
+			System.out.println("Sorted keys scapegoat BinarySearchTree insert - " + insert(scapegoatTree, keys) + ", depth - " + scapegoatTree.depth());
+			System.out.println("Sorted keys AVLTree insert - " + insert(avlTree, keys) + ", depth - " + avlTree.depth());
+			long start = System.currentTimeMillis();
+			plainTree.rebalance();
+			System.out.println("BinarySearchTree rebalance - " + (System.currentTimeMillis() - start) + ", depth - " + plainTree.depth());
+			System.out.println("Rebalanced BinarySearchTree lookup - " + lookup(plainTree, keys));
+			System.out.println("Scapegoat BinarySearchTree lookup - " + lookup(scapegoatTree, keys));
+			System.out.println("AVLTree lookup - " + lookup(avlTree, keys));
+		}
+	}
+	public static void ComparatorTest() {
+		int size = 20000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		List<int[]> records = new ArrayList<int[]>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(0));
+		for(Integer i : keys)
+			records.add(new int[]{i});
+		Comparator<int[]> comparator = new Comparator<int[]>() {
+			@Override
+			public int compare(int[] o1, int[] o2) {
+				return o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1);
+			}
+		};
+		IntKeyComparator<int[]> keyComparator = new IntKeyComparator<int[]>() {
+			@Override
+			public int key(int[] e) {
+				return e[0];
+			}
+		};
+		BinarySearchTree<Integer> naturalTree = new BinarySearchTree<Integer>(0.75);
+		BinarySearchTree<int[]> comparatorTree = new BinarySearchTree<int[]>(comparator, 0.75);
+		BinarySearchTree<int[]> keyTree = new BinarySearchTree<int[]>(keyComparator, 0.75);
+		System.out.println("Comparable insert - " + insert(naturalTree, keys));
+		System.out.println("Comparator insert - " + insert(comparatorTree, records));
+		System.out.println("IntKeyComparator insert - " + insert(keyTree, records));
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			System.out.println("Comparable lookup - " + lookup(naturalTree, keys));
+			System.out.println("Comparator lookup - " + lookup(comparatorTree, records));
+			System.out.println("IntKeyComparator lookup - " + lookup(keyTree, records));
+		}
+	}
+	public static void StaticSortedTreeTest() {
+		int size = 1000000;
+		List<Integer> keys = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++)
+			keys.add(2 * i);
+		Integer[] sorted = keys.toArray(new Integer[0]);
+		int[] sortedInts = new int[size];
+		for(int i = 0; i < size; i++)
+			sortedInts[i] = 2 * i;
+		Random random = new Random(0);
+		List<Integer> probes = new ArrayList<Integer>(size);//half of them are present
+		int[] probeInts = new int[size];
+		for(int i = 0; i < size; i++)
+			probes.add(probeInts[i] = random.nextInt(2 * size));
+		Collections.shuffle(keys, new Random(0));
+		AVLTree<Integer> avlTree = new AVLTree<Integer>();
+		ArrayRedBlackTree<Integer> arrayTree = new ArrayRedBlackTree<Integer>();
+		insert(avlTree, keys);
+		insert(arrayTree, keys);
+		StaticSortedTree<Integer> staticTree = new StaticSortedTree<Integer>(sorted);
+		IntKeyComparator<Integer> identity = new IntKeyComparator<Integer>() {
+			@Override
+			public int key(Integer e) {
+				return e;
+			}
+		};
+		StaticSortedTree<Integer> keyedTree = new StaticSortedTree<Integer>(sorted, identity);
+		StaticSortedTree<Integer> vebTree = new StaticSortedTree<Integer>(sorted, null, StaticSortedTree.Layout.VAN_EMDE_BOAS);
+		StaticSortedTree<Integer> keyedVebTree = new StaticSortedTree<Integer>(sorted, identity, StaticSortedTree.Layout.VAN_EMDE_BOAS);
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			System.out.println("AVLTree lookup - " + probe(avlTree, probes));
+			System.out.println("ArrayRedBlackTree lookup - " + probe(arrayTree, probes));
+			System.out.println("StaticSortedTree lookup - " + probe(staticTree, probes));
+			System.out.println("StaticSortedTree with IntKeyComparator lookup - " + probe(keyedTree, probes));
+			System.out.println("van Emde Boas StaticSortedTree lookup - " + probe(vebTree, probes));
+			System.out.println("van Emde Boas StaticSortedTree with IntKeyComparator lookup - " + probe(keyedVebTree, probes));
+			long start = System.currentTimeMillis();
+			int found = 0;
+			for(Integer j : probes)
+				if(Arrays.binarySearch(sorted, j) >= 0)
+					found++;
+			System.out.println("Arrays.binarySearch(Object[]) lookup - " + (System.currentTimeMillis() - start) + ", found - " + found);
+			start = System.currentTimeMillis();
+			found = 0;
+			for(int j : probeInts)
+				if(Arrays.binarySearch(sortedInts, j) >= 0)
+					found++;
+			System.out.println("Arrays.binarySearch(int[]) lookup - " + (System.currentTimeMillis() - start) + ", found - " + found);
+		}
+	}
+	public static void CritBitTreeTest() {
+		int size = 20000;//BinaryRedBlackTree recalculates its depth on every add, so it cannot take many more
+		List<Long> keys = new ArrayList<Long>(size);
+		for(long i = 0; i < size; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(0));
+		long[] longKeys = new long[size];
+		for(int i = 0; i < size; i++)
+			longKeys[i] = keys.get(i);
+		usedMemory();//settles the heap, so that the first difference is not negative
+		long usedMemory = usedMemory();
+		BinaryRedBlackTree<Long> redBlackTree = new BinaryRedBlackTree<Long>();
+		System.out.println("BinaryRedBlackTree insert - " + insert(redBlackTree, keys));
+		System.out.println("BinaryRedBlackTree Memory - " + (usedMemory() - usedMemory));
+		usedMemory = usedMemory();
+		CritBitTree critBitTree = new CritBitTree();
+		System.out.println("CritBitTree insert - " + insert(critBitTree, keys));
+		System.out.println("CritBitTree Memory - " + (usedMemory() - usedMemory));
+		CritBitTree unboxedTree = new CritBitTree();
+		long start = System.currentTimeMillis();
+		for(long i : longKeys)
+			unboxedTree.add(i);
+		System.out.println("CritBitTree insert(long) - " + (System.currentTimeMillis() - start));
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			System.out.println("BinaryRedBlackTree lookup - " + lookup(redBlackTree, keys));
+			System.out.println("CritBitTree lookup - " + lookup(critBitTree, keys));
+			start = System.currentTimeMillis();
+			int found = 0;
+			for(int j = 0; j < 50; j++)
+				for(long k : longKeys)
+					if(unboxedTree.contains(k))
+						found++;
+			System.out.println("CritBitTree contains(long) lookup - " + (System.currentTimeMillis() - start) + ", found - " + found);
+			start = System.currentTimeMillis();
+			long sum = 0;
+			for(Long j : redBlackTree.inOrderTraversal())
+				sum += j;
+			System.out.println("BinaryRedBlackTree in-order - " + (System.currentTimeMillis() - start));
+			start = System.currentTimeMillis();
+			for(Long j : critBitTree)
+				sum -= j;
+			System.out.println("CritBitTree iterator - " + (System.currentTimeMillis() - start) + (sum == 0 ? "" : " mismatch"));
+		}
+	}
+	public static void IntervalTreeTest() {
+		int size = 20000;//BinaryRedBlackTree recalculates its depth on every add, so it cannot take many more
+		IntervalComparator<long[]> ranges = new IntervalComparator<long[]>() {
+			@Override
+			public long start(long[] e) {
+				return e[0];
+			}
+			@Override
+			public long end(long[] e) {
+				return e[1];
+			}
+		};
+		Random random = new Random(0);
+		List<long[]> intervals = new ArrayList<long[]>(size);
+		for(int i = 0; i < size; i++) {//reservations of up to an hour within a day, in seconds
+			long start = random.nextInt(86400);
+			intervals.add(new long[]{start, start + random.nextInt(3600)});
+		}
+		BinaryRedBlackTree<long[]> redBlackTree = new BinaryRedBlackTree<long[]>(ranges);
+		System.out.println("BinaryRedBlackTree insert - " + insert(redBlackTree, intervals));
+		IntervalTree<long[]> intervalTree = new IntervalTree<long[]>(ranges);
+		System.out.println("IntervalTree insert - " + insert(intervalTree, intervals));
+		long[] points = new long[1000];
+		for(int i = 0; i < points.length; i++)
+			points[i] = random.nextInt(86400);
+		for(int i = 0; i < 3; i++) {//the first rounds warm up
+			long start = System.currentTimeMillis();
+			long found = 0;
+			for(long j : points)
+				for(long[] k : redBlackTree.inOrderTraversal())
+					if(k[0] <= j && k[1] >= j)
+						found++;
+			System.out.println("BinaryRedBlackTree scan - " + (System.currentTimeMillis() - start) + ", found - " + found);
+			start = System.currentTimeMillis();
+			found = 0;
+			for(long j : points)
+				for(Iterator<long[]> k = intervalTree.overlapping(j); k.hasNext(); k.next())
+					found++;
+			System.out.println("IntervalTree overlapping - " + (System.currentTimeMillis() - start) + ", found - " + found);
+			start = System.currentTimeMillis();
+			found = 0;
+			for(long j : points)
+				if(intervalTree.overlapping(j, j + 60).hasNext())
+					found++;
+			System.out.println("IntervalTree first overlapping - " + (System.currentTimeMillis() - start) + ", found - " + found);
+		}
+	}
+	private static long usedMemory() {
+		for(int i = 0; i < 4; i++)
+			System.gc();
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+	private static <E> long insert(SortedTree<E> tree, List<E> keys) {
+		long currentTimeMillis = System.currentTimeMillis();
+		for(E i : keys)
+			tree.add(i);
+		return System.currentTimeMillis() - currentTimeMillis;
+	}
+	private static <E> long lookup(SortedTree<E> tree, List<E> keys) {
+		long currentTimeMillis = System.currentTimeMillis();
+		for(int i = 0; i < 50; i++)
+			for(E j : keys)
+				tree.contains(j);
+		return System.currentTimeMillis() - currentTimeMillis;
+	}
+	/**
+	 * @return time to look for every key once, and the number found so that the lookups are not optimized away
+	 */
+	private static <E> String probe(SortedTree<E> tree, List<E> keys) {
+		long currentTimeMillis = System.currentTimeMillis();
+		int found = 0;
+		for(E j : keys)
+			if(tree.contains(j))
+				found++;
+		return (System.currentTimeMillis() - currentTimeMillis) + ", found - " + found;
+	}
 }
@@ -0,0 +1,100 @@
+package com.gaurav.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class SortedChildrenTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		SortedChildrenTree<String> leafIndexed = new SortedChildrenTree<String>();
+		leafIndexed.setLeafIndexed(true);
+		SortedChildrenTree<String> reversed = new SortedChildrenTree<String>(Collections.<String>reverseOrder());
+		reversed.setLeafIndexed(true);
+		return new Object[][]{{0, new SortedChildrenTree<String>()},{1, leafIndexed},{2, reversed}};
+	}
+	private static String[] sorted(SortedChildrenTree<String> tree, String... children) {
+		String[] expected = children.clone();
+		Arrays.sort(expected, tree.comparator());
+		return expected;
+	}
+
+	@Test(dataProvider = "getTree")
+	public void add(int testCaseNumber, SortedChildrenTree<String> tree) throws NodeNotFoundException {
+		tree.add("r");
+		tree.add("r", "c");
+		tree.add("r", "a");
+		tree.add("r", "d");
+		tree.add("r", "b");
+		tree.add("a", "a2");
+		tree.add("a", "a1");
+		Assert.assertEquals(tree.children("r").toArray(), sorted(tree, "a", "b", "c", "d"));
+		Assert.assertEquals(tree.children("a").toArray(), sorted(tree, "a1", "a2"));
+		if(testCaseNumber == 2)
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"d", "c", "b", "a2", "a1"});
+		else
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"a1", "a2", "b", "c", "d"});
+	}
+
+	@Test(dataProvider = "getTree")
+	public void move(int testCaseNumber, SortedChildrenTree<String> tree) throws NodeNotFoundException {
+		tree.add("r");
+		tree.add("r", "a");
+		tree.add("r", "c");
+		tree.add("c", "b");
+		tree.add("c", "d");
+		tree.move("b", "r");
+		Assert.assertEquals(tree.children("r").toArray(), sorted(tree, "a", "b", "c"));
+		Assert.assertEquals(tree.parent("b"), "r");
+		if(testCaseNumber == 2)
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"d", "b", "a"});
+		else
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"a", "b", "d"});
+	}
+
+	@Test(dataProvider = "getTree")
+	public void attach(int testCaseNumber, SortedChildrenTree<String> tree) throws NodeNotFoundException {
+		tree.add("r");
+		tree.add("r", "a");
+		tree.add("r", "c");
+		ArrayListTree<String> other = new ArrayListTree<String>();
+		other.add("b");
+		other.add("b", "b2");
+		other.add("b", "b1");
+		tree.attach("r", other);
+		Assert.assertEquals(tree.children("r").toArray(), sorted(tree, "a", "b", "c"));
+		Assert.assertEquals(tree.children("b").toArray(), sorted(tree, "b1", "b2"));
+		if(testCaseNumber == 2)
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"c", "b2", "b1", "a"});
+		else
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"a", "b1", "b2", "c"});
+	}
+
+	@Test(dataProvider = "getTree")
+	public void read(int testCaseNumber, SortedChildrenTree<String> tree) throws NodeNotFoundException, IOException {
+		ArrayListTree<String> unsorted = new ArrayListTree<String>();
+		unsorted.add("r");
+		unsorted.add("r", "c");
+		unsorted.add("r", "a");
+		unsorted.add("a", "a2");
+		unsorted.add("a", "a1");
+		unsorted.add("r", "b");
+		TreeCodec<String> codec = new TreeCodec<String>(ElementCodecs.STRING);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.write(unsorted, out);
+		codec.read(new ByteArrayInputStream(out.toByteArray()), tree);
+		Assert.assertEquals(tree.size(), unsorted.size());
+		Assert.assertEquals(tree.children("r").toArray(), sorted(tree, "a", "b", "c"));
+		Assert.assertEquals(tree.children("a").toArray(), sorted(tree, "a1", "a2"));
+		if(testCaseNumber == 2)
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"c", "b", "a2", "a1"});
+		else
+			Assert.assertEquals(tree.leaves().toArray(), new String[]{"a1", "a2", "b", "c"});
+	}
+}
@@ -0,0 +1,174 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class SplayTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		SplayTree<String> splayTree = new SplayTree<String>();
+		for(String i : new String[]{"C6","C3","C9","C1","C4","C7","CB","C2","C5","C8","CA","CC"})
+			splayTree.add(i);
+		//every element is splayed to the root when added, so the last one is the root
+		return new Object[][]{{0, new SplayTree<String>()},{1, splayTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, SplayTree<String> tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(true, tree.add("C1.5"));
+	  Assert.assertEquals("C1.5", tree.root());
+	  Assert.assertEquals(false, tree.add("C1.5"));
+	  Assert.assertEquals(initialSize + 1, tree.size());
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.children("C1.5"), Arrays.asList("C1", "CB"));
+		  Assert.assertEquals(true, tree.add("C0.5"));
+		  Assert.assertEquals(tree.children("C0.5"), Arrays.asList("C1"));
+	  }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, SplayTree<String> tree) throws NodeNotFoundException {
+	  tree.add(tree.root(), "New");
+  }
+
+  @Test(dataProvider = "getTree")
+  public void splaying(int testCaseNumber, SplayTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals("CC", tree.root());
+		  Assert.assertEquals(11, tree.depth());
+		  Assert.assertEquals(true, tree.contains("C1"));
+		  Assert.assertEquals("C1", tree.root());
+		  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("C1","CB","C9","C7","C5","C2","C4","C3","C6","C8","CA","CC"));
+		  Assert.assertEquals(8, tree.depth());
+		  Assert.assertEquals("C6", tree.successor("C5"));
+		  Assert.assertEquals("C5", tree.root());
+		  Assert.assertEquals(5, tree.depth());
+		  Assert.assertEquals(true, tree.remove("C5"));
+		  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("C4","C2","C1","C3","C9","C7","C6","C8","CB","CA","CC"));
+		  Assert.assertEquals(4, tree.depth());
+		  tree.setSplaying(false);
+		  Assert.assertEquals(true, tree.contains("CC"));
+		  Assert.assertEquals("CA", tree.predecessor("CB"));
+		  Assert.assertEquals(null, tree.successor("CC"));
+		  Assert.assertEquals("C4", tree.root());
+		  tree.setSplaying(true);
+		  Assert.assertEquals(null, tree.successor("CC"));
+		  Assert.assertEquals("CC", tree.root());
+	  } else {
+		  Assert.assertEquals(false, tree.contains("C1"));
+		  Assert.assertEquals(false, tree.remove("C1"));
+	  }
+	  try {
+		  tree.successor("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, SplayTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  tree.contains("C5");
+		  /*
+		                    C5
+		              ______|______
+		             |             |
+		             C4            CB
+		        _____|         ____|____
+		       |              |         |
+		       C2             C9        CC
+		    ___|___        ___|___
+		   |       |      |       |
+		   C1      C3     C7      CA
+		               ___|___
+		              |       |
+		              C6      C8
+		   */
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C5","C4","CB","C2","C9","CC","C1","C3","C7","CA","C6","C8"));
+		  Assert.assertEquals(tree.children("C4"), Arrays.asList("C2"));
+		  Assert.assertEquals(tree.siblings("C2"), Arrays.asList());
+		  Assert.assertEquals(tree.siblings("C9"), Arrays.asList("CC"));
+		  Assert.assertEquals("C9", tree.parent("CA"));
+		  Assert.assertEquals(null, tree.parent("C5"));
+		  Assert.assertEquals("C9", tree.commonAncestor("C6", "CA"));
+		  Assert.assertEquals("C5", tree.commonAncestor("C1", "C8"));
+		  Assert.assertEquals(true, tree.isAncestor("CB", "C8"));
+		  Assert.assertEquals(false, tree.isAncestor("C8", "CB"));
+		  Assert.assertEquals(true, tree.isDescendant("C4", "C3"));
+		  Assert.assertEquals(5, tree.depth());
+		  Assert.assertEquals(5, tree.level("C8"));
+		  Assert.assertEquals(7, tree.subtreeSize("CB"));
+		  Assert.assertEquals(true, tree.isLeaf("C8"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C1","C3","C6","C8","CA","CC"));
+		  Assert.assertEquals("C5", tree.root());
+	  } else {
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+	  }
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, SplayTree<String> tree) {
+	  @SuppressWarnings("unchecked")
+	  SplayTree<String> clone = (SplayTree<String>) tree.clone();
+	  Assert.assertEquals(true, tree.equals(clone));
+	  Assert.assertEquals(tree.hashCode(), clone.hashCode());
+	  clone.add("CD");
+	  Assert.assertEquals(false, tree.equals(clone));
+	  tree.setSplaying(false);
+	  Assert.assertEquals(false, tree.contains("CD"));
+	  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+  }
+
+  @Test(expectedExceptions = {UnsupportedOperationException.class})
+  public void retainAll() {
+	  new SplayTree<Integer>().retainAll(Arrays.asList(1));
+  }
+
+  @Test
+  public void random() throws NodeNotFoundException {
+	  Random random = new Random(0);
+	  SplayTree<Integer> tree = new SplayTree<Integer>();
+	  TreeSet<Integer> set = new TreeSet<Integer>();
+	  for(int i = 0; i < 20000; i++) {
+		  int key = random.nextInt(1000);
+		  tree.setSplaying(random.nextBoolean());
+		  switch(random.nextInt(4)) {
+		  case 0:
+			  Assert.assertEquals(tree.remove(key), set.remove(key));
+			  break;
+		  case 1:
+			  Assert.assertEquals(tree.contains(key), set.contains(key));
+			  break;
+		  default:
+			  Assert.assertEquals(tree.add(key), set.add(key));
+			  Assert.assertEquals(tree.successor(key), set.higher(key));
+		  }
+	  }
+	  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+	  tree.setSplaying(false);
+	  int depth = 0;
+	  for(Integer i : set) {
+		  Assert.assertEquals(tree.predecessor(i), set.lower(i));
+		  int level = tree.level(i);
+		  Assert.assertEquals(level, tree.parent(i) == null ? 1 : tree.level(tree.parent(i)) + 1);
+		  depth = Math.max(depth, level);
+	  }
+	  Assert.assertEquals(tree.depth(), depth);
+  }
+}
@@ -0,0 +1,203 @@
+package com.gaurav.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class StaticSortedTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		AVLTree<String> avlTree = new AVLTree<String>();
+		BinarySearchTree<String> binarySearchTree = new BinarySearchTree<String>();
+		for(String i : new String[]{"C6","C3","C9","C1","C4","C7","CB","C2","C5","C8","CA","CC"}) {
+			avlTree.add(i);
+			binarySearchTree.add(i);
+		}
+		/*
+								     C8
+							   ______|______
+							  |	            |
+							  C4            CB
+					    ______|__       ____|____
+					   |	     |     |         |
+					  C2        C6     CA        CC
+			       ___|___   ___|___   |
+			      |       | |       |  |
+			      C1      C3 C5     C7 C9
+		 *
+		 * both layouts store the same tree
+		 */
+		return new Object[][]{{0, new StaticSortedTree<String>(new String[0])},{1, new StaticSortedTree<String>(avlTree)},
+				{2, binarySearchTree.toVebLayout()}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber > 0) {
+		  Assert.assertEquals("C8", tree.root());
+		  Assert.assertEquals(tree.children("C4"), Arrays.asList("C2", "C6"));
+		  Assert.assertEquals(tree.children("CA"), Arrays.asList("C9"));
+		  Assert.assertEquals(tree.siblings("CC"), Arrays.asList("CA"));
+		  Assert.assertEquals(tree.siblings("C8"), Arrays.asList());
+		  Assert.assertEquals("CA", tree.parent("C9"));
+		  Assert.assertEquals(null, tree.parent("C8"));
+		  Assert.assertEquals("C4", tree.commonAncestor("C1", "C6"));
+		  Assert.assertEquals(true, tree.isAncestor("CB", "C9"));
+		  Assert.assertEquals(false, tree.isAncestor("C4", "C9"));
+		  Assert.assertEquals(true, tree.isDescendant("C2", "C3"));
+		  Assert.assertEquals("C9", tree.left("CA"));
+		  Assert.assertEquals(null, tree.right("CA"));
+		  Assert.assertEquals(4, tree.depth());
+		  Assert.assertEquals(3, tree.level("CC"));
+		  Assert.assertEquals(7, tree.subtreeSize("C4"));
+		  Assert.assertEquals(true, tree.isLeaf("CC"));
+		  Assert.assertEquals(false, tree.isLeaf("CA"));
+	  } else {
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(null, tree.root());
+		  Assert.assertEquals(false, tree.isLeaf("C1"));
+	  }
+	  try {
+		  tree.children(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 0) {
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.preOrderTraversal().isEmpty());
+		  Assert.assertEquals(true, tree.leaves().isEmpty());
+		  Assert.assertEquals(false, tree.iterator().hasNext());
+	  } else {
+		  List<String> sorted = Arrays.asList("C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC");
+		  Assert.assertEquals(tree.inOrderTraversal(), sorted);
+		  Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("C8","C4","C2","C1","C3","C6","C5","C7","CB","CA","C9","CC"));
+		  Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C8","C4","CB","C2","C6","CA","CC","C1","C3","C5","C7","C9"));
+		  Assert.assertEquals(tree.leaves(), Arrays.asList("C1","C3","C5","C7","C9","CC"));
+		  Assert.assertEquals(tree.inOrderTraversal("CB"), Arrays.asList("C9","CA","CB","CC"));
+		  Assert.assertEquals(tree.toArray(new String[0]), sorted.toArray(new String[0]));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void search(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber > 0) {
+		  Assert.assertEquals(true, tree.contains("C7"));
+		  Assert.assertEquals(false, tree.contains("C7.5"));
+		  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+		  Assert.assertEquals("C8", tree.successor("C7"));
+		  Assert.assertEquals(null, tree.successor("CC"));
+		  Assert.assertEquals("C7", tree.predecessor("C8"));
+		  Assert.assertEquals(null, tree.predecessor("C1"));
+		  Assert.assertEquals("C8", tree.ceiling("C7.5"));
+		  Assert.assertEquals("C8", tree.ceiling("C8"));
+		  Assert.assertEquals("C1", tree.ceiling("C0"));
+		  Assert.assertEquals(null, tree.ceiling("CD"));
+		  Assert.assertEquals("C7", tree.floor("C7.5"));
+		  Assert.assertEquals("C8", tree.floor("C8"));
+		  Assert.assertEquals("CC", tree.floor("CD"));
+		  Assert.assertEquals(null, tree.floor("C0"));
+	  } else {
+		  Assert.assertEquals(false, tree.contains("C1"));
+		  Assert.assertEquals(null, tree.ceiling("C1"));
+		  Assert.assertEquals(null, tree.floor("C1"));
+	  }
+	  try {
+		  tree.successor("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void add(int testCaseNumber, StaticSortedTree<String> tree) {
+	  tree.add("C1");
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void remove(int testCaseNumber, StaticSortedTree<String> tree) {
+	  tree.remove("C1");
+  }
+
+  @Test(expectedExceptions = {IllegalArgumentException.class})
+  public void unsorted() {
+	  new StaticSortedTree<String>(new String[]{"C1", "C3", "C2"});
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, StaticSortedTree<String> tree) {
+	  StaticSortedTree<String> copy = new StaticSortedTree<String>(tree.toArray(new String[0]));
+	  Assert.assertEquals(true, tree.equals(copy));
+	  Assert.assertEquals(tree.hashCode(), copy.hashCode());
+	  Assert.assertEquals(false, tree.equals(new StaticSortedTree<String>(new String[]{"CD"})));
+  }
+
+  @Test
+  public void vanEmdeBoas() throws NodeNotFoundException {
+	  BinarySearchTree<Integer> chain = new BinarySearchTree<Integer>();
+	  for(int i = 0; i < 1000; i++)
+		  chain.add(i);
+	  StaticSortedTree<Integer> tree = chain.toVebLayout();
+	  Assert.assertEquals(StaticSortedTree.Layout.VAN_EMDE_BOAS, tree.layout());
+	  Assert.assertEquals(10, tree.depth());
+	  Assert.assertEquals(tree.inOrderTraversal(), chain.inOrderTraversal());
+	  StaticSortedTree<Integer> eytzinger = new StaticSortedTree<Integer>(chain);
+	  Assert.assertEquals(tree, eytzinger);
+	  Assert.assertEquals(tree.levelOrderTraversal(), eytzinger.levelOrderTraversal());
+	  for(int i = 0; i < 1000; i++) {
+		  Assert.assertEquals(tree.left(i), eytzinger.left(i));
+		  Assert.assertEquals(tree.right(i), eytzinger.right(i));
+		  Assert.assertEquals(tree.successor(i), i == 999 ? null : Integer.valueOf(i + 1));
+		  Assert.assertEquals(tree.predecessor(i), i == 0 ? null : Integer.valueOf(i - 1));
+	  }
+	  Assert.assertEquals(false, tree.contains(1000));
+	  Assert.assertEquals(0, new BinarySearchTree<Integer>().toVebLayout().size());
+  }
+
+  @Test
+  public void random() throws NodeNotFoundException {
+	  Random random = new Random(0);
+	  TreeSet<Integer> set = new TreeSet<Integer>();
+	  while(set.size() < 1000)
+		  set.add(random.nextInt(3000));
+	  IntKeyComparator<Integer> identity = new IntKeyComparator<Integer>() {
+		  @Override
+		  public int key(Integer e) {
+			  return e;
+		  }
+	  };
+	  for(StaticSortedTree<Integer> tree : Arrays.asList(new StaticSortedTree<Integer>(set.toArray(new Integer[0])),
+			  new StaticSortedTree<Integer>(set.toArray(new Integer[0]), identity),
+			  new StaticSortedTree<Integer>(set.toArray(new Integer[0]), identity, StaticSortedTree.Layout.VAN_EMDE_BOAS))) {
+		  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+		  for(int i = -1; i <= 3000; i++) {
+			  Assert.assertEquals(tree.contains(i), set.contains(i));
+			  Assert.assertEquals(tree.ceiling(i), set.ceiling(i));
+			  Assert.assertEquals(tree.floor(i), set.floor(i));
+		  }
+		  for(Integer i : set) {
+			  Assert.assertEquals(tree.successor(i), set.higher(i));
+			  Assert.assertEquals(tree.predecessor(i), set.lower(i));
+			  Assert.assertEquals(tree.subtreeSize(i), tree.preOrderTraversal(i).size());
+		  }
+		  Assert.assertEquals(10, tree.depth());
+	  }
+  }
+}
@@ -0,0 +1,179 @@
+package com.gaurav.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TreeCodecTest {
+	private final TreeCodec<String> codec = new TreeCodec<String>(ElementCodecs.STRING);
+
+	@DataProvider
+	public Object[][] getTree() {
+		try {
+			ArrayListTree<String> arrayListTree = new ArrayListTree<String>();
+			populate(arrayListTree);
+			LinkedTree<String> linkedTree = new LinkedTree<String>();
+			populate(linkedTree);
+			return new Object[][]{{0, new ArrayListTree<String>()},{1, arrayListTree},{2, linkedTree}};
+		} catch(NodeNotFoundException e) {
+			throw new RuntimeException();
+		}
+	  }
+	private static void populate(Tree<String> tree) throws NodeNotFoundException {
+		tree.add("Root1");
+		tree.add("Root1", "C1");
+		tree.add("Root1", "C2");
+		tree.add("C1", "C1-1");
+		tree.add("C1", "C1-2");
+		tree.add("C1", "C1-3");
+		tree.add("C2", "C2-1");
+		tree.add("C2", "C2-2");
+		tree.add("C1-1", "C1-1-1");
+		tree.add("C1-1", "C1-1-2");
+		tree.add("C1-2", "C1-2-1");
+		tree.add("C2-1", "C2-1-1");
+		tree.add("C2-1", "C2-1-2");
+	}
+	private byte[] write(Tree<String> tree) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.write(tree, out);
+		return out.toByteArray();
+	}
+
+  @Test(dataProvider = "getTree")
+  public void readWrite(int testCaseNumber, Tree<String> tree) throws IOException {
+	  byte[] bytes = write(tree);
+	  ArrayListTree<String> arrayListTree = codec.read(new ByteArrayInputStream(bytes), new ArrayListTree<String>());
+	  MapIndexedArrayListTree<String> mapIndexedTree = codec.read(new ByteArrayInputStream(bytes), new MapIndexedArrayListTree<String>());
+	  LinkedTree<String> linkedTree = codec.read(new ByteArrayInputStream(bytes), new LinkedTree<String>());
+	  OffHeapTree<String> offHeapTree = codec.read(new ByteArrayInputStream(bytes), new OffHeapTree<String>(ElementCodecs.STRING));
+	  for(Tree<String> i : Arrays.<Tree<String>>asList(arrayListTree, mapIndexedTree, linkedTree, offHeapTree)) {
+		  Assert.assertEquals(i.size(), tree.size());
+		  Assert.assertEquals(i.depth(), tree.depth());
+		  Assert.assertEquals(i.preOrderTraversal(), tree.preOrderTraversal());
+		  Assert.assertEquals(i.levelOrderTraversal(), tree.levelOrderTraversal());
+	  }
+	  Assert.assertEquals(write(offHeapTree), bytes);
+	  offHeapTree.close();
+	  if(testCaseNumber > 0)
+		  Assert.assertEquals(true, mapIndexedTree.contains("C2-1-2"));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void channel(int testCaseNumber, Tree<String> tree) throws IOException {
+	  ByteArrayOutputStream out = new ByteArrayOutputStream();
+	  codec.write(tree, Channels.newChannel(out));
+	  LinkedTree<String> linkedTree = codec.read(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), new LinkedTree<String>());
+	  Assert.assertEquals(linkedTree.inOrderTraversal(), tree.inOrderTraversal());
+  }
+
+  @Test
+  public void arrayTree() throws IOException, NodeNotFoundException {
+	  ArrayTree<String> tree = new ArrayTree<String>(3);
+	  tree.add(null, "Root");
+	  tree.add("Root", "Right", 2);
+	  tree.add("Right", "Middle", 1);
+	  ByteArrayOutputStream out = new ByteArrayOutputStream();
+	  codec.write(tree, out);
+	  ArrayTree<String> read = codec.read(new ByteArrayInputStream(out.toByteArray()), new ArrayTree<String>(3));
+	  Assert.assertEquals(null, read.child("Root", 0));
+	  Assert.assertEquals("Right", read.child("Root", 2));
+	  Assert.assertEquals("Middle", read.child("Right", 1));
+	  Assert.assertEquals(true, read.equals(tree));
+	  ArrayListTree<String> arrayListTree = codec.read(new ByteArrayInputStream(out.toByteArray()), new ArrayListTree<String>());
+	  Assert.assertEquals(arrayListTree.children("Root"), Arrays.asList("Right"));
+  }
+
+  @Test
+  public void binarySearchTree() throws IOException {
+	  TreeCodec<Integer> integerCodec = new TreeCodec<Integer>(ElementCodecs.INTEGER);
+	  BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>();
+	  for(int i : new int[]{50, 20, 70, 10, 30, 60, 80, 25, 35})
+		  tree.add(i);
+	  ByteArrayOutputStream out = new ByteArrayOutputStream();
+	  integerCodec.write(tree, out);
+	  BinarySearchTree<Integer> read = integerCodec.read(new ByteArrayInputStream(out.toByteArray()), new BinarySearchTree<Integer>());
+	  Assert.assertEquals(read.preOrderTraversal(), tree.preOrderTraversal());
+	  Assert.assertEquals(true, read.equals(tree));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void loaded(int testCaseNumber, Tree<String> tree) throws IOException, NodeNotFoundException {
+	  byte[] bytes = write(tree);
+	  ArrayListTree<String> arrayListTree = new ArrayListTree<String>();
+	  arrayListTree.setLeafIndexed(true);
+	  LinkedTree<String> linkedTree = new LinkedTree<String>();
+	  linkedTree.setLeafIndexed(true);
+	  for(Tree<String> i : Arrays.<Tree<String>>asList(arrayListTree, linkedTree)) {
+		  codec.read(new ByteArrayInputStream(bytes), i);
+		  Assert.assertEquals(i.leaves(), tree.leaves());
+		  Assert.assertEquals(i.preOrderTraversal(), tree.preOrderTraversal());
+		  if(testCaseNumber > 0) {
+			  Assert.assertEquals(i.subtreeSize("C1"), 7);
+			  Assert.assertEquals(i.subtreeSize("Root1"), 13);
+			  Assert.assertEquals(i.level("C2-1-2"), 4);
+		  }
+	  }
+	  ArrayListTree<String> added = new ArrayListTree<String>();
+	  if(testCaseNumber > 0)
+		  populate(added);
+	  Assert.assertEquals(arrayListTree.hashCode(), added.hashCode());
+	  if(testCaseNumber > 0)
+		  try {
+			  codec.read(new ByteArrayInputStream(bytes), new KAryTree<String>(2));
+			  Assert.assertEquals(false, true);
+		  } catch (IndexOutOfBoundsException e) {
+			  //passed
+		  }
+  }
+
+  @Test
+  public void truncated() throws IOException, NodeNotFoundException {
+	  ArrayListTree<String> tree = new ArrayListTree<String>();
+	  populate(tree);
+	  byte[] bytes = write(tree);
+	  LinkedTree<String> linkedTree = new LinkedTree<String>();
+	  try {
+		  codec.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)), linkedTree);
+		  Assert.assertEquals(false, true);
+	  } catch (IOException e) {
+		  //passed
+	  }
+	  Assert.assertEquals(true, linkedTree.isEmpty());
+	  Assert.assertEquals(null, linkedTree.root());
+  }
+
+  @Test
+  public void truncatedSorted() throws IOException {
+	  BinarySearchTree<String> tree = new BinarySearchTree<String>();
+	  tree.addAll(Arrays.asList("d", "b", "f", "a", "c", "e", "g"));
+	  byte[] bytes = write(tree);
+	  BinarySearchTree<String> read = new BinarySearchTree<String>();
+	  try {
+		  codec.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)), read);
+		  Assert.assertEquals(false, true);
+	  } catch (IOException e) {
+		  //passed
+	  }
+	  Assert.assertEquals(true, read.isEmpty());
+	  Assert.assertEquals(null, read.root());
+  }
+
+  @Test(expectedExceptions = {IOException.class})
+  public void corrupt() throws IOException {
+	  codec.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7}), new ArrayListTree<String>());
+  }
+
+  @Test(expectedExceptions = {IllegalArgumentException.class})
+  public void notEmpty() throws IOException, NodeNotFoundException {
+	  ArrayListTree<String> tree = new ArrayListTree<String>();
+	  populate(tree);
+	  codec.read(new ByteArrayInputStream(write(tree)), tree);
+  }
+}
@@ -0,0 +1,181 @@
+package com.gaurav.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TreeDiffTest {
+	@DataProvider
+	public Object[][] getTree() {
+		try {
+			MapIndexedArrayListTree<String> mapIndexedTree = new MapIndexedArrayListTree<String>();
+			populate(mapIndexedTree);
+			LinkedTree<String> linkedTree = new LinkedTree<String>();
+			populate(linkedTree);
+			return new Object[][]{{0, new MapIndexedArrayListTree<String>()},{1, mapIndexedTree},{2, linkedTree}};
+		} catch(NodeNotFoundException e) {
+			throw new RuntimeException();
+		}
+	  }
+	private static void populate(Tree<String> tree) throws NodeNotFoundException {
+		tree.add("Root1");
+		tree.add("Root1", "C1");
+		tree.add("Root1", "C2");
+		tree.add("C1", "C1-1");
+		tree.add("C1", "C1-2");
+		tree.add("C1", "C1-3");
+		tree.add("C2", "C2-1");
+		tree.add("C2", "C2-2");
+		tree.add("C1-1", "C1-1-1");
+		tree.add("C1-1", "C1-1-2");
+		tree.add("C1-2", "C1-2-1");
+		tree.add("C2-1", "C2-1-1");
+		tree.add("C2-1", "C2-1-2");
+	}
+	@SuppressWarnings("unchecked")
+	private static <E> Tree<E> copy(Tree<E> tree) {
+		if(tree instanceof LinkedTree)
+			return (Tree<E>) ((LinkedTree<E>) tree).clone();
+		else
+			return (Tree<E>) ((MapIndexedArrayListTree<E>) tree).clone();
+	}
+	private static <E> void assertSame(Tree<E> actual, Tree<E> expected) throws NodeNotFoundException {
+		Assert.assertEquals(actual.preOrderTraversal(), expected.preOrderTraversal());
+		for(E i : expected.preOrderTraversal())
+			Assert.assertEquals(actual.parent(i), expected.parent(i));
+	}
+
+	@Test(dataProvider = "getTree")
+	public void unchanged(int testCaseNumber, Tree<String> tree) throws NodeNotFoundException {
+		TreeDiff<String> diff = TreeDiff.compute(tree, copy(tree));
+		Assert.assertEquals(true, diff.isEmpty());
+	}
+
+	@Test(dataProvider = "getTree")
+	public void computeAndPatch(int testCaseNumber, Tree<String> tree) throws NodeNotFoundException {
+		if(testCaseNumber == 0)
+			return;
+		Tree<String> newTree = copy(tree);
+		newTree.add("C1-2", "New");
+		newTree.remove("C2-1");
+		newTree.add("C1-3", new String("C2-1-2"));
+		newTree.add(new String("C1"));
+		TreeDiff<String> diff = TreeDiff.compute(tree, newTree);
+		Assert.assertEquals(diff.edits().toString()
+				, "[REPLACE(C1), INSERT(New, C1-2), MOVE(C2-1-2, C1-3), REPLACE(C2-1-2), DELETE(C2-1)]");
+		TreeDiff.patch(tree, diff);
+		assertSame(tree, newTree);
+		Assert.assertEquals(true, TreeDiff.compute(tree, newTree).isEmpty());
+	}
+
+	@Test(dataProvider = "getTree")
+	public void moves(int testCaseNumber, Tree<String> tree) throws NodeNotFoundException {
+		if(testCaseNumber == 0)
+			return;
+		Tree<String> newTree = copy(tree);
+		newTree.remove("C1-1");
+		newTree.add("C2", "C1-1");
+		newTree.add("C1-1", "C1-1-1");
+		newTree.add("C1-1", "C1-1-2");
+		newTree.remove("C1-2");
+		newTree.add("C1", "C1-2");
+		newTree.add("C1-2", "C1-2-1");
+		TreeDiff<String> diff = TreeDiff.compute(tree, newTree);
+		Assert.assertEquals(diff.edits().toString(), "[MOVE(C1-2, C1), MOVE(C1-1, C2)]");
+		TreeDiff.patch(tree, diff);
+		assertSame(tree, newTree);
+	}
+
+	@Test(dataProvider = "getTree")
+	public void rootChanged(int testCaseNumber, Tree<String> tree) throws NodeNotFoundException {
+		Tree<String> newTree = new LinkedTree<String>();
+		newTree.add("Root2");
+		newTree.add("Root2", "C1");
+		TreeDiff.patch(tree, TreeDiff.compute(tree, newTree));
+		assertSame(tree, newTree);
+		TreeDiff.patch(tree, TreeDiff.compute(tree, new LinkedTree<String>()));
+		Assert.assertEquals(true, tree.isEmpty());
+	}
+
+	@Test(dataProvider = "getTree")
+	public void serialization(int testCaseNumber, Tree<String> tree) throws NodeNotFoundException, IOException {
+		Tree<String> newTree = copy(tree);
+		if(testCaseNumber == 0)
+			newTree.add("Root1");
+		else {
+			newTree.remove("C1");
+			newTree.add("C2-2", "New");
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TreeDiff.compute(tree, newTree).writeTo(out, ElementCodecs.STRING);
+		TreeDiff<String> diff = TreeDiff.readFrom(new ByteArrayInputStream(out.toByteArray()), ElementCodecs.STRING);
+		Assert.assertEquals(diff.toString(), TreeDiff.compute(tree, newTree).toString());
+		TreeDiff.patch(tree, diff);
+		assertSame(tree, newTree);
+	}
+
+	@Test(expectedExceptions = {NodeNotFoundException.class})
+	public void patchMismatch() throws NodeNotFoundException {
+		Tree<String> oldTree = new LinkedTree<String>();
+		oldTree.add("Root1");
+		oldTree.add("Root1", "C1");
+		Tree<String> newTree = new LinkedTree<String>();
+		newTree.add("Root1");
+		TreeDiff<String> diff = TreeDiff.compute(oldTree, newTree);
+		oldTree.remove("C1");
+		TreeDiff.patch(oldTree, diff);
+	}
+
+	@Test
+	public void randomChanges() throws NodeNotFoundException {
+		Random random = new Random(7);
+		for(int round = 0; round < 50; round++) {
+			MapIndexedArrayListTree<Integer> oldTree = new MapIndexedArrayListTree<Integer>();
+			oldTree.add(0);
+			for(int i = 1; i < 200; i++)
+				oldTree.add(random.nextInt(i), i);
+			MapIndexedArrayListTree<Integer> newTree = (MapIndexedArrayListTree<Integer>) oldTree.clone();
+			int next = 200;
+			for(int i = 0; i < 20; i++) {
+				List<Integer> nodes = new ArrayList<Integer>(newTree.preOrderTraversal());
+				Integer node = nodes.get(random.nextInt(nodes.size()));
+				switch(random.nextInt(3)) {
+				case 0:
+					newTree.add(node, next++);
+					break;
+				case 1:
+					if(node != 0)
+						newTree.remove(node);
+					break;
+				case 2:
+					Integer parent = nodes.get(random.nextInt(nodes.size()));
+					if(node != 0 && !newTree.isAncestor(node, parent) && !node.equals(parent))
+						moveSubtree(newTree, node, parent);
+					break;
+				}
+			}
+			TreeDiff<Integer> diff = TreeDiff.compute(oldTree, newTree);
+			TreeDiff.patch(oldTree, diff);
+			assertSame(oldTree, newTree);
+			Assert.assertEquals(oldTree, newTree);
+		}
+	}
+	private static <E> void moveSubtree(Tree<E> tree, E node, E parent) throws NodeNotFoundException {
+		List<E> nodes = new ArrayList<E>(tree.levelOrderTraversal());
+		List<E> parents = new ArrayList<E>();
+		for(E i : nodes)
+			parents.add(tree.parent(i));
+		tree.remove(node);
+		tree.add(parent, node);
+		for(int i = 0; i < nodes.size(); i++)
+			if(!tree.contains(nodes.get(i)) && tree.contains(parents.get(i)))
+				tree.add(parents.get(i), nodes.get(i));
+	}
+}